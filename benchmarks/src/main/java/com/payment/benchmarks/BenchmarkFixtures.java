@@ -0,0 +1,131 @@
+package com.payment.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.service.entity.Customer;
+import com.payment.service.entity.Money;
+import com.payment.service.entity.Payment;
+import com.payment.service.entity.PaymentStatus;
+import com.payment.service.entity.Refund;
+import com.payment.service.entity.RefundStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shared test data and lightweight stand-ins for Spring collaborators
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * ObjectMapper configured the same way Spring Boot configures the application one
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    }
+
+    static Customer customer() {
+        return Customer.builder()
+            .id(UUID.randomUUID())
+            .email("customer@example.com")
+            .name("Jane Doe")
+            .phone("+15550100")
+            .createdAt(Instant.now())
+            .build();
+    }
+
+    static Map<String, Object> metadata() {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("order_id", "ord_123456");
+        metadata.put("auto_capture_requested", Boolean.TRUE);
+        metadata.put("stripe_payment_method_id", "pm_card_visa");
+        metadata.put("stripe_customer_email", "customer@example.com");
+        metadata.put("stripe_customer_address_country", "US");
+        return metadata;
+    }
+
+    static Payment payment(PaymentStatus status, UUID customerId) {
+        Instant now = Instant.now();
+        return Payment.builder()
+            .id(UUID.randomUUID())
+            .merchantId(UUID.randomUUID())
+            .customerId(customerId)
+            .idempotencyKey(UUID.randomUUID().toString())
+            .amount(Money.of(new BigDecimal("125.50"), "USD"))
+            .status(status)
+            .processor("stripe")
+            .processorPaymentId("pi_3Nbench000000")
+            .fraudScore(new BigDecimal("12.50"))
+            .metadata(metadata())
+            .version(1)
+            .createdAt(now)
+            .authorizedAt(now)
+            .capturedAt(status == PaymentStatus.CAPTURED || status == PaymentStatus.PARTIALLY_REFUNDED ? now : null)
+            .build();
+    }
+
+    /**
+     * Captured payment with a mix of succeeded and failed partial refunds
+     */
+    static Payment partiallyRefundedPayment(int refundCount) {
+        Payment payment = payment(PaymentStatus.PARTIALLY_REFUNDED, null);
+        for (int i = 0; i < refundCount; i++) {
+            Refund refund = Refund.builder()
+                .id(UUID.randomUUID())
+                .payment(payment)
+                .amount(Money.of(new BigDecimal("1.25"), "USD"))
+                .status(i % 4 == 3 ? RefundStatus.FAILED : RefundStatus.SUCCEEDED)
+                .createdAt(Instant.now())
+                .build();
+            payment.getRefunds().add(refund);
+        }
+        return payment;
+    }
+
+    /**
+     * Fraud assessment request shaped like the one payment-service sends
+     */
+    static FraudAssessmentRequest fraudRequest() {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("email", "customer@example.com");
+        metadata.put("country", "US");
+        return FraudAssessmentRequest.builder()
+            .paymentId(UUID.randomUUID())
+            .merchantId(UUID.randomUUID())
+            .customerId(UUID.randomUUID())
+            .amount(12550L)
+            .currency("USD")
+            .paymentMethodId(UUID.randomUUID())
+            .ipAddress("203.0.113.10")
+            .deviceId("device-123")
+            .userAgent("Mozilla/5.0 (Macintosh; Intel Mac OS X 14_0) AppleWebKit/605.1.15")
+            .metadata(metadata)
+            .build();
+    }
+
+    /**
+     * Interface stub backed by a handler; Object methods are answered locally
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, InvocationHandler handler) {
+        InvocationHandler withObjectMethods = (proxy, method, args) -> switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> type.getSimpleName() + "Stub";
+            default -> handler.invoke(proxy, method, args);
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, withObjectMethods);
+    }
+}
@@ -0,0 +1,83 @@
+package com.payment.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.service.entity.Payment;
+import com.payment.service.entity.PaymentStatus;
+import com.payment.service.event.PaymentEvent;
+import com.payment.service.repository.OutboxMessageRepository;
+import com.payment.service.service.EventPublisher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PaymentEvent JSON (de)serialization as done by EventPublisher (outbox insert)
+ * and OutboxDispatcherService (outbox read before the Kafka send)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventPublisherBenchmark {
+
+    private ObjectMapper objectMapper;
+    private EventPublisher eventPublisher;
+    private Payment payment;
+    private PaymentEvent event;
+    private String eventJson;
+    private Blackhole savedMessages;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws JsonProcessingException {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        savedMessages = blackhole;
+
+        OutboxMessageRepository outboxMessageRepository = BenchmarkFixtures.stub(OutboxMessageRepository.class,
+            (proxy, method, args) -> {
+                if ("save".equals(method.getName())) {
+                    savedMessages.consume(args[0]);
+                    return args[0];
+                }
+                return null;
+            });
+        eventPublisher = new EventPublisher(outboxMessageRepository, objectMapper);
+
+        payment = BenchmarkFixtures.payment(PaymentStatus.CAPTURED, UUID.randomUUID());
+        event = PaymentEvent.builder()
+            .eventId(UUID.randomUUID().toString())
+            .eventType("PAYMENT_CAPTURED")
+            .paymentId(payment.getId())
+            .merchantId(payment.getMerchantId())
+            .customerId(payment.getCustomerId())
+            .amount(payment.getAmount().getAmountInCents())
+            .currency(payment.getAmount().getCurrency())
+            .status(payment.getStatus().name())
+            .previousStatus("AUTHORIZED")
+            .fraudScore(payment.getFraudScore())
+            .metadata(payment.getMetadata())
+            .timestamp(Instant.now())
+            .build();
+        eventJson = objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public String serializeEvent() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public PaymentEvent deserializeEvent() throws JsonProcessingException {
+        return objectMapper.readValue(eventJson, PaymentEvent.class);
+    }
+
+    @Benchmark
+    public void publishPaymentEvent() {
+        eventPublisher.publishPaymentEvent("PAYMENT_CAPTURED", payment, "AUTHORIZED");
+    }
+}
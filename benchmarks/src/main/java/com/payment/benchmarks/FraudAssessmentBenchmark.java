@@ -0,0 +1,222 @@
+package com.payment.benchmarks;
+
+import com.payment.fraud.blocklist.BlocklistIndex;
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+import com.payment.fraud.entity.FraudRule;
+import com.payment.fraud.entity.FraudScore;
+import com.payment.fraud.entity.RiskLevel;
+import com.payment.fraud.features.EntityFeatures;
+import com.payment.fraud.features.FeatureStore;
+import com.payment.fraud.ml.ChampionChallengerScorer;
+import com.payment.fraud.ml.FeatureExtractor;
+import com.payment.fraud.ml.FraudMLModel;
+import com.payment.fraud.ml.OnnxFraudModel;
+import com.payment.fraud.repository.BlocklistRepository;
+import com.payment.fraud.repository.FraudRuleRepository;
+import com.payment.fraud.rules.RulePlanner;
+import com.payment.fraud.service.BlocklistService;
+import com.payment.fraud.service.DecisionCache;
+import com.payment.fraud.service.FraudAssessmentService;
+import com.payment.fraud.service.FraudCheckExecutor;
+import com.payment.fraud.service.FraudScoreWriter;
+import com.payment.fraud.service.RuleEngineService;
+import com.payment.fraud.service.VelocityCheckService;
+import com.payment.fraud.velocity.DistinctCounts;
+import com.payment.fraud.velocity.DistinctVelocityStore;
+import com.payment.fraud.velocity.VelocityDimension;
+import com.payment.fraud.velocity.VelocityStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full FraudAssessmentService.assess with repositories and Redis-backed stores replaced by
+ * in-memory stand-ins, so the numbers cover the fan-out, rules, ML and score combination
+ * but no I/O. Compare its gc.alloc.rate.norm across commits to see allocation changes in
+ * the assessment path.
+ *
+ * legacyCombineScores reproduces the previous BigDecimal score combination (weighted sum,
+ * risk level and decision) as the baseline for combineScores, its integer replacement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FraudAssessmentBenchmark {
+
+    private FraudAssessmentService fraudAssessmentService;
+    private ExecutorService assessmentExecutor;
+    private ExecutorService shadowExecutor;
+    private FraudAssessmentRequest request;
+
+    private int velocityScore;
+    private int ruleScore;
+    private double mlScore;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        assessmentExecutor = Executors.newFixedThreadPool(4);
+        shadowExecutor = Executors.newSingleThreadExecutor();
+
+        FraudScoreWriter fraudScoreWriter = new FraudScoreWriter(null, null, null, false, 1, Duration.ofSeconds(1),
+                1, 1, Duration.ZERO, meterRegistry) {
+            @Override
+            public void write(FraudScore score) {
+            }
+        };
+
+        Map<VelocityDimension, Long> counts = new EnumMap<>(VelocityDimension.class);
+        counts.put(VelocityDimension.CARD, 2L);
+        counts.put(VelocityDimension.CUSTOMER, 4L);
+        counts.put(VelocityDimension.IP, 12L);
+        VelocityStore velocityStore = new VelocityStore(null, "bench:", 1000, Duration.ofMillis(50), 1000) {
+            @Override
+            public List<Map<VelocityDimension, Long>> recordAll(List<String> attemptIds,
+                                                                List<Map<VelocityDimension, String>> keys) {
+                return Collections.nCopies(attemptIds.size(), counts);
+            }
+        };
+        VelocityCheckService velocityCheckService = new VelocityCheckService(velocityStore);
+
+        // Seeded rules (V2, V4)
+        List<FraudRule> rules = List.of(
+            rule("High Amount Transaction", "AMOUNT",
+                Map.of("threshold", 100000, "currency", "USD"), "SCORE", 30, 100),
+            rule("Very High Amount Transaction", "AMOUNT",
+                Map.of("threshold", 500000, "currency", "USD"), "REVIEW", 50, 150),
+            rule("Many Cards From One Device", "VELOCITY",
+                Map.of("minDistinctCardsPerDevice", 5), "REVIEW", 40, 120));
+        RuleEngineService ruleEngineService = new RuleEngineService(
+            BenchmarkFixtures.stub(FraudRuleRepository.class, (proxy, method, args) ->
+                "findActiveRulesByPriority".equals(method.getName()) ? rules : null),
+            new RulePlanner(meterRegistry, 16, 100));
+        ruleEngineService.reload();
+
+        BlocklistRepository blocklistRepository = BenchmarkFixtures.stub(BlocklistRepository.class,
+            (proxy, method, args) -> method.getReturnType() == Optional.class ? Optional.empty() : List.of());
+        BlocklistIndex blocklistIndex = new BlocklistIndex(blocklistRepository, meterRegistry, 10000, 0.001);
+        blocklistIndex.rebuild();
+        BlocklistService blocklistService = new BlocklistService(blocklistRepository, blocklistIndex, event -> {
+        });
+
+        OnnxFraudModel noOnnx = new OnnxFraudModel("disabled", false, Path.of("none.onnx"), null, 1,
+            Duration.ofMillis(250), 32, Duration.ofMillis(2), 16, meterRegistry);
+        ChampionChallengerScorer scorer = new ChampionChallengerScorer(noOnnx, noOnnx, new FraudMLModel(),
+            shadowExecutor, "none", "shadow", 100, meterRegistry);
+
+        FeatureStore featureStore = new FeatureStore(null, "bench:", Duration.ofDays(1), Duration.ofDays(1), 0.1,
+                Duration.ofMillis(50), Duration.ofSeconds(5), 1000, meterRegistry) {
+            @Override
+            public CompletableFuture<List<EntityFeatures>> lookupAllAsync(List<FraudAssessmentRequest> requests) {
+                return CompletableFuture.completedFuture(Collections.nCopies(requests.size(), EntityFeatures.EMPTY));
+            }
+        };
+        DistinctVelocityStore distinctVelocityStore = new DistinctVelocityStore(null, "bench:", Duration.ofMillis(50),
+                meterRegistry) {
+            @Override
+            public CompletableFuture<List<DistinctCounts>> recordAllAsync(List<FraudAssessmentRequest> requests) {
+                return CompletableFuture.completedFuture(Collections.nCopies(requests.size(), DistinctCounts.EMPTY));
+            }
+        };
+        DecisionCache decisionCache = new DecisionCache(null, null, false, Duration.ofMinutes(10), true, "bench:",
+            Duration.ofMillis(20), Duration.ofSeconds(60), 1000, Duration.ofSeconds(5), Duration.ofSeconds(1), meterRegistry);
+
+        fraudAssessmentService = new FraudAssessmentService(fraudScoreWriter, velocityCheckService, ruleEngineService,
+            blocklistService, new FraudCheckExecutor(assessmentExecutor, meterRegistry), new FeatureExtractor(),
+            scorer, featureStore, distinctVelocityStore, decisionCache);
+        setField(fraudAssessmentService, "velocityTimeout", Duration.ofMillis(200));
+        setField(fraudAssessmentService, "rulesTimeout", Duration.ofMillis(100));
+        setField(fraudAssessmentService, "mlTimeout", Duration.ofMillis(300));
+
+        request = BenchmarkFixtures.fraudRequest();
+        velocityScore = 15;
+        ruleScore = 30;
+        mlScore = 6.4912;
+    }
+
+    @TearDown
+    public void tearDown() {
+        assessmentExecutor.shutdownNow();
+        shadowExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public FraudAssessmentResponse assess() {
+        return fraudAssessmentService.assess(request);
+    }
+
+    @Benchmark
+    public String combineScores() {
+        long mlCents = Math.round(mlScore * 100);
+        long weighted = Math.min(300L * velocityScore + 400L * ruleScore + 3L * mlCents, 100_000L);
+        RiskLevel riskLevel = weighted >= 75_000 ? RiskLevel.CRITICAL
+            : weighted >= 60_000 ? RiskLevel.HIGH
+            : weighted >= 40_000 ? RiskLevel.MEDIUM
+            : weighted >= 20_000 ? RiskLevel.LOW
+            : RiskLevel.VERY_LOW;
+        String decision = weighted >= 75_000 ? "BLOCK" : weighted >= 50_000 ? "REVIEW" : "ALLOW";
+        return riskLevel == RiskLevel.CRITICAL ? decision : riskLevel.name();
+    }
+
+    @Benchmark
+    public String legacyCombineScores() {
+        BigDecimal velocity = BigDecimal.valueOf(velocityScore);
+        BigDecimal rule = BigDecimal.valueOf(ruleScore);
+        BigDecimal ml = BigDecimal.valueOf(mlScore).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal weighted = velocity.multiply(BigDecimal.valueOf(0.30))
+            .add(rule.multiply(BigDecimal.valueOf(0.40)))
+            .add(ml.multiply(BigDecimal.valueOf(0.30)))
+            .min(BigDecimal.valueOf(100));
+        RiskLevel riskLevel = weighted.compareTo(BigDecimal.valueOf(75)) >= 0 ? RiskLevel.CRITICAL
+            : weighted.compareTo(BigDecimal.valueOf(60)) >= 0 ? RiskLevel.HIGH
+            : weighted.compareTo(BigDecimal.valueOf(40)) >= 0 ? RiskLevel.MEDIUM
+            : weighted.compareTo(BigDecimal.valueOf(20)) >= 0 ? RiskLevel.LOW
+            : RiskLevel.VERY_LOW;
+        String decision = weighted.compareTo(BigDecimal.valueOf(75)) >= 0 ? "BLOCK"
+            : weighted.compareTo(BigDecimal.valueOf(50)) >= 0 ? "REVIEW"
+            : "ALLOW";
+        return riskLevel == RiskLevel.CRITICAL ? decision : riskLevel.name();
+    }
+
+    private static FraudRule rule(String name, String type, Map<String, Object> conditions, String action,
+                                  int scoreImpact, int priority) {
+        return FraudRule.builder()
+            .id(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)))
+            .ruleName(name)
+            .ruleType(type)
+            .conditions(new HashMap<>(conditions))
+            .action(action)
+            .scoreImpact(scoreImpact)
+            .priority(priority)
+            .build();
+    }
+
+    /** Sets an @Value-injected field that has no constructor parameter */
+    private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,106 @@
+package com.payment.benchmarks;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.ml.FeatureExtractor;
+import com.payment.fraud.ml.FraudMLModel;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ML scoring path of a fraud assessment: feature extraction plus logistic-regression inference.
+ *
+ * legacyExtractAndPredict reproduces the previous implementation (boxed HashMap features,
+ * ZonedDateTime, two ArrayRealVectors per call) as the baseline for gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FraudMLScoringBenchmark {
+
+    private static final double[] LEGACY_WEIGHTS = {2.5, 3.0, 1.5, 2.0, 0.5, 0.3, 1.2, 2.5, 0.2, -1.0};
+
+    private FeatureExtractor featureExtractor;
+    private FraudMLModel model;
+    private FraudAssessmentRequest request;
+    private double[] buffer;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        featureExtractor = new FeatureExtractor();
+        model = new FraudMLModel();
+        request = BenchmarkFixtures.fraudRequest();
+        buffer = new double[featureExtractor.getFeatureNames().length];
+        now = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public double extractInto() {
+        featureExtractor.extractInto(request, buffer, now);
+        return buffer[0];
+    }
+
+    @Benchmark
+    public double extractAndScore() {
+        featureExtractor.extractInto(request, buffer, now);
+        return model.score(buffer);
+    }
+
+    @Benchmark
+    public double legacyExtractAndPredict() {
+        return legacyPredict(legacyExtract(request));
+    }
+
+    private static double[] legacyExtract(FraudAssessmentRequest request) {
+        Map<String, Double> features = new HashMap<>();
+        features.put("log_amount", Math.log(request.getAmount() + 1));
+        features.put("normalized_amount", request.getAmount() / 100000.0);
+        features.put("is_round_amount", (request.getAmount() % 10000 == 0) ? 1.0 : 0.0);
+        features.put("is_very_round", (request.getAmount() % 100000 == 0) ? 1.0 : 0.0);
+        Instant now = Instant.now();
+        int hourOfDay = now.atZone(ZoneOffset.UTC).getHour();
+        features.put("hour_of_day", hourOfDay / 24.0);
+        int dayOfWeek = now.atZone(ZoneOffset.UTC).getDayOfWeek().getValue();
+        features.put("day_of_week", dayOfWeek / 7.0);
+        features.put("is_weekend", (dayOfWeek >= 6) ? 1.0 : 0.0);
+        features.put("is_late_night", (hourOfDay >= 0 && hourOfDay < 6) ? 1.0 : 0.0);
+        double currencyCode = switch (request.getCurrency().toUpperCase()) {
+            case "USD" -> 0.0;
+            case "EUR" -> 1.0;
+            case "GBP" -> 2.0;
+            default -> 3.0;
+        };
+        features.put("currency_code", currencyCode / 3.0);
+        features.put("has_metadata",
+            (request.getMetadata() != null && !request.getMetadata().isEmpty()) ? 1.0 : 0.0);
+        return new double[] {
+            features.get("log_amount"),
+            features.get("normalized_amount"),
+            features.get("is_round_amount"),
+            features.get("is_very_round"),
+            features.get("hour_of_day"),
+            features.get("day_of_week"),
+            features.get("is_weekend"),
+            features.get("is_late_night"),
+            features.get("currency_code"),
+            features.get("has_metadata")
+        };
+    }
+
+    private static double legacyPredict(double[] features) {
+        RealVector featureVector = new ArrayRealVector(features);
+        RealVector weightVector = new ArrayRealVector(LEGACY_WEIGHTS);
+        double z = weightVector.dotProduct(featureVector) - 5.0;
+        return Math.min(100, Math.max(0, 100.0 / (1.0 + Math.exp(-z))));
+    }
+}
@@ -0,0 +1,101 @@
+package com.payment.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+import com.payment.fraud.grpc.AssessRequest;
+import com.payment.fraud.grpc.AssessResponse;
+import com.payment.fraud.grpc.FraudAssessmentMessages;
+import com.payment.fraud.grpc.Uuids;
+import com.payment.service.entity.Payment;
+import com.payment.service.entity.PaymentStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding cost of one payment-service -> fraud-service assessment on each transport:
+ * client request encode, server request decode, server response encode and client
+ * response decode, without the network or the assessment itself.
+ *
+ * json follows FraudServiceClient's REST path (HashMap request, raw Map response, score
+ * through toString) and Spring MVC's binding of FraudAssessmentRequest; protobuf follows
+ * the gRPC path through the generated messages and FraudAssessmentMessages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FraudTransportBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Payment payment;
+    private FraudAssessmentResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        payment = BenchmarkFixtures.payment(PaymentStatus.PENDING, UUID.randomUUID());
+
+        Map<String, Object> factors = new HashMap<>();
+        factors.put("velocity_score", 12.5);
+        factors.put("rule_score", 20);
+        factors.put("ml_score", 31.25);
+        factors.put("degraded_checks", List.of("ml:timeout"));
+        response = FraudAssessmentResponse.builder()
+            .score(new BigDecimal("23.375"))
+            .riskLevel("LOW")
+            .decision("ALLOW")
+            .factors(factors)
+            .modelVersion("onnx-v3")
+            .build();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public BigDecimal json() throws IOException {
+        Map<String, Object> request = new HashMap<>();
+        request.put("paymentId", payment.getId());
+        request.put("merchantId", payment.getMerchantId());
+        request.put("customerId", payment.getCustomerId());
+        request.put("amount", payment.getAmount().getAmountInCents());
+        request.put("currency", payment.getAmount().getCurrency());
+        request.put("paymentMethodId", payment.getPaymentMethodId());
+        byte[] requestBytes = objectMapper.writeValueAsBytes(request);
+
+        FraudAssessmentRequest received = objectMapper.readValue(requestBytes, FraudAssessmentRequest.class);
+        byte[] responseBytes = objectMapper.writeValueAsBytes(response);
+
+        Map<String, Object> body = objectMapper.readValue(responseBytes, Map.class);
+        return received.getPaymentId() != null ? new BigDecimal(body.get("score").toString()) : null;
+    }
+
+    @Benchmark
+    public BigDecimal protobuf() throws InvalidProtocolBufferException {
+        byte[] requestBytes = AssessRequest.newBuilder()
+            .setPaymentId(Uuids.toBytes(payment.getId()))
+            .setMerchantId(Uuids.toBytes(payment.getMerchantId()))
+            .setCustomerId(Uuids.toBytes(payment.getCustomerId()))
+            .setPaymentMethodId(Uuids.toBytes(payment.getPaymentMethodId()))
+            .setAmount(payment.getAmount().getAmountInCents())
+            .setCurrency(payment.getAmount().getCurrency())
+            .build()
+            .toByteArray();
+
+        FraudAssessmentRequest received = FraudAssessmentMessages.toRequest(
+            AssessRequest.parseFrom(requestBytes));
+        byte[] responseBytes = FraudAssessmentMessages.toMessage(response).toByteArray();
+
+        AssessResponse body = AssessResponse.parseFrom(responseBytes);
+        return received != null ? BigDecimal.valueOf(body.getScoreMillis(), 3) : null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.payment.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.service.entity.Payment;
+import com.payment.service.entity.PaymentStatus;
+import com.payment.service.repository.PaymentRepository;
+import com.payment.service.service.IdempotencyService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IdempotencyService Payment (de)serialization against an in-memory Redis stand-in,
+ * so the numbers reflect JSON cost rather than network round trips
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdempotencyServiceBenchmark {
+
+    private IdempotencyService idempotencyService;
+    private Payment payment;
+    private String cachedKey;
+    private String storeKey;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        Map<Object, Object> redis = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> valueOperations = BenchmarkFixtures.stub(ValueOperations.class,
+            (proxy, method, args) -> switch (method.getName()) {
+                case "get" -> redis.get(args[0]);
+                case "set" -> {
+                    redis.put(args[0], args[1]);
+                    yield null;
+                }
+                default -> null;
+            });
+        RedisTemplate<String, String> redisTemplate = new RedisTemplate<>() {
+            @Override
+            public ValueOperations<String, String> opsForValue() {
+                return valueOperations;
+            }
+        };
+        PaymentRepository paymentRepository = BenchmarkFixtures.stub(PaymentRepository.class,
+            (proxy, method, args) -> method.getReturnType() == Optional.class ? Optional.empty() : null);
+
+        idempotencyService = new IdempotencyService(paymentRepository, redisTemplate, objectMapper);
+        payment = BenchmarkFixtures.payment(PaymentStatus.AUTHORIZED, UUID.randomUUID());
+        cachedKey = payment.getIdempotencyKey();
+        storeKey = UUID.randomUUID().toString();
+        idempotencyService.store(cachedKey, payment);
+    }
+
+    @Benchmark
+    public void store() {
+        idempotencyService.store(storeKey, payment);
+    }
+
+    @Benchmark
+    public Optional<Payment> findByKeyCacheHit() {
+        return idempotencyService.findByKey(cachedKey);
+    }
+}
@@ -0,0 +1,62 @@
+package com.payment.benchmarks;
+
+import com.payment.service.entity.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Money arithmetic used by capture/refund validation and event publishing
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    private Money amount;
+    private Money other;
+    private BigDecimal factor;
+    private long cents;
+
+    @Setup
+    public void setUp() {
+        amount = Money.of(new BigDecimal("125.50"), "USD");
+        other = Money.of(new BigDecimal("20.25"), "USD");
+        factor = new BigDecimal("0.029");
+        cents = 12550L;
+    }
+
+    @Benchmark
+    public Money ofCents() {
+        return Money.of(cents, "USD");
+    }
+
+    @Benchmark
+    public Money add() {
+        return amount.add(other);
+    }
+
+    @Benchmark
+    public Money subtract() {
+        return amount.subtract(other);
+    }
+
+    @Benchmark
+    public Money multiply() {
+        return amount.multiply(factor);
+    }
+
+    @Benchmark
+    public boolean isGreaterThan() {
+        return amount.isGreaterThan(other);
+    }
+
+    @Benchmark
+    public long amountInCents() {
+        return amount.getAmountInCents();
+    }
+}
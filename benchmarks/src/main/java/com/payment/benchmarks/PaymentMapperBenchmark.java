@@ -0,0 +1,56 @@
+package com.payment.benchmarks;
+
+import com.payment.service.dto.response.PaymentResponse;
+import com.payment.service.entity.Customer;
+import com.payment.service.entity.Payment;
+import com.payment.service.entity.PaymentStatus;
+import com.payment.service.mapper.PaymentMapper;
+import com.payment.service.repository.CustomerRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PaymentMapper.toResponse runs on every create/get/list response.
+ * The customer lookup is stubbed so only mapping cost is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentMapperBenchmark {
+
+    private PaymentMapper mapper;
+    private Payment authorizedPayment;
+    private Payment refundedPayment;
+
+    @Setup
+    public void setUp() {
+        Customer customer = BenchmarkFixtures.customer();
+        CustomerRepository customerRepository = BenchmarkFixtures.stub(CustomerRepository.class,
+            (proxy, method, args) -> "findById".equals(method.getName()) ? Optional.of(customer) : null);
+
+        mapper = new PaymentMapper(customerRepository);
+        authorizedPayment = BenchmarkFixtures.payment(PaymentStatus.AUTHORIZED, customer.getId());
+        refundedPayment = BenchmarkFixtures.partiallyRefundedPayment(5);
+        refundedPayment.setCustomerId(customer.getId());
+    }
+
+    @Benchmark
+    public PaymentResponse toResponseAuthorized() {
+        return mapper.toResponse(authorizedPayment);
+    }
+
+    @Benchmark
+    public PaymentResponse toResponseWithRefunds() {
+        return mapper.toResponse(refundedPayment);
+    }
+
+    @Benchmark
+    public PaymentResponse toMinimalResponse() {
+        return mapper.toMinimalResponse(authorizedPayment);
+    }
+}
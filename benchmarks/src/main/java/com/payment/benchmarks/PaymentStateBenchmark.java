@@ -0,0 +1,47 @@
+package com.payment.benchmarks;
+
+import com.payment.service.entity.Money;
+import com.payment.service.entity.Payment;
+import com.payment.service.entity.PaymentStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payment state machine checks and refund bookkeeping
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentStateBenchmark {
+
+    @Param({"0", "3", "20"})
+    private int refundCount;
+
+    private Payment authorizedPayment;
+    private Payment refundedPayment;
+
+    @Setup
+    public void setUp() {
+        authorizedPayment = BenchmarkFixtures.payment(PaymentStatus.AUTHORIZED, null);
+        refundedPayment = BenchmarkFixtures.partiallyRefundedPayment(refundCount);
+    }
+
+    @Benchmark
+    public boolean canTransitionToCaptured() {
+        return authorizedPayment.canTransitionTo(PaymentStatus.CAPTURED);
+    }
+
+    @Benchmark
+    public boolean canTransitionToRefunded() {
+        return authorizedPayment.canTransitionTo(PaymentStatus.REFUNDED);
+    }
+
+    @Benchmark
+    public Money remainingRefundableAmount() {
+        return refundedPayment.getRemainingRefundableAmount();
+    }
+}
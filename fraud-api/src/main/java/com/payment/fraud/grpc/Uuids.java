@@ -0,0 +1,41 @@
+package com.payment.fraud.grpc;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * UUID fields of the assessment messages, carried as 16 big-endian bytes
+ */
+public final class Uuids {
+
+    private Uuids() {
+    }
+
+    /**
+     * 16 big-endian bytes, or empty for null
+     */
+    public static ByteString toBytes(UUID id) {
+        if (id == null) {
+            return ByteString.EMPTY;
+        }
+        byte[] bytes = ByteBuffer.allocate(16)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits())
+            .array();
+        return UnsafeByteOperations.unsafeWrap(bytes);
+    }
+
+    /**
+     * Null for empty or malformed bytes
+     */
+    public static UUID fromBytes(ByteString bytes) {
+        if (bytes.size() != 16) {
+            return null;
+        }
+        ByteBuffer buffer = bytes.asReadOnlyByteBuffer();
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
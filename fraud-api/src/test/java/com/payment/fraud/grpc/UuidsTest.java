@@ -0,0 +1,49 @@
+package com.payment.fraud.grpc;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidsTest {
+
+    @Test
+    void roundTripsThroughSixteenBigEndianBytes() {
+        UUID id = UUID.fromString("01234567-89ab-cdef-0123-456789abcdef");
+
+        ByteString bytes = Uuids.toBytes(id);
+
+        assertThat(bytes.size()).isEqualTo(16);
+        assertThat(bytes.byteAt(0)).isEqualTo((byte) 0x01);
+        assertThat(bytes.byteAt(15)).isEqualTo((byte) 0xef);
+        assertThat(Uuids.fromBytes(bytes)).isEqualTo(id);
+    }
+
+    @Test
+    void roundTripsRandomIds() {
+        for (int i = 0; i < 100; i++) {
+            UUID id = UUID.randomUUID();
+            assertThat(Uuids.fromBytes(Uuids.toBytes(id))).isEqualTo(id);
+        }
+    }
+
+    @Test
+    void nullIsCarriedAsEmpty() {
+        assertThat(Uuids.toBytes(null)).isEqualTo(ByteString.EMPTY);
+        assertThat(Uuids.fromBytes(ByteString.EMPTY)).isNull();
+    }
+
+    @Test
+    void rejectsOtherLengths() {
+        assertThat(Uuids.fromBytes(ByteString.copyFrom(new byte[15]))).isNull();
+        assertThat(Uuids.fromBytes(ByteString.copyFrom(new byte[17]))).isNull();
+        assertThat(Uuids.fromBytes(ByteString.copyFromUtf8("not-a-uuid"))).isNull();
+    }
+
+    @Test
+    void readsSixteenZeroBytesAsTheNilUuid() {
+        assertThat(Uuids.fromBytes(ByteString.copyFrom(new byte[16]))).isEqualTo(new UUID(0, 0));
+    }
+}
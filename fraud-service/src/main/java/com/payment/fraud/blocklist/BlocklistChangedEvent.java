@@ -0,0 +1,10 @@
+package com.payment.fraud.blocklist;
+
+import java.time.Instant;
+
+/**
+ * Published by BlocklistService when an entry is added or deactivated; applied to the
+ * in-memory index after the surrounding transaction commits
+ */
+public record BlocklistChangedEvent(String type, String value, Instant expiresAt, boolean active) {
+}
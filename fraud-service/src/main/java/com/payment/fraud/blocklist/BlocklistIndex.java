@@ -0,0 +1,313 @@
+package com.payment.fraud.blocklist;
+
+import com.payment.fraud.entity.Blocklist;
+import com.payment.fraud.repository.BlocklistRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory membership index over active blocklist entries, one filter per type.
+ *
+ * Types with up to exact-set-max-size entries are held in an exact map (value to expiry)
+ * and answered without the database. Larger types use a Bloom filter: a negative is
+ * definitive, a positive must be confirmed against BlocklistRepository. Entries added on
+ * this instance are applied after commit; a periodic rebuild picks up changes made
+ * elsewhere and clears bits left behind by removals.
+ *
+ * IP entries in CIDR notation (value containing '/') are kept out of the membership
+ * filters and indexed in a {@link CidrTrie} instead, rebuilt on every range change.
+ *
+ * fraud.blocklist.lookups{type, outcome} counts negative, exact_match, range_match,
+ * confirmed and false_positive lookups, so the filter's false-positive rate is
+ * false_positive / (negative + false_positive).
+ */
+@Component
+@Slf4j
+public class BlocklistIndex {
+
+    public enum Match { ABSENT, PRESENT, MAYBE }
+
+    static final String LOOKUP_COUNTER = "fraud.blocklist.lookups";
+    static final String TYPE_IP = "IP";
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+    /** Types whose lookup counters are registered up front; others on first lookup */
+    private static final List<String> KNOWN_TYPES = List.of("EMAIL", "CARD_BIN", TYPE_IP, "DEVICE_ID");
+
+    private enum Outcome {
+        NEGATIVE, EXACT_MATCH, RANGE_MATCH, CONFIRMED, FALSE_POSITIVE;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final BlocklistRepository blocklistRepository;
+    private final MeterRegistry meterRegistry;
+    private final int exactSetMaxSize;
+    private final double falsePositiveProbability;
+    /** Lookup counters per type, indexed by outcome ordinal */
+    private final Map<String, Counter[]> lookupCounters = new ConcurrentHashMap<>();
+
+    /** Null until the first load completes; lookups fall through to the database meanwhile */
+    private volatile Map<String, TypeFilter> filters;
+
+    /** CIDR -> expiry millis for active IP ranges; guarded by this */
+    private Map<String, Long> ipRanges = new HashMap<>();
+    private volatile CidrTrie ipRangeTrie = CidrTrie.EMPTY;
+
+    public BlocklistIndex(
+            BlocklistRepository blocklistRepository,
+            MeterRegistry meterRegistry,
+            @Value("${fraud.blocklist.exact-set-max-size:10000}") int exactSetMaxSize,
+            @Value("${fraud.blocklist.bloom.false-positive-probability:0.001}") double falsePositiveProbability) {
+        this.blocklistRepository = blocklistRepository;
+        this.meterRegistry = meterRegistry;
+        this.exactSetMaxSize = exactSetMaxSize;
+        this.falsePositiveProbability = falsePositiveProbability;
+
+        Gauge.builder("fraud.blocklist.ip.ranges", this, index -> index.ipRangeTrie.size())
+            .description("Active CIDR ranges in the IP range trie")
+            .register(meterRegistry);
+        for (String type : KNOWN_TYPES) {
+            lookupCounters.put(type, registerLookupCounters(type));
+        }
+    }
+
+    public Match lookup(String type, String value) {
+        Map<String, TypeFilter> current = filters;
+        if (current == null) {
+            return Match.MAYBE;
+        }
+        TypeFilter filter = current.get(type);
+        if (filter == null) {
+            countLookup(type, Outcome.NEGATIVE);
+            return Match.ABSENT;
+        }
+
+        if (filter.exact != null) {
+            Long expiresAt = filter.exact.get(value);
+            if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+                countLookup(type, Outcome.EXACT_MATCH);
+                return Match.PRESENT;
+            }
+            countLookup(type, Outcome.NEGATIVE);
+            return Match.ABSENT;
+        }
+
+        if (!filter.bloom.mightContain(value)) {
+            countLookup(type, Outcome.NEGATIVE);
+            return Match.ABSENT;
+        }
+        return Match.MAYBE;
+    }
+
+    /**
+     * True if the IP falls in an active blocklisted CIDR range
+     */
+    public boolean inBlockedRange(String ipAddress) {
+        if (!ipRangeTrie.contains(ipAddress, System.currentTimeMillis())) {
+            return false;
+        }
+        countLookup(TYPE_IP, Outcome.RANGE_MATCH);
+        return true;
+    }
+
+    /**
+     * Records the database answer for a {@link Match#MAYBE} lookup
+     */
+    public void recordConfirmation(String type, boolean blocked) {
+        if (filters != null) {
+            countLookup(type, blocked ? Outcome.CONFIRMED : Outcome.FALSE_POSITIVE);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${fraud.blocklist.refresh-interval-ms:60000}",
+        initialDelayString = "${fraud.blocklist.refresh-interval-ms:60000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Reloads all active entries and swaps in freshly sized filters
+     */
+    public synchronized void rebuild() {
+        long now = System.currentTimeMillis();
+        Map<String, List<Blocklist>> byType = new HashMap<>();
+        Map<String, Long> ranges = new HashMap<>();
+        for (Blocklist entry : blocklistRepository.findByIsActiveTrue()) {
+            if (expiresAtMillis(entry) <= now) {
+                continue;
+            }
+            if (isIpRange(entry.getType(), entry.getValue())) {
+                ranges.put(entry.getValue(), expiresAtMillis(entry));
+            } else {
+                byType.computeIfAbsent(entry.getType(), t -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        Map<String, TypeFilter> next = new ConcurrentHashMap<>();
+        byType.forEach((type, entries) -> {
+            TypeFilter filter = entries.size() <= exactSetMaxSize
+                ? TypeFilter.exact()
+                : TypeFilter.bloom(new BloomFilter(entries.size() * 2L, falsePositiveProbability));
+            for (Blocklist entry : entries) {
+                filter.add(entry.getValue(), expiresAtMillis(entry));
+            }
+            next.put(type, filter);
+            registerSizeGauge(type);
+        });
+
+        filters = next;
+        ipRanges = ranges;
+        ipRangeTrie = CidrTrie.build(ranges);
+        log.info("Blocklist index loaded: {}, ipRanges={}", summary(next), ipRangeTrie.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBlocklistChanged(BlocklistChangedEvent event) {
+        Map<String, TypeFilter> current = filters;
+        if (current == null) {
+            return;
+        }
+
+        if (isIpRange(event.type(), event.value())) {
+            if (event.active()) {
+                ipRanges.put(event.value(), event.expiresAt() != null ? event.expiresAt().toEpochMilli() : NO_EXPIRY);
+            } else {
+                ipRanges.remove(event.value());
+            }
+            ipRangeTrie = CidrTrie.build(ipRanges);
+            return;
+        }
+
+        if (!event.active()) {
+            TypeFilter filter = current.get(event.type());
+            if (filter != null) {
+                // Bloom bits stay set until the next rebuild; lookups confirm against the database
+                filter.remove(event.value());
+            }
+            return;
+        }
+
+        TypeFilter filter = current.computeIfAbsent(event.type(), type -> {
+            registerSizeGauge(type);
+            return TypeFilter.exact();
+        });
+        long expiresAt = event.expiresAt() != null ? event.expiresAt().toEpochMilli() : NO_EXPIRY;
+        filter.add(event.value(), expiresAt);
+
+        if (filter.size() > (filter.exact != null ? exactSetMaxSize : filter.bloom.capacity())) {
+            // Outgrew its representation, resize from the table
+            rebuild();
+        }
+    }
+
+    private static boolean isIpRange(String type, String value) {
+        return TYPE_IP.equals(type) && value != null && value.indexOf('/') >= 0;
+    }
+
+    private long size(String type) {
+        Map<String, TypeFilter> current = filters;
+        TypeFilter filter = current != null ? current.get(type) : null;
+        return filter != null ? filter.size() : 0;
+    }
+
+    private void registerSizeGauge(String type) {
+        Gauge.builder("fraud.blocklist.entries", this, index -> index.size(type))
+            .description("Active blocklist entries held in the in-memory index")
+            .tag("type", type)
+            .register(meterRegistry);
+    }
+
+    private Counter[] registerLookupCounters(String type) {
+        Outcome[] outcomes = Outcome.values();
+        Counter[] counters = new Counter[outcomes.length];
+        for (Outcome outcome : outcomes) {
+            counters[outcome.ordinal()] = Counter.builder(LOOKUP_COUNTER)
+                .description("Blocklist index lookups by outcome")
+                .tag("type", type)
+                .tag("outcome", outcome.tag)
+                .register(meterRegistry);
+        }
+        return counters;
+    }
+
+    private void countLookup(String type, Outcome outcome) {
+        Counter[] counters = lookupCounters.get(type);
+        if (counters == null) {
+            counters = lookupCounters.computeIfAbsent(type, this::registerLookupCounters);
+        }
+        counters[outcome.ordinal()].increment();
+    }
+
+    private static long expiresAtMillis(Blocklist entry) {
+        return entry.getExpiresAt() != null ? entry.getExpiresAt().toEpochMilli() : NO_EXPIRY;
+    }
+
+    private static String summary(Map<String, TypeFilter> filters) {
+        Map<String, String> summary = new HashMap<>();
+        filters.forEach((type, filter) ->
+            summary.put(type, filter.size() + (filter.exact != null ? " exact" : " bloom")));
+        return summary.toString();
+    }
+
+    /**
+     * Exactly one of exact or bloom is set
+     */
+    private static final class TypeFilter {
+        private final ConcurrentHashMap<String, Long> exact;
+        private final BloomFilter bloom;
+        private final AtomicLong bloomInsertions = new AtomicLong();
+
+        private TypeFilter(ConcurrentHashMap<String, Long> exact, BloomFilter bloom) {
+            this.exact = exact;
+            this.bloom = bloom;
+        }
+
+        static TypeFilter exact() {
+            return new TypeFilter(new ConcurrentHashMap<>(), null);
+        }
+
+        static TypeFilter bloom(BloomFilter bloom) {
+            return new TypeFilter(null, bloom);
+        }
+
+        void add(String value, long expiresAt) {
+            if (exact != null) {
+                exact.put(value, expiresAt);
+            } else {
+                bloom.put(value);
+                bloomInsertions.incrementAndGet();
+            }
+        }
+
+        void remove(String value) {
+            if (exact != null) {
+                exact.remove(value);
+            }
+        }
+
+        long size() {
+            return exact != null ? exact.size() : bloomInsertions.get();
+        }
+    }
+}
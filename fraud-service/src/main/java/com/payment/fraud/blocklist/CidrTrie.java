@@ -0,0 +1,208 @@
+package com.payment.fraud.blocklist;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+/**
+ * Immutable path-compressed binary (patricia) trie over IPv4/IPv6 CIDR ranges.
+ *
+ * Keys are 128-bit, IPv4 ranges are stored as IPv4-mapped IPv6 prefixes. A lookup walks at
+ * most one node per distinct prefix length on the path, compares whole 64-bit words at each
+ * node and allocates nothing. Built once per blocklist change and swapped by the caller.
+ */
+@Slf4j
+final class CidrTrie {
+
+    static final CidrTrie EMPTY = new CidrTrie(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private CidrTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Builds a trie from CIDR notation (or single addresses) to expiry epoch millis;
+     * unparseable ranges are skipped with a warning
+     */
+    static CidrTrie build(Map<String, Long> ranges) {
+        Node root = null;
+        int size = 0;
+        for (Map.Entry<String, Long> range : ranges.entrySet()) {
+            String cidr = range.getKey().trim();
+            int slash = cidr.indexOf('/');
+            int addressEnd = slash >= 0 ? slash : cidr.length();
+
+            long hi;
+            long lo;
+            int maxBits;
+            int offset;
+            if (IpAddresses.isIpv6(cidr)) {
+                hi = IpAddresses.parseIpv6(cidr, addressEnd, false);
+                lo = hi == IpAddresses.INVALID ? 0L : IpAddresses.parseIpv6(cidr, addressEnd, true);
+                maxBits = 128;
+                offset = 0;
+            } else {
+                long v4 = IpAddresses.parseIpv4(cidr, 0, addressEnd);
+                hi = v4 == IpAddresses.INVALID ? IpAddresses.INVALID : 0L;
+                lo = IpAddresses.IPV4_MAPPED_PREFIX | v4;
+                maxBits = 32;
+                offset = IpAddresses.IPV4_MAPPED_BITS;
+            }
+
+            int prefixLength = slash >= 0 ? parsePrefixLength(cidr, slash + 1, maxBits) : maxBits;
+            if (hi == IpAddresses.INVALID || prefixLength < 0) {
+                log.warn("Skipping invalid IP blocklist range: {}", cidr);
+                continue;
+            }
+
+            int length = offset + prefixLength;
+            root = insert(root, hi & IpAddresses.maskHi(length), lo & IpAddresses.maskLo(length),
+                length, range.getValue());
+            size++;
+        }
+        return new CidrTrie(root, size);
+    }
+
+    /**
+     * True if the address falls in any unexpired range. Unparseable addresses never match.
+     */
+    boolean contains(String address, long nowMillis) {
+        if (root == null || address == null) {
+            return false;
+        }
+        long hi;
+        long lo;
+        if (IpAddresses.isIpv6(address)) {
+            hi = IpAddresses.parseIpv6(address, address.length(), false);
+            if (hi == IpAddresses.INVALID) {
+                return false;
+            }
+            lo = IpAddresses.parseIpv6(address, address.length(), true);
+        } else {
+            long v4 = IpAddresses.parseIpv4(address, 0, address.length());
+            if (v4 == IpAddresses.INVALID) {
+                return false;
+            }
+            hi = 0L;
+            lo = IpAddresses.IPV4_MAPPED_PREFIX | v4;
+        }
+
+        Node node = root;
+        while (node != null) {
+            if (((hi ^ node.hi) & IpAddresses.maskHi(node.length)) != 0
+                || ((lo ^ node.lo) & IpAddresses.maskLo(node.length)) != 0) {
+                return false;
+            }
+            if (node.terminal && node.expiresAt > nowMillis) {
+                return true;
+            }
+            if (node.length == 128) {
+                return false;
+            }
+            node = bit(hi, lo, node.length) == 0 ? node.zero : node.one;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static Node insert(Node node, long hi, long lo, int length, long expiresAt) {
+        if (node == null) {
+            return Node.terminal(hi, lo, length, expiresAt);
+        }
+
+        int common = Math.min(commonPrefixLength(node.hi, node.lo, hi, lo), Math.min(node.length, length));
+
+        if (common == node.length && common == length) {
+            node.expiresAt = node.terminal ? Math.max(node.expiresAt, expiresAt) : expiresAt;
+            node.terminal = true;
+            return node;
+        }
+
+        if (common == node.length) {
+            if (bit(hi, lo, common) == 0) {
+                node.zero = insert(node.zero, hi, lo, length, expiresAt);
+            } else {
+                node.one = insert(node.one, hi, lo, length, expiresAt);
+            }
+            return node;
+        }
+
+        // Diverges inside this node's prefix: split at the common prefix
+        Node split = common == length
+            ? Node.terminal(hi, lo, length, expiresAt)
+            : new Node(hi & IpAddresses.maskHi(common), lo & IpAddresses.maskLo(common), common);
+        if (bit(node.hi, node.lo, common) == 0) {
+            split.zero = node;
+        } else {
+            split.one = node;
+        }
+        if (common != length) {
+            Node leaf = Node.terminal(hi, lo, length, expiresAt);
+            if (bit(hi, lo, common) == 0) {
+                split.zero = leaf;
+            } else {
+                split.one = leaf;
+            }
+        }
+        return split;
+    }
+
+    private static int commonPrefixLength(long aHi, long aLo, long bHi, long bLo) {
+        long diff = aHi ^ bHi;
+        if (diff != 0) {
+            return Long.numberOfLeadingZeros(diff);
+        }
+        return 64 + Long.numberOfLeadingZeros(aLo ^ bLo);
+    }
+
+    private static int bit(long hi, long lo, int position) {
+        return position < 64
+            ? (int) (hi >>> (63 - position)) & 1
+            : (int) (lo >>> (127 - position)) & 1;
+    }
+
+    private static int parsePrefixLength(String cidr, int from, int maxBits) {
+        int length = 0;
+        if (from >= cidr.length() || cidr.length() - from > 3) {
+            return -1;
+        }
+        for (int i = from; i < cidr.length(); i++) {
+            char c = cidr.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            length = length * 10 + (c - '0');
+        }
+        return length <= maxBits ? length : -1;
+    }
+
+    private static final class Node {
+        private final long hi;
+        private final long lo;
+        private final int length;
+        private boolean terminal;
+        private long expiresAt;
+        private Node zero;
+        private Node one;
+
+        private Node(long hi, long lo, int length) {
+            this.hi = hi;
+            this.lo = lo;
+            this.length = length;
+        }
+
+        static Node terminal(long hi, long lo, int length, long expiresAt) {
+            Node node = new Node(hi, lo, length);
+            node.terminal = true;
+            node.expiresAt = expiresAt;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.payment.fraud.blocklist;
+
+/**
+ * Allocation-free parsing of textual IP addresses into 128-bit keys (two longs).
+ *
+ * IPv4 addresses map into IPv6 space as ::ffff:a.b.c.d, so one trie serves both families
+ * and IPv4-mapped IPv6 input matches IPv4 ranges.
+ */
+final class IpAddresses {
+
+    /**
+     * Returned for unparseable input. Collides only with ffff:ffff:ffff:ffff::/64,
+     * which is multicast and never a client source address.
+     */
+    static final long INVALID = -1L;
+
+    static final long IPV4_MAPPED_PREFIX = 0x0000_ffff_0000_0000L;
+    static final int IPV4_MAPPED_BITS = 96;
+
+    private IpAddresses() {
+    }
+
+    static boolean isIpv6(String address) {
+        return address.indexOf(':') >= 0;
+    }
+
+    /**
+     * Parses a dotted IPv4 address in [from, to), returning the 32-bit value or {@link #INVALID}
+     */
+    static long parseIpv4(String s, int from, int to) {
+        long value = 0;
+        int octets = 0;
+        int octet = 0;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                if (digits == 0 || ++octets > 3) {
+                    return INVALID;
+                }
+                value = value << 8 | octet;
+                octet = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return INVALID;
+                }
+            } else {
+                return INVALID;
+            }
+        }
+        if (digits == 0 || octets != 3) {
+            return INVALID;
+        }
+        return value << 8 | octet;
+    }
+
+    /**
+     * Parses an IPv6 address in [0, to) and returns its high or low 64 bits,
+     * or {@link #INVALID}. Supports :: compression and a trailing dotted IPv4 part.
+     */
+    static long parseIpv6(String s, int to, boolean lowHalf) {
+        if (to < 2) {
+            return INVALID;
+        }
+        long headHi = 0;
+        long headLo = 0;
+        long tailHi = 0;
+        long tailLo = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int i = 0;
+        if (s.charAt(0) == ':') {
+            if (s.charAt(1) != ':') {
+                return INVALID;
+            }
+            compressed = true;
+            i = 2;
+        }
+
+        while (i < to) {
+            int start = i;
+            int group = 0;
+            int digits = 0;
+            boolean dotted = false;
+            while (i < to && s.charAt(i) != ':') {
+                char c = s.charAt(i);
+                if (c == '.') {
+                    dotted = true;
+                    break;
+                }
+                int digit = Character.digit(c, 16);
+                if (digit < 0 || ++digits > 4) {
+                    return INVALID;
+                }
+                group = group << 4 | digit;
+                i++;
+            }
+
+            int groupsToAdd;
+            long value;
+            if (dotted) {
+                // Embedded IPv4 must be the last part and counts as two groups
+                value = parseIpv4(s, start, to);
+                if (value == INVALID) {
+                    return INVALID;
+                }
+                groupsToAdd = 2;
+                i = to;
+            } else {
+                if (digits == 0) {
+                    return INVALID;
+                }
+                value = group;
+                groupsToAdd = 1;
+            }
+
+            int shift = groupsToAdd * 16;
+            if (compressed) {
+                tailHi = tailHi << shift | tailLo >>> (64 - shift);
+                tailLo = tailLo << shift | value;
+                tailGroups += groupsToAdd;
+            } else {
+                headHi = headHi << shift | headLo >>> (64 - shift);
+                headLo = headLo << shift | value;
+                headGroups += groupsToAdd;
+            }
+
+            if (i < to) {
+                i++; // ':'
+                if (i < to && s.charAt(i) == ':') {
+                    if (compressed) {
+                        return INVALID;
+                    }
+                    compressed = true;
+                    i++;
+                } else if (i == to) {
+                    return INVALID;
+                }
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+        if (compressed ? groups > 7 : groups != 8) {
+            return INVALID;
+        }
+
+        // Head groups occupy the top of the address, tail groups the bottom
+        for (int g = headGroups; g < 8; g++) {
+            headHi = headHi << 16 | headLo >>> 48;
+            headLo = headLo << 16;
+        }
+        long hi = headHi | tailHi;
+        long lo = headLo | tailLo;
+        if (hi == INVALID) {
+            return INVALID;
+        }
+        return lowHalf ? lo : hi;
+    }
+
+    static long maskHi(int prefixLength) {
+        if (prefixLength <= 0) {
+            return 0L;
+        }
+        return prefixLength >= 64 ? -1L : -1L << (64 - prefixLength);
+    }
+
+    static long maskLo(int prefixLength) {
+        if (prefixLength <= 64) {
+            return 0L;
+        }
+        return prefixLength >= 128 ? -1L : -1L << (128 - prefixLength);
+    }
+}
@@ -0,0 +1,112 @@
+package com.payment.fraud.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor for the velocity / rules / ML fan-out in FraudAssessmentService.
+ *
+ * Either a bounded platform-thread pool or, with fraud.assessment.executor.virtual-threads=true,
+ * one virtual thread per check capped by a permit count. Both reject instead of queueing
+ * without bound; FraudCheckExecutor turns a rejection into a neutral score.
+ */
+@Configuration
+@Slf4j
+public class AssessmentExecutorConfig {
+
+    @Bean(name = "assessmentExecutor")
+    public Executor assessmentExecutor(
+            @Value("${fraud.assessment.executor.virtual-threads:false}") boolean virtualThreads,
+            @Value("${fraud.assessment.executor.core-size:16}") int coreSize,
+            @Value("${fraud.assessment.executor.max-size:64}") int maxSize,
+            @Value("${fraud.assessment.executor.queue-capacity:500}") int queueCapacity,
+            @Value("${fraud.assessment.executor.max-in-flight:500}") int maxInFlight) {
+
+        if (virtualThreads) {
+            log.info("Fraud assessment executor: virtual threads, maxInFlight={}", maxInFlight);
+            return new BoundedVirtualThreadExecutor(maxInFlight);
+        }
+
+        log.info("Fraud assessment executor: core={}, max={}, queue={}", coreSize, maxSize, queueCapacity);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("fraud-check-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(5);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Challenger / shadow model scoring, kept apart from the assessment executor so shadow
+     * load cannot delay checkout checks. Rejects when full; the shadow score is then skipped.
+     */
+    @Bean(name = "shadowScoringExecutor")
+    public Executor shadowScoringExecutor(
+            @Value("${fraud.ml.challenger.executor.core-size:2}") int coreSize,
+            @Value("${fraud.ml.challenger.executor.max-size:4}") int maxSize,
+            @Value("${fraud.ml.challenger.executor.queue-capacity:1000}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("fraud-shadow-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(5);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Virtual thread per task, rejecting once maxInFlight tasks are running
+     */
+    static final class BoundedVirtualThreadExecutor implements Executor, AutoCloseable {
+
+        private final ExecutorService delegate = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("fraud-check-vt-", 0).factory());
+        private final Semaphore permits;
+
+        BoundedVirtualThreadExecutor(int maxInFlight) {
+            this.permits = new Semaphore(maxInFlight);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("Fraud check limit reached");
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.payment.fraud.config;
+
+import com.payment.fraud.ml.OnnxFraudModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * ONNX model instances: the champion from fraud.ml.onnx and an optional challenger from
+ * fraud.ml.challenger.onnx, loaded only when fraud.ml.challenger.source=onnx.
+ * The challenger has its own session and batcher so it never queues behind the champion.
+ */
+@Configuration
+public class MLModelConfig {
+
+    @Bean
+    @Primary
+    public OnnxFraudModel onnxFraudModel(
+            @Value("${fraud.ml.onnx.enabled:false}") boolean enabled,
+            @Value("${fraud.ml.onnx.model-path:models/fraud_model.onnx}") String modelPath,
+            @Value("${fraud.ml.onnx.output-name:probabilities}") String outputName,
+            @Value("${fraud.ml.onnx.intra-op-threads:1}") int intraOpThreads,
+            @Value("${fraud.ml.onnx.request-timeout:250ms}") Duration requestTimeout,
+            @Value("${fraud.ml.onnx.batch.max-size:32}") int maxBatchSize,
+            @Value("${fraud.ml.onnx.batch.max-wait:2ms}") Duration maxWait,
+            @Value("${fraud.ml.onnx.batch.queue-capacity:2048}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        return new OnnxFraudModel("champion", enabled, Paths.get(modelPath), outputName, intraOpThreads,
+            requestTimeout, maxBatchSize, maxWait, queueCapacity, meterRegistry);
+    }
+
+    @Bean
+    public OnnxFraudModel challengerOnnxModel(
+            @Value("${fraud.ml.challenger.source:none}") String source,
+            @Value("${fraud.ml.challenger.onnx.model-path:models/fraud_model_challenger.onnx}") String modelPath,
+            @Value("${fraud.ml.challenger.onnx.output-name:probabilities}") String outputName,
+            @Value("${fraud.ml.challenger.onnx.intra-op-threads:1}") int intraOpThreads,
+            @Value("${fraud.ml.challenger.onnx.request-timeout:1s}") Duration requestTimeout,
+            @Value("${fraud.ml.challenger.onnx.batch.max-size:32}") int maxBatchSize,
+            @Value("${fraud.ml.challenger.onnx.batch.max-wait:5ms}") Duration maxWait,
+            @Value("${fraud.ml.challenger.onnx.batch.queue-capacity:1024}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        return new OnnxFraudModel("challenger", "onnx".equalsIgnoreCase(source), Paths.get(modelPath),
+            outputName, intraOpThreads, requestTimeout, maxBatchSize, maxWait, queueCapacity, meterRegistry);
+    }
+}
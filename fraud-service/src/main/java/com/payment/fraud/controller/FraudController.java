@@ -1,5 +1,7 @@
 package com.payment.fraud.controller;
 
+import com.payment.fraud.dto.BatchFraudAssessmentRequest;
+import com.payment.fraud.dto.BatchFraudAssessmentResponse;
 import com.payment.fraud.dto.FraudAssessmentRequest;
 import com.payment.fraud.dto.FraudAssessmentResponse;
 import com.payment.fraud.dto.CreateFraudRuleRequest;
@@ -16,6 +18,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -44,6 +47,30 @@ public class FraudController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(
+        summary = "Assess fraud risk for a batch",
+        description = "Evaluates up to " + BatchFraudAssessmentRequest.MAX_ITEMS
+            + " payments in one call and returns one decision per item, in request order"
+    )
+    @PostMapping("/assess:batch")
+    public ResponseEntity<BatchFraudAssessmentResponse> assessFraudBatch(
+            @Valid @RequestBody BatchFraudAssessmentRequest request) {
+        
+        log.info("Received batch fraud assessment request: items={}", request.getItems().size());
+        
+        List<FraudAssessmentRequest> items = request.getItems();
+        List<FraudAssessmentResponse> assessments = fraudAssessmentService.assessBatch(items);
+        
+        List<BatchFraudAssessmentResponse.Item> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            results.add(BatchFraudAssessmentResponse.Item.builder()
+                .paymentId(items.get(i).getPaymentId())
+                .assessment(assessments.get(i))
+                .build());
+        }
+        return ResponseEntity.ok(BatchFraudAssessmentResponse.builder().results(results).build());
+    }
+
     @Operation(summary = "List fraud rules")
     @GetMapping("/rules")
     public ResponseEntity<List<FraudRuleResponse>> listRules() {
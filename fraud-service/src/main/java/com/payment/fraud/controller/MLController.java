@@ -1,7 +1,9 @@
 package com.payment.fraud.controller;
 
+import com.payment.fraud.ml.ChampionChallengerScorer;
 import com.payment.fraud.ml.FeatureExtractor;
 import com.payment.fraud.ml.FraudMLModel;
+import com.payment.fraud.ml.OnnxFraudModel;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +25,8 @@ public class MLController {
     
     private final FraudMLModel mlModel;
     private final FeatureExtractor featureExtractor;
+    private final OnnxFraudModel onnxFraudModel;
+    private final ChampionChallengerScorer championChallengerScorer;
     
     @Operation(summary = "Get ML model information")
     @GetMapping("/model-info")
@@ -32,6 +36,14 @@ public class MLController {
         info.put("feature_count", featureExtractor.getFeatureNames().length);
         info.put("feature_names", featureExtractor.getFeatureNames());
         info.put("feature_importance", mlModel.getFeatureImportance(featureExtractor.getFeatureNames()));
+        info.put("onnx_serving", onnxFraudModel.isServing());
+        info.put("onnx_model_version", onnxFraudModel.getModelVersion());
+        info.put("champion_version", championChallengerScorer.getChampionVersion());
+        if (championChallengerScorer.isChallengerEnabled()) {
+            info.put("challenger_version", championChallengerScorer.getChallengerVersion());
+            info.put("challenger_mode", championChallengerScorer.getMode().name().toLowerCase());
+            info.put("challenger_traffic_percent", championChallengerScorer.getTrafficPercent());
+        }
         
         return ResponseEntity.ok(info);
     }
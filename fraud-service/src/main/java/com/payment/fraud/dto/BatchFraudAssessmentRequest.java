@@ -0,0 +1,24 @@
+package com.payment.fraud.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchFraudAssessmentRequest {
+
+    public static final int MAX_ITEMS = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_ITEMS)
+    private List<@Valid FraudAssessmentRequest> items;
+}
@@ -0,0 +1,28 @@
+package com.payment.fraud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchFraudAssessmentResponse {
+
+    /** One result per request item, in request order */
+    private List<Item> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private UUID paymentId;
+        private FraudAssessmentResponse assessment;
+    }
+}
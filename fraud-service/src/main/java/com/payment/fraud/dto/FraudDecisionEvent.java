@@ -0,0 +1,34 @@
+package com.payment.fraud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Decision of an asynchronous assessment, published to fraud-events keyed by paymentId
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FraudDecisionEvent {
+
+    public static final String EVENT_TYPE = "FRAUD_DECISION";
+
+    private String eventId; // fraud-decision:<paymentId>, so consumers drop republished decisions
+    private String eventType;
+    private UUID paymentId;
+    private UUID merchantId;
+
+    private BigDecimal score;
+    private String riskLevel;
+    private String decision; // ALLOW, REVIEW, BLOCK
+    private String modelVersion;
+
+    private Instant timestamp;
+}
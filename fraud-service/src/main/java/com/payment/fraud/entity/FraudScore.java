@@ -62,6 +62,13 @@ public class FraudScore {
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
     
+    /**
+     * ML feature row at assessment time, in FeatureSchema order. Written to the features
+     * column by FraudScoreWriter and read back only by TrainingDataGenerator.
+     */
+    @Transient
+    private float[] features;
+    
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
@@ -0,0 +1,134 @@
+package com.payment.fraud.event;
+
+import com.payment.fraud.dto.BatchFraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+import com.payment.fraud.service.FraudAssessmentService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Post-authorization scoring for merchants that run fraud outside checkout.
+ *
+ * payment-service skips the synchronous assessment for those merchants and marks their
+ * payments with metadata fraud_assessment=async. Each poll of payment-events is filtered
+ * to the marked PAYMENT_AUTHORIZED events, assessed as one batch and
+ * answered with a FRAUD_DECISION per payment on fraud-events. Offsets are committed only
+ * after the decisions are acked; a redelivered batch is answered from the decision cache.
+ *
+ * Metrics: fraud.async.batch.size and fraud.async.decision.delay (payment event to
+ * published decision).
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "fraud.async.enabled", havingValue = "true")
+public class AsyncFraudScoringHandler {
+
+    /** Payment metadata that selects asynchronous scoring */
+    public static final String FRAUD_ASSESSMENT_KEY = "fraud_assessment";
+    public static final String FRAUD_ASSESSMENT_ASYNC = "async";
+
+    private static final String SCORED_EVENT = "PAYMENT_AUTHORIZED";
+
+    private final FraudAssessmentService fraudAssessmentService;
+    private final FraudDecisionPublisher fraudDecisionPublisher;
+    private final DistributionSummary batchSizes;
+    private final Timer decisionDelay;
+
+    public AsyncFraudScoringHandler(FraudAssessmentService fraudAssessmentService,
+                                    FraudDecisionPublisher fraudDecisionPublisher,
+                                    MeterRegistry meterRegistry) {
+        this.fraudAssessmentService = fraudAssessmentService;
+        this.fraudDecisionPublisher = fraudDecisionPublisher;
+        this.batchSizes = DistributionSummary.builder("fraud.async.batch.size")
+            .description("Payments assessed per consumed batch of payment events")
+            .register(meterRegistry);
+        this.decisionDelay = Timer.builder("fraud.async.decision.delay")
+            .description("Time from the payment event to its published fraud decision")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+
+    @KafkaListener(
+        topics = "payment-events",
+        groupId = "fraud-async-scoring-group",
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void handlePaymentEvents(@Payload List<Map<String, Object>> events) {
+        // A redelivered event of a payment already in this poll is assessed once
+        Map<UUID, FraudAssessmentRequest> requests = new LinkedHashMap<>();
+        Map<UUID, Long> eventTimes = new LinkedHashMap<>();
+        for (Map<String, Object> event : events) {
+            FraudAssessmentRequest request = toRequest(event);
+            if (request != null && requests.putIfAbsent(request.getPaymentId(), request) == null) {
+                eventTimes.put(request.getPaymentId(), PaymentEventFields.timestampMillis(event.get("timestamp")));
+            }
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+        batchSizes.record(requests.size());
+
+        List<FraudAssessmentRequest> pending = new ArrayList<>(requests.values());
+        for (int from = 0; from < pending.size(); from += BatchFraudAssessmentRequest.MAX_ITEMS) {
+            List<FraudAssessmentRequest> chunk =
+                pending.subList(from, Math.min(from + BatchFraudAssessmentRequest.MAX_ITEMS, pending.size()));
+            List<FraudAssessmentResponse> responses = fraudAssessmentService.assessBatch(chunk);
+            fraudDecisionPublisher.publishAll(chunk, responses);
+
+            long now = System.currentTimeMillis();
+            for (FraudAssessmentRequest request : chunk) {
+                decisionDelay.record(Math.max(0, now - eventTimes.get(request.getPaymentId())), TimeUnit.MILLISECONDS);
+            }
+        }
+        log.info("Asynchronous fraud decisions published: events={}, payments={}", events.size(), pending.size());
+    }
+
+    /**
+     * Assessment request for an event selected for asynchronous scoring, otherwise null
+     */
+    @SuppressWarnings("unchecked")
+    private static FraudAssessmentRequest toRequest(Map<String, Object> event) {
+        Object metadata = event.get("metadata");
+        if (!SCORED_EVENT.equals(event.get("eventType"))
+                || !FRAUD_ASSESSMENT_ASYNC.equals(PaymentEventFields.metadataValue(metadata, FRAUD_ASSESSMENT_KEY))) {
+            return null;
+        }
+
+        UUID paymentId = PaymentEventFields.uuid(event.get("paymentId"));
+        UUID merchantId = PaymentEventFields.uuid(event.get("merchantId"));
+        Object amount = event.get("amount");
+        Object currency = event.get("currency");
+        if (paymentId == null || merchantId == null || !(amount instanceof Number) || !(currency instanceof String)) {
+            log.warn("Skipping malformed payment event for async scoring: type={}, paymentId={}",
+                event.get("eventType"), event.get("paymentId"));
+            return null;
+        }
+
+        return FraudAssessmentRequest.builder()
+            .paymentId(paymentId)
+            .merchantId(merchantId)
+            .customerId(PaymentEventFields.uuid(event.get("customerId")))
+            .amount(((Number) amount).longValue())
+            .currency((String) currency)
+            .paymentMethodId(PaymentEventFields.uuid(event.get("paymentMethodId")))
+            .ipAddress(PaymentEventFields.metadataValue(metadata, "ipAddress", "ip_address"))
+            .deviceId(PaymentEventFields.deviceId(metadata))
+            .userAgent(PaymentEventFields.metadataValue(metadata, "userAgent", "user_agent"))
+            .metadata(metadata instanceof Map<?, ?> ? (Map<String, Object>) metadata : null)
+            .build();
+    }
+}
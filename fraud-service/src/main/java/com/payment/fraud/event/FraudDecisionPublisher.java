@@ -0,0 +1,72 @@
+package com.payment.fraud.event;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+import com.payment.fraud.dto.FraudDecisionEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes asynchronous fraud decisions to fraud-events
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "fraud.async.enabled", havingValue = "true")
+public class FraudDecisionPublisher {
+
+    static final String FRAUD_EVENTS_TOPIC = "fraud-events";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${fraud.async.publish-timeout:10s}")
+    private Duration publishTimeout;
+
+    /**
+     * Publishes the decision of each request, response i belonging to request i, and waits
+     * for every ack, so the events they answer are committed only once the decisions are
+     * durable. Throws if any send fails.
+     */
+    public void publishAll(List<FraudAssessmentRequest> requests, List<FraudAssessmentResponse> responses) {
+        Instant now = Instant.now();
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            FraudAssessmentRequest request = requests.get(i);
+            FraudAssessmentResponse response = responses.get(i);
+            FraudDecisionEvent event = FraudDecisionEvent.builder()
+                .eventId("fraud-decision:" + request.getPaymentId())
+                .eventType(FraudDecisionEvent.EVENT_TYPE)
+                .paymentId(request.getPaymentId())
+                .merchantId(request.getMerchantId())
+                .score(response.getScore())
+                .riskLevel(response.getRiskLevel())
+                .decision(response.getDecision())
+                .modelVersion(response.getModelVersion())
+                .timestamp(now)
+                .build();
+            sends[i] = kafkaTemplate.send(FRAUD_EVENTS_TOPIC, request.getPaymentId().toString(), event);
+        }
+
+        try {
+            CompletableFuture.allOf(sends).get(publishTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing fraud decisions", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to publish " + requests.size() + " fraud decisions", e);
+        }
+        log.debug("Published fraud decisions: count={}", requests.size());
+    }
+}
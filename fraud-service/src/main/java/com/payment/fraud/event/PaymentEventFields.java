@@ -0,0 +1,62 @@
+package com.payment.fraud.event;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads fields of payment-events payloads, which arrive as untyped JSON maps
+ */
+final class PaymentEventFields {
+
+    private PaymentEventFields() {
+    }
+
+    static UUID uuid(Object value) {
+        if (value instanceof String s && !s.isBlank()) {
+            try {
+                return UUID.fromString(s);
+            } catch (IllegalArgumentException ignored) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    static String deviceId(Object metadata) {
+        return metadataValue(metadata, "deviceId", "device_id");
+    }
+
+    /**
+     * First of the keys present in the event metadata, as a string
+     */
+    static String metadataValue(Object metadata, String... keys) {
+        if (metadata instanceof Map<?, ?> map) {
+            for (String key : keys) {
+                Object value = map.get(key);
+                if (value != null) {
+                    return value.toString();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Event timestamps arrive as ISO strings or epoch seconds depending on the publisher's
+     * Jackson settings; fall back to now
+     */
+    static long timestampMillis(Object value) {
+        if (value instanceof String s) {
+            try {
+                return Instant.parse(s).toEpochMilli();
+            } catch (RuntimeException ignored) {
+                return System.currentTimeMillis();
+            }
+        }
+        if (value instanceof Number n) {
+            return (long) (n.doubleValue() * 1000);
+        }
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,72 @@
+package com.payment.fraud.event;
+
+import com.payment.fraud.features.FeatureStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Feeds the feature store from payment-events. payment-service publishes every checkout
+ * outcome (authorized, declined, failed, 3DS challenge), so the aggregates count attempts
+ * rather than only successful authorizations; the store counts each payment once, so
+ * lifecycle events of the same payment and redeliveries are no-ops.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "fraud.features.kafka.enabled", havingValue = "true")
+public class PaymentEventHandler {
+
+    private static final Set<String> ATTEMPT_EVENTS = Set.of(
+        "PAYMENT_AUTHORIZED",
+        "PAYMENT_AUTHENTICATION_REQUIRED",
+        "PAYMENT_DECLINED",
+        "PAYMENT_FAILED"
+    );
+
+    private final FeatureStore featureStore;
+
+    @KafkaListener(
+        topics = "payment-events",
+        groupId = "fraud-feature-store-group",
+        containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void handlePaymentEvent(
+            @Payload Map<String, Object> event,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset) {
+
+        String eventType = (String) event.get("eventType");
+        if (!ATTEMPT_EVENTS.contains(eventType)) {
+            return;
+        }
+
+        UUID paymentId = PaymentEventFields.uuid(event.get("paymentId"));
+        Object amount = event.get("amount");
+        if (paymentId == null || !(amount instanceof Number)) {
+            log.warn("Skipping malformed payment event: type={}, partition={}, offset={}", eventType, partition, offset);
+            return;
+        }
+
+        boolean counted = featureStore.recordPayment(
+            paymentId,
+            PaymentEventFields.uuid(event.get("merchantId")),
+            PaymentEventFields.uuid(event.get("customerId")),
+            PaymentEventFields.uuid(event.get("paymentMethodId")),
+            PaymentEventFields.deviceId(event.get("metadata")),
+            ((Number) amount).longValue(),
+            PaymentEventFields.timestampMillis(event.get("timestamp")));
+
+        log.debug("Payment event applied to feature store: type={}, paymentId={}, counted={}",
+            eventType, paymentId, counted);
+    }
+}
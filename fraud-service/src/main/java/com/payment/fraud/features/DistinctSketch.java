@@ -0,0 +1,56 @@
+package com.payment.fraud.features;
+
+import java.util.Map;
+
+/**
+ * 128-bit linear-counting sketch of distinct values, stored as four 32-bit hash fields
+ * (prefix0..prefix3) next to the other aggregate fields.
+ *
+ * Sixteen bytes per sketch regardless of how many values are added; estimates are within
+ * a few percent up to ~100 distinct values and saturate around 600, which is far past any
+ * threshold a rule or model cares about for one customer, card or device.
+ */
+final class DistinctSketch {
+
+    static final int BITS = 128;
+    static final int WORDS = BITS / 32;
+
+    /** Estimate reported once every bit is set */
+    static final int SATURATED = (int) Math.round(BITS * Math.log(BITS));
+
+    private DistinctSketch() {
+    }
+
+    /**
+     * Bit index in [0, 128) for value
+     */
+    static int bit(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) (h & (BITS - 1));
+    }
+
+    /**
+     * Estimated distinct count from the prefix0..prefix3 fields of a Redis hash
+     */
+    static int estimate(Map<String, String> fields, String prefix) {
+        int setBits = 0;
+        for (int word = 0; word < WORDS; word++) {
+            String value = fields.get(prefix + word);
+            if (value != null) {
+                setBits += Integer.bitCount((int) Long.parseLong(value));
+            }
+        }
+        int zeros = BITS - setBits;
+        if (zeros == 0) {
+            return SATURATED;
+        }
+        return (int) Math.round(-BITS * Math.log((double) zeros / BITS));
+    }
+}
@@ -0,0 +1,54 @@
+package com.payment.fraud.features;
+
+import java.util.Map;
+
+/**
+ * Historical aggregate for one customer, card or device.
+ *
+ * @param count             payments seen
+ * @param amountSum         sum of amounts in minor units
+ * @param amountEwma        exponentially weighted moving average amount
+ * @param firstSeenMillis   first payment, epoch millis
+ * @param lastSeenMillis    latest payment, epoch millis
+ * @param distinctMerchants estimated distinct merchants paid
+ * @param distinctCustomers estimated distinct customers using this entity
+ */
+public record EntityAggregate(
+    long count,
+    long amountSum,
+    double amountEwma,
+    long firstSeenMillis,
+    long lastSeenMillis,
+    int distinctMerchants,
+    int distinctCustomers) {
+
+    static final String COUNT = "count";
+    static final String AMOUNT_SUM = "amount_sum";
+    static final String AMOUNT_EWMA = "amount_ewma";
+    static final String FIRST_SEEN = "first_seen";
+    static final String LAST_SEEN = "last_seen";
+    static final String MERCHANT_SKETCH = "m";
+    static final String CUSTOMER_SKETCH = "c";
+
+    /**
+     * Parses the Redis hash written by FeatureStore; null when the entity has no history
+     */
+    static EntityAggregate fromHash(Map<String, String> fields) {
+        if (fields == null || fields.isEmpty() || !fields.containsKey(COUNT)) {
+            return null;
+        }
+        return new EntityAggregate(
+            parseLong(fields.get(COUNT)),
+            parseLong(fields.get(AMOUNT_SUM)),
+            fields.containsKey(AMOUNT_EWMA) ? Double.parseDouble(fields.get(AMOUNT_EWMA)) : 0.0,
+            parseLong(fields.get(FIRST_SEEN)),
+            parseLong(fields.get(LAST_SEEN)),
+            DistinctSketch.estimate(fields, MERCHANT_SKETCH),
+            DistinctSketch.estimate(fields, CUSTOMER_SKETCH)
+        );
+    }
+
+    private static long parseLong(String value) {
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+}
@@ -0,0 +1,68 @@
+package com.payment.fraud.features;
+
+import com.payment.fraud.velocity.DistinctCounts;
+import com.payment.fraud.velocity.DistinctDimension;
+
+/**
+ * Aggregates for the customer, card and device of one assessment; a component is null
+ * when the request does not carry that entity or it has no history (or the lookup failed).
+ * distinctCounts carries the windowed distinct-count velocity of the same assessment.
+ * Derived values return {@link #UNKNOWN} when they cannot be computed.
+ */
+public record EntityFeatures(EntityAggregate customer, EntityAggregate card, EntityAggregate device,
+                             DistinctCounts distinctCounts) {
+
+    public static final long UNKNOWN = -1L;
+
+    public static final EntityFeatures EMPTY = new EntityFeatures(null, null, null, DistinctCounts.EMPTY);
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    public EntityFeatures withDistinctCounts(DistinctCounts counts) {
+        return new EntityFeatures(customer, card, device, counts);
+    }
+
+    /**
+     * Distinct values seen for the dimension within its window, including this payment
+     */
+    public long distinct(DistinctDimension dimension) {
+        return distinctCounts.get(dimension);
+    }
+
+    public boolean hasCustomerHistory() {
+        return customer != null;
+    }
+
+    /**
+     * Whole days since the customer's first payment
+     */
+    public long customerAgeDays(long nowMillis) {
+        return customer != null ? Math.max(0, (nowMillis - customer.firstSeenMillis()) / MILLIS_PER_DAY) : UNKNOWN;
+    }
+
+    public long customerPaymentCount() {
+        return customer != null ? customer.count() : UNKNOWN;
+    }
+
+    public double customerAverageAmount() {
+        return customer != null ? customer.amountEwma() : UNKNOWN;
+    }
+
+    public long customerDistinctMerchants() {
+        return customer != null ? customer.distinctMerchants() : UNKNOWN;
+    }
+
+    /**
+     * Distinct customers seen paying with this card
+     */
+    public long cardReuseCount() {
+        return card != null ? card.distinctCustomers() : UNKNOWN;
+    }
+
+    /**
+     * Distinct customers seen on this device
+     */
+    public long deviceReuseCount() {
+        return device != null ? device.distinctCustomers() : UNKNOWN;
+    }
+}
@@ -0,0 +1,21 @@
+package com.payment.fraud.features;
+
+/**
+ * Entities the feature store keeps aggregates for
+ */
+public enum EntityType {
+
+    CUSTOMER("customer"),
+    CARD("card"),
+    DEVICE("device");
+
+    private final String prefix;
+
+    EntityType(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public String key(String value) {
+        return prefix + ":" + value;
+    }
+}
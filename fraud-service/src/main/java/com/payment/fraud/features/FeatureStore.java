@@ -0,0 +1,319 @@
+package com.payment.fraud.features;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.velocity.DistinctCounts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Online feature store: per-customer, per-card and per-device aggregates.
+ *
+ * Redis holds one hash per entity, updated from payment-events by a Lua script that applies
+ * the whole payment atomically (count, amount sum and EWMA, first/last seen, distinct
+ * merchant and customer sketches) and counts each payment once however many of its events
+ * are delivered. Reads go through a short-lived local cache; everything an assessment (or a
+ * batch of assessments) needs that is not cached is fetched in a single pipelined batch.
+ * Aggregates reflect payments before the one being assessed.
+ *
+ * Metrics: fraud.features.lookups{outcome}, fraud.features.updates{outcome} and the
+ * fraud.features.cache.size gauge.
+ */
+@Component
+@Slf4j
+public class FeatureStore {
+
+    private static final String UPDATE_SCRIPT = """
+        if not redis.call('SET', KEYS[1], '1', 'NX', 'EX', ARGV[1]) then
+          return 0
+        end
+        local now = ARGV[2]
+        local amount = tonumber(ARGV[3])
+        local alpha = tonumber(ARGV[4])
+        local ttl = tonumber(ARGV[5])
+        local function setBit(key, prefix, b)
+          if b < 0 then return end
+          local field = prefix .. math.floor(b / 32)
+          local word = tonumber(redis.call('HGET', key, field) or '0')
+          redis.call('HSET', key, field, bit.bor(word, bit.lshift(1, b % 32)))
+        end
+        for i = 2, #KEYS do
+          local key = KEYS[i]
+          redis.call('HINCRBY', key, 'count', 1)
+          redis.call('HINCRBY', key, 'amount_sum', amount)
+          local ewma = tonumber(redis.call('HGET', key, 'amount_ewma'))
+          if ewma then ewma = ewma + alpha * (amount - ewma) else ewma = amount end
+          redis.call('HSET', key, 'amount_ewma', tostring(ewma))
+          redis.call('HSETNX', key, 'first_seen', now)
+          redis.call('HSET', key, 'last_seen', now)
+          setBit(key, 'm', tonumber(ARGV[6]))
+          setBit(key, 'c', tonumber(ARGV[7]))
+          redis.call('EXPIRE', key, ttl)
+        end
+        return 1
+        """;
+
+    private final RedissonClient redissonClient;
+    private final String keyPrefix;
+    private final Duration entityTtl;
+    private final Duration dedupeTtl;
+    private final double ewmaAlpha;
+    private final Duration lookupTimeout;
+    private final long cacheTtlMillis;
+    private final int cacheMaxKeys;
+    private final Counter cacheLookups;
+    private final Counter redisLookups;
+    private final Counter degradedLookups;
+    private final Counter appliedUpdates;
+    private final Counter duplicateUpdates;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    public FeatureStore(
+            RedissonClient redissonClient,
+            @Value("${fraud.features.key-prefix:fraud:features:}") String keyPrefix,
+            @Value("${fraud.features.entity-ttl:180d}") Duration entityTtl,
+            @Value("${fraud.features.dedupe-ttl:2d}") Duration dedupeTtl,
+            @Value("${fraud.features.ewma-alpha:0.1}") double ewmaAlpha,
+            @Value("${fraud.features.lookup-timeout:50ms}") Duration lookupTimeout,
+            @Value("${fraud.features.cache.ttl:5s}") Duration cacheTtl,
+            @Value("${fraud.features.cache.max-keys:100000}") int cacheMaxKeys,
+            MeterRegistry meterRegistry) {
+        this.redissonClient = redissonClient;
+        this.keyPrefix = keyPrefix;
+        this.entityTtl = entityTtl;
+        this.dedupeTtl = dedupeTtl;
+        this.ewmaAlpha = ewmaAlpha;
+        this.lookupTimeout = lookupTimeout;
+        this.cacheTtlMillis = cacheTtl.toMillis();
+        this.cacheMaxKeys = cacheMaxKeys;
+        this.cacheLookups = lookups(meterRegistry, "cache");
+        this.redisLookups = lookups(meterRegistry, "redis");
+        this.degradedLookups = lookups(meterRegistry, "degraded");
+        this.appliedUpdates = updates(meterRegistry, "applied");
+        this.duplicateUpdates = updates(meterRegistry, "duplicate");
+
+        Gauge.builder("fraud.features.cache.size", cache, Map::size)
+            .description("Entity aggregates held in the local feature cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Aggregates for the request's customer, card and device. Never fails: entities that
+     * cannot be read within fraud.features.lookup-timeout fall back to a stale cached copy,
+     * or no history.
+     */
+    public CompletableFuture<EntityFeatures> lookupAsync(FraudAssessmentRequest request) {
+        return lookupAllAsync(List.of(request)).thenApply(features -> features.get(0));
+    }
+
+    /**
+     * Aggregates for a batch of requests, in request order. Entities shared by several
+     * requests are read once, all uncached entities in one pipelined batch; fails the same
+     * way as {@link #lookupAsync}.
+     */
+    public CompletableFuture<List<EntityFeatures>> lookupAllAsync(List<FraudAssessmentRequest> requests) {
+        long now = System.currentTimeMillis();
+        List<Map<EntityType, String>> keysPerRequest = new ArrayList<>(requests.size());
+        Map<String, EntityAggregate> resolved = new HashMap<>();
+        Map<String, EntityAggregate> stale = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        boolean anyKeys = false;
+
+        for (FraudAssessmentRequest request : requests) {
+            Map<EntityType, String> keys = entityKeys(request);
+            keysPerRequest.add(keys);
+            for (String key : keys.values()) {
+                anyKeys = true;
+                if (resolved.containsKey(key) || missing.contains(key)) {
+                    continue;
+                }
+                Cached cached = cache.get(key);
+                if (cached != null && now - cached.loadedAt() < cacheTtlMillis) {
+                    resolved.put(key, cached.aggregate());
+                } else {
+                    if (cached != null) {
+                        stale.put(key, cached.aggregate());
+                    }
+                    missing.add(key);
+                }
+            }
+        }
+        if (!anyKeys) {
+            return CompletableFuture.completedFuture(Collections.nCopies(requests.size(), EntityFeatures.EMPTY));
+        }
+        if (missing.isEmpty()) {
+            cacheLookups.increment();
+            return CompletableFuture.completedFuture(toFeatures(keysPerRequest, resolved));
+        }
+
+        RBatch batch = redissonClient.createBatch(BatchOptions.defaults()
+            .executionMode(BatchOptions.ExecutionMode.IN_MEMORY)
+            .responseTimeout(lookupTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .retryAttempts(0));
+        Map<String, RFuture<Map<String, String>>> reads = new HashMap<>();
+        for (String key : missing) {
+            reads.put(key, batch.<String, String>getMap(keyPrefix + key, StringCodec.INSTANCE).readAllMapAsync());
+        }
+
+        Map<String, EntityAggregate> fallback = new HashMap<>(resolved);
+        fallback.putAll(stale);
+
+        return batch.executeAsync().toCompletableFuture()
+            .thenApply(ignored -> {
+                long loadedAt = System.currentTimeMillis();
+                reads.forEach((key, read) -> {
+                    EntityAggregate aggregate = EntityAggregate.fromHash(read.toCompletableFuture().join());
+                    resolved.put(key, aggregate);
+                    cachePut(key, aggregate, loadedAt);
+                });
+                redisLookups.increment();
+                return toFeatures(keysPerRequest, resolved);
+            })
+            .completeOnTimeout(null, lookupTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .exceptionally(error -> {
+                log.debug("Feature lookup failed: requests={}, firstPaymentId={}, error={}",
+                    requests.size(), requests.get(0).getPaymentId(), error.getMessage());
+                return null;
+            })
+            .thenApply(features -> {
+                if (features == null) {
+                    degradedLookups.increment();
+                    return toFeatures(keysPerRequest, fallback);
+                }
+                return features;
+            });
+    }
+
+    /**
+     * Folds one payment into the aggregates of its customer, card and device. Returns false
+     * when the payment had already been counted.
+     */
+    public boolean recordPayment(UUID paymentId, UUID merchantId, UUID customerId, UUID paymentMethodId,
+                                 String deviceId, long amount, long timestampMillis) {
+        Map<EntityType, String> keys = entityKeys(customerId, paymentMethodId, deviceId);
+        if (keys.isEmpty()) {
+            return false;
+        }
+
+        List<Object> redisKeys = new ArrayList<>(keys.size() + 1);
+        redisKeys.add(keyPrefix + "payment:" + paymentId);
+        for (String key : keys.values()) {
+            redisKeys.add(keyPrefix + key);
+        }
+
+        Long applied = redissonClient.getScript(StringCodec.INSTANCE).eval(
+            RScript.Mode.READ_WRITE,
+            UPDATE_SCRIPT,
+            RScript.ReturnType.INTEGER,
+            redisKeys,
+            String.valueOf(dedupeTtl.toSeconds()),
+            String.valueOf(timestampMillis),
+            String.valueOf(amount),
+            String.valueOf(ewmaAlpha),
+            String.valueOf(entityTtl.toSeconds()),
+            String.valueOf(merchantId != null ? DistinctSketch.bit(merchantId.toString()) : -1),
+            String.valueOf(customerId != null ? DistinctSketch.bit(customerId.toString()) : -1));
+
+        // This instance's copies are now behind Redis; others catch up within cache.ttl
+        keys.values().forEach(cache::remove);
+
+        boolean counted = applied != null && applied == 1L;
+        (counted ? appliedUpdates : duplicateUpdates).increment();
+        return counted;
+    }
+
+    /**
+     * Drops local copies older than the cache TTL
+     */
+    @Scheduled(fixedDelayString = "${fraud.features.cache.evict-interval-ms:30000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - cacheTtlMillis;
+        cache.values().removeIf(cached -> cached.loadedAt() < cutoff);
+    }
+
+    private void cachePut(String key, EntityAggregate aggregate, long loadedAt) {
+        if (cache.size() < cacheMaxKeys || cache.containsKey(key)) {
+            cache.put(key, new Cached(aggregate, loadedAt));
+        }
+    }
+
+    private static Map<EntityType, String> entityKeys(FraudAssessmentRequest request) {
+        return entityKeys(request.getCustomerId(), request.getPaymentMethodId(), request.getDeviceId());
+    }
+
+    private static Map<EntityType, String> entityKeys(UUID customerId, UUID paymentMethodId, String deviceId) {
+        Map<EntityType, String> keys = new EnumMap<>(EntityType.class);
+        if (customerId != null) {
+            keys.put(EntityType.CUSTOMER, EntityType.CUSTOMER.key(customerId.toString()));
+        }
+        if (paymentMethodId != null) {
+            keys.put(EntityType.CARD, EntityType.CARD.key(paymentMethodId.toString()));
+        }
+        if (deviceId != null && !deviceId.isBlank()) {
+            keys.put(EntityType.DEVICE, EntityType.DEVICE.key(deviceId.trim()));
+        }
+        return keys;
+    }
+
+    private static List<EntityFeatures> toFeatures(List<Map<EntityType, String>> keysPerRequest,
+                                                   Map<String, EntityAggregate> aggregates) {
+        List<EntityFeatures> features = new ArrayList<>(keysPerRequest.size());
+        for (Map<EntityType, String> keys : keysPerRequest) {
+            features.add(keys.isEmpty() ? EntityFeatures.EMPTY : new EntityFeatures(
+                aggregate(keys, EntityType.CUSTOMER, aggregates),
+                aggregate(keys, EntityType.CARD, aggregates),
+                aggregate(keys, EntityType.DEVICE, aggregates),
+                DistinctCounts.EMPTY));
+        }
+        return features;
+    }
+
+    private static EntityAggregate aggregate(Map<EntityType, String> keys, EntityType type,
+                                             Map<String, EntityAggregate> aggregates) {
+        String key = keys.get(type);
+        return key != null ? aggregates.get(key) : null;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("fraud.features.lookups")
+            .description("Feature store lookups by where the aggregates came from")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static Counter updates(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("fraud.features.updates")
+            .description("Payments folded into the feature store")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /** Local copy of an aggregate; aggregate is null for an entity with no history */
+    private record Cached(EntityAggregate aggregate, long loadedAt) {
+    }
+}
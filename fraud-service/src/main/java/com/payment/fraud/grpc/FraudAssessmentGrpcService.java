@@ -0,0 +1,50 @@
+package com.payment.fraud.grpc;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.service.FraudAssessmentService;
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binary counterpart of POST /api/v1/fraud/assess, served by FraudGrpcServer
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "fraud.grpc.enabled", havingValue = "true")
+public class FraudAssessmentGrpcService extends FraudAssessmentGrpc.FraudAssessmentImplBase {
+
+    private final FraudAssessmentService fraudAssessmentService;
+
+    @Override
+    public void assess(AssessRequest message, StreamObserver<AssessResponse> responseObserver) {
+        // The caller's deadline may have passed while the call was queued
+        if (Context.current().isCancelled()) {
+            responseObserver.onError(Status.DEADLINE_EXCEEDED
+                .withDescription("Deadline passed before assessment started")
+                .asRuntimeException());
+            return;
+        }
+
+        FraudAssessmentRequest request = FraudAssessmentMessages.toRequest(message);
+        if (request == null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                .withDescription("paymentId, merchantId and currency are required")
+                .asRuntimeException());
+            return;
+        }
+
+        try {
+            responseObserver.onNext(FraudAssessmentMessages.toMessage(fraudAssessmentService.assess(request)));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            log.error("gRPC fraud assessment failed: paymentId={}", request.getPaymentId(), e);
+            responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+}
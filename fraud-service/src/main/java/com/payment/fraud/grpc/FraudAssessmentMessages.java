@@ -0,0 +1,59 @@
+package com.payment.fraud.grpc;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Converts between the protobuf assessment messages and the REST DTOs the assessment
+ * service works on
+ */
+public final class FraudAssessmentMessages {
+
+    private FraudAssessmentMessages() {
+    }
+
+    /**
+     * Request DTO, or null when a field the REST endpoint validates as required is missing
+     */
+    public static FraudAssessmentRequest toRequest(AssessRequest message) {
+        UUID paymentId = Uuids.fromBytes(message.getPaymentId());
+        UUID merchantId = Uuids.fromBytes(message.getMerchantId());
+        if (paymentId == null || merchantId == null || message.getCurrency().isEmpty()) {
+            return null;
+        }
+        return FraudAssessmentRequest.builder()
+            .paymentId(paymentId)
+            .merchantId(merchantId)
+            .customerId(Uuids.fromBytes(message.getCustomerId()))
+            .paymentMethodId(Uuids.fromBytes(message.getPaymentMethodId()))
+            .amount(message.getAmount())
+            .currency(message.getCurrency())
+            .ipAddress(emptyToNull(message.getIpAddress()))
+            .deviceId(emptyToNull(message.getDeviceId()))
+            .userAgent(emptyToNull(message.getUserAgent()))
+            .build();
+    }
+
+    public static AssessResponse toMessage(FraudAssessmentResponse response) {
+        AssessResponse.Builder message = AssessResponse.newBuilder()
+            .setScoreMillis(response.getScore().movePointRight(3).intValue())
+            .setRiskLevel(response.getRiskLevel())
+            .setDecision(Decision.valueOf(response.getDecision()));
+        if (response.getModelVersion() != null) {
+            message.setModelVersion(response.getModelVersion());
+        }
+        if (response.getFactors() != null && response.getFactors().get("degraded_checks") instanceof List<?> checks) {
+            for (Object check : checks) {
+                message.addDegradedChecks(check.toString());
+            }
+        }
+        return message.build();
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
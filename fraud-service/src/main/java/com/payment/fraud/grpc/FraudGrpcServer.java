@@ -0,0 +1,98 @@
+package com.payment.fraud.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC endpoint for payment-service assessment calls, next to the REST API.
+ *
+ * Calls run on virtual threads since an assessment blocks on its checks. Clients keep one
+ * long-lived HTTP/2 connection and ping it while idle; pings more frequent than
+ * permit-keep-alive-time are refused. The port is for service-to-service traffic only and
+ * is not exposed through the gateway.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "fraud.grpc.enabled", havingValue = "true")
+public class FraudGrpcServer implements SmartLifecycle {
+
+    private final FraudAssessmentGrpcService assessmentService;
+    private final int port;
+    private final Duration permitKeepAliveTime;
+    private final Duration maxConnectionIdle;
+    private final int maxInboundMessageSize;
+    private final Duration shutdownTimeout;
+
+    private ExecutorService executor;
+    private volatile Server server;
+
+    public FraudGrpcServer(
+            FraudAssessmentGrpcService assessmentService,
+            @Value("${fraud.grpc.port:9090}") int port,
+            @Value("${fraud.grpc.permit-keep-alive-time:20s}") Duration permitKeepAliveTime,
+            @Value("${fraud.grpc.max-connection-idle:30m}") Duration maxConnectionIdle,
+            @Value("${fraud.grpc.max-inbound-message-size:16384}") int maxInboundMessageSize,
+            @Value("${fraud.grpc.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.assessmentService = assessmentService;
+        this.port = port;
+        this.permitKeepAliveTime = permitKeepAliveTime;
+        this.maxConnectionIdle = maxConnectionIdle;
+        this.maxInboundMessageSize = maxInboundMessageSize;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fraud-grpc-", 0).factory());
+        try {
+            server = NettyServerBuilder.forPort(port)
+                .addService(assessmentService)
+                .executor(executor)
+                .permitKeepAliveTime(permitKeepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .permitKeepAliveWithoutCalls(true)
+                .maxConnectionIdle(maxConnectionIdle.toMillis(), TimeUnit.MILLISECONDS)
+                .maxInboundMessageSize(maxInboundMessageSize)
+                .build()
+                .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start fraud gRPC server on port " + port, e);
+        }
+        log.info("Fraud gRPC server listening on port {}", port);
+    }
+
+    @Override
+    public void stop() {
+        Server current = server;
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            current.shutdownNow();
+        }
+        executor.shutdown();
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
@@ -0,0 +1,397 @@
+package com.payment.fraud.ml;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Champion / challenger ML scoring.
+ *
+ * The champion is the serving ONNX model, or the built-in logistic regression when none is
+ * loaded. A challenger (fraud.ml.challenger.source: onnx or builtin) runs in one of two modes:
+ * shadow, where it scores traffic-percent of payments on the shadow executor and never
+ * affects the decision; or ab, where it decides traffic-percent of payments itself and the
+ * champion scores those in shadow. The split is on the payment id, so a retried payment
+ * lands on the same model. Shadow work is skipped, not queued, when its executor is full.
+ *
+ * Metrics: fraud.ml.model.latency{role, model}, fraud.ml.model.batch.latency{role, model},
+ * fraud.ml.model.score{role, model}, fraud.ml.challenger.delta and fraud.ml.shadow.rejected.
+ */
+@Component
+@Slf4j
+public class ChampionChallengerScorer {
+
+    public static final String ROLE_CHAMPION = "champion";
+    public static final String ROLE_CHALLENGER = "challenger";
+    public static final String ROLE_NONE = "none";
+
+    public enum Mode {
+        SHADOW, AB
+    }
+
+    /**
+     * Score of one model for one payment
+     */
+    public record ModelScore(String role, String version, double score) {
+    }
+
+    /**
+     * Score that decides the payment, plus the other model's score when this payment is in
+     * the challenger slice. shadow completes on the shadow executor with null if that model
+     * could not answer.
+     */
+    public record Result(ModelScore primary, CompletableFuture<ModelScore> shadow) {
+        public static Result fallback(double score) {
+            return new Result(new ModelScore(ROLE_NONE, null, score), null);
+        }
+    }
+
+    private final OnnxFraudModel onnxFraudModel;
+    private final FraudMLModel fraudMLModel;
+    private final ScoringModel challenger;
+    private final Mode mode;
+    private final int trafficPercent;
+    private final Executor shadowExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final DistributionSummary delta;
+    private final Counter shadowRejected;
+    /** Per-model meters by model version, one map per role */
+    private final ConcurrentHashMap<String, ModelMeters> championMeters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ModelMeters> challengerMeters = new ConcurrentHashMap<>();
+
+    public ChampionChallengerScorer(
+            OnnxFraudModel onnxFraudModel,
+            @Qualifier("challengerOnnxModel") OnnxFraudModel challengerOnnxModel,
+            FraudMLModel fraudMLModel,
+            @Qualifier("shadowScoringExecutor") Executor shadowExecutor,
+            @Value("${fraud.ml.challenger.source:none}") String source,
+            @Value("${fraud.ml.challenger.mode:shadow}") String mode,
+            @Value("${fraud.ml.challenger.traffic-percent:100}") int trafficPercent,
+            MeterRegistry meterRegistry) {
+        this.onnxFraudModel = onnxFraudModel;
+        this.fraudMLModel = fraudMLModel;
+        this.challenger = switch (source.toLowerCase()) {
+            case "onnx" -> challengerOnnxModel;
+            case "builtin" -> fraudMLModel;
+            default -> null;
+        };
+        this.mode = Mode.valueOf(mode.toUpperCase());
+        this.trafficPercent = Math.max(0, Math.min(100, trafficPercent));
+        this.shadowExecutor = shadowExecutor;
+        this.meterRegistry = meterRegistry;
+
+        this.delta = DistributionSummary.builder("fraud.ml.challenger.delta")
+            .description("Absolute score difference between champion and challenger on the same payment")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue(100.0)
+            .register(meterRegistry);
+        this.shadowRejected = Counter.builder("fraud.ml.shadow.rejected")
+            .description("Shadow scores skipped because the shadow executor was full")
+            .register(meterRegistry);
+
+        if (challenger != null) {
+            log.info("ML challenger enabled: source={}, mode={}, trafficPercent={}",
+                source, this.mode, this.trafficPercent);
+        }
+    }
+
+    public boolean isChallengerEnabled() {
+        return challenger != null;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getTrafficPercent() {
+        return trafficPercent;
+    }
+
+    public String getChampionVersion() {
+        return onnxFraudModel.isServing() ? onnxFraudModel.getModelVersion() : fraudMLModel.getModelVersion();
+    }
+
+    public String getChallengerVersion() {
+        return challenger != null ? challenger.version() : null;
+    }
+
+    /**
+     * Scores features for paymentId. features is only read on the calling thread; shadow
+     * scoring works on a copy.
+     */
+    public Result score(UUID paymentId, double[] features) {
+        boolean inSlice = challenger != null && inSlice(paymentId);
+
+        if (inSlice && mode == Mode.AB) {
+            ModelScore primary = timedScore(ROLE_CHALLENGER, challenger, features);
+            if (primary != null) {
+                return new Result(primary, shadow(this::championScore, features, primary));
+            }
+            // Challenger not loaded or failed: the champion decides and nothing is compared
+            return new Result(championScore(features), null);
+        }
+
+        ModelScore primary = championScore(features);
+        CompletableFuture<ModelScore> shadow = inSlice
+            ? shadow(row -> timedScore(ROLE_CHALLENGER, challenger, row), features, primary)
+            : null;
+        return new Result(primary, shadow);
+    }
+
+    /**
+     * Scores a batch of feature rows, one Result per row in order, with each model scoring
+     * its rows in one batch call; the shadow model scores its rows in a single shadow task.
+     * Rows must not be modified until every shadow future has completed.
+     */
+    public List<Result> scoreBatch(List<UUID> paymentIds, double[][] features) {
+        int rows = features.length;
+        boolean[] inSlice = new boolean[rows];
+        if (challenger != null) {
+            for (int i = 0; i < rows; i++) {
+                inSlice[i] = inSlice(paymentIds.get(i));
+            }
+        }
+
+        ModelScore[] primary = new ModelScore[rows];
+        if (mode == Mode.AB) {
+            int[] slice = indices(inSlice);
+            if (slice.length > 0) {
+                // Rows the challenger cannot answer stay null and go to the champion below
+                scatter(timedScoreBatch(ROLE_CHALLENGER, challenger, select(features, slice)), slice, primary);
+            }
+        }
+        int[] championRows = unscored(primary);
+        if (championRows.length > 0) {
+            scatter(championScoreBatch(select(features, championRows)), championRows, primary);
+        }
+
+        // Shadow rows: the challenger's slice in shadow mode, challenger-decided rows in ab mode
+        boolean[] shadowed = new boolean[rows];
+        for (int i = 0; i < rows; i++) {
+            shadowed[i] = inSlice[i] && (mode == Mode.SHADOW || ROLE_CHALLENGER.equals(primary[i].role()));
+        }
+        int[] shadowRows = indices(shadowed);
+        Function<double[][], ModelScore[]> shadowScorer = mode == Mode.AB
+            ? this::championScoreBatch
+            : batch -> timedScoreBatch(ROLE_CHALLENGER, challenger, batch);
+        CompletableFuture<ModelScore[]> shadow = shadowRows.length > 0
+            ? shadowBatch(shadowScorer, select(features, shadowRows), select(primary, shadowRows))
+            : null;
+
+        List<Result> results = new ArrayList<>(rows);
+        int shadowIndex = 0;
+        for (int i = 0; i < rows; i++) {
+            CompletableFuture<ModelScore> rowShadow = null;
+            if (shadowed[i] && shadow != null) {
+                int k = shadowIndex++;
+                rowShadow = shadow.thenApply(scores -> scores != null ? scores[k] : null);
+            }
+            results.add(new Result(primary[i], rowShadow));
+        }
+        return results;
+    }
+
+    private boolean inSlice(UUID paymentId) {
+        return paymentId != null && Math.floorMod(paymentId.hashCode(), 100) < trafficPercent;
+    }
+
+    private ModelScore championScore(double[] features) {
+        ModelScore score = timedScore(ROLE_CHAMPION, onnxFraudModel, features);
+        return score != null ? score : timedScore(ROLE_CHAMPION, fraudMLModel, features);
+    }
+
+    private ModelScore[] championScoreBatch(double[][] rows) {
+        ModelScore[] scores = timedScoreBatch(ROLE_CHAMPION, onnxFraudModel, rows);
+        int[] fallback = unscored(scores);
+        if (fallback.length > 0) {
+            scatter(timedScoreBatch(ROLE_CHAMPION, fraudMLModel, select(rows, fallback)), fallback, scores);
+        }
+        return scores;
+    }
+
+    private CompletableFuture<ModelScore[]> shadowBatch(Function<double[][], ModelScore[]> scorer, double[][] rows,
+                                                        ModelScore[] primary) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                ModelScore[] scores = scorer.apply(rows);
+                for (int i = 0; i < scores.length; i++) {
+                    if (scores[i] != null) {
+                        delta.record(Math.abs(scores[i].score() - primary[i].score()));
+                    }
+                }
+                return scores;
+            }, shadowExecutor).exceptionally(error -> {
+                log.debug("Shadow batch scoring failed: {}", error.getMessage());
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            shadowRejected.increment(rows.length);
+            return null;
+        }
+    }
+
+    private CompletableFuture<ModelScore> shadow(Function<double[], ModelScore> scorer, double[] features,
+                                                 ModelScore primary) {
+        double[] row = features.clone();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                ModelScore score = scorer.apply(row);
+                if (score != null) {
+                    delta.record(Math.abs(score.score() - primary.score()));
+                }
+                return score;
+            }, shadowExecutor).exceptionally(error -> {
+                log.debug("Shadow scoring failed: {}", error.getMessage());
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            shadowRejected.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Scores with model and records its latency and score; null when the model cannot answer
+     */
+    private ModelScore timedScore(String role, ScoringModel model, double[] features) {
+        long started = System.nanoTime();
+        double score = model.score(features);
+        if (Double.isNaN(score)) {
+            return null;
+        }
+        String version = model.version();
+        ModelMeters meters = meters(role, version);
+
+        meters.latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        meters.score.record(score);
+
+        return new ModelScore(role, version, score);
+    }
+
+    /**
+     * Scores rows with one batch call, recording the call's latency and every score; an
+     * element is null where the model cannot answer
+     */
+    private ModelScore[] timedScoreBatch(String role, ScoringModel model, double[][] rows) {
+        long started = System.nanoTime();
+        double[] scores = model.scoreBatch(rows);
+        String version = model.version();
+        ModelMeters meters = meters(role, version);
+
+        meters.batchLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        ModelScore[] results = new ModelScore[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            if (!Double.isNaN(scores[i])) {
+                meters.score.record(scores[i]);
+                results[i] = new ModelScore(role, version, scores[i]);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Meters of one model, registered on its first score and reused until its version changes
+     */
+    private ModelMeters meters(String role, String version) {
+        String tag = version != null ? version : "unknown";
+        ConcurrentHashMap<String, ModelMeters> byVersion =
+            ROLE_CHAMPION.equals(role) ? championMeters : challengerMeters;
+        ModelMeters meters = byVersion.get(tag);
+        return meters != null ? meters : byVersion.computeIfAbsent(tag, t -> new ModelMeters(role, t, meterRegistry));
+    }
+
+    private static final class ModelMeters {
+
+        private final Timer latency;
+        private final Timer batchLatency;
+        private final DistributionSummary score;
+
+        private ModelMeters(String role, String model, MeterRegistry meterRegistry) {
+            this.latency = Timer.builder("fraud.ml.model.latency")
+                .description("Latency of one model score, including batching")
+                .tag("role", role)
+                .tag("model", model)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+            this.batchLatency = Timer.builder("fraud.ml.model.batch.latency")
+                .description("Latency of one batch model call")
+                .tag("role", role)
+                .tag("model", model)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+            this.score = DistributionSummary.builder("fraud.ml.model.score")
+                .description("Distribution of model fraud scores (0-100)")
+                .tag("role", role)
+                .tag("model", model)
+                .serviceLevelObjectives(20, 40, 50, 60, 75, 90)
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(100.0)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        }
+    }
+
+    private static int[] indices(boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) {
+            if (flag) {
+                count++;
+            }
+        }
+        int[] indices = new int[count];
+        for (int i = 0, k = 0; i < flags.length; i++) {
+            if (flags[i]) {
+                indices[k++] = i;
+            }
+        }
+        return indices;
+    }
+
+    private static int[] unscored(ModelScore[] scores) {
+        boolean[] missing = new boolean[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            missing[i] = scores[i] == null;
+        }
+        return indices(missing);
+    }
+
+    private static double[][] select(double[][] rows, int[] indices) {
+        double[][] selected = new double[indices.length][];
+        for (int k = 0; k < indices.length; k++) {
+            selected[k] = rows[indices[k]];
+        }
+        return selected;
+    }
+
+    private static ModelScore[] select(ModelScore[] scores, int[] indices) {
+        ModelScore[] selected = new ModelScore[indices.length];
+        for (int k = 0; k < indices.length; k++) {
+            selected[k] = scores[indices[k]];
+        }
+        return selected;
+    }
+
+    private static void scatter(ModelScore[] scores, int[] indices, ModelScore[] target) {
+        for (int k = 0; k < indices.length; k++) {
+            target[indices[k]] = scores[k];
+        }
+    }
+}
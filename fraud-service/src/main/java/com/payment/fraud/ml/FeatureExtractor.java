@@ -1,110 +1,143 @@
 package com.payment.fraud.ml;
 
 import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.features.EntityFeatures;
+import com.payment.fraud.velocity.DistinctDimension;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Extract features from payment for ML model
+ *
+ * Features are written straight into a caller-supplied double[] in {@link FeatureSchema}
+ * order, so the scoring path does no boxing, map lookups or date-time allocation.
  */
 @Component
 @Slf4j
 public class FeatureExtractor {
-    
+
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /** log1p of $100,000 in cents, keeps log_amount in roughly [0, 1] */
+    private static final double LOG_AMOUNT_SCALE = Math.log1p(10_000_000d);
+
+    /** Count-like history features are log-scaled against these caps into roughly [0, 1] */
+    private static final double LOG_AGE_SCALE = Math.log1p(365);
+    private static final double LOG_COUNT_SCALE = Math.log1p(1_000);
+    private static final double LOG_DISTINCT_SCALE = Math.log1p(100);
+    private static final double LOG_DISTINCT_VELOCITY_SCALE = Math.log1p(20);
+
+    /** amount / customer average is capped here before scaling to [0, 1] */
+    private static final double MAX_AMOUNT_RATIO = 10.0;
+
+    private static final ThreadLocal<double[]> BUFFER =
+        ThreadLocal.withInitial(() -> new double[FeatureSchema.SIZE]);
+
+    /**
+     * Reusable per-thread feature buffer for the scoring path; contents are overwritten
+     * by the next extraction on the same thread
+     */
+    public static double[] threadBuffer() {
+        return BUFFER.get();
+    }
+
     /**
      * Extract features for fraud prediction
      * Returns normalized feature vector
      */
     public double[] extractFeatures(FraudAssessmentRequest request) {
-        // Feature engineering
-        Map<String, Double> features = new HashMap<>();
-        
-        // Feature 1: Log amount (to handle wide range)
-        double logAmount = Math.log(request.getAmount() + 1);
-        features.put("log_amount", logAmount);
-        
-        // Feature 2: Amount in original scale (normalized)
-        double normalizedAmount = request.getAmount() / 100000.0; // Normalize by $1000
-        features.put("normalized_amount", normalizedAmount);
-        
-        // Feature 3: Is round amount? (suspicious pattern)
-        double isRoundAmount = (request.getAmount() % 10000 == 0) ? 1.0 : 0.0;
-        features.put("is_round_amount", isRoundAmount);
-        
-        // Feature 4: Is very round? (even more suspicious)
-        double isVeryRound = (request.getAmount() % 100000 == 0) ? 1.0 : 0.0;
-        features.put("is_very_round", isVeryRound);
-        
-        // Feature 5: Hour of day (fraud peaks at certain hours)
-        Instant now = Instant.now();
-        int hourOfDay = now.atZone(ZoneOffset.UTC).getHour();
-        double normalizedHour = hourOfDay / 24.0;
-        features.put("hour_of_day", normalizedHour);
-        
-        // Feature 6: Day of week (0-6)
-        int dayOfWeek = now.atZone(ZoneOffset.UTC).getDayOfWeek().getValue();
-        double normalizedDay = dayOfWeek / 7.0;
-        features.put("day_of_week", normalizedDay);
-        
-        // Feature 7: Is weekend?
-        double isWeekend = (dayOfWeek >= 6) ? 1.0 : 0.0;
-        features.put("is_weekend", isWeekend);
-        
-        // Feature 8: Is late night? (00:00 - 06:00)
-        double isLateNight = (hourOfDay >= 0 && hourOfDay < 6) ? 1.0 : 0.0;
-        features.put("is_late_night", isLateNight);
-        
-        // Feature 9: Currency encoding (USD=0, EUR=1, GBP=2, etc.)
-        double currencyCode = switch (request.getCurrency().toUpperCase()) {
-            case "USD" -> 0.0;
-            case "EUR" -> 1.0;
-            case "GBP" -> 2.0;
-            default -> 3.0;
-        };
-        features.put("currency_code", currencyCode / 3.0); // Normalize
-        
-        // Feature 10: Has metadata? (legitimate payments usually have order info)
-        double hasMetadata = (request.getMetadata() != null && !request.getMetadata().isEmpty()) 
-            ? 1.0 : 0.0;
-        features.put("has_metadata", hasMetadata);
-        
-        log.debug("Extracted {} features for payment: {}", features.size(), request.getPaymentId());
-        
-        // Convert to array (order matters!)
-        return new double[] {
-            features.get("log_amount"),
-            features.get("normalized_amount"),
-            features.get("is_round_amount"),
-            features.get("is_very_round"),
-            features.get("hour_of_day"),
-            features.get("day_of_week"),
-            features.get("is_weekend"),
-            features.get("is_late_night"),
-            features.get("currency_code"),
-            features.get("has_metadata")
-        };
+        double[] features = new double[FeatureSchema.SIZE];
+        extractInto(request, features, System.currentTimeMillis());
+        return features;
+    }
+
+    /**
+     * Writes the normalized features for request, without history, into target
+     */
+    public void extractInto(FraudAssessmentRequest request, double[] target, long nowMillis) {
+        extractInto(request, EntityFeatures.EMPTY, target, nowMillis);
+    }
+
+    /**
+     * Writes the normalized features for request and its entities' history into target
+     */
+    public void extractInto(FraudAssessmentRequest request, EntityFeatures history, double[] target,
+                            long nowMillis) {
+        long amount = request.getAmount();
+
+        // Amount features: log scale, linear scale (normalized by $1000), round-amount patterns
+        target[FeatureSchema.LOG_AMOUNT] = Math.log1p(amount) / LOG_AMOUNT_SCALE;
+        target[FeatureSchema.NORMALIZED_AMOUNT] = amount / 100000.0;
+        target[FeatureSchema.IS_ROUND_AMOUNT] = amount % 10000 == 0 ? 1.0 : 0.0;
+        target[FeatureSchema.IS_VERY_ROUND] = amount % 100000 == 0 ? 1.0 : 0.0;
+
+        // Time features (UTC): hour of day, ISO day of week (1 = Monday), weekend, late night
+        int hourOfDay = (int) Math.floorMod(nowMillis / MILLIS_PER_HOUR, 24L);
+        long epochDay = Math.floorDiv(nowMillis, MILLIS_PER_DAY);
+        int dayOfWeek = (int) Math.floorMod(epochDay + 3, 7L) + 1; // 1970-01-01 was a Thursday
+        target[FeatureSchema.HOUR_OF_DAY] = hourOfDay / 24.0;
+        target[FeatureSchema.DAY_OF_WEEK] = dayOfWeek / 7.0;
+        target[FeatureSchema.IS_WEEKEND] = dayOfWeek >= 6 ? 1.0 : 0.0;
+        target[FeatureSchema.IS_LATE_NIGHT] = hourOfDay < 6 ? 1.0 : 0.0;
+
+        // Currency encoding (USD=0, EUR=1, GBP=2, other=3), normalized
+        target[FeatureSchema.CURRENCY_CODE] = currencyCode(request.getCurrency()) / 3.0;
+
+        // Legitimate payments usually carry order metadata
+        target[FeatureSchema.HAS_METADATA] =
+            request.getMetadata() != null && !request.getMetadata().isEmpty() ? 1.0 : 0.0;
+
+        // History from the feature store
+        boolean known = history.hasCustomerHistory();
+        double average = history.customerAverageAmount();
+        target[FeatureSchema.HAS_CUSTOMER_HISTORY] = known ? 1.0 : 0.0;
+        target[FeatureSchema.CUSTOMER_AGE] = logScaled(history.customerAgeDays(nowMillis), LOG_AGE_SCALE);
+        target[FeatureSchema.CUSTOMER_PAYMENT_COUNT] = logScaled(history.customerPaymentCount(), LOG_COUNT_SCALE);
+        target[FeatureSchema.AMOUNT_TO_CUSTOMER_AVERAGE] = known && average > 0
+            ? Math.min(amount / average, MAX_AMOUNT_RATIO) / MAX_AMOUNT_RATIO
+            : 0.0;
+        target[FeatureSchema.CUSTOMER_DISTINCT_MERCHANTS] =
+            logScaled(history.customerDistinctMerchants(), LOG_DISTINCT_SCALE);
+        target[FeatureSchema.CARD_DISTINCT_CUSTOMERS] = logScaled(history.cardReuseCount(), LOG_DISTINCT_SCALE);
+        target[FeatureSchema.DEVICE_DISTINCT_CUSTOMERS] = logScaled(history.deviceReuseCount(), LOG_DISTINCT_SCALE);
+
+        // Distinct-count velocity within each dimension's window
+        target[FeatureSchema.DISTINCT_CARDS_PER_DEVICE] = distinctVelocity(history, DistinctDimension.CARDS_PER_DEVICE);
+        target[FeatureSchema.DISTINCT_CARDS_PER_IP] = distinctVelocity(history, DistinctDimension.CARDS_PER_IP);
+        target[FeatureSchema.DISTINCT_CARDS_PER_CUSTOMER] =
+            distinctVelocity(history, DistinctDimension.CARDS_PER_CUSTOMER);
+        target[FeatureSchema.DISTINCT_MERCHANTS_PER_CARD] =
+            distinctVelocity(history, DistinctDimension.MERCHANTS_PER_CARD);
+        target[FeatureSchema.DISTINCT_CUSTOMERS_PER_CARD] =
+            distinctVelocity(history, DistinctDimension.CUSTOMERS_PER_CARD);
+    }
+
+    private static double distinctVelocity(EntityFeatures history, DistinctDimension dimension) {
+        return logScaled(history.distinct(dimension), LOG_DISTINCT_VELOCITY_SCALE);
+    }
+
+    private static double logScaled(double value, double scale) {
+        return value > 0 ? Math.min(1.0, Math.log1p(value) / scale) : 0.0;
     }
-    
+
     /**
      * Get feature names (for debugging)
      */
     public String[] getFeatureNames() {
-        return new String[] {
-            "log_amount",
-            "normalized_amount",
-            "is_round_amount",
-            "is_very_round",
-            "hour_of_day",
-            "day_of_week",
-            "is_weekend",
-            "is_late_night",
-            "currency_code",
-            "has_metadata"
-        };
+        return FeatureSchema.names();
+    }
+
+    private static double currencyCode(String currency) {
+        if ("USD".equalsIgnoreCase(currency)) {
+            return 0.0;
+        }
+        if ("EUR".equalsIgnoreCase(currency)) {
+            return 1.0;
+        }
+        if ("GBP".equalsIgnoreCase(currency)) {
+            return 2.0;
+        }
+        return 3.0;
     }
-}
\ No newline at end of file
+}
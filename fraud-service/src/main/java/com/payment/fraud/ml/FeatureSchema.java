@@ -0,0 +1,74 @@
+package com.payment.fraud.ml;
+
+/**
+ * Fixed feature order shared by FeatureExtractor and the models. Index constants are the
+ * positions in the feature vector; models depend on this order, so only append. A model
+ * may be trained on a prefix of the schema (the built-in weights use the first
+ * {@link #REQUEST_FEATURES}).
+ */
+public final class FeatureSchema {
+
+    public static final int LOG_AMOUNT = 0;
+    public static final int NORMALIZED_AMOUNT = 1;
+    public static final int IS_ROUND_AMOUNT = 2;
+    public static final int IS_VERY_ROUND = 3;
+    public static final int HOUR_OF_DAY = 4;
+    public static final int DAY_OF_WEEK = 5;
+    public static final int IS_WEEKEND = 6;
+    public static final int IS_LATE_NIGHT = 7;
+    public static final int CURRENCY_CODE = 8;
+    public static final int HAS_METADATA = 9;
+
+    /** Features derived from the request alone */
+    public static final int REQUEST_FEATURES = 10;
+
+    // Feature store aggregates, 0 when the entity has no history
+    public static final int HAS_CUSTOMER_HISTORY = 10;
+    public static final int CUSTOMER_AGE = 11;
+    public static final int CUSTOMER_PAYMENT_COUNT = 12;
+    public static final int AMOUNT_TO_CUSTOMER_AVERAGE = 13;
+    public static final int CUSTOMER_DISTINCT_MERCHANTS = 14;
+    public static final int CARD_DISTINCT_CUSTOMERS = 15;
+    public static final int DEVICE_DISTINCT_CUSTOMERS = 16;
+
+    // Windowed distinct-count velocity, 0 when unknown
+    public static final int DISTINCT_CARDS_PER_DEVICE = 17;
+    public static final int DISTINCT_CARDS_PER_IP = 18;
+    public static final int DISTINCT_CARDS_PER_CUSTOMER = 19;
+    public static final int DISTINCT_MERCHANTS_PER_CARD = 20;
+    public static final int DISTINCT_CUSTOMERS_PER_CARD = 21;
+
+    public static final int SIZE = 22;
+
+    private static final String[] NAMES = {
+        "log_amount",
+        "normalized_amount",
+        "is_round_amount",
+        "is_very_round",
+        "hour_of_day",
+        "day_of_week",
+        "is_weekend",
+        "is_late_night",
+        "currency_code",
+        "has_metadata",
+        "has_customer_history",
+        "customer_age",
+        "customer_payment_count",
+        "amount_to_customer_average",
+        "customer_distinct_merchants",
+        "card_distinct_customers",
+        "device_distinct_customers",
+        "distinct_cards_per_device",
+        "distinct_cards_per_ip",
+        "distinct_cards_per_customer",
+        "distinct_merchants_per_card",
+        "distinct_customers_per_card"
+    };
+
+    private FeatureSchema() {
+    }
+
+    public static String[] names() {
+        return NAMES.clone();
+    }
+}
@@ -1,11 +1,10 @@
 package com.payment.fraud.ml;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.RealVector;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -17,12 +16,12 @@ import java.util.Map;
  */
 @Component
 @Slf4j
-public class FraudMLModel {
+public class FraudMLModel implements ScoringModel {
     
     // Model weights (learned from training data)
     // In production, these would be loaded from a saved model file
     private static final double[] WEIGHTS = {
-        2.5,   // log_amount (high amounts = higher risk)
+        2.5,   // log_amount, log1p(cents) scaled to ~[0, 1] (high amounts = higher risk)
         3.0,   // normalized_amount
         1.5,   // is_round_amount
         2.0,   // is_very_round
@@ -43,34 +42,33 @@ public class FraudMLModel {
      * Returns score from 0-100
      */
     public BigDecimal predict(double[] features) {
-        if (features.length != WEIGHTS.length) {
+        if (features.length < WEIGHTS.length) {
             throw new IllegalArgumentException(
-                String.format("Expected %d features, got %d", WEIGHTS.length, features.length)
+                String.format("Expected at least %d features, got %d", WEIGHTS.length, features.length)
             );
         }
-        
-        // Logistic regression: y = sigmoid(w·x + b)
-        RealVector featureVector = new ArrayRealVector(features);
-        RealVector weightVector = new ArrayRealVector(WEIGHTS);
-        
-        // Dot product
-        double dotProduct = weightVector.dotProduct(featureVector);
-        
-        // Add bias
-        double z = dotProduct + BIAS;
-        
-        // Sigmoid activation
+        return BigDecimal.valueOf(score(features)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Scoring kernel: sigmoid(w·x + b) scaled to 0-100.
+     * Plain loop over the fixed {@link FeatureSchema} order, no allocation or boxing.
+     * Uses the request features only; later schema entries are ignored.
+     */
+    @Override
+    public double score(double[] features) {
+        double z = BIAS;
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            z += WEIGHTS[i] * features[i];
+        }
+
         double probability = sigmoid(z);
-        
-        // Scale to 0-100
-        double score = probability * 100;
-        
-        // Cap at 100
-        score = Math.min(100, Math.max(0, score));
-        
-        log.debug("ML prediction: probability={}, score={}", probability, score);
-        
-        return BigDecimal.valueOf(score).setScale(2, java.math.RoundingMode.HALF_UP);
+        double score = Math.min(100, Math.max(0, probability * 100));
+
+        if (log.isDebugEnabled()) {
+            log.debug("ML prediction: probability={}, score={}", probability, score);
+        }
+        return score;
     }
     
     /**
@@ -86,6 +84,11 @@ public class FraudMLModel {
     public String getModelVersion() {
         return MODEL_VERSION;
     }
+
+    @Override
+    public String version() {
+        return MODEL_VERSION;
+    }
     
     /**
      * Get feature importance (which features matter most)
@@ -0,0 +1,57 @@
+package com.payment.fraud.ml;
+
+import ai.onnxruntime.NodeInfo;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.TensorInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+/**
+ * An open ONNX session plus the input/output metadata the batcher needs
+ */
+@Slf4j
+record LoadedOnnxModel(
+    OrtSession session,
+    String version,
+    String inputName,
+    String outputName,
+    int featureCount,
+    FileTime lastModified
+) implements AutoCloseable {
+
+    /**
+     * Resolves input name and width from the session; outputName may be null to use the last output
+     */
+    static LoadedOnnxModel of(OrtSession session, String version, String outputName, FileTime lastModified)
+            throws OrtException {
+        Map.Entry<String, NodeInfo> input = session.getInputInfo().entrySet().iterator().next();
+        if (!(input.getValue().getInfo() instanceof TensorInfo tensorInfo) || tensorInfo.getShape().length != 2) {
+            throw new IllegalArgumentException("Model input must be a [batch, features] tensor: " + input.getKey());
+        }
+        int featureCount = (int) tensorInfo.getShape()[1];
+        String output = outputName != null && session.getOutputNames().contains(outputName)
+            ? outputName
+            : lastOutput(session);
+        return new LoadedOnnxModel(session, version, input.getKey(), output, featureCount, lastModified);
+    }
+
+    private static String lastOutput(OrtSession session) {
+        String last = null;
+        for (String name : session.getOutputNames()) {
+            last = name;
+        }
+        return last;
+    }
+
+    @Override
+    public void close() {
+        try {
+            session.close();
+        } catch (OrtException e) {
+            log.warn("Failed to close ONNX session: version={}, error={}", version, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.payment.fraud.ml;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ONNX Runtime fraud model served through a micro-batcher.
+ *
+ * Loads fraud.ml.onnx.model-path at startup and polls its modification time; a changed file
+ * is loaded into a new session and swapped in atomically, the old session is closed by the
+ * batcher once no batch can be using it. The model must take a [batch, n] float input
+ * holding the first n FeatureSchema features (n <= FeatureSchema.SIZE); other shapes are
+ * rejected and the previous model (or the built-in logistic regression) keeps serving.
+ *
+ * Created by MLModelConfig, once for the champion (fraud.ml.onnx) and once for an ONNX
+ * challenger (fraud.ml.challenger.onnx); name tells the two apart in logs and metrics.
+ */
+@Slf4j
+public class OnnxFraudModel implements ScoringModel {
+
+    private final String name;
+    private final boolean enabled;
+    private final Path modelPath;
+    private final String outputName;
+    private final int intraOpThreads;
+    private final Duration requestTimeout;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final int queueCapacity;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicReference<LoadedOnnxModel> current = new AtomicReference<>();
+    private OrtEnvironment env;
+    private OnnxMicroBatcher batcher;
+    private Thread batcherThread;
+
+    public OnnxFraudModel(String name, boolean enabled, Path modelPath, String outputName, int intraOpThreads,
+                          Duration requestTimeout, int maxBatchSize, Duration maxWait, int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = enabled;
+        this.modelPath = modelPath;
+        this.outputName = outputName;
+        this.intraOpThreads = intraOpThreads;
+        this.requestTimeout = requestTimeout;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        this.queueCapacity = queueCapacity;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("ONNX {} model disabled", name);
+            return;
+        }
+        env = OrtEnvironment.getEnvironment();
+        batcher = new OnnxMicroBatcher(name, env, current::get, maxBatchSize, maxWait.toNanos(), queueCapacity,
+            meterRegistry);
+        batcherThread = Thread.ofPlatform().name("onnx-batcher-" + name).daemon().start(batcher);
+        reloadIfChanged();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (batcher == null) {
+            return;
+        }
+        LoadedOnnxModel model = current.getAndSet(null);
+        if (model != null) {
+            // Closed by the batcher thread on exit, after any batch still running on it
+            batcher.retire(model);
+        }
+        batcher.stop();
+        batcherThread.interrupt();
+        try {
+            batcherThread.join(Duration.ofSeconds(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (batcherThread.isAlive()) {
+            log.warn("ONNX {} batcher still running after 2s, session closes when its batch ends", name);
+        }
+    }
+
+    public boolean isServing() {
+        return current.get() != null;
+    }
+
+    /**
+     * Version of the serving model, or null when none is loaded
+     */
+    public String getModelVersion() {
+        LoadedOnnxModel model = current.get();
+        return model != null ? model.version() : null;
+    }
+
+    @Override
+    public String version() {
+        return getModelVersion();
+    }
+
+    /**
+     * Fraud probability for one feature row in [0, 1], or NaN when no model is serving,
+     * the batcher is saturated or inference does not finish within the request timeout.
+     * features is only read until this method returns.
+     */
+    public double predictProbability(double[] features) {
+        if (batcher == null || current.get() == null) {
+            return Double.NaN;
+        }
+        return batcher.score(features, requestTimeout.toNanos());
+    }
+
+    @Override
+    public double score(double[] features) {
+        return toScore(predictProbability(features));
+    }
+
+    /**
+     * Scores rows through the batcher, maxBatchSize rows per session run. The request
+     * timeout applies per run, so a larger batch gets proportionally longer.
+     */
+    @Override
+    public double[] scoreBatch(double[][] rows) {
+        double[] scores = new double[rows.length];
+        if (batcher == null || current.get() == null) {
+            Arrays.fill(scores, Double.NaN);
+            return scores;
+        }
+        long runs = Math.max(1, (rows.length + maxBatchSize - 1) / maxBatchSize);
+        double[] probabilities = batcher.scoreAll(rows, requestTimeout.toNanos() * runs);
+        for (int i = 0; i < rows.length; i++) {
+            scores[i] = toScore(probabilities[i]);
+        }
+        return scores;
+    }
+
+    private static double toScore(double probability) {
+        return Double.isNaN(probability) ? Double.NaN : Math.min(100, Math.max(0, probability * 100));
+    }
+
+    @Scheduled(fixedDelayString = "${fraud.ml.onnx.reload-interval-ms:10000}",
+        initialDelayString = "${fraud.ml.onnx.reload-interval-ms:10000}")
+    public synchronized void reloadIfChanged() {
+        if (!enabled) {
+            return;
+        }
+        FileTime modified;
+        try {
+            if (!Files.isRegularFile(modelPath)) {
+                if (current.get() == null) {
+                    log.debug("ONNX {} model not found at {}", name, modelPath);
+                }
+                return;
+            }
+            modified = Files.getLastModifiedTime(modelPath);
+        } catch (IOException e) {
+            log.warn("Cannot stat ONNX {} model {}: {}", name, modelPath, e.getMessage());
+            return;
+        }
+
+        LoadedOnnxModel serving = current.get();
+        if (serving != null && serving.lastModified().equals(modified)) {
+            return;
+        }
+
+        LoadedOnnxModel next = load(modified);
+        if (next == null) {
+            return;
+        }
+        LoadedOnnxModel previous = current.getAndSet(next);
+        if (previous != null) {
+            batcher.retire(previous);
+        }
+        log.info("ONNX {} model loaded: path={}, version={}, input={}, output={}",
+            name, modelPath, next.version(), next.inputName(), next.outputName());
+    }
+
+    private LoadedOnnxModel load(FileTime modified) {
+        OrtSession session = null;
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setIntraOpNumThreads(intraOpThreads);
+            session = env.createSession(modelPath.toString(), options);
+            String version = "onnx-" + modelPath.getFileName() + "@" + modified.toInstant();
+            LoadedOnnxModel model = LoadedOnnxModel.of(session, version, outputName, modified);
+            if (model.featureCount() > FeatureSchema.SIZE) {
+                throw new IllegalArgumentException("Model expects " + model.featureCount()
+                    + " features, FeatureSchema has " + FeatureSchema.SIZE);
+            }
+            return model;
+        } catch (OrtException | RuntimeException e) {
+            log.error("Failed to load ONNX {} model {}, keeping current model: {}", name, modelPath,
+                e.getMessage());
+            if (session != null) {
+                try {
+                    session.close();
+                } catch (OrtException closeError) {
+                    log.debug("Failed to close rejected ONNX session", closeError);
+                }
+            }
+            return null;
+        }
+    }
+}
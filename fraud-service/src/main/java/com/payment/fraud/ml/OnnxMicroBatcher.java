@@ -0,0 +1,284 @@
+package com.payment.fraud.ml;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OnnxValue;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Groups concurrent scoring requests into one OrtSession.run per batch.
+ *
+ * A single batcher thread takes the first waiting request, then keeps draining until the
+ * batch is full or maxWait has passed since that request arrived. Rows are copied from the
+ * callers' feature arrays (callers block until scored) into one pre-allocated direct
+ * FloatBuffer that backs the input tensor, so a batch allocates only the tensor handle and
+ * the output. Sessions retired by a model swap are closed here between batches, when no
+ * run can still be using them.
+ */
+@Slf4j
+final class OnnxMicroBatcher implements Runnable {
+
+    private final OrtEnvironment env;
+    private final Supplier<LoadedOnnxModel> currentModel;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Request> queue;
+    private final Queue<LoadedOnnxModel> retired = new ConcurrentLinkedQueue<>();
+    private final List<Request> batch;
+    private final long[] shape = new long[2];
+
+    private final DistributionSummary batchSizes;
+    private final Timer inferenceTimer;
+
+    private FloatBuffer input;
+    private int inputFeatureCount;
+    private volatile boolean running = true;
+
+    OnnxMicroBatcher(String name, OrtEnvironment env, Supplier<LoadedOnnxModel> currentModel, int maxBatchSize,
+                     long maxWaitNanos, int queueCapacity, MeterRegistry meterRegistry) {
+        this.env = env;
+        this.currentModel = currentModel;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWaitNanos;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batch = new ArrayList<>(maxBatchSize);
+
+        this.batchSizes = DistributionSummary.builder("fraud.ml.onnx.batch.size")
+            .description("Requests per ONNX session run")
+            .tag("model", name)
+            .register(meterRegistry);
+        this.inferenceTimer = Timer.builder("fraud.ml.onnx.inference")
+            .description("Latency of one batched ONNX session run")
+            .tag("model", name)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Gauge.builder("fraud.ml.onnx.queue", queue, BlockingQueue::size)
+            .description("Scoring requests waiting for the ONNX batcher")
+            .tag("model", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Scores one feature row; returns NaN if the queue is full, inference fails or the
+     * result does not arrive within timeoutNanos
+     */
+    double score(double[] features, long timeoutNanos) {
+        Request request = new Request(features);
+        if (!queue.offer(request)) {
+            return Double.NaN;
+        }
+        try {
+            if (!request.done.await(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                // Batcher skips requests it has not started yet once they are abandoned
+                request.abandoned = true;
+                return Double.NaN;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.abandoned = true;
+            return Double.NaN;
+        }
+        return request.result;
+    }
+
+    /**
+     * Scores many rows through the same queue, so they are run maxBatchSize at a time;
+     * NaN for rows that did not fit the queue, failed or were not scored within timeoutNanos
+     */
+    double[] scoreAll(double[][] rows, long timeoutNanos) {
+        double[] results = new double[rows.length];
+        Arrays.fill(results, Double.NaN);
+        Request[] requests = new Request[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            Request request = new Request(rows[i]);
+            if (!queue.offer(request)) {
+                break;
+            }
+            requests[i] = request;
+        }
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        for (int i = 0; i < rows.length && requests[i] != null; i++) {
+            try {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !requests[i].done.await(remaining, TimeUnit.NANOSECONDS)) {
+                    abandon(requests, i);
+                    break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandon(requests, i);
+                break;
+            }
+            results[i] = requests[i].result;
+        }
+        return results;
+    }
+
+    private static void abandon(Request[] requests, int from) {
+        for (int i = from; i < requests.length && requests[i] != null; i++) {
+            requests[i].abandoned = true;
+        }
+    }
+
+    void retire(LoadedOnnxModel model) {
+        retired.add(model);
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                closeRetired();
+                Request first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                collectBatch(first);
+                runBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("ONNX batcher loop failed", e);
+            } finally {
+                for (Request request : batch) {
+                    request.done.countDown();
+                }
+                batch.clear();
+            }
+        }
+        closeRetired();
+    }
+
+    private void collectBatch(Request first) throws InterruptedException {
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            Request next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+            }
+            batch.add(next);
+        }
+        batch.removeIf(request -> request.abandoned);
+    }
+
+    private void runBatch() {
+        LoadedOnnxModel model = currentModel.get();
+        if (model == null || batch.isEmpty()) {
+            return;
+        }
+
+        int rows = batch.size();
+        int width = model.featureCount();
+        FloatBuffer buffer = inputBuffer(width);
+        buffer.clear();
+        for (int r = 0; r < rows; r++) {
+            double[] features = batch.get(r).features;
+            for (int c = 0; c < width; c++) {
+                buffer.put((float) features[c]);
+            }
+        }
+        buffer.flip();
+        shape[0] = rows;
+        shape[1] = width;
+
+        long started = System.nanoTime();
+        try (OnnxTensor tensor = OnnxTensor.createTensor(env, buffer, shape);
+             OrtSession.Result result = model.session().run(Map.of(model.inputName(), tensor))) {
+            OnnxValue output = result.get(model.outputName())
+                .orElseThrow(() -> new IllegalStateException("Missing model output " + model.outputName()));
+            readProbabilities(output.getValue(), rows);
+        } catch (Exception e) {
+            log.warn("ONNX batch inference failed: version={}, rows={}, error={}",
+                model.version(), rows, e.getMessage());
+            for (Request request : batch) {
+                request.result = Double.NaN;
+            }
+        } finally {
+            inferenceTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            batchSizes.record(rows);
+        }
+    }
+
+    /**
+     * Accepts a float[rows][classes] tensor (positive class last) or skl2onnx's
+     * ZipMap output, a List of Map&lt;Long, Float&gt;
+     */
+    private void readProbabilities(Object value, int rows) {
+        if (value instanceof float[][] matrix) {
+            for (int r = 0; r < rows; r++) {
+                float[] row = matrix[r];
+                batch.get(r).result = row[row.length - 1];
+            }
+        } else if (value instanceof List<?> maps) {
+            for (int r = 0; r < rows; r++) {
+                Object probability = ((Map<?, ?>) maps.get(r)).get(1L);
+                batch.get(r).result = probability instanceof Number n ? n.doubleValue() : Double.NaN;
+            }
+        } else {
+            throw new IllegalStateException("Unsupported model output type: " + value.getClass().getName());
+        }
+    }
+
+    private FloatBuffer inputBuffer(int width) {
+        if (input == null || inputFeatureCount != width) {
+            input = ByteBuffer.allocateDirect(maxBatchSize * width * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+            inputFeatureCount = width;
+        }
+        return input;
+    }
+
+    private void closeRetired() {
+        LoadedOnnxModel model;
+        while ((model = retired.poll()) != null) {
+            model.close();
+            log.info("Closed retired ONNX model: version={}", model.version());
+        }
+    }
+
+    private static final class Request {
+        private final double[] features;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile double result = Double.NaN;
+        private volatile boolean abandoned;
+
+        private Request(double[] features) {
+            this.features = features;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.payment.fraud.ml;
+
+/**
+ * A fraud model that scores one feature row in {@link FeatureSchema} order
+ */
+public interface ScoringModel {
+
+    /**
+     * Version of the model currently answering, or null when none is loaded
+     */
+    String version();
+
+    /**
+     * Fraud score in [0, 100], or NaN when the model cannot answer
+     */
+    double score(double[] features);
+
+    /**
+     * Scores many rows, NaN for each row the model cannot answer. Models with native
+     * batch inference override this; rows are only read until the call returns.
+     */
+    default double[] scoreBatch(double[][] rows) {
+        double[] scores = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            scores[i] = score(rows[i]);
+        }
+        return scores;
+    }
+}
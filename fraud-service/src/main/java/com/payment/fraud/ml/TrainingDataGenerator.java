@@ -1,63 +1,206 @@
 package com.payment.fraud.ml;
 
-import com.payment.fraud.entity.FraudScore;
-import com.payment.fraud.repository.FraudScoreRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.FileWriter;
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Generate training data for ML model
- * Exports fraud scores to CSV for model training
+ * Exports fraud scores with the feature rows they were scored on, for model training.
+ *
+ * Output is one gzipped CSV per UTC day, dt=YYYY-MM-DD.csv.gz. Each day is streamed from a
+ * forward-only cursor of fetch-size rows in created_at order and written through a
+ * buffered gzip stream, so memory stays constant whatever the volume. A day is written to
+ * a .tmp file and renamed when complete; days whose file already exists are skipped, so
+ * a failed or interrupted export resumes where it stopped when run again.
  */
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class TrainingDataGenerator {
-    
-    private final FraudScoreRepository fraudScoreRepository;
-    
+
+    private static final String SELECT_SQL = """
+        SELECT payment_id, velocity_score, rule_score, ml_score, score, risk_level, decision, created_at,
+               model_version, factors ->> 'amount' AS amount, factors ->> 'currency' AS currency, features
+        FROM fraud_scores
+        WHERE created_at >= ? AND created_at < ?
+        ORDER BY created_at
+        """;
+
+    private static final String HEADER = "payment_id,velocity_score,rule_score,ml_score,final_score,risk_level,decision,"
+        + "created_at,model_version,amount,currency," + String.join(",", FeatureSchema.names()) + ",is_fraud\n";
+
+    private static final BigDecimal FRAUD_SCORE_THRESHOLD = BigDecimal.valueOf(75);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int lookbackDays;
+    private final int bufferSize;
+
+    public TrainingDataGenerator(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${fraud.ml.training.export.fetch-size:1000}") int fetchSize,
+            @Value("${fraud.ml.training.export.lookback-days:90}") int lookbackDays,
+            @Value("${fraud.ml.training.export.buffer-size:65536}") int bufferSize) {
+        // The driver only streams with a fetch size inside a transaction
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.lookbackDays = lookbackDays;
+        this.bufferSize = bufferSize;
+    }
+
     /**
-     * Export training data to CSV
+     * Export the last lookback-days complete days into outputDir.
      * Use this data to train your ML model in Python
      */
-    public void exportTrainingData(String outputPath) throws IOException {
-        log.info("Exporting training data to: {}", outputPath);
-        
-        // Get all fraud scores from last 90 days
-        Instant since = Instant.now().minus(90, ChronoUnit.DAYS);
-        List<FraudScore> scores = fraudScoreRepository.findHighScoresSince(since);
-        
-        try (FileWriter writer = new FileWriter(outputPath)) {
-            // Write header
-            writer.write("payment_id,velocity_score,rule_score,ml_score,final_score,risk_level,decision,is_fraud\n");
-            
-            // Write data
-            for (FraudScore score : scores) {
-                // Label: Consider BLOCK decisions or score > 75 as fraud
-                int isFraud = ("BLOCK".equals(score.getDecision()) || 
-                              score.getScore().compareTo(java.math.BigDecimal.valueOf(75)) > 0) 
-                    ? 1 : 0;
-                
-                writer.write(String.format("%s,%s,%s,%s,%s,%s,%s,%d\n",
-                    score.getPaymentId(),
-                    score.getVelocityScore(),
-                    score.getRuleScore(),
-                    score.getMlScore(),
-                    score.getScore(),
-                    score.getRiskLevel(),
-                    score.getDecision(),
-                    isFraud
-                ));
+    public long exportTrainingData(String outputDir) throws IOException {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        return exportTrainingData(Path.of(outputDir), today.minusDays(lookbackDays), today);
+    }
+
+    /**
+     * Export the days from (inclusive) to until (exclusive) into outputDir, skipping days
+     * already exported; returns the number of rows written
+     */
+    public long exportTrainingData(Path outputDir, LocalDate from, LocalDate until) throws IOException {
+        log.info("Exporting training data: dir={}, from={}, until={}", outputDir, from, until);
+        Files.createDirectories(outputDir);
+
+        long total = 0;
+        int skipped = 0;
+        for (LocalDate day = from; day.isBefore(until); day = day.plusDays(1)) {
+            Path file = outputDir.resolve("dt=" + day + ".csv.gz");
+            if (Files.exists(file)) {
+                skipped++;
+                continue;
+            }
+            long rows = exportPartition(day, file);
+            log.info("Exported training partition: day={}, rows={}", day, rows);
+            total += rows;
+        }
+
+        log.info("Exported {} records to {} ({} partitions already present)", total, outputDir, skipped);
+        return total;
+    }
+
+    private long exportPartition(LocalDate day, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Timestamp start = Timestamp.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+        Timestamp end = Timestamp.from(day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+
+        long count;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(tmp), bufferSize), StandardCharsets.UTF_8), bufferSize)) {
+            writer.write(HEADER);
+            CsvRowWriter rows = new CsvRowWriter(writer);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(SELECT_SQL, rows, start, end));
+            count = rows.count;
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(tmp);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        // Only a fully written and closed file gets the partition name
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * Writes each row as it arrives, reusing one line buffer
+     */
+    private static final class CsvRowWriter implements RowCallbackHandler {
+
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(512);
+        private long count;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            BigDecimal score = rs.getBigDecimal("score");
+            String decision = rs.getString("decision");
+            // Label: Consider BLOCK decisions or score > 75 as fraud
+            boolean isFraud = "BLOCK".equals(decision) || score.compareTo(FRAUD_SCORE_THRESHOLD) > 0;
+
+            line.setLength(0);
+            line.append(rs.getString("payment_id")).append(',');
+            appendValue(rs.getBigDecimal("velocity_score"));
+            appendValue(rs.getBigDecimal("rule_score"));
+            appendValue(rs.getBigDecimal("ml_score"));
+            appendValue(score);
+            appendText(rs.getString("risk_level"));
+            appendText(decision);
+            appendValue(rs.getTimestamp("created_at").toInstant());
+            appendText(rs.getString("model_version"));
+            appendText(rs.getString("amount"));
+            appendText(rs.getString("currency"));
+            appendFeatures(rs.getArray("features"));
+            line.append(isFraud ? '1' : '0').append('\n');
+
+            try {
+                writer.append(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count++;
+        }
+
+        /** One cell per FeatureSchema feature; empty when the row has none or is shorter */
+        private void appendFeatures(Array features) throws SQLException {
+            Object[] values = features != null ? (Object[]) features.getArray() : null;
+            for (int i = 0; i < FeatureSchema.SIZE; i++) {
+                appendValue(values != null && i < values.length ? values[i] : null);
+            }
+            if (features != null) {
+                features.free();
+            }
+        }
+
+        private void appendValue(Object value) {
+            if (value != null) {
+                line.append(value);
+            }
+            line.append(',');
+        }
+
+        /** Quotes free-text values that would break the row */
+        private void appendText(String value) {
+            if (value != null && (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0)) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else if (value != null) {
+                line.append(value);
             }
+            line.append(',');
         }
-        
-        log.info("Exported {} records to {}", scores.size(), outputPath);
     }
-}
\ No newline at end of file
+}
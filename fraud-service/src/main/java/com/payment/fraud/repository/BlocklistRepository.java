@@ -4,6 +4,7 @@ import com.payment.fraud.entity.Blocklist;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +14,6 @@ public interface BlocklistRepository extends JpaRepository<Blocklist, UUID> {
     Optional<Blocklist> findByTypeAndValueAndIsActiveTrue(String type, String value);
     
     boolean existsByTypeAndValueAndIsActiveTrue(String type, String value);
+
+    List<Blocklist> findByIsActiveTrue();
 }
\ No newline at end of file
@@ -19,9 +19,6 @@ public interface FraudScoreRepository extends JpaRepository<FraudScore, UUID> {
     
     List<FraudScore> findByRiskLevel(RiskLevel riskLevel);
     
-    @Query("SELECT f FROM FraudScore f WHERE f.createdAt >= :since ORDER BY f.score DESC")
-    List<FraudScore> findHighScoresSince(@Param("since") Instant since);
-    
     @Query("SELECT COUNT(f) FROM FraudScore f WHERE f.decision = :decision AND f.createdAt >= :since")
     long countByDecisionSince(@Param("decision") String decision, @Param("since") Instant since);
 }
\ No newline at end of file
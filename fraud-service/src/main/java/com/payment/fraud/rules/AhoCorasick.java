@@ -0,0 +1,150 @@
+package com.payment.fraud.rules;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed set of substrings, each tagged with a slot.
+ *
+ * Built as a full DFA over the characters that occur in the patterns, so a scan is one
+ * table lookup per input character whatever the number of patterns. A scan returns the
+ * slots of every pattern found as a bit mask ({@link SlotMask}).
+ */
+final class AhoCorasick {
+
+    private static final int ASCII = 128;
+
+    // Character class per ASCII char and for other chars; class 0 is "in no pattern"
+    private final int[] asciiClasses;
+    private final Map<Character, Integer> otherClasses;
+    private final int classCount;
+    // Next state for state s and class c at s * classCount + c
+    private final int[] transitions;
+    // Slots matched on entering each state (including via suffix links), null for none
+    private final long[][] outputs;
+
+    private AhoCorasick(int[] asciiClasses, Map<Character, Integer> otherClasses, int classCount,
+                        int[] transitions, long[][] outputs) {
+        this.asciiClasses = asciiClasses;
+        this.otherClasses = otherClasses;
+        this.classCount = classCount;
+        this.transitions = transitions;
+        this.outputs = outputs;
+    }
+
+    boolean isEmpty() {
+        return outputs.length == 1;
+    }
+
+    /**
+     * Slots of all patterns occurring in text, or null when none does
+     */
+    long[] scan(CharSequence text) {
+        if (text == null || isEmpty()) {
+            return null;
+        }
+        long[] found = null;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * classCount + classOf(text.charAt(i))];
+            long[] output = outputs[state];
+            if (output != null) {
+                found = SlotMask.or(found, output);
+            }
+        }
+        return found;
+    }
+
+    private int classOf(char c) {
+        if (c < ASCII) {
+            return asciiClasses[c];
+        }
+        Integer cls = otherClasses.get(c);
+        return cls != null ? cls : 0;
+    }
+
+    static final class Builder {
+
+        private final List<Map<Integer, Integer>> children = new ArrayList<>();
+        private final List<long[]> outputs = new ArrayList<>();
+        private final int[] asciiClasses = new int[ASCII];
+        private final Map<Character, Integer> otherClasses = new HashMap<>();
+        private int classCount = 1;
+
+        Builder() {
+            newState();
+        }
+
+        Builder add(String pattern, int slot) {
+            if (pattern.isEmpty()) {
+                return this;
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int cls = classFor(pattern.charAt(i));
+                Integer next = children.get(state).get(cls);
+                if (next == null) {
+                    next = newState();
+                    children.get(state).put(cls, next);
+                }
+                state = next;
+            }
+            outputs.set(state, SlotMask.or(outputs.get(state), SlotMask.of(slot)));
+            return this;
+        }
+
+        AhoCorasick build() {
+            int states = children.size();
+            int[] transitions = new int[states * classCount];
+            int[] fail = new int[states];
+            long[][] stateOutputs = outputs.toArray(long[][]::new);
+
+            // Breadth-first, so a state's suffix link is complete before its children need it
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (Map.Entry<Integer, Integer> child : children.get(0).entrySet()) {
+                transitions[child.getKey()] = child.getValue();
+                queue.add(child.getValue());
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.remove();
+                long[] inherited = stateOutputs[fail[state]];
+                if (inherited != null) {
+                    stateOutputs[state] = SlotMask.or(stateOutputs[state], inherited);
+                }
+                for (int cls = 0; cls < classCount; cls++) {
+                    Integer child = children.get(state).get(cls);
+                    int fallback = transitions[fail[state] * classCount + cls];
+                    if (child != null) {
+                        fail[child] = fallback;
+                        transitions[state * classCount + cls] = child;
+                        queue.add(child);
+                    } else {
+                        transitions[state * classCount + cls] = fallback;
+                    }
+                }
+            }
+            return new AhoCorasick(asciiClasses.clone(), Map.copyOf(otherClasses), classCount, transitions,
+                stateOutputs);
+        }
+
+        private int classFor(char c) {
+            if (c < ASCII) {
+                if (asciiClasses[c] == 0) {
+                    asciiClasses[c] = classCount++;
+                }
+                return asciiClasses[c];
+            }
+            return otherClasses.computeIfAbsent(c, k -> classCount++);
+        }
+
+        private int newState() {
+            children.add(new HashMap<>());
+            outputs.add(null);
+            return children.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.payment.fraud.rules;
+
+import java.util.UUID;
+
+/**
+ * Immutable, pre-parsed form of an active {@link com.payment.fraud.entity.FraudRule}
+ */
+public record CompiledRule(
+    UUID id,
+    String name,
+    String ruleType,
+    String action,
+    int scoreImpact,
+    int priority,
+    RulePredicate predicate
+) {
+
+    public boolean isBlock() {
+        return "BLOCK".equals(action);
+    }
+
+    public boolean matches(RuleContext context) {
+        return predicate.test(context);
+    }
+}
@@ -0,0 +1,121 @@
+package com.payment.fraud.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Email domains, each tagged with a slot, stored as a trie of their reversed characters.
+ *
+ * A lookup walks the domain from its last character once and collects the slots of every
+ * configured domain that is the domain itself or one of its parents at a label boundary,
+ * so tempmail.com also matches mx.tempmail.com but not notempmail.com. No substrings are
+ * created.
+ */
+final class DomainSuffixTrie {
+
+    // Children of node n: characters keys[n], node ids next[n]
+    private final char[][] keys;
+    private final int[][] next;
+    // Slots of the domains ending at each node, null for none
+    private final long[][] outputs;
+
+    private DomainSuffixTrie(char[][] keys, int[][] next, long[][] outputs) {
+        this.keys = keys;
+        this.next = next;
+        this.outputs = outputs;
+    }
+
+    boolean isEmpty() {
+        return outputs.length == 1;
+    }
+
+    /**
+     * Slots of the configured domains that domain equals or is a subdomain of, or null
+     */
+    long[] match(String domain) {
+        if (domain == null || isEmpty()) {
+            return null;
+        }
+        long[] found = null;
+        int node = 0;
+        for (int i = domain.length() - 1; i >= 0; i--) {
+            node = child(node, domain.charAt(i));
+            if (node < 0) {
+                break;
+            }
+            if (outputs[node] != null && (i == 0 || domain.charAt(i - 1) == '.')) {
+                found = SlotMask.or(found, outputs[node]);
+            }
+        }
+        return found;
+    }
+
+    private int child(int node, char c) {
+        char[] nodeKeys = keys[node];
+        // Nodes have few children; a linear scan beats a binary search here
+        for (int k = 0; k < nodeKeys.length; k++) {
+            if (nodeKeys[k] == c) {
+                return next[node][k];
+            }
+        }
+        return -1;
+    }
+
+    static final class Builder {
+
+        private final List<Map<Character, Integer>> children = new ArrayList<>();
+        private final List<long[]> outputs = new ArrayList<>();
+
+        Builder() {
+            newNode();
+        }
+
+        Builder add(String domain, int slot) {
+            // Leading dots (".tempmail.com") mean the same as the bare domain
+            int start = 0;
+            while (start < domain.length() && domain.charAt(start) == '.') {
+                start++;
+            }
+            if (start == domain.length()) {
+                return this;
+            }
+            int node = 0;
+            for (int i = domain.length() - 1; i >= start; i--) {
+                Integer child = children.get(node).get(domain.charAt(i));
+                if (child == null) {
+                    child = newNode();
+                    children.get(node).put(domain.charAt(i), child);
+                }
+                node = child;
+            }
+            outputs.set(node, SlotMask.or(outputs.get(node), SlotMask.of(slot)));
+            return this;
+        }
+
+        DomainSuffixTrie build() {
+            int nodes = children.size();
+            char[][] keys = new char[nodes][];
+            int[][] next = new int[nodes][];
+            for (int n = 0; n < nodes; n++) {
+                Map<Character, Integer> nodeChildren = children.get(n);
+                keys[n] = new char[nodeChildren.size()];
+                next[n] = new int[nodeChildren.size()];
+                int k = 0;
+                for (Map.Entry<Character, Integer> child : nodeChildren.entrySet()) {
+                    keys[n][k] = child.getKey();
+                    next[n][k] = child.getValue();
+                    k++;
+                }
+            }
+            return new DomainSuffixTrie(keys, next, outputs.toArray(long[][]::new));
+        }
+
+        private int newNode() {
+            children.add(new TreeMap<>());
+            outputs.add(null);
+            return children.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.payment.fraud.rules;
+
+import java.util.UUID;
+
+/**
+ * Published when a fraud rule is created, updated or deleted
+ */
+public record FraudRulesChangedEvent(UUID ruleId, String change) {
+}
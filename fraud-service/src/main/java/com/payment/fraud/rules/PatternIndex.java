@@ -0,0 +1,63 @@
+package com.payment.fraud.rules;
+
+import java.util.Set;
+
+/**
+ * User-agent substrings and email domains of all PATTERN rules in one snapshot.
+ *
+ * Each PATTERN rule owns a slot. Per assessment the user agent is scanned once by one
+ * Aho-Corasick automaton and the email domain walked once through one suffix trie; the
+ * resulting slot masks are cached on the {@link RuleContext}, so each rule's check is a
+ * bit test however many rules and patterns there are.
+ */
+final class PatternIndex {
+
+    private final AhoCorasick userAgents;
+    private final DomainSuffixTrie emailDomains;
+
+    private PatternIndex(AhoCorasick userAgents, DomainSuffixTrie emailDomains) {
+        this.userAgents = userAgents;
+        this.emailDomains = emailDomains;
+    }
+
+    boolean userAgentMatches(RuleContext context, int slot) {
+        return SlotMask.contains(context.userAgentSlots(this), slot);
+    }
+
+    boolean emailDomainMatches(RuleContext context, int slot) {
+        return SlotMask.contains(context.emailDomainSlots(this), slot);
+    }
+
+    long[] scanUserAgent(String userAgent) {
+        return userAgents.scan(userAgent);
+    }
+
+    long[] matchEmailDomain(String domain) {
+        return emailDomains.match(domain);
+    }
+
+    static final class Builder {
+
+        private final AhoCorasick.Builder userAgents = new AhoCorasick.Builder();
+        private final DomainSuffixTrie.Builder emailDomains = new DomainSuffixTrie.Builder();
+        private int slots;
+
+        /**
+         * Registers one rule's lower-case substrings and domains; returns its slot
+         */
+        int add(Set<String> userAgentNeedles, Set<String> suspiciousEmailDomains) {
+            int slot = slots++;
+            for (String needle : userAgentNeedles) {
+                userAgents.add(needle, slot);
+            }
+            for (String domain : suspiciousEmailDomains) {
+                emailDomains.add(domain, slot);
+            }
+            return slot;
+        }
+
+        PatternIndex build() {
+            return new PatternIndex(userAgents.build(), emailDomains.build());
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.payment.fraud.rules;
+
+import com.payment.fraud.entity.FraudRule;
+import com.payment.fraud.velocity.DistinctDimension;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns rule condition JSON into immutable predicates. All parsing, trimming and
+ * case-folding happens here, once per reload, instead of on every assessment.
+ */
+@Slf4j
+public final class RuleCompiler {
+
+    private static final List<String> PATTERN_CONDITION_KEYS = List.of(
+        "roundAmount",
+        "amountModulo",
+        "userAgentContains",
+        "suspiciousEmailDomains",
+        "minDeviceReuseCount",
+        "minCardReuseCount",
+        "newCustomerOnly"
+    );
+
+    /** VELOCITY conditions on distinct counts; plain attempt counts stay in VelocityCheckService */
+    private static final Map<String, DistinctDimension> DISTINCT_CONDITION_KEYS = distinctConditionKeys();
+
+    private RuleCompiler() {
+    }
+
+    public static CompiledRule compile(FraudRule rule) {
+        return compileAll(List.of(rule)).get(0);
+    }
+
+    /**
+     * Compiles the rules of one snapshot. The user-agent substrings and email domains of
+     * all PATTERN rules go into one shared {@link PatternIndex}.
+     */
+    public static List<CompiledRule> compileAll(List<FraudRule> rules) {
+        PatternIndex.Builder patterns = new PatternIndex.Builder();
+        int[] slots = new int[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            FraudRule rule = rules.get(i);
+            if ("PATTERN".equals(rule.getRuleType()) && rule.getConditions() != null) {
+                slots[i] = patterns.add(
+                    RuleValues.normalizedSet(rule.getConditions().get("userAgentContains"), false),
+                    RuleValues.normalizedSet(rule.getConditions().get("suspiciousEmailDomains"), false));
+            }
+        }
+
+        PatternIndex patternIndex = patterns.build();
+        List<CompiledRule> compiled = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            compiled.add(compile(rules.get(i), patternIndex, slots[i]));
+        }
+        return compiled;
+    }
+
+    private static CompiledRule compile(FraudRule rule, PatternIndex patternIndex, int patternSlot) {
+        Map<String, Object> conditions = rule.getConditions() != null ? rule.getConditions() : Map.of();
+        String ruleType = rule.getRuleType() != null ? rule.getRuleType() : "";
+
+        RulePredicate predicate = switch (ruleType) {
+            case "AMOUNT" -> compileAmountRule(conditions);
+            case "VELOCITY" -> compileVelocityRule(conditions);
+            case "GEOLOCATION" -> compileGeolocationRule(conditions);
+            case "PATTERN" -> compilePatternRule(conditions, patternIndex, patternSlot);
+            default -> {
+                log.warn("Unknown rule type, rule will never trigger: rule={}, type={}", rule.getRuleName(), ruleType);
+                yield RulePredicate.NEVER;
+            }
+        };
+
+        return new CompiledRule(
+            rule.getId(),
+            rule.getRuleName(),
+            ruleType,
+            rule.getAction(),
+            rule.getScoreImpact() != null ? rule.getScoreImpact() : 0,
+            rule.getPriority() != null ? rule.getPriority() : 0,
+            predicate
+        );
+    }
+
+    private static RulePredicate compileAmountRule(Map<String, Object> conditions) {
+        if (!(conditions.get("threshold") instanceof Number threshold)) {
+            return RulePredicate.NEVER;
+        }
+        long thresholdAmount = threshold.longValue();
+        return context -> context.amount() > thresholdAmount;
+    }
+
+    private static RulePredicate compileGeolocationRule(Map<String, Object> conditions) {
+        Set<String> blockedCountries = RuleValues.normalizedSet(conditions.get("blockedCountries"), true);
+        Set<String> allowedCountries = RuleValues.normalizedSet(conditions.get("allowedCountries"), true);
+        String exactCountry = conditions.get("country") instanceof String s && !s.isBlank()
+            ? s.trim().toUpperCase(Locale.ROOT)
+            : null;
+
+        if (blockedCountries.isEmpty() && allowedCountries.isEmpty() && exactCountry == null) {
+            return RulePredicate.NEVER;
+        }
+
+        return context -> {
+            String country = context.country();
+            if (country == null) {
+                return false;
+            }
+            if (blockedCountries.contains(country)) {
+                return true;
+            }
+            if (!allowedCountries.isEmpty()) {
+                return !allowedCountries.contains(country);
+            }
+            return country.equals(exactCountry);
+        };
+    }
+
+    private static RulePredicate compileVelocityRule(Map<String, Object> conditions) {
+        List<DistinctDimension> dimensions = new ArrayList<>();
+        List<Long> minimums = new ArrayList<>();
+        DISTINCT_CONDITION_KEYS.forEach((key, dimension) -> {
+            Long minimum = RuleValues.asLong(conditions.get(key));
+            if (minimum != null && minimum > 0) {
+                dimensions.add(dimension);
+                minimums.add(minimum);
+            }
+        });
+        // Attempt-count velocity is scored by VelocityCheckService
+        if (dimensions.isEmpty()) {
+            return RulePredicate.NEVER;
+        }
+
+        Long minMatches = RuleValues.asLong(conditions.get("minMatches"));
+        int requiredMatches = minMatches != null && minMatches > 0
+            ? (int) Math.min(minMatches, dimensions.size())
+            : dimensions.size();
+
+        return new DistinctVelocityPredicate(
+            dimensions.toArray(DistinctDimension[]::new),
+            minimums.stream().mapToLong(Long::longValue).toArray(),
+            requiredMatches
+        );
+    }
+
+    private static Map<String, DistinctDimension> distinctConditionKeys() {
+        Map<String, DistinctDimension> keys = new LinkedHashMap<>();
+        keys.put("minDistinctCardsPerDevice", DistinctDimension.CARDS_PER_DEVICE);
+        keys.put("minDistinctCardsPerIp", DistinctDimension.CARDS_PER_IP);
+        keys.put("minDistinctCardsPerCustomer", DistinctDimension.CARDS_PER_CUSTOMER);
+        keys.put("minDistinctMerchantsPerCard", DistinctDimension.MERCHANTS_PER_CARD);
+        keys.put("minDistinctCustomersPerCard", DistinctDimension.CUSTOMERS_PER_CARD);
+        return keys;
+    }
+
+    private static RulePredicate compilePatternRule(Map<String, Object> conditions, PatternIndex patternIndex,
+                                                    int patternSlot) {
+        int configuredConditions = 0;
+        for (String key : PATTERN_CONDITION_KEYS) {
+            if (conditions.containsKey(key)) {
+                configuredConditions++;
+            }
+        }
+        // If no recognized conditions were provided, do not trigger.
+        if (configuredConditions == 0) {
+            return RulePredicate.NEVER;
+        }
+
+        // By default all configured conditions must match; allow threshold override.
+        Long minMatches = RuleValues.asLong(conditions.get("minMatches"));
+        int requiredMatches = minMatches != null && minMatches > 0
+            ? (int) Math.min(minMatches, configuredConditions)
+            : configuredConditions;
+
+        Long amountModulo = RuleValues.asLong(conditions.get("amountModulo"));
+        Long minDeviceReuseCount = RuleValues.asLong(conditions.get("minDeviceReuseCount"));
+        Long minCardReuseCount = RuleValues.asLong(conditions.get("minCardReuseCount"));
+
+        return new PatternPredicate(
+            Boolean.TRUE.equals(RuleValues.asBoolean(conditions.get("roundAmount"))),
+            amountModulo != null && amountModulo > 0 ? amountModulo : 0L,
+            patternIndex,
+            patternSlot,
+            !RuleValues.normalizedSet(conditions.get("userAgentContains"), false).isEmpty(),
+            !RuleValues.normalizedSet(conditions.get("suspiciousEmailDomains"), false).isEmpty(),
+            minDeviceReuseCount != null ? minDeviceReuseCount : RuleContext.ABSENT,
+            minCardReuseCount != null ? minCardReuseCount : RuleContext.ABSENT,
+            Boolean.TRUE.equals(RuleValues.asBoolean(conditions.get("newCustomerOnly"))),
+            requiredMatches
+        );
+    }
+
+    /**
+     * Triggers when at least requiredMatches distinct counts reach their minimum
+     */
+    private record DistinctVelocityPredicate(
+        DistinctDimension[] dimensions,
+        long[] minimums,
+        int requiredMatches
+    ) implements RulePredicate {
+
+        @Override
+        public boolean test(RuleContext context) {
+            int matched = 0;
+            for (int i = 0; i < dimensions.length; i++) {
+                long count = context.distinct(dimensions[i]);
+                if (count != RuleContext.ABSENT && count >= minimums[i]) {
+                    matched++;
+                }
+            }
+            return matched >= requiredMatches;
+        }
+    }
+
+    /**
+     * Counts matching sub-conditions; triggers when at least requiredMatches match.
+     * User-agent and email-domain conditions are looked up under patternSlot in the
+     * snapshot's shared index.
+     */
+    private record PatternPredicate(
+        boolean roundAmount,
+        long amountModulo,
+        PatternIndex patternIndex,
+        int patternSlot,
+        boolean hasUserAgentNeedles,
+        boolean hasSuspiciousEmailDomains,
+        long minDeviceReuseCount,
+        long minCardReuseCount,
+        boolean newCustomerOnly,
+        int requiredMatches
+    ) implements RulePredicate {
+
+        private static final long NEW_CUSTOMER_MAX_AGE_DAYS = 7;
+
+        @Override
+        public boolean test(RuleContext context) {
+            int matched = 0;
+            long amount = context.amount();
+
+            // Round amount pattern (e.g. exact $100.00 -> cents value divisible by 10000)
+            if (roundAmount && amount % 10_000 == 0) {
+                matched++;
+            }
+            if (amountModulo > 0 && amount % amountModulo == 0) {
+                matched++;
+            }
+            if (hasUserAgentNeedles && patternIndex.userAgentMatches(context, patternSlot)) {
+                matched++;
+            }
+            // The email domain or any of its parent domains
+            if (hasSuspiciousEmailDomains && patternIndex.emailDomainMatches(context, patternSlot)) {
+                matched++;
+            }
+            // Reused device / card counters supplied by upstream enrichment in metadata
+            if (minDeviceReuseCount != RuleContext.ABSENT && context.deviceReuseCount() != RuleContext.ABSENT
+                && context.deviceReuseCount() >= minDeviceReuseCount) {
+                matched++;
+            }
+            if (minCardReuseCount != RuleContext.ABSENT && context.cardReuseCount() != RuleContext.ABSENT
+                && context.cardReuseCount() >= minCardReuseCount) {
+                matched++;
+            }
+            if (newCustomerOnly && context.customerAgeDays() != RuleContext.ABSENT
+                && context.customerAgeDays() <= NEW_CUSTOMER_MAX_AGE_DAYS) {
+                matched++;
+            }
+            return matched >= requiredMatches;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.payment.fraud.rules;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.features.EntityFeatures;
+import com.payment.fraud.velocity.DistinctCounts;
+import com.payment.fraud.velocity.DistinctDimension;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Request attributes read by compiled rules, normalized once per assessment.
+ * Reuse counts and customer age come from the feature store when it knows the entity,
+ * otherwise from request metadata; absent values are represented by {@link #ABSENT}.
+ * Pattern matches are computed lazily, so an instance belongs to one evaluating thread.
+ */
+public final class RuleContext {
+
+    public static final long ABSENT = Long.MIN_VALUE;
+
+    private static final String[] COUNTRY_KEYS = {"country", "countryCode", "ipCountry"};
+    private static final String[] EMAIL_KEYS = {"email", "customerEmail"};
+
+    private final long amount;
+    private final String country;
+    private final String userAgent;
+    private final String emailDomain;
+    private final long deviceReuseCount;
+    private final long cardReuseCount;
+    private final long customerAgeDays;
+    private final DistinctCounts distinctCounts;
+
+    // Pattern slots matched by this context, computed on first use for each index
+    private PatternIndex userAgentIndex;
+    private long[] userAgentSlots;
+    private PatternIndex emailDomainIndex;
+    private long[] emailDomainSlots;
+
+    private RuleContext(long amount, String country, String userAgent, String emailDomain,
+                        long deviceReuseCount, long cardReuseCount, long customerAgeDays,
+                        DistinctCounts distinctCounts) {
+        this.amount = amount;
+        this.country = country;
+        this.userAgent = userAgent;
+        this.emailDomain = emailDomain;
+        this.deviceReuseCount = deviceReuseCount;
+        this.cardReuseCount = cardReuseCount;
+        this.customerAgeDays = customerAgeDays;
+        this.distinctCounts = distinctCounts;
+    }
+
+    public static RuleContext from(FraudAssessmentRequest request) {
+        return from(request, EntityFeatures.EMPTY, System.currentTimeMillis());
+    }
+
+    public static RuleContext from(FraudAssessmentRequest request, EntityFeatures features, long nowMillis) {
+        Map<String, Object> metadata = request.getMetadata();
+
+        String country = firstText(metadata, COUNTRY_KEYS);
+        String email = firstText(metadata, EMAIL_KEYS);
+        String emailDomain = email != null && email.indexOf('@') >= 0
+            ? email.substring(email.indexOf('@') + 1).toLowerCase(Locale.ROOT)
+            : null;
+
+        return new RuleContext(
+            request.getAmount() != null ? request.getAmount() : 0L,
+            country != null ? country.toUpperCase(Locale.ROOT) : null,
+            request.getUserAgent() != null ? request.getUserAgent().toLowerCase(Locale.ROOT) : null,
+            emailDomain,
+            orMetadata(features.deviceReuseCount(), metadata, "deviceReuseCount"),
+            orMetadata(features.cardReuseCount(), metadata, "cardReuseCount"),
+            orMetadata(features.customerAgeDays(nowMillis), metadata, "customerAgeDays"),
+            features.distinctCounts()
+        );
+    }
+
+    public long amount() {
+        return amount;
+    }
+
+    /** Upper-case ISO country from metadata, or null */
+    public String country() {
+        return country;
+    }
+
+    /** Lower-case user agent, or null */
+    public String userAgent() {
+        return userAgent;
+    }
+
+    /** Lower-case domain of metadata email/customerEmail, or null */
+    public String emailDomain() {
+        return emailDomain;
+    }
+
+    public long deviceReuseCount() {
+        return deviceReuseCount;
+    }
+
+    public long cardReuseCount() {
+        return cardReuseCount;
+    }
+
+    public long customerAgeDays() {
+        return customerAgeDays;
+    }
+
+    /** Slots of the index's user-agent substrings found in the user agent, or null */
+    long[] userAgentSlots(PatternIndex index) {
+        if (userAgentIndex != index) {
+            userAgentSlots = index.scanUserAgent(userAgent);
+            userAgentIndex = index;
+        }
+        return userAgentSlots;
+    }
+
+    /** Slots of the index's domains the email domain equals or is a subdomain of, or null */
+    long[] emailDomainSlots(PatternIndex index) {
+        if (emailDomainIndex != index) {
+            emailDomainSlots = index.matchEmailDomain(emailDomain);
+            emailDomainIndex = index;
+        }
+        return emailDomainSlots;
+    }
+
+    /** Windowed distinct count for the dimension, or ABSENT */
+    public long distinct(DistinctDimension dimension) {
+        long count = distinctCounts.get(dimension);
+        return count != DistinctCounts.UNKNOWN ? count : ABSENT;
+    }
+
+    private static String firstText(Map<String, Object> metadata, String[] keys) {
+        if (metadata == null || metadata.isEmpty()) {
+            return null;
+        }
+        for (String key : keys) {
+            Object value = metadata.get(key);
+            if (value instanceof String s && !s.isBlank()) {
+                return s.trim();
+            }
+        }
+        return null;
+    }
+
+    private static long orMetadata(long stored, Map<String, Object> metadata, String key) {
+        return stored != EntityFeatures.UNKNOWN ? stored : metadataLong(metadata, key);
+    }
+
+    private static long metadataLong(Map<String, Object> metadata, String key) {
+        if (metadata == null) {
+            return ABSENT;
+        }
+        Long value = RuleValues.asLong(metadata.get(key));
+        return value != null ? value : ABSENT;
+    }
+}
@@ -0,0 +1,12 @@
+package com.payment.fraud.rules;
+
+/**
+ * Compiled rule condition; implementations are immutable and allocation-free
+ */
+@FunctionalInterface
+public interface RulePredicate {
+
+    RulePredicate NEVER = context -> false;
+
+    boolean test(RuleContext context);
+}
@@ -0,0 +1,81 @@
+package com.payment.fraud.rules;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Active rules in evaluation order, swapped atomically on reload.
+ *
+ * Rules are ordered by priority desc; {@link RulePlanner} may reorder them within a
+ * priority. stats(i) holds the statistics of rule i. The score range the remaining rules
+ * can still add is precomputed per position, so evaluation can stop as soon as they
+ * cannot change the rule score.
+ */
+public final class RuleSnapshot {
+
+    /** Rule scores are capped here; a BLOCK rule scores this directly */
+    public static final int MAX_SCORE = 100;
+
+    public static final RuleSnapshot EMPTY = new RuleSnapshot(List.of(), Instant.EPOCH);
+
+    private final List<CompiledRule> rules;
+    private final Instant loadedAt;
+    private final RuleStats[] stats;
+    // Most the rules from index i on can add (a BLOCK counts as MAX_SCORE), capped there
+    private final int[] maxGain;
+    // Least the rules from index i on can add; not capped, any negative total can matter
+    private final long[] minGain;
+
+    public RuleSnapshot(List<CompiledRule> rules, Instant loadedAt) {
+        this(rules, loadedAt, newStats(rules.size()));
+    }
+
+    public RuleSnapshot(List<CompiledRule> rules, Instant loadedAt, RuleStats[] stats) {
+        if (stats.length != rules.size()) {
+            throw new IllegalArgumentException("Expected stats for " + rules.size() + " rules, got " + stats.length);
+        }
+        this.rules = List.copyOf(rules);
+        this.loadedAt = loadedAt;
+        this.stats = stats.clone();
+        this.maxGain = new int[rules.size() + 1];
+        this.minGain = new long[rules.size() + 1];
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            CompiledRule rule = rules.get(i);
+            int impact = rule.isBlock() ? MAX_SCORE : rule.scoreImpact();
+            maxGain[i] = Math.min(MAX_SCORE, maxGain[i + 1] + Math.max(impact, 0));
+            minGain[i] = minGain[i + 1] + Math.min(impact, 0);
+        }
+    }
+
+    public List<CompiledRule> rules() {
+        return rules;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public RuleStats stats(int index) {
+        return stats[index];
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * True when the rules from index next on cannot change a running score: it is at the
+     * cap and nothing left can lower it, or nothing left can move it at all
+     */
+    public boolean decided(int next, int score) {
+        return score + minGain[next] >= MAX_SCORE || (maxGain[next] == 0 && minGain[next] == 0);
+    }
+
+    private static RuleStats[] newStats(int size) {
+        RuleStats[] stats = new RuleStats[size];
+        for (int i = 0; i < size; i++) {
+            stats[i] = new RuleStats();
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,64 @@
+package com.payment.fraud.rules;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running evaluation count, hit count and sampled cost of one rule. Kept per rule id by
+ * {@link RulePlanner} so the statistics survive snapshot reloads.
+ */
+public final class RuleStats {
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+
+    private volatile Timer timer;
+
+    public void record(boolean matched) {
+        evaluations.increment();
+        if (matched) {
+            hits.increment();
+        }
+    }
+
+    public void recordTimed(boolean matched, long nanos) {
+        record(matched);
+        sampledNanos.add(nanos);
+        samples.increment();
+        Timer current = timer;
+        if (current != null) {
+            current.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public long evaluations() {
+        return evaluations.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Share of evaluations that matched, with add-one smoothing so new rules start at 0.5
+     */
+    double hitRate() {
+        return (hits.sum() + 1.0) / (evaluations.sum() + 2.0);
+    }
+
+    /**
+     * Mean sampled evaluation time, or the fallback until minSamples have been taken
+     */
+    double meanNanos(long minSamples, double fallback) {
+        long n = samples.sum();
+        return n >= minSamples ? (double) sampledNanos.sum() / n : fallback;
+    }
+
+    void timer(Timer timer) {
+        this.timer = timer;
+    }
+}
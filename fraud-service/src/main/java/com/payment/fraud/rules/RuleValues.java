@@ -0,0 +1,56 @@
+package com.payment.fraud.rules;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Lenient conversions for values read from rule conditions / request metadata JSON
+ */
+final class RuleValues {
+
+    private RuleValues() {
+    }
+
+    static Long asLong(Object value) {
+        if (value instanceof Number n) {
+            return n.longValue();
+        }
+        if (value instanceof String s && !s.isBlank()) {
+            try {
+                return Long.parseLong(s.trim());
+            } catch (NumberFormatException ignored) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    static Boolean asBoolean(Object value) {
+        if (value instanceof Boolean b) {
+            return b;
+        }
+        if (value instanceof String s && !s.isBlank()) {
+            return Boolean.parseBoolean(s.trim());
+        }
+        return null;
+    }
+
+    /**
+     * Trimmed, non-blank strings of a JSON array, case-folded with the given function
+     */
+    static Set<String> normalizedSet(Object value, boolean upperCase) {
+        if (!(value instanceof Collection<?> collection)) {
+            return Set.of();
+        }
+        return collection.stream()
+            .filter(Objects::nonNull)
+            .map(Object::toString)
+            .map(String::trim)
+            .filter(s -> !s.isBlank())
+            .map(s -> upperCase ? s.toUpperCase(Locale.ROOT) : s.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,40 @@
+package com.payment.fraud.rules;
+
+/**
+ * Bit sets of rule slots as plain long arrays; null is the empty set
+ */
+final class SlotMask {
+
+    private SlotMask() {
+    }
+
+    static long[] of(int slot) {
+        long[] mask = new long[(slot >>> 6) + 1];
+        mask[slot >>> 6] = 1L << slot;
+        return mask;
+    }
+
+    /**
+     * target | source, updating target in place when it is large enough; source is never
+     * modified
+     */
+    static long[] or(long[] target, long[] source) {
+        if (target == null) {
+            return source.clone();
+        }
+        if (target.length < source.length) {
+            long[] grown = new long[source.length];
+            System.arraycopy(target, 0, grown, 0, target.length);
+            target = grown;
+        }
+        for (int i = 0; i < source.length; i++) {
+            target[i] |= source[i];
+        }
+        return target;
+    }
+
+    static boolean contains(long[] mask, int slot) {
+        int word = slot >>> 6;
+        return mask != null && word < mask.length && (mask[word] & (1L << slot)) != 0;
+    }
+}
@@ -1,26 +1,30 @@
 package com.payment.fraud.service;
 
+import com.payment.fraud.blocklist.BlocklistChangedEvent;
+import com.payment.fraud.blocklist.BlocklistIndex;
 import com.payment.fraud.dto.FraudAssessmentRequest;
 import com.payment.fraud.entity.Blocklist;
 import com.payment.fraud.repository.BlocklistRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
 import java.util.UUID;
 
 @Service
-@Transactional(readOnly = true)
 @Slf4j
 @RequiredArgsConstructor
 public class BlocklistService {
     
     private final BlocklistRepository blocklistRepository;
+    private final BlocklistIndex blocklistIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
-     * Check if any entity in the request is blocklisted
+     * Check if any entity in the request is blocklisted.
+     * Not transactional: most checks are answered by the in-memory index without a connection.
      */
     public boolean isBlocked(FraudAssessmentRequest request) {
         // Check customer email (if available via metadata)
@@ -33,7 +37,8 @@ public class BlocklistService {
         }
         
         // Check IP address
-        if (request.getIpAddress() != null && isBlocklisted("IP", request.getIpAddress())) {
+        if (request.getIpAddress() != null
+                && (blocklistIndex.inBlockedRange(request.getIpAddress()) || isBlocklisted("IP", request.getIpAddress()))) {
             log.warn("Blocked IP detected: {}", request.getIpAddress());
             return true;
         }
@@ -48,12 +53,23 @@ public class BlocklistService {
     }
     
     /**
-     * Check if specific value is blocklisted
+     * Check if specific value is blocklisted; only filter positives reach the database
      */
     private boolean isBlocklisted(String type, String value) {
-        return blocklistRepository.findByTypeAndValueAndIsActiveTrue(type, value)
-            .map(blocklist -> !blocklist.isExpired())
-            .orElse(false);
+        if (value == null) {
+            return false;
+        }
+        return switch (blocklistIndex.lookup(type, value)) {
+            case ABSENT -> false;
+            case PRESENT -> true;
+            case MAYBE -> {
+                boolean blocked = blocklistRepository.findByTypeAndValueAndIsActiveTrue(type, value)
+                    .map(blocklist -> !blocklist.isExpired())
+                    .orElse(false);
+                blocklistIndex.recordConfirmation(type, blocked);
+                yield blocked;
+            }
+        };
     }
     
     /**
@@ -71,7 +87,10 @@ public class BlocklistService {
             .createdBy("SYSTEM")
             .build();
         
-        return blocklistRepository.save(blocklist);
+        Blocklist saved = blocklistRepository.save(blocklist);
+        eventPublisher.publishEvent(
+            new BlocklistChangedEvent(saved.getType(), saved.getValue(), saved.getExpiresAt(), true));
+        return saved;
     }
     
     /**
@@ -82,6 +101,8 @@ public class BlocklistService {
         blocklistRepository.findById(id).ifPresent(blocklist -> {
             blocklist.setIsActive(false);
             blocklistRepository.save(blocklist);
+            eventPublisher.publishEvent(
+                new BlocklistChangedEvent(blocklist.getType(), blocklist.getValue(), blocklist.getExpiresAt(), false));
             log.info("Removed from blocklist: id={}", id);
         });
     }
@@ -0,0 +1,514 @@
+package com.payment.fraud.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotent fraud decisions per payment.
+ *
+ * Client retries and event redeliveries re-submit the same paymentId; within the TTL they
+ * get the first assessment's response back without running checks, recording velocity or
+ * saving another fraud score. Decisions live in Redis so a retry routed to another
+ * instance still hits, with a local copy in front. When fingerprinting is on, a request
+ * for the same payment whose amount or entities differ is assessed afresh.
+ *
+ * A retry that arrives while the first assessment is still running must not run the
+ * checks again either. Before assessing, a caller claims the payment: locally through the
+ * in-flight map, across instances through a SET NX marker that expires after claim-ttl.
+ * A caller that finds the payment claimed waits up to claim-wait for the owner's decision
+ * and assesses it itself only if none arrives.
+ *
+ * Lookups and claims never fail an assessment: a Redis error or a miss of lookup-timeout
+ * is a miss, and a claim that cannot be checked is owned.
+ *
+ * Metrics: fraud.decision.cache.gets{result: hit, miss, mismatch},
+ * fraud.decision.cache.claims{result: owned, waited, expired} and the
+ * fraud.decision.cache.size gauge (local copies).
+ */
+@Component
+@Slf4j
+public class DecisionCache {
+
+    private static final long CLAIM_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final boolean fingerprint;
+    private final String keyPrefix;
+    private final Duration lookupTimeout;
+    private final long localTtlMillis;
+    private final int localMaxKeys;
+
+    private final Duration claimTtl;
+    private final Duration claimWait;
+
+    private final Map<UUID, Local> local = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<FraudAssessmentResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter mismatches;
+    private final Counter ownedClaims;
+    private final Counter waitedClaims;
+    private final Counter expiredClaims;
+
+    public DecisionCache(
+            RedissonClient redissonClient,
+            ObjectMapper objectMapper,
+            @Value("${fraud.assessment.decision-cache.enabled:true}") boolean enabled,
+            @Value("${fraud.assessment.decision-cache.ttl:10m}") Duration ttl,
+            @Value("${fraud.assessment.decision-cache.fingerprint:true}") boolean fingerprint,
+            @Value("${fraud.assessment.decision-cache.key-prefix:fraud:decision:}") String keyPrefix,
+            @Value("${fraud.assessment.decision-cache.lookup-timeout:20ms}") Duration lookupTimeout,
+            @Value("${fraud.assessment.decision-cache.local.ttl:60s}") Duration localTtl,
+            @Value("${fraud.assessment.decision-cache.local.max-keys:100000}") int localMaxKeys,
+            @Value("${fraud.assessment.decision-cache.claim-ttl:5s}") Duration claimTtl,
+            @Value("${fraud.assessment.decision-cache.claim-wait:1s}") Duration claimWait,
+            MeterRegistry meterRegistry) {
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.fingerprint = fingerprint;
+        this.keyPrefix = keyPrefix;
+        this.lookupTimeout = lookupTimeout;
+        this.localTtlMillis = Math.min(localTtl.toMillis(), ttl.toMillis());
+        this.localMaxKeys = localMaxKeys;
+        this.claimTtl = claimTtl;
+        this.claimWait = claimWait;
+
+        this.hits = gets("hit", meterRegistry);
+        this.misses = gets("miss", meterRegistry);
+        this.mismatches = gets("mismatch", meterRegistry);
+        this.ownedClaims = claims("owned", meterRegistry);
+        this.waitedClaims = claims("waited", meterRegistry);
+        this.expiredClaims = claims("expired", meterRegistry);
+        Gauge.builder("fraud.decision.cache.size", local, Map::size)
+            .description("Fraud decisions held in the local decision cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Prior decision for the request's payment, or null when it must be assessed
+     */
+    public FraudAssessmentResponse get(FraudAssessmentRequest request) {
+        return getAll(List.of(request)).get(0);
+    }
+
+    /**
+     * Prior decisions for a batch, in request order, null for each request that must be
+     * assessed; everything not held locally is read in one pipelined batch
+     */
+    public List<FraudAssessmentResponse> getAll(List<FraudAssessmentRequest> requests) {
+        return read(requests, true);
+    }
+
+    /**
+     * Claim on the request's payment, see {@link #claimAll}
+     */
+    public Claim claim(FraudAssessmentRequest request) {
+        return claimAll(List.of(request), Arrays.asList((FraudAssessmentResponse) null)).get(0);
+    }
+
+    /**
+     * Claims the payment of every request without a cached response, in request order, null
+     * where cached holds a response. Every non-null claim must end in {@link #complete} or
+     * {@link #release}; an owned claim's request is assessed by the caller, any other is
+     * answered through {@link #awaitAll} first.
+     */
+    public List<Claim> claimAll(List<FraudAssessmentRequest> requests, List<FraudAssessmentResponse> cached) {
+        Claim[] claims = new Claim[requests.size()];
+        RBatch batch = null;
+        RFuture<?>[] markers = new RFuture<?>[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            if (cached.get(i) != null) {
+                continue;
+            }
+            UUID paymentId = requests.get(i).getPaymentId();
+            if (!enabled || paymentId == null) {
+                claims[i] = Claim.UNTRACKED;
+                continue;
+            }
+            CompletableFuture<FraudAssessmentResponse> future = new CompletableFuture<>();
+            CompletableFuture<FraudAssessmentResponse> running = inFlight.putIfAbsent(paymentId, future);
+            if (running != null) {
+                claims[i] = new Claim(paymentId, running, false, false);
+                continue;
+            }
+            if (batch == null) {
+                batch = redissonClient.createBatch(BatchOptions.defaults()
+                    .executionMode(BatchOptions.ExecutionMode.IN_MEMORY)
+                    .responseTimeout(lookupTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .retryAttempts(0));
+            }
+            claims[i] = new Claim(paymentId, future, true, true);
+            markers[i] = batch.<String>getBucket(claimKey(paymentId), StringCodec.INSTANCE)
+                .trySetAsync("1", claimTtl.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        if (batch != null) {
+            boolean claimed = execute(batch, "claim", requests.size());
+            for (int i = 0; i < markers.length; i++) {
+                if (markers[i] == null) {
+                    continue;
+                }
+                // Owned unless another instance is known to hold the marker
+                if (claimed && Boolean.FALSE.equals(markers[i].toCompletableFuture().join())) {
+                    claims[i] = new Claim(claims[i].paymentId, claims[i].future, true, false);
+                } else {
+                    ownedClaims.increment();
+                }
+            }
+        }
+        return Arrays.asList(claims);
+    }
+
+    /**
+     * Decisions for the claims another call owns, in request order; null for owned or null
+     * claims and where no decision for the same request details arrived within claim-wait,
+     * in which case the caller assesses the request itself
+     */
+    public List<FraudAssessmentResponse> awaitAll(List<FraudAssessmentRequest> requests, List<Claim> claims) {
+        FraudAssessmentResponse[] responses = new FraudAssessmentResponse[requests.size()];
+        long deadline = System.nanoTime() + claimWait.toNanos();
+        for (int i = 0; i < requests.size(); i++) {
+            Claim claim = claims.get(i);
+            if (claim == null || claim.owner) {
+                continue;
+            }
+            responses[i] = claim.held
+                ? awaitRemote(requests.get(i), claim, deadline)
+                : awaitLocal(requests.get(i), claim, deadline);
+            (responses[i] != null ? waitedClaims : expiredClaims).increment();
+        }
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Remembers the decision and hands it to callers waiting on the claim
+     */
+    public void complete(Claim claim, FraudAssessmentRequest request, FraudAssessmentResponse response) {
+        CompletionStage<?> stored = put(request, response);
+        if (claim != null && claim.held && finish(claim, response) && claim.owner) {
+            stored.whenComplete((ignored, error) -> releaseMarker(claim.paymentId));
+        }
+    }
+
+    /**
+     * Completes each claim with the response at the same index
+     */
+    public void completeAll(List<Claim> claims, List<FraudAssessmentRequest> requests,
+                            List<FraudAssessmentResponse> responses) {
+        for (int i = 0; i < requests.size(); i++) {
+            complete(claims.get(i), requests.get(i), responses.get(i));
+        }
+    }
+
+    /**
+     * Gives up a claim without a decision; waiters assess the payment themselves
+     */
+    public void release(Claim claim) {
+        if (claim != null && claim.held && finish(claim, null) && claim.owner) {
+            releaseMarker(claim.paymentId);
+        }
+    }
+
+    public void releaseAll(List<Claim> claims) {
+        claims.forEach(this::release);
+    }
+
+    private List<FraudAssessmentResponse> read(List<FraudAssessmentRequest> requests, boolean count) {
+        FraudAssessmentResponse[] responses = new FraudAssessmentResponse[requests.size()];
+        if (!enabled) {
+            return Arrays.asList(responses);
+        }
+
+        long now = System.currentTimeMillis();
+        RBatch batch = null;
+        RFuture<?>[] reads = new RFuture<?>[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            UUID paymentId = requests.get(i).getPaymentId();
+            if (paymentId == null) {
+                continue;
+            }
+            Local cached = local.get(paymentId);
+            if (cached != null && cached.expiresAt() > now) {
+                responses[i] = resolve(requests.get(i), cached.entry(), count);
+                continue;
+            }
+            if (batch == null) {
+                batch = redissonClient.createBatch(BatchOptions.defaults()
+                    .executionMode(BatchOptions.ExecutionMode.IN_MEMORY)
+                    .responseTimeout(lookupTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .retryAttempts(0));
+            }
+            reads[i] = batch.<String>getBucket(keyPrefix + paymentId, StringCodec.INSTANCE).getAsync();
+        }
+
+        if (batch != null) {
+            boolean loaded = execute(batch, "lookup", requests.size());
+            for (int i = 0; i < reads.length; i++) {
+                if (reads[i] == null) {
+                    continue;
+                }
+                Entry entry = loaded ? parse((String) reads[i].toCompletableFuture().join()) : null;
+                if (entry == null) {
+                    if (count) {
+                        misses.increment();
+                    }
+                    continue;
+                }
+                localPut(requests.get(i).getPaymentId(), entry, now);
+                responses[i] = resolve(requests.get(i), entry, count);
+            }
+        }
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Runs the pipelined batch within lookup-timeout; false when it failed or timed out
+     */
+    private boolean execute(RBatch batch, String operation, int requests) {
+        return batch.executeAsync().toCompletableFuture()
+            .thenApply(ignored -> true)
+            .completeOnTimeout(false, lookupTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .exceptionally(error -> {
+                log.debug("Decision cache {} failed: requests={}, error={}", operation, requests, error.getMessage());
+                return false;
+            })
+            .join();
+    }
+
+    /**
+     * The claim is another call on this instance: wait for it, then read its local copy
+     */
+    private FraudAssessmentResponse awaitLocal(FraudAssessmentRequest request, Claim claim, long deadline) {
+        try {
+            claim.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+        return read(List.of(request), false).get(0);
+    }
+
+    /**
+     * The claim is held on another instance: poll Redis for its decision, then pass the
+     * outcome to callers on this instance waiting on this claim
+     */
+    private FraudAssessmentResponse awaitRemote(FraudAssessmentRequest request, Claim claim, long deadline) {
+        FraudAssessmentResponse response = null;
+        try {
+            while (true) {
+                response = read(List.of(request), false).get(0);
+                long remaining = deadline - System.nanoTime();
+                if (response != null || remaining <= 0) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, CLAIM_POLL_NANOS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finish(claim, response);
+        }
+        return response;
+    }
+
+    /**
+     * Ends the local claim; true for the call that ended it
+     */
+    private boolean finish(Claim claim, FraudAssessmentResponse response) {
+        inFlight.remove(claim.paymentId, claim.future);
+        return claim.future.complete(response);
+    }
+
+    private void releaseMarker(UUID paymentId) {
+        redissonClient.getBucket(claimKey(paymentId), StringCodec.INSTANCE).deleteAsync()
+            .whenComplete((ignored, error) -> {
+                if (error != null) {
+                    log.debug("Failed to release decision claim: paymentId={}, error={}", paymentId, error.getMessage());
+                }
+            });
+    }
+
+    private String claimKey(UUID paymentId) {
+        return keyPrefix + "claim:" + paymentId;
+    }
+
+    /**
+     * Remembers the decision for the request's payment for the TTL; completes once Redis
+     * has it (or failed to take it)
+     */
+    public CompletionStage<?> put(FraudAssessmentRequest request, FraudAssessmentResponse response) {
+        UUID paymentId = request.getPaymentId();
+        if (!enabled || paymentId == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Entry entry = new Entry(fingerprintOf(request), response);
+        localPut(paymentId, entry, System.currentTimeMillis());
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize fraud decision: paymentId={}, error={}", paymentId, e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        return redissonClient.<String>getBucket(keyPrefix + paymentId, StringCodec.INSTANCE)
+            .setAsync(json, ttl.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((ignored, error) -> {
+                if (error != null) {
+                    log.warn("Failed to cache fraud decision: paymentId={}, error={}", paymentId, error.getMessage());
+                }
+            });
+    }
+
+    /**
+     * Drops local copies past their TTL
+     */
+    @Scheduled(fixedDelayString = "${fraud.assessment.decision-cache.local.evict-interval-ms:30000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        local.values().removeIf(cached -> cached.expiresAt() <= now);
+    }
+
+    private FraudAssessmentResponse resolve(FraudAssessmentRequest request, Entry entry, boolean count) {
+        if (fingerprint && !Objects.equals(entry.fingerprint(), fingerprintOf(request))) {
+            if (count) {
+                mismatches.increment();
+                log.info("Payment re-assessed with different details: paymentId={}", request.getPaymentId());
+            }
+            return null;
+        }
+        if (count) {
+            hits.increment();
+        }
+        return entry.response();
+    }
+
+    private void localPut(UUID paymentId, Entry entry, long now) {
+        if (local.size() < localMaxKeys || local.containsKey(paymentId)) {
+            local.put(paymentId, new Local(entry, now + localTtlMillis));
+        }
+    }
+
+    private Entry parse(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, Entry.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable cached fraud decision: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * SHA-256 of the fields that decide the assessment, so a changed request is not
+     * answered from the cache. Each field is length-prefixed, so no two distinct requests
+     * share the canonical form.
+     */
+    static String fingerprintOf(FraudAssessmentRequest request) {
+        StringBuilder canonical = new StringBuilder(160);
+        for (Object field : new Object[] {request.getMerchantId(), request.getCustomerId(), request.getAmount(),
+                request.getCurrency(), request.getPaymentMethodId(), request.getIpAddress(), request.getDeviceId()}) {
+            if (field == null) {
+                canonical.append("-;");
+            } else {
+                String value = field.toString();
+                canonical.append(value.length()).append(':').append(value).append(';');
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm unavailable", e);
+        }
+    }
+
+    private static Counter gets(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("fraud.decision.cache.gets")
+            .description("Decision cache lookups by result")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private static Counter claims(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("fraud.decision.cache.claims")
+            .description("Assessment claims by whether this call owned the payment or waited for its owner")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * One caller's claim on a payment's assessment. owner: this caller assesses it; held:
+     * this caller registered the local in-flight future (as owner, or as the waiter for
+     * another instance's owner)
+     */
+    public static final class Claim {
+
+        /** Caching disabled or no paymentId: assess without coordinating */
+        static final Claim UNTRACKED = new Claim(null, null, false, true);
+
+        private final UUID paymentId;
+        private final CompletableFuture<FraudAssessmentResponse> future;
+        private final boolean held;
+        private final boolean owner;
+
+        private Claim(UUID paymentId, CompletableFuture<FraudAssessmentResponse> future, boolean held, boolean owner) {
+            this.paymentId = paymentId;
+            this.future = future;
+            this.held = held;
+            this.owner = owner;
+        }
+
+        public boolean owner() {
+            return owner;
+        }
+    }
+
+    /** Cached decision with the fingerprint of the request that produced it */
+    record Entry(String fingerprint, FraudAssessmentResponse response) {
+    }
+
+    private record Local(Entry entry, long expiresAt) {
+    }
+}
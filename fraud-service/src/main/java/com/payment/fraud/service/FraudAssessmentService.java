@@ -4,35 +4,110 @@ import com.payment.fraud.dto.FraudAssessmentRequest;
 import com.payment.fraud.dto.FraudAssessmentResponse;
 import com.payment.fraud.entity.FraudScore;
 import com.payment.fraud.entity.RiskLevel;
-import com.payment.fraud.repository.FraudScoreRepository;
+import com.payment.fraud.features.EntityFeatures;
+import com.payment.fraud.features.FeatureStore;
+import com.payment.fraud.ml.ChampionChallengerScorer;
+import com.payment.fraud.ml.ChampionChallengerScorer.ModelScore;
+import com.payment.fraud.ml.FeatureExtractor;
+import com.payment.fraud.ml.FeatureSchema;
+import com.payment.fraud.rules.RuleSnapshot;
+import com.payment.fraud.velocity.DistinctVelocityStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
+/**
+ * Not transactional: the fan-out must not hold a connection while checks run,
+ * the fraud score is handed to the write-behind {@link FraudScoreWriter}.
+ * Repeat assessments of a payment are answered from the {@link DecisionCache}, including
+ * ones that arrive while the first is still running.
+ */
 @Service
-@Transactional
 @Slf4j
 @RequiredArgsConstructor
 public class FraudAssessmentService {
     
-    private final FraudScoreRepository fraudScoreRepository;
+    private final FraudScoreWriter fraudScoreWriter;
     private final VelocityCheckService velocityCheckService;
     private final RuleEngineService ruleEngineService;
     private final BlocklistService blocklistService;
+    private final FraudCheckExecutor fraudCheckExecutor;
+    private final FeatureExtractor featureExtractor;
+    private final ChampionChallengerScorer championChallengerScorer;
+    private final FeatureStore featureStore;
+    private final DistinctVelocityStore distinctVelocityStore;
+    private final DecisionCache decisionCache;
     
     private static final String MODEL_VERSION = "1.0.0-mvp";
     
+    private static final BigDecimal MAX_SCORE = BigDecimal.valueOf(100);
+    private static final long MAX_SCORE_MILLIS = 100_000L;
+
+    static final String CHECK_VELOCITY = "velocity";
+    static final String CHECK_RULES = "rules";
+    static final String CHECK_ML = "ml";
+
+    @Value("${fraud.assessment.timeout.velocity:200ms}")
+    private Duration velocityTimeout;
+
+    @Value("${fraud.assessment.timeout.rules:100ms}")
+    private Duration rulesTimeout;
+
+    @Value("${fraud.assessment.timeout.ml:300ms}")
+    private Duration mlTimeout;
+
+    /** Score used for a check that timed out, failed or was rejected */
+    @Value("${fraud.assessment.neutral-score:0}")
+    private int neutralScore;
+    
     /**
      * Main fraud assessment method
      * Runs multiple checks in parallel and combines scores
      */
     public FraudAssessmentResponse assess(FraudAssessmentRequest request) {
+        // Retries and redeliveries get the first decision without re-running checks
+        FraudAssessmentResponse cached = decisionCache.get(request);
+        if (cached != null) {
+            log.info("Returning cached fraud decision: paymentId={}, decision={}",
+                request.getPaymentId(), cached.getDecision());
+            return cached;
+        }
+        
+        // A retry racing the first call waits for its decision instead of counting the payment again
+        DecisionCache.Claim claim = decisionCache.claim(request);
+        if (!claim.owner()) {
+            FraudAssessmentResponse decided = decisionCache.awaitAll(List.of(request), List.of(claim)).get(0);
+            if (decided != null) {
+                log.info("Returning fraud decision of concurrent assessment: paymentId={}, decision={}",
+                    request.getPaymentId(), decided.getDecision());
+                return decided;
+            }
+        }
+        
+        FraudAssessmentResponse response;
+        try {
+            response = evaluate(request);
+        } catch (RuntimeException e) {
+            decisionCache.release(claim);
+            throw e;
+        }
+        decisionCache.complete(claim, request, response);
+        return response;
+    }
+    
+    private FraudAssessmentResponse evaluate(FraudAssessmentRequest request) {
         log.info("Starting fraud assessment: paymentId={}, amount={}", 
             request.getPaymentId(), request.getAmount());
         
@@ -41,52 +116,239 @@ public class FraudAssessmentService {
             return createBlockedResponse(request, "Entity is blocklisted");
         }
         
-        // 2. Run fraud checks in parallel for performance
-        CompletableFuture<BigDecimal> velocityFuture = CompletableFuture
-            .supplyAsync(() -> velocityCheckService.checkVelocity(request));
+        // 2. One batched feature-store read and one distinct-count batch, shared by the rules and ML checks
+        CompletableFuture<EntityFeatures> historyFuture = featureStore.lookupAsync(request)
+            .thenCombine(distinctVelocityStore.recordAsync(request), EntityFeatures::withDistinctCounts);
+        
+        // 3. Run fraud checks in parallel, each bounded by its own timeout
+        CompletableFuture<FraudCheckExecutor.CheckResult<Integer>> velocityFuture = fraudCheckExecutor.submit(
+            CHECK_VELOCITY, velocityTimeout, neutralScore, () -> velocityCheckService.checkVelocity(request));
         
-        CompletableFuture<BigDecimal> ruleFuture = CompletableFuture
-            .supplyAsync(() -> ruleEngineService.evaluateRules(request));
+        CompletableFuture<FraudCheckExecutor.CheckResult<Integer>> ruleFuture = fraudCheckExecutor.submit(
+            CHECK_RULES, rulesTimeout, neutralScore,
+            () -> ruleEngineService.evaluateRules(request, historyFuture.join()));
         
-        CompletableFuture<BigDecimal> mlFuture = CompletableFuture
-            .supplyAsync(() -> calculateMLScore(request));
+        CompletableFuture<FraudCheckExecutor.CheckResult<MlCheck>> mlFuture =
+            fraudCheckExecutor.submit(CHECK_ML, mlTimeout,
+                new MlCheck(ChampionChallengerScorer.Result.fallback(neutralScore), null),
+                () -> calculateMLScore(request, historyFuture.join()));
         
-        // 3. Wait for all checks to complete
+        // 4. Wait for all checks to complete (never longer than the slowest timeout)
         CompletableFuture.allOf(velocityFuture, ruleFuture, mlFuture).join();
         
-        BigDecimal velocityScore = velocityFuture.join();
-        BigDecimal ruleScore = ruleFuture.join();
-        BigDecimal mlScore = mlFuture.join();
+        int velocityScore = velocityFuture.join().value();
+        int ruleScore = ruleFuture.join().value();
+        MlCheck mlCheck = mlFuture.join().value();
+        
+        List<String> degradedChecks = new ArrayList<>();
+        addIfDegraded(degradedChecks, CHECK_VELOCITY, velocityFuture.join());
+        addIfDegraded(degradedChecks, CHECK_RULES, ruleFuture.join());
+        addIfDegraded(degradedChecks, CHECK_ML, mlFuture.join());
+        
+        return complete(request, velocityScore, ruleScore, mlCheck.result(), mlCheck.features(), degradedChecks);
+    }
+    
+    /**
+     * Assesses a batch of payments, one response per request in order.
+     *
+     * Same scoring as {@link #assess}, but every shared input is fetched once per batch:
+     * one velocity pipeline, one feature-store and distinct-count batch, one rule snapshot
+     * and one batched ML call over all feature rows. Requests are recorded in list order, so
+     * later items see the velocity of earlier ones. A stage that fails falls back to the
+     * neutral score for every item and is reported in degraded_checks. Items with a cached
+     * decision are answered from the decision cache, items another call is assessing with
+     * that call's decision.
+     */
+    public List<FraudAssessmentResponse> assessBatch(List<FraudAssessmentRequest> requests) {
+        List<FraudAssessmentResponse> responses = new ArrayList<>(decisionCache.getAll(requests));
+        if (!responses.contains(null)) {
+            return responses;
+        }
+        
+        List<DecisionCache.Claim> claims = decisionCache.claimAll(requests, responses);
+        try {
+            evaluateUncached(requests, responses, claims, true);
+            // Payments another call was assessing: its decision, or assess them now if none came
+            List<FraudAssessmentResponse> awaited = decisionCache.awaitAll(requests, claims);
+            for (int i = 0; i < requests.size(); i++) {
+                if (responses.get(i) == null) {
+                    responses.set(i, awaited.get(i));
+                }
+            }
+            evaluateUncached(requests, responses, claims, false);
+        } catch (RuntimeException e) {
+            decisionCache.releaseAll(claims);
+            throw e;
+        }
+        return responses;
+    }
+    
+    /**
+     * Assesses the still unanswered requests whose claim is (or is not) owned, as one batch,
+     * and fills in their responses
+     */
+    private void evaluateUncached(List<FraudAssessmentRequest> requests, List<FraudAssessmentResponse> responses,
+                                  List<DecisionCache.Claim> claims, boolean owned) {
+        List<Integer> positions = new ArrayList<>();
+        List<FraudAssessmentRequest> pending = new ArrayList<>();
+        List<DecisionCache.Claim> pendingClaims = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (responses.get(i) == null && claims.get(i).owner() == owned) {
+                positions.add(i);
+                pending.add(requests.get(i));
+                pendingClaims.add(claims.get(i));
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<FraudAssessmentResponse> evaluated = evaluateBatch(pending);
+        decisionCache.completeAll(pendingClaims, pending, evaluated);
+        for (int k = 0; k < positions.size(); k++) {
+            responses.set(positions.get(k), evaluated.get(k));
+        }
+    }
+    
+    private List<FraudAssessmentResponse> evaluateBatch(List<FraudAssessmentRequest> requests) {
+        log.info("Starting batch fraud assessment: items={}", requests.size());
+        
+        // 1. Blocklisted items are decided without running any checks
+        FraudAssessmentResponse[] responses = new FraudAssessmentResponse[requests.size()];
+        List<FraudAssessmentRequest> scored = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            FraudAssessmentRequest request = requests.get(i);
+            if (blocklistService.isBlocked(request)) {
+                responses[i] = createBlockedResponse(request, "Entity is blocklisted");
+            } else {
+                scored.add(request);
+                positions.add(i);
+            }
+        }
+        if (scored.isEmpty()) {
+            return Arrays.asList(responses);
+        }
+        int size = scored.size();
+        
+        // 2. History for the whole batch, read while velocity is recorded
+        CompletableFuture<List<EntityFeatures>> historyFuture = featureStore.lookupAllAsync(scored)
+            .thenCombine(distinctVelocityStore.recordAllAsync(scored), (features, counts) -> {
+                List<EntityFeatures> combined = new ArrayList<>(features.size());
+                for (int k = 0; k < features.size(); k++) {
+                    combined.add(features.get(k).withDistinctCounts(counts.get(k)));
+                }
+                return combined;
+            });
+        
+        // 3. Velocity in one pipeline
+        List<String> degradedChecks = new ArrayList<>();
+        int[] velocityScores;
+        try {
+            velocityScores = velocityCheckService.checkVelocity(scored);
+        } catch (RuntimeException e) {
+            log.warn("Batch velocity check failed: items={}, error={}", size, e.getMessage());
+            velocityScores = new int[size];
+            Arrays.fill(velocityScores, neutralScore);
+            degradedChecks.add(CHECK_VELOCITY + ":" + FraudCheckExecutor.OUTCOME_ERROR);
+        }
+        List<EntityFeatures> history = historyFuture.join();
+        
+        // 4. Rules against one snapshot; feature rows for the ML call
+        RuleSnapshot rules = ruleEngineService.currentSnapshot();
+        long now = System.currentTimeMillis();
+        int[] ruleScores = new int[size];
+        double[][] features = new double[size][FeatureSchema.SIZE];
+        List<UUID> paymentIds = new ArrayList<>(size);
+        for (int k = 0; k < size; k++) {
+            FraudAssessmentRequest request = scored.get(k);
+            ruleScores[k] = ruleEngineService.evaluateRules(rules, request, history.get(k));
+            featureExtractor.extractInto(request, history.get(k), features[k], now);
+            paymentIds.add(request.getPaymentId());
+        }
+        
+        // 5. One batched ML call over all rows
+        List<ChampionChallengerScorer.Result> mlResults;
+        try {
+            mlResults = championChallengerScorer.scoreBatch(paymentIds, features);
+        } catch (RuntimeException e) {
+            log.warn("Batch ML scoring failed: items={}, error={}", size, e.getMessage());
+            mlResults = Collections.nCopies(size, ChampionChallengerScorer.Result.fallback(neutralScore));
+            degradedChecks.add(CHECK_ML + ":" + FraudCheckExecutor.OUTCOME_ERROR);
+        }
         
-        // 4. Calculate weighted final score
-        BigDecimal finalScore = calculateWeightedScore(velocityScore, ruleScore, mlScore);
+        // 6. Combine, save and respond per item
+        for (int k = 0; k < size; k++) {
+            responses[positions.get(k)] = complete(scored.get(k), velocityScores[k], ruleScores[k],
+                mlResults.get(k), toFloats(features[k]), new ArrayList<>(degradedChecks));
+        }
         
-        // 5. Determine risk level and decision
-        RiskLevel riskLevel = determineRiskLevel(finalScore);
-        String decision = determineDecision(finalScore, riskLevel);
+        log.info("Batch fraud assessment completed: items={}, blocked={}", requests.size(), requests.size() - size);
+        return Arrays.asList(responses);
+    }
+    
+    /**
+     * Combines the check scores of one payment into its decision, saves the fraud score
+     * and builds the response.
+     *
+     * Scoring is integer arithmetic: velocity and rule scores are whole points, the ML score
+     * is rounded to hundredths and the weighted score is in thousandths, which is exact for
+     * 30/40/30 weights. BigDecimal appears only in the saved score and the response.
+     * features is the ML feature row saved for training, null when ML did not run.
+     */
+    private FraudAssessmentResponse complete(FraudAssessmentRequest request, int velocityScore, int ruleScore,
+                                             ChampionChallengerScorer.Result mlResult, float[] features,
+                                             List<String> degradedChecks) {
+        long mlScoreCents = Math.round(mlResult.primary().score() * 100);
+        
+        // 5. Calculate weighted final score
+        long finalScoreMillis = weightedScoreMillis(velocityScore, ruleScore, mlScoreCents);
+        
+        // 6. Determine risk level and decision
+        RiskLevel riskLevel = determineRiskLevel(finalScoreMillis);
+        String decision = determineDecision(finalScoreMillis);
         
-        // 6. Build factors map
-        Map<String, Object> factors = buildFactors(velocityScore, ruleScore, mlScore, request);
+        BigDecimal finalScore = BigDecimal.valueOf(finalScoreMillis, 3);
+        BigDecimal mlScore = BigDecimal.valueOf(mlScoreCents, 2);
+        
+        // 7. Build factors map
+        Map<String, Object> factors = buildFactors(velocityScore, ruleScore, mlScore, mlResult.primary(), request);
+        if (!degradedChecks.isEmpty()) {
+            factors.put("degraded_checks", degradedChecks);
+        }
         
-        // 7. Save fraud score
+        // Shadow score goes in now if it is already done, otherwise it is merged in once it lands
+        CompletableFuture<ModelScore> shadow = mlResult.shadow();
+        boolean shadowPending = shadow != null && !shadow.isDone();
+        if (shadow != null && !shadowPending) {
+            putModelScore(factors, shadow.join());
+        }
+        
+        // 8. Save fraud score
         FraudScore fraudScore = FraudScore.builder()
             .paymentId(request.getPaymentId())
             .score(finalScore)
             .riskLevel(riskLevel)
-            .velocityScore(velocityScore)
-            .ruleScore(ruleScore)
+            .velocityScore(BigDecimal.valueOf(velocityScore))
+            .ruleScore(BigDecimal.valueOf(ruleScore))
             .mlScore(mlScore)
             .factors(factors)
             .modelVersion(MODEL_VERSION)
             .decision(decision)
+            .features(features)
             .build();
         
-        fraudScoreRepository.save(fraudScore);
+        fraudScoreWriter.write(fraudScore);
+        
+        if (shadowPending) {
+            UUID paymentId = request.getPaymentId();
+            shadow.thenAccept(score -> recordShadowScore(paymentId, score));
+        }
         
         log.info("Fraud assessment completed: paymentId={}, score={}, riskLevel={}, decision={}", 
             request.getPaymentId(), finalScore, riskLevel, decision);
         
-        // 8. Return response
+        // 9. Return response
         return FraudAssessmentResponse.builder()
             .score(finalScore)
             .riskLevel(riskLevel.name().toLowerCase())
@@ -96,61 +358,94 @@ public class FraudAssessmentService {
             .build();
     }
     
+    private static void addIfDegraded(List<String> degradedChecks, String check,
+                                      FraudCheckExecutor.CheckResult<?> result) {
+        if (result.degraded()) {
+            degradedChecks.add(check + ":" + result.outcome());
+        }
+    }
+    
     /**
-     * Calculate weighted fraud score
+     * Calculate weighted fraud score in thousandths of a point
      * Velocity: 30%, Rules: 40%, ML: 30%
      */
-    private BigDecimal calculateWeightedScore(
-            BigDecimal velocityScore, 
-            BigDecimal ruleScore, 
-            BigDecimal mlScore) {
-        
-        BigDecimal weighted = velocityScore.multiply(BigDecimal.valueOf(0.30))
-            .add(ruleScore.multiply(BigDecimal.valueOf(0.40)))
-            .add(mlScore.multiply(BigDecimal.valueOf(0.30)));
+    private static long weightedScoreMillis(int velocityScore, int ruleScore, long mlScoreCents) {
+        long weighted = 300L * velocityScore + 400L * ruleScore + 3L * mlScoreCents;
         
         // Cap at 100
-        return weighted.min(BigDecimal.valueOf(100));
+        return Math.min(weighted, MAX_SCORE_MILLIS);
     }
     
     /**
-     * ML-based fraud prediction (simplified for MVP)
+     * ML-based fraud prediction through the champion / challenger scorer.
+     * Features go into a reused per-thread primitive buffer; only the final score is boxed
+     * and a float copy of the row is kept for the saved fraud score.
      */
-    private BigDecimal calculateMLScore(FraudAssessmentRequest request) {
+    private MlCheck calculateMLScore(FraudAssessmentRequest request, EntityFeatures history) {
         log.debug("Calculating ML score for payment: {}", request.getPaymentId());
         
-        BigDecimal score = BigDecimal.ZERO;
+        double[] features = FeatureExtractor.threadBuffer();
+        featureExtractor.extractInto(request, history, features, System.currentTimeMillis());
         
-        // Feature 1: Amount-based scoring
-        if (request.getAmount() > 100000) { // > $1000
-            score = score.add(BigDecimal.valueOf(20));
+        return new MlCheck(championChallengerScorer.score(request.getPaymentId(), features), toFloats(features));
+    }
+    
+    private static float[] toFloats(double[] features) {
+        float[] row = new float[features.length];
+        for (int i = 0; i < features.length; i++) {
+            row[i] = (float) features[i];
         }
-        
-        if (request.getAmount() > 500000) { // > $5000
-            score = score.add(BigDecimal.valueOf(30));
+        return row;
+    }
+    
+    /**
+     * Model score rounded to hundredths, as saved and returned
+     */
+    private static BigDecimal toScore(double score) {
+        return BigDecimal.valueOf(Math.round(score * 100), 2);
+    }
+    
+    /**
+     * Records a model's score under ml_champion / ml_challenger
+     */
+    private static void putModelScore(Map<String, Object> factors, ModelScore score) {
+        if (score == null || ChampionChallengerScorer.ROLE_NONE.equals(score.role())) {
+            return;
         }
-        
-        // Feature 2: Round amounts are suspicious
-        if (request.getAmount() % 10000 == 0) { // Exact $100, $200, etc.
-            score = score.add(BigDecimal.valueOf(10));
+        Map<String, Object> model = new HashMap<>();
+        model.put("version", score.version());
+        model.put("score", toScore(score.score()));
+        factors.put("ml_" + score.role(), model);
+    }
+    
+    /**
+     * Merges a shadow score that finished after the fraud score was saved. Normally runs on
+     * the shadow executor thread; failures are logged and never reach the assessment
+     */
+    private void recordShadowScore(UUID paymentId, ModelScore score) {
+        Map<String, Object> patch = new HashMap<>();
+        putModelScore(patch, score);
+        if (patch.isEmpty()) {
+            return;
+        }
+        try {
+            fraudScoreWriter.mergeFactors(paymentId, patch);
+        } catch (RuntimeException e) {
+            log.warn("Failed to record shadow model score: paymentId={}, error={}", paymentId, e.getMessage());
         }
-        
-        // TODO: In production, call actual ML model (TensorFlow, PyTorch, etc.)
-        
-        return score.min(BigDecimal.valueOf(100));
     }
     
     /**
-     * Determine risk level from score
+     * Determine risk level from score (thousandths of a point)
      */
-    private RiskLevel determineRiskLevel(BigDecimal score) {
-        if (score.compareTo(BigDecimal.valueOf(75)) >= 0) {
+    private static RiskLevel determineRiskLevel(long scoreMillis) {
+        if (scoreMillis >= 75_000) {
             return RiskLevel.CRITICAL;
-        } else if (score.compareTo(BigDecimal.valueOf(60)) >= 0) {
+        } else if (scoreMillis >= 60_000) {
             return RiskLevel.HIGH;
-        } else if (score.compareTo(BigDecimal.valueOf(40)) >= 0) {
+        } else if (scoreMillis >= 40_000) {
             return RiskLevel.MEDIUM;
-        } else if (score.compareTo(BigDecimal.valueOf(20)) >= 0) {
+        } else if (scoreMillis >= 20_000) {
             return RiskLevel.LOW;
         } else {
             return RiskLevel.VERY_LOW;
@@ -160,10 +455,10 @@ public class FraudAssessmentService {
     /**
      * Determine action to take
      */
-    private String determineDecision(BigDecimal score, RiskLevel riskLevel) {
-        if (score.compareTo(BigDecimal.valueOf(75)) >= 0) {
+    private static String determineDecision(long scoreMillis) {
+        if (scoreMillis >= 75_000) {
             return "BLOCK";
-        } else if (score.compareTo(BigDecimal.valueOf(50)) >= 0) {
+        } else if (scoreMillis >= 50_000) {
             return "REVIEW";
         } else {
             return "ALLOW";
@@ -174,15 +469,21 @@ public class FraudAssessmentService {
      * Build factors map explaining the score
      */
     private Map<String, Object> buildFactors(
-            BigDecimal velocityScore,
-            BigDecimal ruleScore,
+            int velocityScore,
+            int ruleScore,
             BigDecimal mlScore,
+            ModelScore mlModelScore,
             FraudAssessmentRequest request) {
         
         Map<String, Object> factors = new HashMap<>();
         factors.put("velocity_score", velocityScore);
         factors.put("rule_score", ruleScore);
         factors.put("ml_score", mlScore);
+        if (mlModelScore.version() != null) {
+            factors.put("ml_model_version", mlModelScore.version());
+            factors.put("ml_decided_by", mlModelScore.role());
+        }
+        putModelScore(factors, mlModelScore);
         factors.put("amount", request.getAmount());
         factors.put("currency", request.getCurrency());
         
@@ -191,7 +492,7 @@ public class FraudAssessmentService {
             factors.put("high_amount", true);
         }
         
-        if (velocityScore.compareTo(BigDecimal.valueOf(30)) > 0) {
+        if (velocityScore > 30) {
             factors.put("velocity_alert", true);
         }
         
@@ -209,21 +510,25 @@ public class FraudAssessmentService {
         
         FraudScore fraudScore = FraudScore.builder()
             .paymentId(request.getPaymentId())
-            .score(BigDecimal.valueOf(100))
+            .score(MAX_SCORE)
             .riskLevel(RiskLevel.CRITICAL)
             .decision("BLOCK")
             .factors(Map.of("blocklist_reason", reason))
             .modelVersion(MODEL_VERSION)
             .build();
         
-        fraudScoreRepository.save(fraudScore);
+        fraudScoreWriter.write(fraudScore);
         
         return FraudAssessmentResponse.builder()
-            .score(BigDecimal.valueOf(100))
+            .score(MAX_SCORE)
             .riskLevel("critical")
             .decision("BLOCK")
             .factors(Map.of("reason", reason))
             .modelVersion(MODEL_VERSION)
             .build();
     }
+    
+    /** ML check outcome with the feature row it scored, null when the check fell back */
+    private record MlCheck(ChampionChallengerScorer.Result result, float[] features) {
+    }
 }
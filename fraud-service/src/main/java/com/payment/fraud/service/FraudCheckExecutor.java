@@ -0,0 +1,192 @@
+package com.payment.fraud.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs individual fraud checks on the assessment executor with a deadline.
+ *
+ * A check that times out, fails or is rejected because the executor is saturated completes
+ * with its fallback value (the neutral score) so one slow dependency cannot hold the
+ * assessment hostage. A timed-out check is cancelled: dropped if it has not started yet,
+ * interrupted if it has, so it does not keep holding an executor thread. The caller's MDC
+ * and OpenTelemetry context are carried onto the worker thread. JPA transactions are
+ * thread-bound and deliberately not propagated; checks use their own.
+ *
+ * Metrics: fraud.check.duration{check, outcome}, fraud.check.queue.wait{check},
+ * and fraud.check.queued / fraud.check.in_flight gauges. Timers are cached per tag
+ * combination rather than registered per check.
+ */
+@Component
+@Slf4j
+public class FraudCheckExecutor {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_TIMEOUT = "timeout";
+    public static final String OUTCOME_ERROR = "error";
+    public static final String OUTCOME_REJECTED = "rejected";
+
+    /**
+     * Value of one check and how it was obtained
+     */
+    public record CheckResult<T>(T value, String outcome) {
+        public boolean degraded() {
+            return !OUTCOME_SUCCESS.equals(outcome);
+        }
+    }
+
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<TimerKey, Timer> durationTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> queueWaitTimers = new ConcurrentHashMap<>();
+
+    public FraudCheckExecutor(@Qualifier("assessmentExecutor") Executor executor, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("fraud.check.queued", queued, AtomicInteger::get)
+            .description("Fraud checks submitted but not yet started")
+            .register(meterRegistry);
+        Gauge.builder("fraud.check.in_flight", inFlight, AtomicInteger::get)
+            .description("Fraud checks currently running")
+            .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<CheckResult<T>> submit(String check, Duration timeout, T fallback,
+                                                        Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Context traceContext = Context.current();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        // Set by whichever comes first: the worker starting the check or its cancellation
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<T> value = new CompletableFuture<>();
+        FutureTask<T> work = new FutureTask<>(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            queued.decrementAndGet();
+            inFlight.incrementAndGet();
+            long startedAt = System.nanoTime();
+            queueWaitTimer(check).record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+            try {
+                return runWithContext(traceContext, mdc, task);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    value.complete(get());
+                } catch (ExecutionException e) {
+                    value.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        queued.incrementAndGet();
+        try {
+            executor.execute(work);
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            log.warn("Fraud check rejected, executor saturated: check={}", check);
+            record(check, OUTCOME_REJECTED, submittedAt);
+            return CompletableFuture.completedFuture(new CheckResult<>(fallback, OUTCOME_REJECTED));
+        }
+
+        return value
+            .thenApply(result -> new CheckResult<>(result, OUTCOME_SUCCESS))
+            .completeOnTimeout(new CheckResult<>(fallback, OUTCOME_TIMEOUT), timeout.toMillis(), TimeUnit.MILLISECONDS)
+            .exceptionally(error -> {
+                log.warn("Fraud check failed, using neutral score: check={}, error={}", check, error.getMessage());
+                return new CheckResult<>(fallback, OUTCOME_ERROR);
+            })
+            .whenComplete((result, error) -> {
+                if (result != null) {
+                    if (OUTCOME_TIMEOUT.equals(result.outcome())) {
+                        log.warn("Fraud check timed out after {}ms, using neutral score: check={}",
+                            timeout.toMillis(), check);
+                        cancel(work, claimed);
+                    }
+                    record(check, result.outcome(), submittedAt);
+                }
+            });
+    }
+
+    /**
+     * Frees the executor from a timed-out check: a queued check never runs, a running one is
+     * interrupted so blocking calls that honour interrupts give up
+     */
+    private void cancel(FutureTask<?> work, AtomicBoolean claimed) {
+        if (claimed.compareAndSet(false, true)) {
+            queued.decrementAndGet();
+        }
+        work.cancel(true);
+    }
+
+    private static <T> T runWithContext(Context traceContext, Map<String, String> mdc, Supplier<T> task) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        try (Scope ignored = traceContext.makeCurrent()) {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                MDC.setContextMap(previous);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+
+    private void record(String check, String outcome, long submittedAt) {
+        durationTimers.computeIfAbsent(new TimerKey(check, outcome), key ->
+            Timer.builder("fraud.check.duration")
+                .description("Fraud check latency from submission to result")
+                .tag("check", check)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+            .record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer queueWaitTimer(String check) {
+        return queueWaitTimers.computeIfAbsent(check, key ->
+            Timer.builder("fraud.check.queue.wait")
+                .description("Time a fraud check waited for an executor thread")
+                .tag("check", check)
+                .register(meterRegistry));
+    }
+
+    private record TimerKey(String check, String outcome) {
+    }
+}
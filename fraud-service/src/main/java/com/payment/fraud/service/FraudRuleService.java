@@ -6,8 +6,10 @@ import com.payment.fraud.dto.UpdateFraudRuleRequest;
 import com.payment.fraud.entity.FraudRule;
 import com.payment.fraud.exception.RuleNotFoundException;
 import com.payment.fraud.repository.FraudRuleRepository;
+import com.payment.fraud.rules.FraudRulesChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +22,7 @@ import java.util.UUID;
 public class FraudRuleService {
 
     private final FraudRuleRepository fraudRuleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<FraudRuleResponse> listRules() {
@@ -46,6 +49,7 @@ public class FraudRuleService {
 
         FraudRule saved = fraudRuleRepository.save(rule);
         log.info("Created fraud rule: id={}, name={}, type={}", saved.getId(), saved.getRuleName(), saved.getRuleType());
+        eventPublisher.publishEvent(new FraudRulesChangedEvent(saved.getId(), "CREATED"));
         return toResponse(saved);
     }
 
@@ -78,6 +82,7 @@ public class FraudRuleService {
 
         FraudRule saved = fraudRuleRepository.save(rule);
         log.info("Updated fraud rule: id={}, name={}", saved.getId(), saved.getRuleName());
+        eventPublisher.publishEvent(new FraudRulesChangedEvent(saved.getId(), "UPDATED"));
         return toResponse(saved);
     }
 
@@ -87,6 +92,7 @@ public class FraudRuleService {
             .orElseThrow(() -> new RuleNotFoundException(ruleId));
         fraudRuleRepository.delete(rule);
         log.warn("Deleted fraud rule: id={}, name={}", rule.getId(), rule.getRuleName());
+        eventPublisher.publishEvent(new FraudRulesChangedEvent(rule.getId(), "DELETED"));
     }
 
     private FraudRuleResponse toResponse(FraudRule rule) {
@@ -0,0 +1,411 @@
+package com.payment.fraud.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.fraud.entity.FraudScore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence for fraud scores.
+ *
+ * Assessments hand their FraudScore to a bounded queue and return; one writer thread
+ * drains it and inserts up to batch-size rows per JDBC batch (rewritten into multi-row
+ * INSERTs by the driver), at least every flush-interval. A full queue, or a disabled or
+ * stopped writer, makes the caller insert synchronously, so scores are never dropped for
+ * lack of buffer space. On shutdown the queue is drained before the DataSource closes.
+ *
+ * Factor patches (late shadow model scores) are merged into the buffered entity while it
+ * is still queued, held while its INSERT is in flight and applied once that commits, and
+ * otherwise applied by the writer directly.
+ *
+ * Metrics: fraud.scores.flush{outcome}, fraud.scores.flush.size, fraud.scores.queued,
+ * fraud.scores.sync_writes and fraud.scores.dropped.
+ */
+@Component
+@Slf4j
+public class FraudScoreWriter {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO fraud_scores (id, payment_id, score, risk_level, velocity_score, rule_score, ml_score,
+                                  factors, model_version, decision, created_at, features)
+        VALUES (?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?, ?)
+        """;
+
+    private static final String MERGE_FACTORS_SQL = """
+        UPDATE fraud_scores SET factors = COALESCE(factors, CAST('{}' AS jsonb)) || CAST(? AS jsonb)
+        WHERE payment_id = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int maxAttempts;
+    private final Duration shutdownTimeout;
+
+    private final BlockingQueue<FraudScore> queue;
+    private final Map<UUID, FraudScore> buffered = new HashMap<>();
+    private final Map<UUID, List<Map<String, Object>>> inserting = new HashMap<>();
+    private final Queue<FactorPatch> patches = new ConcurrentLinkedQueue<>();
+    private final Object lock = new Object();
+
+    private final DistributionSummary flushSizes;
+    private final Timer flushSuccess;
+    private final Timer flushFailure;
+    private final Counter syncWrites;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public FraudScoreWriter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${fraud.scores.write-behind.enabled:true}") boolean enabled,
+            @Value("${fraud.scores.write-behind.batch-size:200}") int batchSize,
+            @Value("${fraud.scores.write-behind.flush-interval:200ms}") Duration flushInterval,
+            @Value("${fraud.scores.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${fraud.scores.write-behind.max-attempts:3}") int maxAttempts,
+            @Value("${fraud.scores.write-behind.shutdown-timeout:10s}") Duration shutdownTimeout,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.flushSizes = DistributionSummary.builder("fraud.scores.flush.size")
+            .description("Fraud scores inserted per batch")
+            .register(meterRegistry);
+        this.flushSuccess = flushTimer(meterRegistry, "success");
+        this.flushFailure = flushTimer(meterRegistry, "failure");
+        this.syncWrites = Counter.builder("fraud.scores.sync_writes")
+            .description("Fraud scores inserted on the request thread because the write-behind queue was unavailable")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("fraud.scores.dropped")
+            .description("Fraud scores that could not be inserted after all retries")
+            .register(meterRegistry);
+        Gauge.builder("fraud.scores.queued", queue, BlockingQueue::size)
+            .description("Fraud scores waiting to be inserted")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Fraud score write-behind disabled, scores are inserted synchronously");
+            return;
+        }
+        running = true;
+        writerThread = Thread.ofPlatform().name("fraud-score-writer").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join(shutdownTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            log.error("Fraud score writer did not finish within {}, {} scores not persisted",
+                shutdownTimeout, queue.size());
+        }
+    }
+
+    /**
+     * Queues score for insertion; assigns id and createdAt if missing
+     */
+    public void write(FraudScore score) {
+        if (score.getId() == null) {
+            score.setId(UUID.randomUUID());
+        }
+        if (score.getCreatedAt() == null) {
+            score.setCreatedAt(Instant.now());
+        }
+        // The buffered entity may be patched later; never share the caller's map
+        score.setFactors(score.getFactors() != null ? new HashMap<>(score.getFactors()) : new HashMap<>());
+
+        if (running) {
+            synchronized (lock) {
+                buffered.put(score.getPaymentId(), score);
+            }
+            if (queue.offer(score)) {
+                return;
+            }
+            synchronized (lock) {
+                buffered.remove(score.getPaymentId(), score);
+            }
+        }
+        syncWrites.increment();
+        flush(List.of(score));
+    }
+
+    /**
+     * Merges patch into the factors of the payment's score, wherever it currently is
+     */
+    public void mergeFactors(UUID paymentId, Map<String, Object> patch) {
+        synchronized (lock) {
+            FraudScore score = buffered.get(paymentId);
+            if (score != null) {
+                score.getFactors().putAll(patch);
+                return;
+            }
+            // The row is not committed yet; an UPDATE now would match nothing
+            List<Map<String, Object>> held = inserting.get(paymentId);
+            if (held != null) {
+                held.add(patch);
+                return;
+            }
+        }
+        if (running) {
+            patches.add(new FactorPatch(paymentId, patch));
+        } else {
+            applyPatch(new FactorPatch(paymentId, patch));
+        }
+    }
+
+    private void run() {
+        List<FraudScore> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                FraudScore first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    collectBatch(first, batch);
+                    flush(batch);
+                }
+                applyPatches();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Fraud score writer loop failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // Shutdown: whatever is still queued goes out now
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+        applyPatches();
+    }
+
+    private void collectBatch(FraudScore first, List<FraudScore> batch) throws InterruptedException {
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            FraudScore next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Inserts scores, then applies the factor patches that arrived while they were in flight
+     */
+    private void flush(List<FraudScore> scores) {
+        synchronized (lock) {
+            for (FraudScore score : scores) {
+                buffered.remove(score.getPaymentId(), score);
+                inserting.put(score.getPaymentId(), new ArrayList<>());
+            }
+        }
+        try {
+            insertWithRetries(scores);
+        } finally {
+            applyHeldPatches(scores);
+        }
+    }
+
+    /**
+     * Inserts scores in one transaction, retrying the batch, then row by row so one bad
+     * row cannot lose the rest
+     */
+    private void insertWithRetries(List<FraudScore> scores) {
+        long started = System.nanoTime();
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                insert(scores);
+                flushSizes.record(scores.size());
+                flushSuccess.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Fraud score batch insert failed: attempt={}/{}, size={}, error={}",
+                    attempt, maxAttempts, scores.size(), e.getMessage());
+                if (attempt < maxAttempts) {
+                    backoff(attempt);
+                }
+            }
+        }
+        flushFailure.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        if (scores.size() > 1) {
+            for (FraudScore score : scores) {
+                try {
+                    insert(List.of(score));
+                    flushSizes.record(1);
+                } catch (RuntimeException e) {
+                    drop(score, e);
+                }
+            }
+        } else {
+            drop(scores.get(0), null);
+        }
+    }
+
+    private void insert(List<FraudScore> scores) {
+        List<String> factors = new ArrayList<>(scores.size());
+        for (FraudScore score : scores) {
+            factors.add(toJson(score.getFactors()));
+        }
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    FraudScore score = scores.get(i);
+                    ps.setObject(1, score.getId());
+                    ps.setObject(2, score.getPaymentId());
+                    ps.setBigDecimal(3, score.getScore());
+                    ps.setString(4, score.getRiskLevel().name());
+                    ps.setBigDecimal(5, score.getVelocityScore());
+                    ps.setBigDecimal(6, score.getRuleScore());
+                    ps.setBigDecimal(7, score.getMlScore());
+                    ps.setString(8, factors.get(i));
+                    ps.setString(9, score.getModelVersion());
+                    ps.setString(10, score.getDecision());
+                    ps.setTimestamp(11, Timestamp.from(score.getCreatedAt()));
+                    if (score.getFeatures() != null) {
+                        ps.setArray(12, ps.getConnection().createArrayOf("real", boxed(score.getFeatures())));
+                    } else {
+                        ps.setNull(12, Types.ARRAY);
+                    }
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return scores.size();
+                }
+            }));
+    }
+
+    private static Float[] boxed(float[] values) {
+        Float[] boxed = new Float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+
+    private void applyHeldPatches(List<FraudScore> scores) {
+        List<FactorPatch> held = new ArrayList<>();
+        synchronized (lock) {
+            for (FraudScore score : scores) {
+                List<Map<String, Object>> factors = inserting.remove(score.getPaymentId());
+                if (factors != null) {
+                    factors.forEach(patch -> held.add(new FactorPatch(score.getPaymentId(), patch)));
+                }
+            }
+        }
+        held.forEach(this::applyPatch);
+    }
+
+    private void applyPatches() {
+        FactorPatch patch;
+        while ((patch = patches.poll()) != null) {
+            applyPatch(patch);
+        }
+    }
+
+    private void applyPatch(FactorPatch patch) {
+        try {
+            jdbcTemplate.update(MERGE_FACTORS_SQL, toJson(patch.factors()), patch.paymentId());
+        } catch (RuntimeException e) {
+            log.warn("Failed to merge fraud score factors: paymentId={}, error={}", patch.paymentId(), e.getMessage());
+        }
+    }
+
+    private String toJson(Map<String, Object> factors) {
+        try {
+            return objectMapper.writeValueAsString(factors);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize fraud score factors", e);
+        }
+    }
+
+    private void drop(FraudScore score, RuntimeException error) {
+        dropped.increment();
+        log.error("Dropping fraud score after failed inserts: paymentId={}, score={}, decision={}, error={}",
+            score.getPaymentId(), score.getScore(), score.getDecision(), error != null ? error.getMessage() : "retries exhausted");
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(100L * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Timer flushTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("fraud.scores.flush")
+            .description("Latency of one fraud score batch insert including retries")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private record FactorPatch(UUID paymentId, Map<String, Object> factors) {
+    }
+}
@@ -3,306 +3,160 @@ package com.payment.fraud.service;
 import com.payment.fraud.dto.FraudAssessmentRequest;
 import com.payment.fraud.entity.FraudRule;
 import com.payment.fraud.repository.FraudRuleRepository;
+import com.payment.fraud.features.EntityFeatures;
+import com.payment.fraud.rules.CompiledRule;
+import com.payment.fraud.rules.FraudRulesChangedEvent;
+import com.payment.fraud.rules.RuleCompiler;
+import com.payment.fraud.rules.RuleContext;
+import com.payment.fraud.rules.RulePlanner;
+import com.payment.fraud.rules.RuleSnapshot;
+import com.payment.fraud.rules.RuleStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evaluates active fraud rules against an in-memory compiled snapshot.
+ *
+ * The snapshot is rebuilt at startup, after every committed rule change on this instance,
+ * and periodically so changes made through other instances converge. Between reloads it is
+ * re-planned from the collected rule statistics (see {@link RulePlanner}), and evaluation
+ * stops as soon as the remaining rules cannot change the rule score.
+ */
 @Service
-@Transactional(readOnly = true)
 @Slf4j
 @RequiredArgsConstructor
 public class RuleEngineService {
-    
+
+    private static final int MAX_SCORE = RuleSnapshot.MAX_SCORE;
+
     private final FraudRuleRepository fraudRuleRepository;
-    
-    /**
-     * Evaluate all active fraud rules
-     */
-    public BigDecimal evaluateRules(FraudAssessmentRequest request) {
-        log.debug("Evaluating fraud rules: paymentId={}", request.getPaymentId());
-        
-        List<FraudRule> activeRules = fraudRuleRepository.findActiveRulesByPriority();
-        
-        BigDecimal totalScore = BigDecimal.ZERO;
-        List<String> triggeredRules = new ArrayList<>();
-        
-        for (FraudRule rule : activeRules) {
-            boolean triggered = evaluateRule(rule, request);
-            
-            if (triggered) {
-                triggeredRules.add(rule.getRuleName());
-                
-                if (rule.getScoreImpact() != null) {
-                    totalScore = totalScore.add(BigDecimal.valueOf(rule.getScoreImpact()));
-                }
-                
-                // If action is BLOCK, return max score immediately
-                if ("BLOCK".equals(rule.getAction())) {
-                    log.warn("BLOCK rule triggered: rule={}, paymentId={}", 
-                        rule.getRuleName(), request.getPaymentId());
-                    return BigDecimal.valueOf(100);
-                }
-            }
-        }
-        
-        log.debug("Rule evaluation completed: score={}, triggeredRules={}", 
-            totalScore, triggeredRules);
-        
-        return totalScore.min(BigDecimal.valueOf(100));
-    }
-    
+    private final RulePlanner rulePlanner;
+
+    private final AtomicReference<RuleSnapshot> snapshot = new AtomicReference<>(RuleSnapshot.EMPTY);
+
     /**
-     * Evaluate a single rule
+     * Evaluate all active fraud rules; rule score in [0, 100]
      */
-    private boolean evaluateRule(FraudRule rule, FraudAssessmentRequest request) {
-        Map<String, Object> conditions = rule.getConditions();
-        
-        return switch (rule.getRuleType()) {
-            case "AMOUNT" -> evaluateAmountRule(conditions, request);
-            case "VELOCITY" -> false; // Handled by VelocityCheckService
-            case "GEOLOCATION" -> evaluateGeolocationRule(conditions, request);
-            case "PATTERN" -> evaluatePatternRule(conditions, request);
-            default -> {
-                log.warn("Unknown rule type: {}", rule.getRuleType());
-                yield false;
-            }
-        };
+    public int evaluateRules(FraudAssessmentRequest request) {
+        return evaluateRules(request, EntityFeatures.EMPTY);
     }
-    
+
     /**
-     * Evaluate amount-based rule
+     * Evaluate all active fraud rules with the entity's historical aggregates
      */
-    private boolean evaluateAmountRule(Map<String, Object> conditions, 
-                                      FraudAssessmentRequest request) {
-        Object threshold = conditions.get("threshold");
-        if (threshold instanceof Number) {
-            long thresholdAmount = ((Number) threshold).longValue();
-            return request.getAmount() > thresholdAmount;
-        }
-        return false;
+    public int evaluateRules(FraudAssessmentRequest request, EntityFeatures features) {
+        return evaluateRules(currentSnapshot(), request, features);
     }
-    
-    /**
-     * Evaluate geolocation rule (MVP stub)
-     */
-    private boolean evaluateGeolocationRule(Map<String, Object> conditions, 
-                                           FraudAssessmentRequest request) {
-        // MVP implementation:
-        // Read country code from request metadata (e.g. "country", "countryCode", "ipCountry")
-        // and compare against allow/block lists in the rule conditions.
-        String country = extractCountryCode(request);
-        if (country == null) {
-            return false;
-        }
-
-        Set<String> blockedCountries = normalizeCountrySet(conditions.get("blockedCountries"));
-        if (!blockedCountries.isEmpty() && blockedCountries.contains(country)) {
-            return true;
-        }
-
-        Set<String> allowedCountries = normalizeCountrySet(conditions.get("allowedCountries"));
-        if (!allowedCountries.isEmpty()) {
-            return !allowedCountries.contains(country);
-        }
-
-        Object exactCountry = conditions.get("country");
-        if (exactCountry instanceof String s && !s.isBlank()) {
-            return country.equalsIgnoreCase(s.trim());
-        }
 
-        return false;
-    }
-    
     /**
-     * Evaluate pattern rule (MVP stub)
+     * Evaluate the rules of a given snapshot, so a batch of assessments sees one rule set
      */
-    private boolean evaluatePatternRule(Map<String, Object> conditions, 
-                                       FraudAssessmentRequest request) {
-        int matchedConditions = 0;
+    public int evaluateRules(RuleSnapshot ruleSnapshot, FraudAssessmentRequest request,
+                             EntityFeatures features) {
+        log.debug("Evaluating fraud rules: paymentId={}", request.getPaymentId());
 
-        // 1) Round amount pattern (e.g. exact $100.00 -> cents value divisible by 10000)
-        Boolean roundAmount = asBoolean(conditions.get("roundAmount"));
-        if (Boolean.TRUE.equals(roundAmount) && request.getAmount() % 10_000 == 0) {
-            matchedConditions++;
-        }
+        RuleContext context = RuleContext.from(request, features, System.currentTimeMillis());
+        List<CompiledRule> rules = ruleSnapshot.rules();
 
-        // 2) Amount modulo check (more generic than roundAmount)
-        Long amountModulo = asLong(conditions.get("amountModulo"));
-        if (amountModulo != null && amountModulo > 0 && request.getAmount() % amountModulo == 0) {
-            matchedConditions++;
-        }
+        int totalScore = 0;
+        List<String> triggeredRules = log.isDebugEnabled() ? new ArrayList<>() : null;
+        boolean timed = rulePlanner.sampleTiming();
 
-        // 3) User agent substring matching (metadata or request.userAgent)
-        String userAgent = request.getUserAgent();
-        Set<String> userAgentContains = normalizeStringSet(conditions.get("userAgentContains"));
-        if (userAgent != null && !userAgentContains.isEmpty()) {
-            String ua = userAgent.toLowerCase();
-            boolean uaMatched = userAgentContains.stream().anyMatch(s -> ua.contains(s.toLowerCase()));
-            if (uaMatched) {
-                matchedConditions++;
+        for (int i = 0; i < rules.size(); i++) {
+            // Capped, or nothing left that can move the score
+            if (ruleSnapshot.decided(i, totalScore)) {
+                rulePlanner.recordSkipped(rules.size() - i);
+                break;
             }
-        }
-
-        // 4) Suspicious email domains (expects metadata.email or customerEmail)
-        String email = getMetadataString(request, "email", "customerEmail");
-        Set<String> suspiciousDomains = normalizeStringSet(conditions.get("suspiciousEmailDomains"));
-        if (email != null && email.contains("@") && !suspiciousDomains.isEmpty()) {
-            String domain = email.substring(email.indexOf('@') + 1).toLowerCase();
-            boolean domainMatched = suspiciousDomains.stream()
-                .map(String::toLowerCase)
-                .anyMatch(domain::equals);
-            if (domainMatched) {
-                matchedConditions++;
+            CompiledRule rule = rules.get(i);
+            RuleStats stats = ruleSnapshot.stats(i);
+            boolean matched;
+            if (timed) {
+                long start = System.nanoTime();
+                matched = rule.matches(context);
+                stats.recordTimed(matched, System.nanoTime() - start);
+            } else {
+                matched = rule.matches(context);
+                stats.record(matched);
             }
-        }
-
-        // 5) Reused device / card counters supplied by upstream enrichment in metadata
-        Long minDeviceReuseCount = asLong(conditions.get("minDeviceReuseCount"));
-        Long deviceReuseCount = getMetadataLong(request, "deviceReuseCount");
-        if (minDeviceReuseCount != null && deviceReuseCount != null && deviceReuseCount >= minDeviceReuseCount) {
-            matchedConditions++;
-        }
-
-        Long minCardReuseCount = asLong(conditions.get("minCardReuseCount"));
-        Long cardReuseCount = getMetadataLong(request, "cardReuseCount");
-        if (minCardReuseCount != null && cardReuseCount != null && cardReuseCount >= minCardReuseCount) {
-            matchedConditions++;
-        }
-
-        // 6) New customer pattern
-        Boolean newCustomerOnly = asBoolean(conditions.get("newCustomerOnly"));
-        if (Boolean.TRUE.equals(newCustomerOnly)) {
-            Long customerAgeDays = getMetadataLong(request, "customerAgeDays");
-            if (customerAgeDays != null && customerAgeDays <= 7) {
-                matchedConditions++;
+            if (!matched) {
+                continue;
             }
-        }
-
-        // If no recognized conditions were provided, do not trigger.
-        int configuredConditions = countRecognizedPatternConditions(conditions);
-        if (configuredConditions == 0) {
-            return false;
-        }
-
-        // By default all configured conditions must match; allow threshold override.
-        Long minMatches = asLong(conditions.get("minMatches"));
-        int requiredMatches = minMatches != null && minMatches > 0
-            ? Math.min(minMatches.intValue(), configuredConditions)
-            : configuredConditions;
-
-        return matchedConditions >= requiredMatches;
-    }
-
-    private String extractCountryCode(FraudAssessmentRequest request) {
-        if (request.getMetadata() == null || request.getMetadata().isEmpty()) {
-            return null;
-        }
+            if (triggeredRules != null) {
+                triggeredRules.add(rule.name());
+            }
+            totalScore += rule.scoreImpact();
 
-        for (String key : List.of("country", "countryCode", "ipCountry")) {
-            Object value = request.getMetadata().get(key);
-            if (value instanceof String s && !s.isBlank()) {
-                return s.trim().toUpperCase();
+            // If action is BLOCK, return max score immediately
+            if (rule.isBlock()) {
+                log.warn("BLOCK rule triggered: rule={}, paymentId={}", rule.name(), request.getPaymentId());
+                return MAX_SCORE;
             }
         }
 
-        return null;
-    }
-
-    private Set<String> normalizeCountrySet(Object value) {
-        if (!(value instanceof Collection<?> collection)) {
-            return Set.of();
-        }
+        log.debug("Rule evaluation completed: score={}, triggeredRules={}", totalScore, triggeredRules);
 
-        return collection.stream()
-            .filter(String.class::isInstance)
-            .map(String.class::cast)
-            .map(String::trim)
-            .filter(s -> !s.isBlank())
-            .map(String::toUpperCase)
-            .collect(Collectors.toSet());
+        return Math.min(totalScore, MAX_SCORE);
     }
 
-    private Set<String> normalizeStringSet(Object value) {
-        if (!(value instanceof Collection<?> collection)) {
-            return Set.of();
+    public RuleSnapshot currentSnapshot() {
+        RuleSnapshot current = snapshot.get();
+        if (current == RuleSnapshot.EMPTY) {
+            // First assessment raced startup loading
+            current = reload();
         }
-        return collection.stream()
-            .filter(Objects::nonNull)
-            .map(Object::toString)
-            .map(String::trim)
-            .filter(s -> !s.isBlank())
-            .collect(Collectors.toSet());
+        return current;
     }
 
-    private String getMetadataString(FraudAssessmentRequest request, String... keys) {
-        if (request.getMetadata() == null) {
-            return null;
-        }
-        for (String key : keys) {
-            Object value = request.getMetadata().get(key);
-            if (value instanceof String s && !s.isBlank()) {
-                return s.trim();
-            }
-        }
-        return null;
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
     }
 
-    private Long getMetadataLong(FraudAssessmentRequest request, String key) {
-        if (request.getMetadata() == null) {
-            return null;
-        }
-        return asLong(request.getMetadata().get(key));
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRulesChanged(FraudRulesChangedEvent event) {
+        log.info("Fraud rule changed, reloading rules: ruleId={}, change={}", event.ruleId(), event.change());
+        reload();
     }
 
-    private Long asLong(Object value) {
-        if (value instanceof Number n) {
-            return n.longValue();
-        }
-        if (value instanceof String s && !s.isBlank()) {
-            try {
-                return Long.parseLong(s.trim());
-            } catch (NumberFormatException ignored) {
-                return null;
-            }
-        }
-        return null;
+    @Scheduled(fixedDelayString = "${fraud.rules.refresh-interval-ms:60000}",
+        initialDelayString = "${fraud.rules.refresh-interval-ms:60000}")
+    public void scheduledReload() {
+        reload();
     }
 
-    private Boolean asBoolean(Object value) {
-        if (value instanceof Boolean b) {
-            return b;
-        }
-        if (value instanceof String s && !s.isBlank()) {
-            return Boolean.parseBoolean(s.trim());
+    /**
+     * Reorders the current rules by their latest statistics without reloading them
+     */
+    @Scheduled(fixedDelayString = "${fraud.rules.planner.replan-interval-ms:15000}",
+        initialDelayString = "${fraud.rules.planner.replan-interval-ms:15000}")
+    public synchronized void replan() {
+        RuleSnapshot current = snapshot.get();
+        if (current.size() > 1) {
+            snapshot.set(rulePlanner.plan(current.rules(), current.loadedAt()));
         }
-        return null;
     }
 
-    private int countRecognizedPatternConditions(Map<String, Object> conditions) {
-        int count = 0;
-        for (String key : List.of(
-            "roundAmount",
-            "amountModulo",
-            "userAgentContains",
-            "suspiciousEmailDomains",
-            "minDeviceReuseCount",
-            "minCardReuseCount",
-            "newCustomerOnly"
-        )) {
-            if (conditions.containsKey(key)) {
-                count++;
-            }
-        }
-        return count;
+    /**
+     * Loads active rules, compiles them and swaps the snapshot in one step
+     */
+    public synchronized RuleSnapshot reload() {
+        List<FraudRule> activeRules = fraudRuleRepository.findActiveRulesByPriority();
+        List<CompiledRule> compiled = RuleCompiler.compileAll(activeRules);
+
+        RuleSnapshot next = rulePlanner.plan(compiled, Instant.now());
+        snapshot.set(next);
+        log.debug("Fraud rule snapshot loaded: rules={}", next.size());
+        return next;
     }
 }
@@ -1,130 +1,109 @@
 package com.payment.fraud.service;
 
 import com.payment.fraud.dto.FraudAssessmentRequest;
-import com.payment.fraud.entity.VelocityCounter;
-import com.payment.fraud.repository.VelocityCounterRepository;
+import com.payment.fraud.velocity.VelocityDimension;
+import com.payment.fraud.velocity.VelocityStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.time.Duration;
-import java.time.Instant;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @Service
-@Transactional
 @Slf4j
 @RequiredArgsConstructor
 public class VelocityCheckService {
     
-    private final VelocityCounterRepository velocityCounterRepository;
+    private final VelocityStore velocityStore;
     
     /**
      * Check velocity (rate limiting)
-     * Returns score based on how many attempts in time window
+     * Returns score in [0, 100] based on how many attempts in time window
      */
-    public BigDecimal checkVelocity(FraudAssessmentRequest request) {
+    public int checkVelocity(FraudAssessmentRequest request) {
         log.debug("Checking velocity: paymentId={}", request.getPaymentId());
-        
-        BigDecimal score = BigDecimal.ZERO;
-        
-        // Check 1: Card velocity (same payment method in 1 hour)
+
+        Map<VelocityDimension, Long> counts = velocityStore.record(attemptId(request), velocityKeys(request));
+        return score(counts);
+    }
+
+    /**
+     * Velocity scores for a batch of requests, recorded in one round trip and in list order
+     */
+    public int[] checkVelocity(List<FraudAssessmentRequest> requests) {
+        List<String> attemptIds = new ArrayList<>(requests.size());
+        List<Map<VelocityDimension, String>> keys = new ArrayList<>(requests.size());
+        for (FraudAssessmentRequest request : requests) {
+            attemptIds.add(attemptId(request));
+            keys.add(velocityKeys(request));
+        }
+
+        List<Map<VelocityDimension, Long>> counts = velocityStore.recordAll(attemptIds, keys);
+        int[] scores = new int[counts.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = score(counts.get(i));
+        }
+        return scores;
+    }
+
+    private static Map<VelocityDimension, String> velocityKeys(FraudAssessmentRequest request) {
+        Map<VelocityDimension, String> keys = new EnumMap<>(VelocityDimension.class);
         if (request.getPaymentMethodId() != null) {
-            int cardAttempts = incrementAndGetCount(
-                "card:" + request.getPaymentMethodId(), 
-                Duration.ofHours(1)
-            );
-            
+            keys.put(VelocityDimension.CARD, VelocityDimension.CARD.key(request.getPaymentMethodId().toString()));
+        }
+        if (request.getCustomerId() != null) {
+            keys.put(VelocityDimension.CUSTOMER, VelocityDimension.CUSTOMER.key(request.getCustomerId().toString()));
+        }
+        if (request.getIpAddress() != null) {
+            keys.put(VelocityDimension.IP, VelocityDimension.IP.key(request.getIpAddress()));
+        }
+        return keys;
+    }
+
+    private static String attemptId(FraudAssessmentRequest request) {
+        return request.getPaymentId() != null
+            ? request.getPaymentId().toString()
+            : UUID.randomUUID().toString();
+    }
+
+    private int score(Map<VelocityDimension, Long> counts) {
+        int score = 0;
+
+        // Check 1: Card velocity (same payment method in 1 hour)
+        Long cardAttempts = counts.get(VelocityDimension.CARD);
+        if (cardAttempts != null) {
             if (cardAttempts > 5) {
-                score = score.add(BigDecimal.valueOf(30));
+                score += 30;
                 log.warn("High card velocity: {} attempts in 1 hour", cardAttempts);
             } else if (cardAttempts > 3) {
-                score = score.add(BigDecimal.valueOf(15));
+                score += 15;
             }
         }
-        
+
         // Check 2: Customer velocity (same customer in 1 hour)
-        if (request.getCustomerId() != null) {
-            int customerAttempts = incrementAndGetCount(
-                "customer:" + request.getCustomerId(), 
-                Duration.ofHours(1)
-            );
-            
-            if (customerAttempts > 10) {
-                score = score.add(BigDecimal.valueOf(25));
-                log.warn("High customer velocity: {} attempts in 1 hour", customerAttempts);
-            }
+        Long customerAttempts = counts.get(VelocityDimension.CUSTOMER);
+        if (customerAttempts != null && customerAttempts > 10) {
+            score += 25;
+            log.warn("High customer velocity: {} attempts in 1 hour", customerAttempts);
         }
-        
+
         // Check 3: IP velocity (same IP in 24 hours)
-        if (request.getIpAddress() != null) {
-            int ipAttempts = incrementAndGetCount(
-                "ip:" + request.getIpAddress(), 
-                Duration.ofHours(24)
-            );
-            
+        Long ipAttempts = counts.get(VelocityDimension.IP);
+        if (ipAttempts != null) {
             if (ipAttempts > 50) {
-                score = score.add(BigDecimal.valueOf(40));
+                score += 40;
                 log.warn("High IP velocity: {} attempts in 24 hours", ipAttempts);
             } else if (ipAttempts > 20) {
-                score = score.add(BigDecimal.valueOf(20));
+                score += 20;
             }
         }
-        
+
         log.debug("Velocity check completed: score={}", score);
-        
-        return score.min(BigDecimal.valueOf(100));
-    }
-    
-    /**
-     * Increment counter and return current count
-     */
-    private int incrementAndGetCount(String key, Duration window) {
-        Instant now = Instant.now();
-        Instant windowEnd = now.plus(window);
-        
-        Optional<VelocityCounter> existing = velocityCounterRepository.findById(key);
-        
-        if (existing.isPresent()) {
-            VelocityCounter counter = existing.get();
-            
-            // Check if expired
-            if (counter.isExpired()) {
-                // Reset counter
-                counter.setCounter(1);
-                counter.setWindowStart(now);
-                counter.setWindowEnd(windowEnd);
-            } else {
-                // Increment
-                counter.increment();
-            }
-            
-            velocityCounterRepository.save(counter);
-            return counter.getCounter();
-            
-        } else {
-            // Create new counter
-            VelocityCounter counter = VelocityCounter.builder()
-                .id(key)
-                .counter(1)
-                .windowStart(now)
-                .windowEnd(windowEnd)
-                .build();
-            
-            velocityCounterRepository.save(counter);
-            return 1;
-        }
-    }
-    
-    /**
-     * Cleanup expired counters (scheduled job)
-     */
-    @Transactional
-    public void cleanupExpiredCounters() {
-        Instant expiryDate = Instant.now().minus(Duration.ofDays(7));
-        int deleted = velocityCounterRepository.deleteExpiredCounters(expiryDate);
-        log.info("Cleaned up {} expired velocity counters", deleted);
+
+        return Math.min(score, 100);
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.payment.fraud.velocity;
+
+import java.util.Arrays;
+
+/**
+ * Distinct counts of one assessment, including its own values, per {@link DistinctDimension};
+ * {@link #UNKNOWN} where the request lacks the entity or value, or the lookup failed.
+ */
+public final class DistinctCounts {
+
+    public static final long UNKNOWN = -1L;
+
+    public static final DistinctCounts EMPTY = new DistinctCounts(unknownCounts());
+
+    private final long[] counts;
+
+    private DistinctCounts(long[] counts) {
+        this.counts = counts;
+    }
+
+    public long get(DistinctDimension dimension) {
+        return counts[dimension.ordinal()];
+    }
+
+    static long[] unknownCounts() {
+        long[] counts = new long[DistinctDimension.values().length];
+        Arrays.fill(counts, UNKNOWN);
+        return counts;
+    }
+
+    /** Takes ownership of counts, indexed by DistinctDimension ordinal */
+    static DistinctCounts of(long[] counts) {
+        return new DistinctCounts(counts);
+    }
+
+    @Override
+    public String toString() {
+        return "DistinctCounts" + Arrays.toString(counts);
+    }
+}
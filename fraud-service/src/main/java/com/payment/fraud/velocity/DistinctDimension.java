@@ -0,0 +1,64 @@
+package com.payment.fraud.velocity;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Distinct-count velocity signals: how many different values of one attribute were seen
+ * for an entity within the window, e.g. distinct cards used from one device.
+ */
+public enum DistinctDimension {
+
+    CARDS_PER_DEVICE("cards_per_device", Duration.ofHours(1),
+        FraudAssessmentRequest::getDeviceId, r -> text(r.getPaymentMethodId())),
+    CARDS_PER_IP("cards_per_ip", Duration.ofHours(1),
+        FraudAssessmentRequest::getIpAddress, r -> text(r.getPaymentMethodId())),
+    CARDS_PER_CUSTOMER("cards_per_customer", Duration.ofHours(24),
+        r -> text(r.getCustomerId()), r -> text(r.getPaymentMethodId())),
+    MERCHANTS_PER_CARD("merchants_per_card", Duration.ofHours(24),
+        r -> text(r.getPaymentMethodId()), r -> text(r.getMerchantId())),
+    CUSTOMERS_PER_CARD("customers_per_card", Duration.ofHours(24),
+        r -> text(r.getPaymentMethodId()), r -> text(r.getCustomerId()));
+
+    private final String id;
+    private final Duration window;
+    private final Function<FraudAssessmentRequest, String> entity;
+    private final Function<FraudAssessmentRequest, String> value;
+
+    DistinctDimension(String id, Duration window, Function<FraudAssessmentRequest, String> entity,
+                      Function<FraudAssessmentRequest, String> value) {
+        this.id = id;
+        this.window = window;
+        this.entity = entity;
+        this.value = value;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public Duration window() {
+        return window;
+    }
+
+    /** Entity the count is kept for, or null when the request does not carry it */
+    String entityOf(FraudAssessmentRequest request) {
+        return blankToNull(entity.apply(request));
+    }
+
+    /** Value counted for the entity, or null when the request does not carry it */
+    String valueOf(FraudAssessmentRequest request) {
+        return blankToNull(value.apply(request));
+    }
+
+    private static String text(UUID id) {
+        return id != null ? id.toString() : null;
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value.trim() : null;
+    }
+}
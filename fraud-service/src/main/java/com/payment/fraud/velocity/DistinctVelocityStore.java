@@ -0,0 +1,159 @@
+package com.payment.fraud.velocity;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RHyperLogLogAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distinct-count velocity backed by Redis HyperLogLogs.
+ *
+ * Each window is split into {@link #BUCKETS} tumbling buckets, one HLL key per bucket.
+ * An assessment PFADDs its value to the current bucket and PFCOUNTs the union of the
+ * buckets covering the window, for all dimensions (and all requests of a batch) in one
+ * pipelined batch. An HLL is at most 12 KB however many values it sees (a few hundred
+ * bytes while sparse), so memory per entity is fixed; estimates carry Redis's ~0.8%
+ * standard error. Adding the same value twice does not change a count, so re-assessing a
+ * payment is harmless.
+ *
+ * Keys are hash-tagged per entity so the multi-key PFCOUNT stays on one cluster slot.
+ */
+@Component
+@Slf4j
+public class DistinctVelocityStore {
+
+    static final int BUCKETS = 6;
+
+    private final RedissonClient redissonClient;
+    private final String keyPrefix;
+    private final Duration responseTimeout;
+    private final Counter successLookups;
+    private final Counter degradedLookups;
+
+    public DistinctVelocityStore(
+            RedissonClient redissonClient,
+            @Value("${fraud.velocity.key-prefix:fraud:velocity:}") String keyPrefix,
+            @Value("${fraud.velocity.distinct.response-timeout:50ms}") Duration responseTimeout,
+            MeterRegistry meterRegistry) {
+        this.redissonClient = redissonClient;
+        this.keyPrefix = keyPrefix + "distinct:";
+        this.responseTimeout = responseTimeout;
+        this.successLookups = lookups(meterRegistry, "success");
+        this.degradedLookups = lookups(meterRegistry, "degraded");
+    }
+
+    /**
+     * Adds the request's values and returns the distinct counts per dimension. Never fails:
+     * a batch that errors or misses fraud.velocity.distinct.response-timeout yields
+     * {@link DistinctCounts#EMPTY}.
+     */
+    public CompletableFuture<DistinctCounts> recordAsync(FraudAssessmentRequest request) {
+        return recordAllAsync(List.of(request)).thenApply(counts -> counts.get(0));
+    }
+
+    /**
+     * Distinct counts for a batch of requests, in request order, from one pipelined batch.
+     * Values are added in list order, so a request's counts include earlier requests of the
+     * same batch. Fails the same way as {@link #recordAsync}.
+     */
+    public CompletableFuture<List<DistinctCounts>> recordAllAsync(List<FraudAssessmentRequest> requests) {
+        long now = System.currentTimeMillis();
+        RBatch batch = null;
+        List<Map<DistinctDimension, RFuture<Long>>> pending = new ArrayList<>(requests.size());
+
+        for (FraudAssessmentRequest request : requests) {
+            Map<DistinctDimension, RFuture<Long>> requestPending = new EnumMap<>(DistinctDimension.class);
+            pending.add(requestPending);
+            for (DistinctDimension dimension : DistinctDimension.values()) {
+                String entity = dimension.entityOf(request);
+                String value = dimension.valueOf(request);
+                if (entity == null || value == null) {
+                    continue;
+                }
+                if (batch == null) {
+                    batch = redissonClient.createBatch(BatchOptions.defaults()
+                        .executionMode(BatchOptions.ExecutionMode.IN_MEMORY)
+                        .responseTimeout(responseTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                        .retryAttempts(0));
+                }
+                requestPending.put(dimension, queueRecord(batch, dimension, entity, value, now));
+            }
+        }
+        List<DistinctCounts> empty = Collections.nCopies(requests.size(), DistinctCounts.EMPTY);
+        if (batch == null) {
+            return CompletableFuture.completedFuture(empty);
+        }
+
+        return batch.executeAsync().toCompletableFuture()
+            .thenApply(ignored -> {
+                List<DistinctCounts> results = new ArrayList<>(pending.size());
+                for (Map<DistinctDimension, RFuture<Long>> requestPending : pending) {
+                    if (requestPending.isEmpty()) {
+                        results.add(DistinctCounts.EMPTY);
+                        continue;
+                    }
+                    long[] counts = DistinctCounts.unknownCounts();
+                    requestPending.forEach((dimension, count) ->
+                        counts[dimension.ordinal()] = count.toCompletableFuture().join());
+                    results.add(DistinctCounts.of(counts));
+                }
+                successLookups.increment();
+                return results;
+            })
+            .completeOnTimeout(null, responseTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .exceptionally(error -> {
+                log.debug("Distinct velocity lookup failed: requests={}, firstPaymentId={}, error={}",
+                    requests.size(), requests.get(0).getPaymentId(), error.getMessage());
+                return null;
+            })
+            .thenApply(counts -> {
+                if (counts == null) {
+                    degradedLookups.increment();
+                    return empty;
+                }
+                return counts;
+            });
+    }
+
+    private RFuture<Long> queueRecord(RBatch batch, DistinctDimension dimension, String entity, String value,
+                                      long now) {
+        long bucketMillis = dimension.window().toMillis() / BUCKETS;
+        long bucket = now / bucketMillis;
+        String base = keyPrefix + "{" + dimension.id() + ":" + entity + "}:";
+
+        RHyperLogLogAsync<String> current = batch.getHyperLogLog(base + bucket, StringCodec.INSTANCE);
+        current.addAsync(value);
+        // Outlives the window by one bucket so the oldest bucket counted still exists
+        current.expireAsync(dimension.window().plusMillis(bucketMillis));
+
+        String[] previous = new String[BUCKETS - 1];
+        for (int i = 1; i < BUCKETS; i++) {
+            previous[i - 1] = base + (bucket - i);
+        }
+        return current.countWithAsync(previous);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("fraud.velocity.distinct.lookups")
+            .description("Distinct-count velocity batches by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.payment.fraud.velocity;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process tumbling-window attempt counter used to detect hot keys.
+ *
+ * Attempts are counted by id, like the Redis sets, so retries, redeliveries and repeated
+ * batch items of one payment count once. Every counted attempt falls inside the current
+ * sliding window, so the local count is a lower bound of the cluster-wide count in Redis.
+ * A window keeps at most maxAttempts ids per key; past that the caller no longer needs the
+ * exact count.
+ */
+final class LocalVelocityCounter {
+
+    static final long UNTRACKED = -1L;
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final int maxKeys;
+
+    LocalVelocityCounter(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Counts an attempt once per id and returns the local count in the current window,
+     * at most maxAttempts, or {@link #UNTRACKED} when the key table is full
+     */
+    long record(String key, String attemptId, long windowMillis, long maxAttempts, long nowMillis) {
+        Window window = windows.get(key);
+        if (window == null || window.expiresAt <= nowMillis) {
+            if (window == null && windows.size() >= maxKeys) {
+                return UNTRACKED;
+            }
+            window = windows.compute(key, (k, existing) ->
+                existing == null || existing.expiresAt <= nowMillis
+                    ? new Window(nowMillis + windowMillis)
+                    : existing);
+        }
+        Set<String> attempts = window.attempts;
+        if (attempts.size() < maxAttempts) {
+            attempts.add(attemptId);
+        }
+        return Math.min(attempts.size(), maxAttempts);
+    }
+
+    int evictExpired(long nowMillis) {
+        int before = windows.size();
+        windows.values().removeIf(window -> window.expiresAt <= nowMillis);
+        return before - windows.size();
+    }
+
+    int size() {
+        return windows.size();
+    }
+
+    private static final class Window {
+        private final long expiresAt;
+        private final Set<String> attempts = ConcurrentHashMap.newKeySet();
+
+        private Window(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.payment.fraud.velocity;
+
+import java.time.Duration;
+
+/**
+ * Counted velocity dimensions with their sliding window.
+ *
+ * saturatedAt is the attempt count at which VelocityCheckService already awards the
+ * highest band for the dimension; beyond it the exact count no longer changes the score.
+ */
+public enum VelocityDimension {
+
+    CARD("card", Duration.ofHours(1), 6),
+    CUSTOMER("customer", Duration.ofHours(1), 11),
+    IP("ip", Duration.ofHours(24), 51);
+
+    private final String prefix;
+    private final Duration window;
+    private final long saturatedAt;
+
+    VelocityDimension(String prefix, Duration window, long saturatedAt) {
+        this.prefix = prefix;
+        this.window = window;
+        this.saturatedAt = saturatedAt;
+    }
+
+    public String prefix() {
+        return prefix;
+    }
+
+    public Duration window() {
+        return window;
+    }
+
+    public long saturatedAt() {
+        return saturatedAt;
+    }
+
+    public String key(String value) {
+        return prefix + ":" + value;
+    }
+}
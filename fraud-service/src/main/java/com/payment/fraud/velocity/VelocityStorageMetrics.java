@@ -0,0 +1,168 @@
+package com.payment.fraud.velocity;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RKeys;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.options.KeysScanOptions;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size of the velocity state in Redis, which is bounded by key expiry alone.
+ *
+ * Every velocity key carries a TTL of its window (sliding-window sets) or window plus one
+ * bucket (distinct-count HLLs), so idle entities disappear without a cleanup job. This
+ * periodically SCANs all velocity keys once, counts them per key family and estimates each
+ * family's memory from the MEMORY USAGE of its first sample-size keys, fetched with their
+ * TTLs in one pipelined batch. Sampled keys without a TTL would never expire and are
+ * reported separately. Runs on the shared scheduler, sized in spring.task.scheduling.
+ *
+ * Metrics: fraud.velocity.keys{family}, fraud.velocity.memory.bytes{family} (estimate),
+ * fraud.velocity.keys.without_ttl{family} (among sampled keys) and fraud.velocity.local.keys.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "fraud.velocity.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class VelocityStorageMetrics {
+
+    private final RedissonClient redissonClient;
+    private final String keyPrefix;
+    private final int scanChunkSize;
+    private final int sampleSize;
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    public VelocityStorageMetrics(
+            RedissonClient redissonClient,
+            VelocityStore velocityStore,
+            MeterRegistry meterRegistry,
+            @Value("${fraud.velocity.key-prefix:fraud:velocity:}") String keyPrefix,
+            @Value("${fraud.velocity.metrics.scan-chunk-size:1000}") int scanChunkSize,
+            @Value("${fraud.velocity.metrics.sample-size:100}") int sampleSize) {
+        this.redissonClient = redissonClient;
+        this.keyPrefix = keyPrefix;
+        this.scanChunkSize = scanChunkSize;
+        this.sampleSize = sampleSize;
+
+        for (VelocityDimension dimension : VelocityDimension.values()) {
+            families.put(dimension.prefix(), new Family());
+        }
+        families.put("distinct", new Family());
+
+        families.forEach((name, family) -> {
+            Gauge.builder("fraud.velocity.keys", family.keys, AtomicLong::get)
+                .description("Velocity keys in Redis at the last scan")
+                .tag("family", name)
+                .register(meterRegistry);
+            Gauge.builder("fraud.velocity.memory.bytes", family.memoryBytes, AtomicLong::get)
+                .description("Estimated Redis memory of velocity keys at the last scan")
+                .tag("family", name)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+            Gauge.builder("fraud.velocity.keys.without_ttl", family.withoutTtl, AtomicLong::get)
+                .description("Sampled velocity keys that have no expiry")
+                .tag("family", name)
+                .register(meterRegistry);
+        });
+        Gauge.builder("fraud.velocity.local.keys", velocityStore, VelocityStore::localKeyCount)
+            .description("Keys tracked by the local hot-key velocity counter")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${fraud.velocity.metrics.interval-ms:300000}",
+        initialDelayString = "${fraud.velocity.metrics.interval-ms:300000}")
+    public void scan() {
+        RKeys keys = redissonClient.getKeys();
+        KeysScanOptions options = KeysScanOptions.defaults().pattern(keyPrefix + "*").chunkSize(scanChunkSize);
+        Map<String, Scan> scans = new HashMap<>();
+        try {
+            for (String key : keys.getKeys(options)) {
+                // Family is the first segment after the prefix: card, customer, ip or distinct
+                int end = key.indexOf(':', keyPrefix.length());
+                String name = end > 0 ? key.substring(keyPrefix.length(), end) : null;
+                if (name != null && families.containsKey(name)) {
+                    scans.computeIfAbsent(name, n -> new Scan(sampleSize)).add(key);
+                }
+            }
+            // MEMORY USAGE and TTL of every sampled key in one round trip
+            RBatch batch = redissonClient.createBatch();
+            for (Scan scan : scans.values()) {
+                for (String key : scan.sample) {
+                    scan.sizes.add(batch.getBucket(key, StringCodec.INSTANCE).sizeInMemoryAsync());
+                    scan.ttls.add(batch.getKeys().remainTimeToLiveAsync(key));
+                }
+            }
+            if (!scans.isEmpty()) {
+                batch.execute();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Velocity key scan failed: error={}", e.getMessage());
+            return;
+        }
+
+        families.forEach((name, family) -> report(name, family, scans.getOrDefault(name, new Scan(0))));
+    }
+
+    private void report(String name, Family family, Scan scan) {
+        long count = scan.count;
+        long sampledBytes = 0;
+        long withoutTtl = 0;
+        List<String> sample = scan.sample;
+        for (int i = 0; i < sample.size(); i++) {
+            sampledBytes += scan.sizes.get(i).toCompletableFuture().join();
+            if (scan.ttls.get(i).toCompletableFuture().join() == -1) {
+                withoutTtl++;
+            }
+        }
+
+        family.keys.set(count);
+        family.memoryBytes.set(sample.isEmpty() ? 0 : sampledBytes * count / sample.size());
+        family.withoutTtl.set(withoutTtl);
+        if (withoutTtl > 0) {
+            log.warn("Velocity keys without expiry: family={}, sampled={}, withoutTtl={}", name, sample.size(), withoutTtl);
+        }
+        log.debug("Velocity keys scanned: family={}, keys={}, estimatedBytes={}", name, count, family.memoryBytes.get());
+    }
+
+    private static final class Family {
+
+        private final AtomicLong keys = new AtomicLong();
+        private final AtomicLong memoryBytes = new AtomicLong();
+        private final AtomicLong withoutTtl = new AtomicLong();
+    }
+
+    /** Keys of one family seen by the current scan, with the sizes and TTLs of its sample */
+    private static final class Scan {
+
+        private final int sampleSize;
+        private final List<String> sample;
+        private final List<RFuture<Long>> sizes = new ArrayList<>();
+        private final List<RFuture<Long>> ttls = new ArrayList<>();
+        private long count;
+
+        private Scan(int sampleSize) {
+            this.sampleSize = sampleSize;
+            this.sample = new ArrayList<>(sampleSize);
+        }
+
+        private void add(String key) {
+            if (sample.size() < sampleSize) {
+                sample.add(key);
+            }
+            count++;
+        }
+    }
+}
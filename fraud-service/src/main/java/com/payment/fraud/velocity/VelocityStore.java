@@ -0,0 +1,161 @@
+package com.payment.fraud.velocity;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding-window attempt counters in Redis.
+ *
+ * Each key is a sorted set of attempt ids scored by epoch millis. Recording an attempt
+ * trims entries older than the window, adds the attempt, caps the set size and refreshes
+ * the TTL; all keys of one assessment go out in a single pipelined batch. Every attempt is
+ * its own member, so concurrent increments cannot be lost, and re-assessing the same
+ * payment does not count twice. A batch of assessments shares one pipeline.
+ *
+ * Keys that are already saturated according to the local counter, which also counts each
+ * attempt id once, are recorded asynchronously; the caller only waits on Redis when some
+ * count can still move the score.
+ */
+@Component
+@Slf4j
+public class VelocityStore {
+
+    private final RedissonClient redissonClient;
+    private final LocalVelocityCounter localCounter;
+    private final String keyPrefix;
+    private final int maxEntriesPerKey;
+    private final Duration responseTimeout;
+
+    public VelocityStore(
+            RedissonClient redissonClient,
+            @Value("${fraud.velocity.key-prefix:fraud:velocity:}") String keyPrefix,
+            @Value("${fraud.velocity.max-entries-per-key:1000}") int maxEntriesPerKey,
+            @Value("${fraud.velocity.response-timeout:500ms}") Duration responseTimeout,
+            @Value("${fraud.velocity.local.max-keys:100000}") int localMaxKeys) {
+        this.redissonClient = redissonClient;
+        this.keyPrefix = keyPrefix;
+        this.maxEntriesPerKey = maxEntriesPerKey;
+        this.responseTimeout = responseTimeout;
+        this.localCounter = new LocalVelocityCounter(localMaxKeys);
+    }
+
+    /**
+     * Records one attempt for every given key and returns the attempt count per dimension
+     * within its window, including this attempt
+     */
+    public Map<VelocityDimension, Long> record(String attemptId, Map<VelocityDimension, String> keys) {
+        return recordAll(List.of(attemptId), List.of(keys)).get(0);
+    }
+
+    /**
+     * Records many attempts in one pipelined batch; attempts are applied in list order, so
+     * an attempt's counts include the earlier attempts of the same batch on the same key
+     */
+    public List<Map<VelocityDimension, Long>> recordAll(List<String> attemptIds,
+                                                        List<Map<VelocityDimension, String>> keysPerAttempt) {
+        int size = attemptIds.size();
+        List<Map<VelocityDimension, Long>> counts = new ArrayList<>(size);
+        List<Map<VelocityDimension, RFuture<Integer>>> sizes = new ArrayList<>(size);
+        RBatch batch = null;
+        boolean allSaturated = true;
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            Map<VelocityDimension, String> keys = keysPerAttempt.get(i);
+            Map<VelocityDimension, Long> attemptCounts = new EnumMap<>(VelocityDimension.class);
+            Map<VelocityDimension, RFuture<Integer>> attemptSizes = new EnumMap<>(VelocityDimension.class);
+            counts.add(attemptCounts);
+            sizes.add(attemptSizes);
+            if (keys.isEmpty()) {
+                continue;
+            }
+            if (batch == null) {
+                batch = redissonClient.createBatch(BatchOptions.defaults()
+                    .executionMode(BatchOptions.ExecutionMode.IN_MEMORY)
+                    .responseTimeout(responseTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .retryAttempts(0));
+            }
+            for (Map.Entry<VelocityDimension, String> entry : keys.entrySet()) {
+                VelocityDimension dimension = entry.getKey();
+                long localCount = localCounter.record(entry.getValue(), attemptIds.get(i),
+                    dimension.window().toMillis(), dimension.saturatedAt(), now);
+                attemptCounts.put(dimension, Math.max(localCount, 1L));
+                if (localCount < dimension.saturatedAt()) {
+                    allSaturated = false;
+                }
+                attemptSizes.put(dimension, queueRecord(batch, dimension, entry.getValue(), attemptIds.get(i), now));
+            }
+        }
+        if (batch == null) {
+            return counts;
+        }
+
+        if (allSaturated) {
+            // Highest band already reached locally, the exact count cannot change the score
+            batch.executeAsync().whenComplete((result, error) -> {
+                if (error != null) {
+                    log.warn("Async velocity record failed: attempts={}, error={}", size, error.getMessage());
+                }
+            });
+            return counts;
+        }
+
+        try {
+            batch.execute();
+            for (int i = 0; i < size; i++) {
+                Map<VelocityDimension, Long> attemptCounts = counts.get(i);
+                sizes.get(i).forEach((dimension, count) ->
+                    attemptCounts.put(dimension, count.toCompletableFuture().join().longValue()));
+            }
+        } catch (RuntimeException e) {
+            // Degrade to the local lower bound rather than failing the assessment
+            log.warn("Velocity store unavailable, using local counts: attempts={}, firstAttemptId={}, error={}",
+                size, attemptIds.get(0), e.getMessage());
+        }
+        return counts;
+    }
+
+    /**
+     * Drops local windows that have ended
+     */
+    @Scheduled(fixedDelayString = "${fraud.velocity.local.evict-interval-ms:60000}")
+    public void evictExpiredLocalWindows() {
+        int evicted = localCounter.evictExpired(System.currentTimeMillis());
+        if (evicted > 0) {
+            log.debug("Evicted {} expired local velocity windows, remaining={}", evicted, localCounter.size());
+        }
+    }
+
+    int localKeyCount() {
+        return localCounter.size();
+    }
+
+    private RFuture<Integer> queueRecord(RBatch batch, VelocityDimension dimension, String key,
+                                         String attemptId, long now) {
+        RScoredSortedSetAsync<String> attempts = batch.getScoredSortedSet(keyPrefix + key, StringCodec.INSTANCE);
+        long window = dimension.window().toMillis();
+
+        attempts.removeRangeByScoreAsync(0, true, now - window, true);
+        attempts.addAsync(now, attemptId);
+        // Keep only the newest entries; counts beyond this never change the score
+        attempts.removeRangeByRankAsync(0, -(maxEntriesPerKey + 1));
+        RFuture<Integer> size = attempts.sizeAsync();
+        attempts.expireAsync(dimension.window());
+        return size;
+    }
+}
@@ -0,0 +1,14 @@
+-- Card-testing rules on distinct-count velocity (HyperLogLog counts per window)
+
+INSERT INTO fraud_rules (id, rule_name, rule_type, conditions, action, score_impact, priority, is_active, created_by) VALUES
+(uuid_generate_v4(), 'Many Cards From One Device', 'VELOCITY',
+ '{"minDistinctCardsPerDevice": 5}'::jsonb,
+ 'REVIEW', 40, 120, true, 'SYSTEM'),
+
+(uuid_generate_v4(), 'Many Cards From One IP', 'VELOCITY',
+ '{"minDistinctCardsPerIp": 10}'::jsonb,
+ 'SCORE', 30, 110, true, 'SYSTEM'),
+
+(uuid_generate_v4(), 'Card Used At Many Merchants', 'VELOCITY',
+ '{"minDistinctMerchantsPerCard": 8}'::jsonb,
+ 'SCORE', 25, 100, true, 'SYSTEM');
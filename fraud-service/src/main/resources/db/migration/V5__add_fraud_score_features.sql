@@ -0,0 +1,5 @@
+-- ML feature row (FeatureSchema order) as scored at assessment time, so training data
+-- exports see the features the model saw rather than today's feature store values.
+-- NULL for blocklisted payments and when the ML check did not run.
+
+ALTER TABLE fraud_scores ADD COLUMN features REAL[];
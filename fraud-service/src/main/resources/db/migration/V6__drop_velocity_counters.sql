@@ -0,0 +1,3 @@
+-- Velocity state lives in Redis with per-key TTLs (VelocityStore, DistinctVelocityStore);
+-- the SQL counters have not been written since and their cleanup job never ran.
+DROP TABLE IF EXISTS velocity_counters;
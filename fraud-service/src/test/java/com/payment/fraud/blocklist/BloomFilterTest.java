@@ -0,0 +1,57 @@
+package com.payment.fraud.blocklist;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void sizesBitsAndHashFunctionsFromExpectedInsertions() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // m = -n ln p / (ln 2)^2 = 95,851 bits, rounded up to whole words
+        assertThat(filter.bitSize()).isEqualTo(95_872L);
+        assertThat(filter.capacity()).isEqualTo(10_000L);
+    }
+
+    @Test
+    void clampsDegenerateSizes() {
+        BloomFilter filter = new BloomFilter(0, 0.5);
+
+        assertThat(filter.capacity()).isEqualTo(1L);
+        assertThat(filter.bitSize()).isEqualTo(64L);
+        filter.put("only");
+        assertThat(filter.mightContain("only")).isTrue();
+    }
+
+    @Test
+    void hasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(20_000, 0.001);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(filter.mightContain("user" + i + "@example.com")).as("entry %d", i).isTrue();
+        }
+    }
+
+    @Test
+    void keepsFalsePositiveRateNearTarget() {
+        double target = 0.01;
+        BloomFilter filter = new BloomFilter(10_000, target);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("4" + String.format("%015d", i * 7919L));
+        }
+
+        int falsePositives = 0;
+        int probes = 200_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("5" + String.format("%015d", i * 7919L))) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / probes).isLessThan(target * 1.5);
+    }
+}
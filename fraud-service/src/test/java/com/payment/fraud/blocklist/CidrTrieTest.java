@@ -0,0 +1,109 @@
+package com.payment.fraud.blocklist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CidrTrieTest {
+
+    private static final long NOW = 1_000_000L;
+    private static final long NEVER = Long.MAX_VALUE;
+
+    @Test
+    void ipv4ZeroPrefixMatchesEveryIpv4AddressOnly() {
+        CidrTrie trie = CidrTrie.build(Map.of("0.0.0.0/0", NEVER));
+
+        assertThat(trie.contains("1.2.3.4", NOW)).isTrue();
+        assertThat(trie.contains("255.255.255.255", NOW)).isTrue();
+        assertThat(trie.contains("::ffff:10.0.0.1", NOW)).isTrue();
+        assertThat(trie.contains("2001:db8::1", NOW)).isFalse();
+    }
+
+    @Test
+    void ipv6ZeroPrefixMatchesEveryAddress() {
+        CidrTrie trie = CidrTrie.build(Map.of("::/0", NEVER));
+
+        assertThat(trie.contains("2001:db8::1", NOW)).isTrue();
+        assertThat(trie.contains("::", NOW)).isTrue();
+        assertThat(trie.contains("1.2.3.4", NOW)).isTrue();
+    }
+
+    @Test
+    void fullLengthPrefixesMatchOneAddress() {
+        CidrTrie trie = CidrTrie.build(Map.of(
+            "203.0.113.7/32", NEVER,
+            "198.51.100.1", NEVER,
+            "2001:db8::7/128", NEVER));
+
+        assertThat(trie.size()).isEqualTo(3);
+        assertThat(trie.contains("203.0.113.7", NOW)).isTrue();
+        assertThat(trie.contains("203.0.113.6", NOW)).isFalse();
+        assertThat(trie.contains("203.0.113.8", NOW)).isFalse();
+        assertThat(trie.contains("198.51.100.1", NOW)).isTrue();
+        assertThat(trie.contains("2001:db8::7", NOW)).isTrue();
+        assertThat(trie.contains("2001:db8:0:0:0:0:0:7", NOW)).isTrue();
+        assertThat(trie.contains("2001:db8::8", NOW)).isFalse();
+    }
+
+    @Test
+    void nestedPrefixesMatchUntilTheirOwnExpiry() {
+        CidrTrie trie = CidrTrie.build(Map.of(
+            "10.0.0.0/8", NOW - 1,
+            "10.1.0.0/16", NEVER,
+            "10.1.2.0/24", NOW - 1,
+            "2001:db8::/32", NEVER,
+            "2001:db8:1::/48", NOW - 1));
+
+        assertThat(trie.contains("10.1.2.3", NOW)).isTrue();
+        assertThat(trie.contains("10.1.200.3", NOW)).isTrue();
+        assertThat(trie.contains("10.2.0.1", NOW)).isFalse();
+        assertThat(trie.contains("10.2.0.1", NOW - 2)).isTrue();
+        assertThat(trie.contains("11.0.0.1", NOW - 2)).isFalse();
+        assertThat(trie.contains("2001:db8:1::1", NOW)).isTrue();
+        assertThat(trie.contains("2001:db9::1", NOW)).isFalse();
+    }
+
+    @Test
+    void ipv4RangesMatchIpv4MappedAddressesAndNotPlainIpv6() {
+        CidrTrie v4 = CidrTrie.build(Map.of("192.0.2.0/24", NEVER));
+        CidrTrie mapped = CidrTrie.build(Map.of("::ffff:192.0.2.0/120", NEVER));
+
+        assertThat(v4.contains("::ffff:192.0.2.55", NOW)).isTrue();
+        assertThat(v4.contains("::ffff:c000:237", NOW)).isTrue();
+        assertThat(v4.contains("::ffff:192.0.3.55", NOW)).isFalse();
+        assertThat(v4.contains("::c000:237", NOW)).isFalse();
+        assertThat(mapped.contains("192.0.2.55", NOW)).isTrue();
+        assertThat(mapped.contains("192.0.3.55", NOW)).isFalse();
+    }
+
+    @Test
+    void skipsMalformedRanges() {
+        CidrTrie trie = CidrTrie.build(Map.of(
+            "10.0.0.0/33", NEVER,
+            "10.0.0.0/", NEVER,
+            "10.0.0/8", NEVER,
+            "2001:db8::/129", NEVER,
+            "2001:db8::/-1", NEVER,
+            "/24", NEVER,
+            "not-an-ip", NEVER,
+            "172.16.0.0/12", NEVER));
+
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(trie.contains("172.16.5.4", NOW)).isTrue();
+        assertThat(trie.contains("10.0.0.1", NOW)).isFalse();
+    }
+
+    @Test
+    void malformedAddressesNeverMatch() {
+        CidrTrie trie = CidrTrie.build(Map.of("0.0.0.0/0", NEVER, "::/0", NEVER));
+
+        assertThat(trie.contains(null, NOW)).isFalse();
+        assertThat(trie.contains("", NOW)).isFalse();
+        assertThat(trie.contains("1.2.3", NOW)).isFalse();
+        assertThat(trie.contains("1.2.3.4:80", NOW)).isFalse();
+        assertThat(trie.contains("1::2::3", NOW)).isFalse();
+        assertThat(CidrTrie.EMPTY.contains("1.2.3.4", NOW)).isFalse();
+    }
+}
@@ -0,0 +1,69 @@
+package com.payment.fraud.blocklist;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpAddressesTest {
+
+    @Test
+    void parsesIpv4() {
+        assertThat(ipv4("0.0.0.0")).isZero();
+        assertThat(ipv4("192.168.1.10")).isEqualTo(0xc0a8_010aL);
+        assertThat(ipv4("255.255.255.255")).isEqualTo(0xffff_ffffL);
+    }
+
+    @Test
+    void rejectsMalformedIpv4() {
+        for (String address : new String[] {"", "1.2.3", "1.2.3.4.5", "1.2.3.256", "1..2.3", "1.2.3.4.",
+            ".1.2.3", "1.2.3.a", "1.2.3.0004", " 1.2.3.4"}) {
+            assertThat(ipv4(address)).as(address).isEqualTo(IpAddresses.INVALID);
+        }
+    }
+
+    @Test
+    void parsesIpv6WithAndWithoutCompression() {
+        assertIpv6("2001:db8:0:0:0:0:0:1", 0x2001_0db8_0000_0000L, 0x0000_0000_0000_0001L);
+        assertIpv6("2001:db8::1", 0x2001_0db8_0000_0000L, 0x0000_0000_0000_0001L);
+        assertIpv6("2001:DB8::", 0x2001_0db8_0000_0000L, 0L);
+        assertIpv6("::1", 0L, 1L);
+        assertIpv6("::", 0L, 0L);
+        assertIpv6("fe80::1:2:3:4", 0xfe80_0000_0000_0000L, 0x0001_0002_0003_0004L);
+    }
+
+    @Test
+    void mapsIpv4MappedIpv6IntoIpv4Space() {
+        assertIpv6("::ffff:192.168.1.10", 0L, IpAddresses.IPV4_MAPPED_PREFIX | 0xc0a8_010aL);
+        assertIpv6("::ffff:c0a8:10a", 0L, IpAddresses.IPV4_MAPPED_PREFIX | 0xc0a8_010aL);
+    }
+
+    @Test
+    void rejectsMalformedIpv6() {
+        for (String address : new String[] {":", ":1", "1:", "1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9", "1::2::3",
+            "12345::", "g::1", "::ffff:1.2.3", "::1.2.3.4:5", "1:2:3:4:5:6:7:8::"}) {
+            assertThat(IpAddresses.parseIpv6(address, address.length(), false)).as(address)
+                .isEqualTo(IpAddresses.INVALID);
+        }
+    }
+
+    @Test
+    void masksPrefixes() {
+        assertThat(IpAddresses.maskHi(0)).isZero();
+        assertThat(IpAddresses.maskLo(0)).isZero();
+        assertThat(IpAddresses.maskHi(8)).isEqualTo(0xff00_0000_0000_0000L);
+        assertThat(IpAddresses.maskHi(64)).isEqualTo(-1L);
+        assertThat(IpAddresses.maskLo(64)).isZero();
+        assertThat(IpAddresses.maskLo(96)).isEqualTo(0xffff_ffff_0000_0000L);
+        assertThat(IpAddresses.maskHi(128)).isEqualTo(-1L);
+        assertThat(IpAddresses.maskLo(128)).isEqualTo(-1L);
+    }
+
+    private static long ipv4(String address) {
+        return IpAddresses.parseIpv4(address, 0, address.length());
+    }
+
+    private static void assertIpv6(String address, long hi, long lo) {
+        assertThat(IpAddresses.parseIpv6(address, address.length(), false)).as(address).isEqualTo(hi);
+        assertThat(IpAddresses.parseIpv6(address, address.length(), true)).as(address).isEqualTo(lo);
+    }
+}
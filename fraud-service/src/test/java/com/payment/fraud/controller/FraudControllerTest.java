@@ -0,0 +1,115 @@
+package com.payment.fraud.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.fraud.dto.BatchFraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+import com.payment.fraud.service.FraudAssessmentService;
+import com.payment.fraud.service.FraudRuleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(
+    controllers = FraudController.class,
+    excludeAutoConfiguration = {
+        SecurityAutoConfiguration.class,
+        SecurityFilterAutoConfiguration.class
+    }
+)
+@AutoConfigureMockMvc(addFilters = false)
+class FraudControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private FraudAssessmentService fraudAssessmentService;
+
+    @MockBean
+    private FraudRuleService fraudRuleService;
+
+    @Test
+    void shouldAssessBatchOfMaximumSize() throws Exception {
+        // Given
+        List<FraudAssessmentRequest> items = items(BatchFraudAssessmentRequest.MAX_ITEMS);
+        FraudAssessmentResponse allow = FraudAssessmentResponse.builder()
+            .score(new BigDecimal("10.000"))
+            .riskLevel("very_low")
+            .decision("ALLOW")
+            .build();
+        when(fraudAssessmentService.assessBatch(anyList()))
+            .thenReturn(Collections.nCopies(items.size(), allow));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/fraud/assess:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchFraudAssessmentRequest(items))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.results.length()").value(BatchFraudAssessmentRequest.MAX_ITEMS))
+            .andExpect(jsonPath("$.results[0].paymentId").value(items.get(0).getPaymentId().toString()));
+    }
+
+    @Test
+    void shouldRejectBatchOverMaximumSize() throws Exception {
+        // Given
+        List<FraudAssessmentRequest> items = items(BatchFraudAssessmentRequest.MAX_ITEMS + 1);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/fraud/assess:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchFraudAssessmentRequest(items))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.type").value("validation_error"))
+            .andExpect(jsonPath("$.error.details.errors.items").exists());
+
+        verify(fraudAssessmentService, never()).assessBatch(any());
+    }
+
+    @Test
+    void shouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/v1/fraud/assess:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchFraudAssessmentRequest(List.of()))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error.type").value("validation_error"));
+
+        verify(fraudAssessmentService, never()).assessBatch(any());
+    }
+
+    private static List<FraudAssessmentRequest> items(int count) {
+        List<FraudAssessmentRequest> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(FraudAssessmentRequest.builder()
+                .paymentId(UUID.randomUUID())
+                .merchantId(UUID.randomUUID())
+                .amount(1_000L + i)
+                .currency("USD")
+                .build());
+        }
+        return items;
+    }
+}
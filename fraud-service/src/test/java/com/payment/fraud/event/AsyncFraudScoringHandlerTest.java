@@ -0,0 +1,162 @@
+package com.payment.fraud.event;
+
+import com.payment.fraud.dto.BatchFraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+import com.payment.fraud.service.FraudAssessmentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AsyncFraudScoringHandlerTest {
+
+    private final FraudAssessmentService fraudAssessmentService = mock(FraudAssessmentService.class);
+    private final FraudDecisionPublisher fraudDecisionPublisher = mock(FraudDecisionPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AsyncFraudScoringHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new AsyncFraudScoringHandler(fraudAssessmentService, fraudDecisionPublisher, meterRegistry);
+        // Score each request by its amount so responses can be matched to requests
+        when(fraudAssessmentService.assessBatch(anyList())).thenAnswer(invocation -> {
+            List<FraudAssessmentRequest> requests = invocation.getArgument(0);
+            List<FraudAssessmentResponse> responses = new ArrayList<>();
+            for (FraudAssessmentRequest request : requests) {
+                responses.add(FraudAssessmentResponse.builder()
+                    .score(BigDecimal.valueOf(request.getAmount()))
+                    .decision("ALLOW")
+                    .build());
+            }
+            return responses;
+        });
+    }
+
+    @Test
+    void assessesOnlyAuthorizedAsyncPayments() {
+        UUID scored = UUID.randomUUID();
+        Map<String, Object> malformed = event("PAYMENT_AUTHORIZED", UUID.randomUUID(), 1, true);
+        malformed.remove("merchantId");
+
+        handler.handlePaymentEvents(List.of(
+            event("PAYMENT_CAPTURED", UUID.randomUUID(), 1, true),
+            event("PAYMENT_AUTHORIZED", UUID.randomUUID(), 2, false),
+            malformed,
+            event("PAYMENT_AUTHORIZED", scored, 3, true),
+            event("PAYMENT_AUTHORIZED", scored, 3, true)));
+
+        List<FraudAssessmentRequest> requests = assessedBatches().get(0);
+        assertThat(requests).extracting(FraudAssessmentRequest::getPaymentId).containsExactly(scored);
+        assertThat(requests.get(0).getDeviceId()).isEqualTo("device-3");
+        assertThat(meterRegistry.get("fraud.async.batch.size").summary().totalAmount()).isEqualTo(1.0);
+    }
+
+    @Test
+    void ignoresPollsWithNothingToScore() {
+        handler.handlePaymentEvents(List.of(event("PAYMENT_AUTHORIZED", UUID.randomUUID(), 1, false)));
+
+        verifyNoInteractions(fraudAssessmentService, fraudDecisionPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void answersEachPaymentInEventOrder() {
+        List<UUID> paymentIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (int i = 0; i < paymentIds.size(); i++) {
+            events.add(event("PAYMENT_AUTHORIZED", paymentIds.get(i), 100 + i, true));
+        }
+
+        handler.handlePaymentEvents(events);
+
+        ArgumentCaptor<List<FraudAssessmentRequest>> requests = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<FraudAssessmentResponse>> responses = ArgumentCaptor.forClass(List.class);
+        verify(fraudDecisionPublisher).publishAll(requests.capture(), responses.capture());
+        assertThat(requests.getValue()).extracting(FraudAssessmentRequest::getPaymentId)
+            .containsExactlyElementsOf(paymentIds);
+        assertThat(responses.getValue()).extracting(FraudAssessmentResponse::getScore)
+            .containsExactly(BigDecimal.valueOf(100), BigDecimal.valueOf(101), BigDecimal.valueOf(102));
+    }
+
+    @Test
+    void assessesAndPublishesInChunksOfTheBatchLimit() {
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (int i = 0; i <= BatchFraudAssessmentRequest.MAX_ITEMS; i++) {
+            events.add(event("PAYMENT_AUTHORIZED", UUID.randomUUID(), i, true));
+        }
+
+        handler.handlePaymentEvents(events);
+
+        InOrder order = inOrder(fraudAssessmentService, fraudDecisionPublisher);
+        order.verify(fraudAssessmentService).assessBatch(anyList());
+        order.verify(fraudDecisionPublisher).publishAll(anyList(), anyList());
+        order.verify(fraudAssessmentService).assessBatch(anyList());
+        order.verify(fraudDecisionPublisher).publishAll(anyList(), anyList());
+        List<List<FraudAssessmentRequest>> batches = assessedBatches();
+        assertThat(batches.get(0)).hasSize(BatchFraudAssessmentRequest.MAX_ITEMS);
+        assertThat(batches.get(1)).extracting(FraudAssessmentRequest::getAmount)
+            .containsExactly((long) BatchFraudAssessmentRequest.MAX_ITEMS);
+    }
+
+    @Test
+    void failsThePollWhenDecisionsCannotBePublished() {
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (int i = 0; i <= BatchFraudAssessmentRequest.MAX_ITEMS; i++) {
+            events.add(event("PAYMENT_AUTHORIZED", UUID.randomUUID(), i, true));
+        }
+        doThrow(new IllegalStateException("broker down"))
+            .when(fraudDecisionPublisher).publishAll(anyList(), anyList());
+
+        // The listener container does not commit the offsets of a poll that throws
+        assertThatThrownBy(() -> handler.handlePaymentEvents(events)).isInstanceOf(IllegalStateException.class);
+        verify(fraudAssessmentService, times(1)).assessBatch(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<FraudAssessmentRequest>> assessedBatches() {
+        ArgumentCaptor<List<FraudAssessmentRequest>> batches = ArgumentCaptor.forClass(List.class);
+        verify(fraudAssessmentService, atLeastOnce()).assessBatch(batches.capture());
+        return batches.getAllValues();
+    }
+
+    private static Map<String, Object> event(String type, UUID paymentId, long amount, boolean async) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("device_id", "device-" + amount);
+        if (async) {
+            metadata.put(AsyncFraudScoringHandler.FRAUD_ASSESSMENT_KEY, AsyncFraudScoringHandler.FRAUD_ASSESSMENT_ASYNC);
+        }
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", type);
+        event.put("paymentId", paymentId.toString());
+        event.put("merchantId", UUID.randomUUID().toString());
+        event.put("customerId", UUID.randomUUID().toString());
+        event.put("amount", amount);
+        event.put("currency", "USD");
+        event.put("metadata", metadata);
+        event.put("timestamp", Instant.now().toString());
+        return event;
+    }
+}
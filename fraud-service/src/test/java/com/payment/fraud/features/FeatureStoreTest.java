@@ -0,0 +1,169 @@
+package com.payment.fraud.features;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Runs the update script and the pipelined lookups against a real Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class FeatureStoreTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+        .withExposedPorts(6379);
+
+    private static RedissonClient redissonClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID customerId = UUID.randomUUID();
+    private final UUID cardId = UUID.randomUUID();
+    private FeatureStore featureStore;
+
+    @BeforeAll
+    static void connect() {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + redis.getHost() + ":" + redis.getMappedPort(6379));
+        redissonClient = Redisson.create(config);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        redissonClient.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        featureStore = store(Duration.ofSeconds(5), Duration.ofSeconds(2));
+    }
+
+    @Test
+    void countsEachPaymentOnce() {
+        UUID paymentId = UUID.randomUUID();
+
+        assertThat(record(paymentId, UUID.randomUUID(), customerId, 1_000, T0)).isTrue();
+        assertThat(record(paymentId, UUID.randomUUID(), customerId, 5_000, T0 + 1_000)).isFalse();
+
+        EntityAggregate customer = lookup().customer();
+        assertThat(customer.count()).isEqualTo(1);
+        assertThat(customer.amountSum()).isEqualTo(1_000);
+        assertThat(customer.lastSeenMillis()).isEqualTo(T0);
+        assertThat(meterRegistry.get("fraud.features.updates").tag("outcome", "duplicate").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void foldsAmountsIntoSumAndEwma() {
+        record(UUID.randomUUID(), UUID.randomUUID(), customerId, 1_000, T0);
+        record(UUID.randomUUID(), UUID.randomUUID(), customerId, 2_000, T0 + 60_000);
+        record(UUID.randomUUID(), UUID.randomUUID(), customerId, 500, T0 + 120_000);
+
+        EntityAggregate customer = lookup().customer();
+        assertThat(customer.count()).isEqualTo(3);
+        assertThat(customer.amountSum()).isEqualTo(3_500);
+        // 1000, then 1000 + 0.1 * 1000, then 1100 + 0.1 * (500 - 1100)
+        assertThat(customer.amountEwma()).isCloseTo(1_040.0, within(1e-9));
+        assertThat(customer.firstSeenMillis()).isEqualTo(T0);
+        assertThat(customer.lastSeenMillis()).isEqualTo(T0 + 120_000);
+    }
+
+    @Test
+    void mergesDistinctSketchesAcrossPayments() {
+        UUID merchantA = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+        UUID merchantB = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+        UUID otherCustomer = UUID.randomUUID();
+        assertThat(DistinctSketch.bit(merchantA.toString())).isNotEqualTo(DistinctSketch.bit(merchantB.toString()));
+        int otherCustomers = DistinctSketch.bit(otherCustomer.toString()) == DistinctSketch.bit(customerId.toString()) ? 1 : 2;
+
+        record(UUID.randomUUID(), merchantA, customerId, 1_000, T0);
+        record(UUID.randomUUID(), merchantA, customerId, 1_000, T0 + 1);
+        record(UUID.randomUUID(), merchantB, customerId, 1_000, T0 + 2);
+        record(UUID.randomUUID(), merchantB, otherCustomer, 1_000, T0 + 3);
+
+        EntityFeatures features = lookup();
+        assertThat(features.customerDistinctMerchants()).isEqualTo(2);
+        assertThat(features.cardReuseCount()).isEqualTo(otherCustomers);
+    }
+
+    @Test
+    void servesRepeatLookupsFromTheLocalCache() {
+        record(UUID.randomUUID(), UUID.randomUUID(), customerId, 1_000, T0);
+
+        lookup();
+        lookup();
+
+        assertThat(meterRegistry.get("fraud.features.lookups").tag("outcome", "redis").counter().count())
+            .isEqualTo(1.0);
+        assertThat(meterRegistry.get("fraud.features.lookups").tag("outcome", "cache").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void fallsBackToStaleCacheWhenRedisDoesNotAnswer() throws InterruptedException {
+        featureStore = store(Duration.ofMillis(1), Duration.ofMillis(100));
+        record(UUID.randomUUID(), UUID.randomUUID(), customerId, 1_000, T0);
+        assertThat(lookup().customerPaymentCount()).isEqualTo(1);
+        Thread.sleep(5);
+
+        redis.getDockerClient().pauseContainerCmd(redis.getContainerId()).exec();
+        EntityFeatures features;
+        try {
+            features = lookup();
+        } finally {
+            redis.getDockerClient().unpauseContainerCmd(redis.getContainerId()).exec();
+        }
+
+        assertThat(features.customerPaymentCount()).isEqualTo(1);
+        assertThat(features.card().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("fraud.features.lookups").tag("outcome", "degraded").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void reportsNoHistoryForUnknownEntities() {
+        EntityFeatures features = lookup();
+
+        assertThat(features.hasCustomerHistory()).isFalse();
+        assertThat(features.customerPaymentCount()).isEqualTo(EntityFeatures.UNKNOWN);
+        assertThat(features.card()).isNull();
+    }
+
+    private FeatureStore store(Duration cacheTtl, Duration lookupTimeout) {
+        return new FeatureStore(redissonClient, "test:features:" + UUID.randomUUID() + ":",
+            Duration.ofDays(1), Duration.ofDays(1), 0.1, lookupTimeout, cacheTtl, 1_000, meterRegistry);
+    }
+
+    private boolean record(UUID paymentId, UUID merchantId, UUID customer, long amount, long timestamp) {
+        return featureStore.recordPayment(paymentId, merchantId, customer, cardId, null, amount, timestamp);
+    }
+
+    private EntityFeatures lookup() {
+        return featureStore.lookupAsync(FraudAssessmentRequest.builder()
+            .paymentId(UUID.randomUUID())
+            .merchantId(UUID.randomUUID())
+            .customerId(customerId)
+            .paymentMethodId(cardId)
+            .amount(1_000L)
+            .currency("USD")
+            .build()).join();
+    }
+}
@@ -0,0 +1,134 @@
+package com.payment.fraud.grpc;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FraudAssessmentMessagesTest {
+
+    @Test
+    void requestRoundTripsEveryField() {
+        UUID paymentId = UUID.randomUUID();
+        UUID merchantId = UUID.randomUUID();
+        UUID customerId = UUID.randomUUID();
+        UUID paymentMethodId = UUID.randomUUID();
+        AssessRequest message = AssessRequest.newBuilder()
+            .setPaymentId(Uuids.toBytes(paymentId))
+            .setMerchantId(Uuids.toBytes(merchantId))
+            .setCustomerId(Uuids.toBytes(customerId))
+            .setPaymentMethodId(Uuids.toBytes(paymentMethodId))
+            .setAmount(12_345L)
+            .setCurrency("USD")
+            .setIpAddress("203.0.113.7")
+            .setDeviceId("device-1")
+            .setUserAgent("Mozilla/5.0")
+            .build();
+
+        FraudAssessmentRequest request = FraudAssessmentMessages.toRequest(message);
+
+        assertThat(request.getPaymentId()).isEqualTo(paymentId);
+        assertThat(request.getMerchantId()).isEqualTo(merchantId);
+        assertThat(request.getCustomerId()).isEqualTo(customerId);
+        assertThat(request.getPaymentMethodId()).isEqualTo(paymentMethodId);
+        assertThat(request.getAmount()).isEqualTo(12_345L);
+        assertThat(request.getCurrency()).isEqualTo("USD");
+        assertThat(request.getIpAddress()).isEqualTo("203.0.113.7");
+        assertThat(request.getDeviceId()).isEqualTo("device-1");
+        assertThat(request.getUserAgent()).isEqualTo("Mozilla/5.0");
+    }
+
+    @Test
+    void absentOptionalFieldsBecomeNull() {
+        FraudAssessmentRequest request = FraudAssessmentMessages.toRequest(required().build());
+
+        assertThat(request.getCustomerId()).isNull();
+        assertThat(request.getPaymentMethodId()).isNull();
+        assertThat(request.getIpAddress()).isNull();
+        assertThat(request.getDeviceId()).isNull();
+        assertThat(request.getUserAgent()).isNull();
+    }
+
+    @Test
+    void malformedOptionalIdBecomesNull() {
+        AssessRequest message = required()
+            .setCustomerId(Uuids.toBytes(UUID.randomUUID()).substring(0, 8))
+            .build();
+
+        assertThat(FraudAssessmentMessages.toRequest(message).getCustomerId()).isNull();
+    }
+
+    @Test
+    void rejectsRequestsMissingRequiredFields() {
+        assertThat(FraudAssessmentMessages.toRequest(required().clearPaymentId().build())).isNull();
+        assertThat(FraudAssessmentMessages.toRequest(required().clearMerchantId().build())).isNull();
+        assertThat(FraudAssessmentMessages.toRequest(required().clearCurrency().build())).isNull();
+        assertThat(FraudAssessmentMessages.toRequest(required()
+            .setPaymentId(Uuids.toBytes(UUID.randomUUID()).concat(Uuids.toBytes(UUID.randomUUID())))
+            .build())).isNull();
+    }
+
+    @Test
+    void scoreMillisReadsBackAsTheSameScore() {
+        for (String score : List.of("0.000", "0.001", "42.300", "49.999", "75.000", "100.000")) {
+            AssessResponse message = FraudAssessmentMessages.toMessage(response(new BigDecimal(score), null));
+
+            // payment-service reads score_millis back with BigDecimal.valueOf(millis, 3)
+            assertThat(BigDecimal.valueOf(message.getScoreMillis(), 3)).isEqualTo(new BigDecimal(score));
+        }
+    }
+
+    @Test
+    void scoresOfOtherScalesKeepTheirValue() {
+        AssessResponse blocked = FraudAssessmentMessages.toMessage(response(BigDecimal.valueOf(100), null));
+        AssessResponse cents = FraudAssessmentMessages.toMessage(response(new BigDecimal("12.34"), null));
+
+        assertThat(blocked.getScoreMillis()).isEqualTo(100_000);
+        assertThat(cents.getScoreMillis()).isEqualTo(12_340);
+    }
+
+    @Test
+    void mapsDecisionRiskLevelAndModelVersion() {
+        AssessResponse message = FraudAssessmentMessages.toMessage(response(new BigDecimal("80.000"), null));
+
+        assertThat(message.getDecision()).isEqualTo(Decision.BLOCK);
+        assertThat(message.getRiskLevel()).isEqualTo("critical");
+        assertThat(message.getModelVersion()).isEqualTo("1.0.0-mvp");
+    }
+
+    @Test
+    void mapsDegradedChecks() {
+        AssessResponse degraded = FraudAssessmentMessages.toMessage(response(new BigDecimal("10.000"),
+            Map.of("degraded_checks", List.of("ml:timeout", "velocity:rejected"))));
+        AssessResponse healthy = FraudAssessmentMessages.toMessage(response(new BigDecimal("10.000"),
+            Map.of("velocity_score", 3)));
+
+        assertThat(degraded.getDegradedChecksList()).containsExactly("ml:timeout", "velocity:rejected");
+        assertThat(healthy.getDegradedChecksList()).isEmpty();
+    }
+
+    private static AssessRequest.Builder required() {
+        return AssessRequest.newBuilder()
+            .setPaymentId(Uuids.toBytes(UUID.randomUUID()))
+            .setMerchantId(Uuids.toBytes(UUID.randomUUID()))
+            .setAmount(1_000L)
+            .setCurrency("EUR");
+    }
+
+    private static FraudAssessmentResponse response(BigDecimal score, Map<String, Object> factors) {
+        String decision = score.compareTo(BigDecimal.valueOf(75)) >= 0 ? "BLOCK" : "ALLOW";
+        return FraudAssessmentResponse.builder()
+            .score(score)
+            .riskLevel("BLOCK".equals(decision) ? "critical" : "very_low")
+            .decision(decision)
+            .factors(factors)
+            .modelVersion("1.0.0-mvp")
+            .build();
+    }
+}
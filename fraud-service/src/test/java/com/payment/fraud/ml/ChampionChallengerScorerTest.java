@@ -0,0 +1,185 @@
+package com.payment.fraud.ml;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.ToDoubleFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the scorer over stub models whose score is derived from the row's first feature:
+ * the champion returns it as is, the challenger adds 10 and cannot answer rows at 90 or
+ * above. Shadow work runs on the calling thread unless the executor rejects it.
+ */
+class ChampionChallengerScorerTest {
+
+    private static final int TRAFFIC_PERCENT = 50;
+    private static final Executor DIRECT = Runnable::run;
+    private static final Executor FULL = command -> {
+        throw new RejectedExecutionException("shadow executor full");
+    };
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OnnxFraudModel champion = model(mock(OnnxFraudModel.class), "champion-v1", row -> row[0]);
+    private final OnnxFraudModel challenger = model(mock(OnnxFraudModel.class), "challenger-v2",
+        row -> row[0] < 90 ? row[0] + 10 : Double.NaN);
+    private final FraudMLModel builtin = model(mock(FraudMLModel.class), "builtin-v1", row -> 1.0);
+
+    @Test
+    void shadowModeChampionDecidesAndChallengerScoresItsSlice() {
+        ChampionChallengerScorer scorer = scorer("shadow", DIRECT);
+
+        ChampionChallengerScorer.Result inSlice = scorer.score(paymentId(true), row(20));
+        ChampionChallengerScorer.Result outOfSlice = scorer.score(paymentId(false), row(20));
+
+        assertThat(inSlice.primary()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHAMPION, "champion-v1", 20));
+        assertThat(inSlice.shadow().join()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHALLENGER, "challenger-v2", 30));
+        assertThat(outOfSlice.primary().role()).isEqualTo(ChampionChallengerScorer.ROLE_CHAMPION);
+        assertThat(outOfSlice.shadow()).isNull();
+        assertThat(meterRegistry.get("fraud.ml.challenger.delta").summary().totalAmount()).isEqualTo(10.0);
+    }
+
+    @Test
+    void abModeChallengerDecidesItsSliceAndChampionShadows() {
+        ChampionChallengerScorer scorer = scorer("ab", DIRECT);
+
+        ChampionChallengerScorer.Result inSlice = scorer.score(paymentId(true), row(20));
+        ChampionChallengerScorer.Result outOfSlice = scorer.score(paymentId(false), row(20));
+
+        assertThat(inSlice.primary()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHALLENGER, "challenger-v2", 30));
+        assertThat(inSlice.shadow().join()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHAMPION, "champion-v1", 20));
+        assertThat(outOfSlice.primary().role()).isEqualTo(ChampionChallengerScorer.ROLE_CHAMPION);
+        assertThat(outOfSlice.shadow()).isNull();
+    }
+
+    @Test
+    void abModeFallsBackToChampionWhenChallengerCannotAnswer() {
+        ChampionChallengerScorer scorer = scorer("ab", DIRECT);
+
+        ChampionChallengerScorer.Result result = scorer.score(paymentId(true), row(95));
+
+        assertThat(result.primary()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHAMPION, "champion-v1", 95));
+        assertThat(result.shadow()).isNull();
+    }
+
+    @Test
+    void championFallsBackToBuiltinModel() {
+        when(champion.score(any(double[].class))).thenReturn(Double.NaN);
+        ChampionChallengerScorer scorer = scorer("shadow", DIRECT);
+
+        assertThat(scorer.score(paymentId(false), row(20)).primary())
+            .isEqualTo(score(ChampionChallengerScorer.ROLE_CHAMPION, "builtin-v1", 1));
+    }
+
+    @Test
+    void shadowScoringIsSkippedWhenExecutorIsFull() {
+        ChampionChallengerScorer scorer = scorer("shadow", FULL);
+
+        ChampionChallengerScorer.Result result = scorer.score(paymentId(true), row(20));
+        List<ChampionChallengerScorer.Result> batch = scorer.scoreBatch(
+            List.of(paymentId(true), paymentId(true), paymentId(false)), new double[][] {row(1), row(2), row(3)});
+
+        assertThat(result.primary().score()).isEqualTo(20);
+        assertThat(result.shadow()).isNull();
+        assertThat(batch).extracting(ChampionChallengerScorer.Result::shadow).containsOnlyNulls();
+        assertThat(meterRegistry.get("fraud.ml.shadow.rejected").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void batchGivesEachShadowedRowItsOwnShadowScore() {
+        ChampionChallengerScorer scorer = scorer("shadow", DIRECT);
+        boolean[] slice = {true, false, true, true, false};
+        List<UUID> paymentIds = new ArrayList<>();
+        double[][] rows = new double[slice.length][];
+        for (int i = 0; i < slice.length; i++) {
+            paymentIds.add(paymentId(slice[i]));
+            rows[i] = row(10 * (i + 1));
+        }
+
+        List<ChampionChallengerScorer.Result> results = scorer.scoreBatch(paymentIds, rows);
+
+        for (int i = 0; i < slice.length; i++) {
+            ChampionChallengerScorer.Result result = results.get(i);
+            assertThat(result.primary()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHAMPION, "champion-v1", 10 * (i + 1)));
+            if (slice[i]) {
+                assertThat(result.shadow().join())
+                    .isEqualTo(score(ChampionChallengerScorer.ROLE_CHALLENGER, "challenger-v2", 10 * (i + 1) + 10));
+            } else {
+                assertThat(result.shadow()).isNull();
+            }
+        }
+        // One shadow call over the three slice rows
+        verify(challenger).scoreBatch(any(double[][].class));
+    }
+
+    @Test
+    void abBatchShadowsOnlyRowsTheChallengerDecided() {
+        ChampionChallengerScorer scorer = scorer("ab", DIRECT);
+
+        List<ChampionChallengerScorer.Result> results = scorer.scoreBatch(
+            List.of(paymentId(true), paymentId(true), paymentId(false), paymentId(true)),
+            new double[][] {row(20), row(95), row(40), row(60)});
+
+        assertThat(results.get(0).primary()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHALLENGER, "challenger-v2", 30));
+        assertThat(results.get(0).shadow().join()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHAMPION, "champion-v1", 20));
+        // The challenger cannot answer 95: the champion decides it and nothing is compared
+        assertThat(results.get(1).primary()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHAMPION, "champion-v1", 95));
+        assertThat(results.get(1).shadow()).isNull();
+        assertThat(results.get(2).primary()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHAMPION, "champion-v1", 40));
+        assertThat(results.get(2).shadow()).isNull();
+        assertThat(results.get(3).primary()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHALLENGER, "challenger-v2", 70));
+        assertThat(results.get(3).shadow().join()).isEqualTo(score(ChampionChallengerScorer.ROLE_CHAMPION, "champion-v1", 60));
+    }
+
+    private ChampionChallengerScorer scorer(String mode, Executor shadowExecutor) {
+        when(champion.isServing()).thenReturn(true);
+        return new ChampionChallengerScorer(champion, challenger, builtin, shadowExecutor,
+            "onnx", mode, TRAFFIC_PERCENT, meterRegistry);
+    }
+
+    private static <M extends ScoringModel> M model(M model, String version, ToDoubleFunction<double[]> score) {
+        when(model.version()).thenReturn(version);
+        when(model.score(any(double[].class))).thenAnswer(invocation ->
+            score.applyAsDouble(invocation.getArgument(0)));
+        when(model.scoreBatch(any(double[][].class))).thenAnswer(invocation -> {
+            double[][] rows = invocation.getArgument(0);
+            double[] scores = new double[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                // Through score() so a test can restub the model with one call
+                scores[i] = model.score(rows[i]);
+            }
+            return scores;
+        });
+        return model;
+    }
+
+    /** A payment id that does (or does not) fall in the challenger's traffic slice */
+    private static UUID paymentId(boolean inSlice) {
+        while (true) {
+            UUID paymentId = UUID.randomUUID();
+            if ((Math.floorMod(paymentId.hashCode(), 100) < TRAFFIC_PERCENT) == inSlice) {
+                return paymentId;
+            }
+        }
+    }
+
+    private static double[] row(double first) {
+        double[] row = new double[FeatureSchema.SIZE];
+        row[0] = first;
+        return row;
+    }
+
+    private static ChampionChallengerScorer.ModelScore score(String role, String version, double score) {
+        return new ChampionChallengerScorer.ModelScore(role, version, score);
+    }
+}
@@ -0,0 +1,178 @@
+package com.payment.fraud.ml;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OnnxValue;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the batcher against a mocked session whose positive-class probability is the row's
+ * first feature. Each session run waits for release, so tests can hold a batch in flight.
+ */
+class OnnxMicroBatcherTest {
+
+    private static final long LONG_TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrtSession session = mock(OrtSession.class);
+    private final OrtSession.Result result = mock(OrtSession.Result.class);
+    private final OnnxValue output = mock(OnnxValue.class);
+    private final LoadedOnnxModel model = new LoadedOnnxModel(session, "v1", "input", "output", 1, null);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch firstRunStarted = new CountDownLatch(1);
+    private final AtomicInteger runs = new AtomicInteger();
+    private final AtomicReference<float[][]> probabilities = new AtomicReference<>();
+
+    private OnnxMicroBatcher batcher;
+    private Thread batcherThread;
+
+    @BeforeEach
+    void mockSession() throws Exception {
+        when(session.run(anyMap())).thenAnswer(invocation -> {
+            runs.incrementAndGet();
+            firstRunStarted.countDown();
+            release.await();
+            OnnxTensor input = (OnnxTensor) ((Map<?, ?>) invocation.getArgument(0)).get("input");
+            FloatBuffer rows = input.getFloatBuffer();
+            float[][] scores = new float[rows.remaining()][2];
+            for (int r = 0; r < scores.length; r++) {
+                scores[r][1] = rows.get(r);
+            }
+            probabilities.set(scores);
+            return result;
+        });
+        when(result.get("output")).thenReturn(Optional.of(output));
+        when(output.getValue()).thenAnswer(invocation -> probabilities.get());
+    }
+
+    @AfterEach
+    void stopBatcher() throws InterruptedException {
+        release.countDown();
+        batcher.stop();
+        batcherThread.interrupt();
+        batcherThread.join(2_000);
+    }
+
+    @Test
+    void scoresRowsInBatches() {
+        start(8, 16);
+        release.countDown();
+
+        double[] scores = batcher.scoreAll(new double[][] {{0.1}, {0.2}, {0.3}}, LONG_TIMEOUT);
+
+        assertThat(scores[0]).isEqualTo((double) 0.1f);
+        assertThat(scores[1]).isEqualTo((double) 0.2f);
+        assertThat(scores[2]).isEqualTo((double) 0.3f);
+        assertThat(batcher.score(new double[] {0.4}, LONG_TIMEOUT)).isEqualTo((double) 0.4f);
+    }
+
+    @Test
+    void timedOutRequestIsAbandonedAndNeverRun() throws Exception {
+        start(1, 16);
+        CompletableFuture<Double> first = scoreAsync(0.1);
+        firstRunStarted.await();
+
+        assertThat(batcher.score(new double[] {0.2}, TimeUnit.MILLISECONDS.toNanos(20))).isNaN();
+        release.countDown();
+
+        assertThat(first.join()).isEqualTo((double) 0.1f);
+        assertThat(batcher.score(new double[] {0.3}, LONG_TIMEOUT)).isEqualTo((double) 0.3f);
+        // One batch each for the first and last request, none for the abandoned one
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void fullQueueReturnsNaNWithoutWaiting() throws Exception {
+        start(1, 1);
+        CompletableFuture<Double> first = scoreAsync(0.1);
+        firstRunStarted.await();
+        CompletableFuture<Double> queued = scoreAsync(0.2);
+        awaitQueued(1);
+
+        long started = System.nanoTime();
+        assertThat(batcher.score(new double[] {0.3}, LONG_TIMEOUT)).isNaN();
+        assertThat(System.nanoTime() - started).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        release.countDown();
+
+        assertThat(first.join()).isEqualTo((double) 0.1f);
+        assertThat(queued.join()).isEqualTo((double) 0.2f);
+    }
+
+    @Test
+    void scoreAllReturnsNaNForRowsThatDidNotFitTheQueue() throws Exception {
+        start(1, 2);
+        CompletableFuture<Double> first = scoreAsync(0.1);
+        firstRunStarted.await();
+
+        CompletableFuture<double[]> all = CompletableFuture.supplyAsync(() ->
+            batcher.scoreAll(new double[][] {{0.2}, {0.3}, {0.4}, {0.5}}, LONG_TIMEOUT));
+        awaitQueued(2);
+        // Let scoreAll finish offering the rows that do not fit
+        Thread.sleep(100);
+        release.countDown();
+
+        double[] scores = all.join();
+        assertThat(first.join()).isEqualTo((double) 0.1f);
+        assertThat(scores[0]).isEqualTo((double) 0.2f);
+        assertThat(scores[1]).isEqualTo((double) 0.3f);
+        assertThat(scores[2]).isNaN();
+        assertThat(scores[3]).isNaN();
+    }
+
+    @Test
+    void retiredSessionIsClosedOnlyAfterTheRunningBatch() throws Exception {
+        start(1, 16);
+        CompletableFuture<Double> first = scoreAsync(0.1);
+        firstRunStarted.await();
+
+        batcher.retire(model);
+        Thread.sleep(100);
+        verify(session, never()).close();
+        release.countDown();
+
+        assertThat(first.join()).isEqualTo((double) 0.1f);
+        verify(session, timeout(2_000)).close();
+    }
+
+    private void start(int maxBatchSize, int queueCapacity) {
+        batcher = new OnnxMicroBatcher("test", OrtEnvironment.getEnvironment(), () -> model, maxBatchSize,
+            TimeUnit.MILLISECONDS.toNanos(1), queueCapacity, meterRegistry);
+        batcherThread = Thread.ofPlatform().name("onnx-batcher-test").daemon().start(batcher);
+    }
+
+    private CompletableFuture<Double> scoreAsync(double feature) {
+        return CompletableFuture.supplyAsync(() -> batcher.score(new double[] {feature}, LONG_TIMEOUT));
+    }
+
+    private void awaitQueued(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + LONG_TIMEOUT;
+        while (meterRegistry.get("fraud.ml.onnx.queue").gauge().value() < size) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Queue never reached " + size);
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.payment.fraud.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickTest {
+
+    @Test
+    void findsOverlappingPatterns() {
+        AhoCorasick automaton = new AhoCorasick.Builder()
+            .add("headless", 0)
+            .add("less", 1)
+            .add("sschrome", 2)
+            .build();
+
+        long[] found = automaton.scan("headlesschrome/120");
+
+        assertThat(SlotMask.contains(found, 0)).isTrue();
+        assertThat(SlotMask.contains(found, 1)).isTrue();
+        assertThat(SlotMask.contains(found, 2)).isTrue();
+    }
+
+    @Test
+    void findsPatternThatIsSuffixOfAnother() {
+        AhoCorasick automaton = new AhoCorasick.Builder()
+            .add("python-requests", 0)
+            .add("requests", 1)
+            .build();
+
+        long[] both = automaton.scan("python-requests/2.31");
+        long[] shorter = automaton.scan("node-requests");
+
+        assertThat(SlotMask.contains(both, 0)).isTrue();
+        assertThat(SlotMask.contains(both, 1)).isTrue();
+        assertThat(SlotMask.contains(shorter, 0)).isFalse();
+        assertThat(SlotMask.contains(shorter, 1)).isTrue();
+    }
+
+    @Test
+    void matchesNonAsciiCharacters() {
+        AhoCorasick automaton = new AhoCorasick.Builder()
+            .add("яндекс", 0)
+            .add("微信", 1)
+            .build();
+
+        assertThat(SlotMask.contains(automaton.scan("mozilla/5.0 яндекс.браузер"), 0)).isTrue();
+        assertThat(SlotMask.contains(automaton.scan("mozilla/5.0 micromessenger 微信"), 1)).isTrue();
+        assertThat(automaton.scan("mozilla/5.0 яндеks 微")).isNull();
+    }
+
+    @Test
+    void returnsNullWithoutMatchOrPatterns() {
+        AhoCorasick automaton = new AhoCorasick.Builder().add("curl", 0).build();
+
+        assertThat(automaton.scan("mozilla/5.0")).isNull();
+        assertThat(automaton.scan(null)).isNull();
+        assertThat(new AhoCorasick.Builder().add("", 0).build().scan("curl")).isNull();
+    }
+
+    @Test
+    void agreesWithContainsOnRandomInput() {
+        Random random = new Random(7);
+        String alphabet = "abcab/ .é中";
+        for (int round = 0; round < 500; round++) {
+            String[] patterns = new String[1 + random.nextInt(70)];
+            AhoCorasick.Builder builder = new AhoCorasick.Builder();
+            for (int slot = 0; slot < patterns.length; slot++) {
+                patterns[slot] = randomText(random, alphabet, 1 + random.nextInt(4));
+                builder.add(patterns[slot], slot);
+            }
+            AhoCorasick automaton = builder.build();
+
+            for (String text : List.of(randomText(random, alphabet, random.nextInt(40)), "")) {
+                long[] found = automaton.scan(text);
+                for (int slot = 0; slot < patterns.length; slot++) {
+                    assertThat(SlotMask.contains(found, slot))
+                        .as("pattern '%s' in '%s'", patterns[slot], text)
+                        .isEqualTo(text.contains(patterns[slot]));
+                }
+            }
+        }
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.payment.fraud.rules;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DomainSuffixTrieTest {
+
+    private final DomainSuffixTrie trie = new DomainSuffixTrie.Builder()
+        .add("example.com", 0)
+        .add("mail.example.com", 1)
+        .add(".tempmail.org", 2)
+        .build();
+
+    @Test
+    void matchesExactDomain() {
+        long[] found = trie.match("example.com");
+
+        assertThat(SlotMask.contains(found, 0)).isTrue();
+        assertThat(SlotMask.contains(found, 1)).isFalse();
+    }
+
+    @Test
+    void matchesSubdomainsOfEveryConfiguredParent() {
+        long[] found = trie.match("eu.mail.example.com");
+
+        assertThat(SlotMask.contains(found, 0)).isTrue();
+        assertThat(SlotMask.contains(found, 1)).isTrue();
+        assertThat(SlotMask.contains(trie.match("mx.tempmail.org"), 2)).isTrue();
+    }
+
+    @Test
+    void ignoresLookAlikeDomains() {
+        assertThat(trie.match("evil-example.com")).isNull();
+        assertThat(trie.match("notexample.com")).isNull();
+        assertThat(trie.match("example.com.evil.net")).isNull();
+        assertThat(trie.match("xample.com")).isNull();
+        assertThat(trie.match("com")).isNull();
+    }
+
+    @Test
+    void treatsLeadingDotAsTheBareDomain() {
+        assertThat(SlotMask.contains(trie.match("tempmail.org"), 2)).isTrue();
+        assertThat(trie.match("nottempmail.org")).isNull();
+    }
+
+    @Test
+    void returnsNullWithoutDomainOrEntries() {
+        assertThat(trie.match(null)).isNull();
+        assertThat(trie.match("")).isNull();
+        assertThat(new DomainSuffixTrie.Builder().add("...", 0).build().match("example.com")).isNull();
+    }
+}
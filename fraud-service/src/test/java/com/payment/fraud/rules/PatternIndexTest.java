@@ -0,0 +1,101 @@
+package com.payment.fraud.rules;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.entity.FraudRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PatternIndexTest {
+
+    private static final List<String> USER_AGENTS = List.of(
+        "Mozilla/5.0 (X11; Linux x86_64) HeadlessChrome/120.0",
+        "python-requests/2.31.0",
+        "Mozilla/5.0 YaBrowser/24.1 Яндекс",
+        "Mozilla/5.0 (iPhone) MicroMessenger/8.0 微信",
+        "curl/8.4.0",
+        "Mozilla/5.0 (Windows NT 10.0) Chrome/120.0");
+
+    private static final List<String> EMAILS = List.of(
+        "a@Example.COM", "a@mx.example.com", "a@evil-example.com", "a@example.com.evil.net",
+        "a@TEMPMAIL.org", "a@other.net");
+
+    @Test
+    void slotMatchesAgreeWithContainsAndExactDomainChecks() {
+        List<Set<String>> needles = List.of(
+            Set.of("headless", "less"),
+            Set.of("python-requests", "requests"),
+            Set.of("яндекс"),
+            Set.of("微信", "curl"),
+            Set.of());
+        List<Set<String>> domains = List.of(
+            Set.of("example.com"),
+            Set.of(),
+            Set.of("tempmail.org", "example.com"),
+            Set.of("evil-example.com"),
+            Set.of("other.net"));
+
+        PatternIndex.Builder builder = new PatternIndex.Builder();
+        int[] slots = new int[needles.size()];
+        for (int i = 0; i < needles.size(); i++) {
+            slots[i] = builder.add(needles.get(i), domains.get(i));
+        }
+        PatternIndex index = builder.build();
+
+        for (String userAgent : USER_AGENTS) {
+            for (String email : EMAILS) {
+                RuleContext context = RuleContext.from(request(userAgent, email));
+                for (int i = 0; i < slots.length; i++) {
+                    assertThat(index.userAgentMatches(context, slots[i]))
+                        .as("slot %d, user agent %s", i, userAgent)
+                        .isEqualTo(needles.get(i).stream().anyMatch(context.userAgent()::contains));
+                    // Exact domains as before, plus subdomains of a configured domain
+                    assertThat(index.emailDomainMatches(context, slots[i]))
+                        .as("slot %d, email %s", i, email)
+                        .isEqualTo(domains.get(i).stream().anyMatch(domain ->
+                            context.emailDomain().equals(domain) || context.emailDomain().endsWith("." + domain)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void patternRulesMatchCaseInsensitively() {
+        FraudRule headless = patternRule("headless", Map.of("userAgentContains", List.of("HeadlessChrome")));
+        FraudRule disposable = patternRule("disposable", Map.of("suspiciousEmailDomains", List.of("TempMail.org")));
+        List<CompiledRule> rules = RuleCompiler.compileAll(List.of(headless, disposable));
+
+        RuleContext matching = RuleContext.from(request("Mozilla/5.0 HEADLESSCHROME/120", "a@Mx.TEMPMAIL.ORG"));
+        RuleContext lookAlike = RuleContext.from(request("Mozilla/5.0 Chrome/120", "a@nottempmail.org"));
+
+        assertThat(rules.get(0).matches(matching)).isTrue();
+        assertThat(rules.get(1).matches(matching)).isTrue();
+        assertThat(rules.get(0).matches(lookAlike)).isFalse();
+        assertThat(rules.get(1).matches(lookAlike)).isFalse();
+    }
+
+    private static FraudRule patternRule(String name, Map<String, Object> conditions) {
+        return FraudRule.builder()
+            .id(UUID.randomUUID())
+            .ruleName(name)
+            .ruleType("PATTERN")
+            .conditions(conditions)
+            .action("SCORE")
+            .scoreImpact(20)
+            .build();
+    }
+
+    private static FraudAssessmentRequest request(String userAgent, String email) {
+        return FraudAssessmentRequest.builder()
+            .paymentId(UUID.randomUUID())
+            .amount(1_234L)
+            .userAgent(userAgent)
+            .metadata(Map.of("email", email))
+            .build();
+    }
+}
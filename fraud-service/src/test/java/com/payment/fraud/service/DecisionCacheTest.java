@@ -0,0 +1,235 @@
+package com.payment.fraud.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Decision caching and assessment claims against a real Redis, one key prefix per test.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DecisionCacheTest {
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+        .withExposedPorts(6379);
+
+    private static RedissonClient redissonClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final String keyPrefix = "test:decision:" + UUID.randomUUID() + ":";
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeAll
+    static void connect() {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + redis.getHost() + ":" + redis.getMappedPort(6379));
+        redissonClient = Redisson.create(config);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        redissonClient.shutdown();
+    }
+
+    @Test
+    void answersRepeatAssessmentsFromAnotherInstance() {
+        FraudAssessmentRequest request = request(10_000L);
+        cache(Duration.ofMinutes(10), Duration.ofSeconds(1)).put(request, response("REVIEW"))
+            .toCompletableFuture().join();
+
+        DecisionCache other = cache(Duration.ofMinutes(10), Duration.ofSeconds(1));
+
+        assertThat(other.get(request).getDecision()).isEqualTo("REVIEW");
+        assertThat(count("fraud.decision.cache.gets", "hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    void reassessesWhenRequestDetailsDiffer() {
+        FraudAssessmentRequest request = request(10_000L);
+        DecisionCache cache = cache(Duration.ofMinutes(10), Duration.ofSeconds(1));
+        cache.put(request, response("ALLOW"));
+
+        FraudAssessmentRequest changed = copy(request);
+        changed.setAmount(10_001L);
+
+        assertThat(cache.get(changed)).isNull();
+        assertThat(count("fraud.decision.cache.gets", "mismatch")).isEqualTo(1.0);
+    }
+
+    @Test
+    void forgetsDecisionsAfterTheTtl() throws InterruptedException {
+        FraudAssessmentRequest request = request(10_000L);
+        DecisionCache cache = cache(Duration.ofMillis(200), Duration.ofSeconds(1));
+        cache.put(request, response("ALLOW")).toCompletableFuture().join();
+
+        Thread.sleep(400);
+
+        assertThat(cache.get(request)).isNull();
+        assertThat(count("fraud.decision.cache.gets", "miss")).isEqualTo(1.0);
+    }
+
+    @Test
+    void treatsAnUnresponsiveRedisAsAMissAndAnOwnedClaim() {
+        DecisionCache cache = cache(Duration.ofMinutes(10), Duration.ofSeconds(1));
+        FraudAssessmentRequest request = request(10_000L);
+
+        redis.getDockerClient().pauseContainerCmd(redis.getContainerId()).exec();
+        long started = System.nanoTime();
+        FraudAssessmentResponse cached;
+        DecisionCache.Claim claim;
+        try {
+            cached = cache.get(request);
+            claim = cache.claim(request);
+        } finally {
+            redis.getDockerClient().unpauseContainerCmd(redis.getContainerId()).exec();
+        }
+
+        assertThat(cached).isNull();
+        assertThat(claim.owner()).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(500);
+    }
+
+    @Test
+    void concurrentRetryOnTheSameInstanceWaitsForTheFirstDecision() {
+        DecisionCache cache = cache(Duration.ofMinutes(10), Duration.ofSeconds(5));
+        FraudAssessmentRequest request = request(10_000L);
+
+        DecisionCache.Claim first = cache.claim(request);
+        DecisionCache.Claim retry = cache.claim(request);
+        assertThat(first.owner()).isTrue();
+        assertThat(retry.owner()).isFalse();
+
+        CompletableFuture<FraudAssessmentResponse> waiting = CompletableFuture.supplyAsync(
+            () -> cache.awaitAll(List.of(request), List.of(retry)).get(0));
+        cache.complete(first, request, response("BLOCK"));
+
+        assertThat(waiting.join().getDecision()).isEqualTo("BLOCK");
+        assertThat(count("fraud.decision.cache.claims", "waited")).isEqualTo(1.0);
+    }
+
+    @Test
+    void concurrentRetryOnAnotherInstanceWaitsForTheFirstDecision() {
+        DecisionCache owner = cache(Duration.ofMinutes(10), Duration.ofSeconds(5));
+        DecisionCache other = cache(Duration.ofMinutes(10), Duration.ofSeconds(5));
+        FraudAssessmentRequest request = request(10_000L);
+
+        DecisionCache.Claim first = owner.claim(request);
+        DecisionCache.Claim retry = other.claim(request);
+        assertThat(first.owner()).isTrue();
+        assertThat(retry.owner()).isFalse();
+
+        CompletableFuture<FraudAssessmentResponse> waiting = CompletableFuture.supplyAsync(
+            () -> other.awaitAll(List.of(request), List.of(retry)).get(0));
+        owner.complete(first, request, response("REVIEW"));
+
+        assertThat(waiting.join().getDecision()).isEqualTo("REVIEW");
+    }
+
+    @Test
+    void waiterAssessesItselfWhenTheOwnerFails() {
+        DecisionCache cache = cache(Duration.ofMinutes(10), Duration.ofSeconds(5));
+        FraudAssessmentRequest request = request(10_000L);
+
+        DecisionCache.Claim first = cache.claim(request);
+        DecisionCache.Claim retry = cache.claim(request);
+        cache.release(first);
+
+        assertThat(cache.awaitAll(List.of(request), List.of(retry)).get(0)).isNull();
+        assertThat(count("fraud.decision.cache.claims", "expired")).isEqualTo(1.0);
+    }
+
+    @Test
+    void waiterGivesUpAfterTheClaimWait() {
+        DecisionCache owner = cache(Duration.ofMinutes(10), Duration.ofMillis(200));
+        DecisionCache other = cache(Duration.ofMinutes(10), Duration.ofMillis(200));
+        FraudAssessmentRequest request = request(10_000L);
+
+        assertThat(owner.claim(request).owner()).isTrue();
+        DecisionCache.Claim retry = other.claim(request);
+
+        long started = System.nanoTime();
+        assertThat(other.awaitAll(List.of(request), List.of(retry)).get(0)).isNull();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(200);
+        assertThat(count("fraud.decision.cache.claims", "expired")).isEqualTo(1.0);
+    }
+
+    @Test
+    void fingerprintCoversEveryDecidingField() {
+        FraudAssessmentRequest request = request(10_000L);
+        request.setIpAddress("10.0.0.1");
+        request.setDeviceId("device-1");
+        String fingerprint = DecisionCache.fingerprintOf(request);
+
+        assertThat(DecisionCache.fingerprintOf(copy(request))).isEqualTo(fingerprint).hasSize(64);
+
+        FraudAssessmentRequest changed = copy(request);
+        changed.setCurrency("EUR");
+        assertThat(DecisionCache.fingerprintOf(changed)).isNotEqualTo(fingerprint);
+
+        changed = copy(request);
+        changed.setCustomerId(null);
+        assertThat(DecisionCache.fingerprintOf(changed)).isNotEqualTo(fingerprint);
+
+        // Moving characters between adjacent fields changes the fingerprint
+        changed = copy(request);
+        changed.setIpAddress("10.0.0.1d");
+        changed.setDeviceId("evice-1");
+        assertThat(DecisionCache.fingerprintOf(changed)).isNotEqualTo(fingerprint);
+    }
+
+    private DecisionCache cache(Duration ttl, Duration claimWait) {
+        return new DecisionCache(redissonClient, objectMapper, true, ttl, true, keyPrefix,
+            Duration.ofMillis(100), Duration.ofSeconds(60), 1_000, Duration.ofSeconds(5), claimWait, meterRegistry);
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.get(name).tag("result", result).counter().count();
+    }
+
+    private static FraudAssessmentRequest request(long amount) {
+        return FraudAssessmentRequest.builder()
+            .paymentId(UUID.randomUUID())
+            .merchantId(UUID.randomUUID())
+            .customerId(UUID.randomUUID())
+            .paymentMethodId(UUID.randomUUID())
+            .amount(amount)
+            .currency("USD")
+            .build();
+    }
+
+    private static FraudAssessmentRequest copy(FraudAssessmentRequest request) {
+        return new FraudAssessmentRequest(request.getPaymentId(), request.getMerchantId(), request.getCustomerId(),
+            request.getAmount(), request.getCurrency(), request.getPaymentMethodId(), request.getIpAddress(),
+            request.getDeviceId(), request.getUserAgent(), request.getMetadata());
+    }
+
+    private static FraudAssessmentResponse response(String decision) {
+        return FraudAssessmentResponse.builder()
+            .score(new BigDecimal("42.500"))
+            .riskLevel("MEDIUM")
+            .decision(decision)
+            .modelVersion("test")
+            .build();
+    }
+}
@@ -0,0 +1,200 @@
+package com.payment.fraud.service;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.dto.FraudAssessmentResponse;
+import com.payment.fraud.features.EntityFeatures;
+import com.payment.fraud.features.FeatureStore;
+import com.payment.fraud.ml.ChampionChallengerScorer;
+import com.payment.fraud.ml.ChampionChallengerScorer.ModelScore;
+import com.payment.fraud.ml.FeatureExtractor;
+import com.payment.fraud.velocity.DistinctCounts;
+import com.payment.fraud.velocity.DistinctVelocityStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Scores each payment from its amount through mocked checks, so the batch path can be
+ * compared item by item with single assessments of the same requests.
+ */
+class FraudAssessmentServiceTest {
+
+    private final FraudScoreWriter fraudScoreWriter = mock(FraudScoreWriter.class);
+    private final VelocityCheckService velocityCheckService = mock(VelocityCheckService.class);
+    private final RuleEngineService ruleEngineService = mock(RuleEngineService.class);
+    private final BlocklistService blocklistService = mock(BlocklistService.class);
+    private final FeatureExtractor featureExtractor = mock(FeatureExtractor.class);
+    private final ChampionChallengerScorer championChallengerScorer = mock(ChampionChallengerScorer.class);
+    private final FeatureStore featureStore = mock(FeatureStore.class);
+    private final DistinctVelocityStore distinctVelocityStore = mock(DistinctVelocityStore.class);
+    private final DecisionCache decisionCache = mock(DecisionCache.class);
+
+    private final Map<UUID, FraudAssessmentRequest> requests = new HashMap<>();
+    private final Map<UUID, FraudAssessmentResponse> cached = new HashMap<>();
+    private final Set<UUID> blocked = new HashSet<>();
+
+    private FraudAssessmentService service;
+
+    @BeforeEach
+    void setUp() {
+        FraudCheckExecutor fraudCheckExecutor = new FraudCheckExecutor(Runnable::run, new SimpleMeterRegistry());
+        service = new FraudAssessmentService(fraudScoreWriter, velocityCheckService, ruleEngineService,
+            blocklistService, fraudCheckExecutor, featureExtractor, championChallengerScorer, featureStore,
+            distinctVelocityStore, decisionCache);
+        ReflectionTestUtils.setField(service, "velocityTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(service, "rulesTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(service, "mlTimeout", Duration.ofSeconds(5));
+
+        when(blocklistService.isBlocked(any())).thenAnswer(invocation ->
+            blocked.contains(invocation.<FraudAssessmentRequest>getArgument(0).getPaymentId()));
+
+        when(featureStore.lookupAsync(any())).thenReturn(CompletableFuture.completedFuture(EntityFeatures.EMPTY));
+        when(featureStore.lookupAllAsync(anyList())).thenAnswer(invocation -> CompletableFuture.completedFuture(
+            Collections.nCopies(invocation.<List<?>>getArgument(0).size(), EntityFeatures.EMPTY)));
+        when(distinctVelocityStore.recordAsync(any())).thenReturn(CompletableFuture.completedFuture(DistinctCounts.EMPTY));
+        when(distinctVelocityStore.recordAllAsync(anyList())).thenAnswer(invocation -> CompletableFuture.completedFuture(
+            Collections.nCopies(invocation.<List<?>>getArgument(0).size(), DistinctCounts.EMPTY)));
+
+        when(velocityCheckService.checkVelocity(any(FraudAssessmentRequest.class))).thenAnswer(invocation ->
+            points(invocation.getArgument(0)));
+        when(velocityCheckService.checkVelocity(anyList())).thenAnswer(invocation ->
+            invocation.<List<FraudAssessmentRequest>>getArgument(0).stream()
+                .mapToInt(FraudAssessmentServiceTest::points).toArray());
+        when(ruleEngineService.evaluateRules(any(FraudAssessmentRequest.class), any(EntityFeatures.class)))
+            .thenAnswer(invocation -> points(invocation.getArgument(0)));
+        when(ruleEngineService.evaluateRules(any(), any(FraudAssessmentRequest.class), any(EntityFeatures.class)))
+            .thenAnswer(invocation -> points(invocation.getArgument(1)));
+
+        when(championChallengerScorer.score(any(), any())).thenAnswer(invocation ->
+            mlResult(invocation.getArgument(0)));
+        when(championChallengerScorer.scoreBatch(anyList(), any())).thenAnswer(invocation -> {
+            List<ChampionChallengerScorer.Result> results = new ArrayList<>();
+            for (UUID paymentId : invocation.<List<UUID>>getArgument(0)) {
+                results.add(mlResult(paymentId));
+            }
+            return results;
+        });
+
+        when(decisionCache.get(any())).thenAnswer(invocation ->
+            cached.get(invocation.<FraudAssessmentRequest>getArgument(0).getPaymentId()));
+        when(decisionCache.getAll(anyList())).thenAnswer(invocation -> {
+            List<FraudAssessmentResponse> responses = new ArrayList<>();
+            for (FraudAssessmentRequest request : invocation.<List<FraudAssessmentRequest>>getArgument(0)) {
+                responses.add(cached.get(request.getPaymentId()));
+            }
+            return responses;
+        });
+        when(decisionCache.claim(any())).thenReturn(DecisionCache.Claim.UNTRACKED);
+        when(decisionCache.claimAll(anyList(), anyList())).thenAnswer(invocation -> {
+            List<DecisionCache.Claim> claims = new ArrayList<>();
+            for (FraudAssessmentResponse response : invocation.<List<FraudAssessmentResponse>>getArgument(1)) {
+                claims.add(response == null ? DecisionCache.Claim.UNTRACKED : null);
+            }
+            return claims;
+        });
+        when(decisionCache.awaitAll(anyList(), anyList())).thenAnswer(invocation ->
+            new ArrayList<>(Collections.nCopies(invocation.<List<?>>getArgument(0).size(), null)));
+    }
+
+    @Test
+    void batchAnswersEveryItemAsSingleAssessmentsWould() {
+        List<FraudAssessmentRequest> batch = List.of(
+            request(1_000L), request(60_500L), request(99_990L), request(120_000L), request(7_777L));
+
+        List<FraudAssessmentResponse> batched = service.assessBatch(batch);
+
+        List<FraudAssessmentResponse> singles = new ArrayList<>();
+        for (FraudAssessmentRequest request : batch) {
+            singles.add(service.assess(request));
+        }
+        assertThat(batched).isEqualTo(singles);
+        assertThat(batched).extracting(FraudAssessmentResponse::getDecision).contains("ALLOW", "REVIEW", "BLOCK");
+    }
+
+    @Test
+    void batchKeepsRequestOrderAcrossCachedBlocklistedAndScoredItems() {
+        FraudAssessmentRequest scoredFirst = request(45_250L);
+        FraudAssessmentRequest cachedItem = request(1_000L);
+        FraudAssessmentRequest blockedItem = request(2_000L);
+        FraudAssessmentRequest scoredLast = request(99_990L);
+        FraudAssessmentRequest cachedLast = request(3_000L);
+        FraudAssessmentResponse earlier = FraudAssessmentResponse.builder()
+            .score(new BigDecimal("12.000")).riskLevel("very_low").decision("ALLOW").modelVersion("cached").build();
+        FraudAssessmentResponse earlierLast = FraudAssessmentResponse.builder()
+            .score(new BigDecimal("55.000")).riskLevel("medium").decision("REVIEW").modelVersion("cached").build();
+        cached.put(cachedItem.getPaymentId(), earlier);
+        cached.put(cachedLast.getPaymentId(), earlierLast);
+        blocked.add(blockedItem.getPaymentId());
+        List<FraudAssessmentRequest> batch = List.of(scoredFirst, cachedItem, blockedItem, scoredLast, cachedLast);
+
+        List<FraudAssessmentResponse> batched = service.assessBatch(batch);
+
+        List<FraudAssessmentResponse> singles = new ArrayList<>();
+        for (FraudAssessmentRequest request : batch) {
+            singles.add(service.assess(request));
+        }
+        assertThat(batched).isEqualTo(singles);
+        assertThat(batched.get(1)).isSameAs(earlier);
+        assertThat(batched.get(2).getDecision()).isEqualTo("BLOCK");
+        assertThat(batched.get(2).getFactors()).containsEntry("reason", "Entity is blocklisted");
+        assertThat(batched.get(4)).isSameAs(earlierLast);
+        // Only the uncached, unblocked items reach the model, in request order
+        verify(championChallengerScorer).scoreBatch(eq(List.of(scoredFirst.getPaymentId(), scoredLast.getPaymentId())), any());
+    }
+
+    @Test
+    void batchOfCachedItemsRunsNoChecks() {
+        FraudAssessmentRequest request = request(1_000L);
+        FraudAssessmentResponse earlier = FraudAssessmentResponse.builder()
+            .score(new BigDecimal("12.000")).riskLevel("very_low").decision("ALLOW").modelVersion("cached").build();
+        cached.put(request.getPaymentId(), earlier);
+
+        assertThat(service.assessBatch(List.of(request))).containsExactly(earlier);
+        verify(decisionCache, never()).claimAll(anyList(), anyList());
+    }
+
+    private FraudAssessmentRequest request(long amount) {
+        FraudAssessmentRequest request = FraudAssessmentRequest.builder()
+            .paymentId(UUID.randomUUID())
+            .merchantId(UUID.randomUUID())
+            .customerId(UUID.randomUUID())
+            .amount(amount)
+            .currency("USD")
+            .build();
+        requests.put(request.getPaymentId(), request);
+        return request;
+    }
+
+    /** Velocity and rule points: the amount's thousands, mod 100 */
+    private static int points(FraudAssessmentRequest request) {
+        return (int) (request.getAmount() / 1_000 % 100);
+    }
+
+    private ChampionChallengerScorer.Result mlResult(UUID paymentId) {
+        double score = requests.get(paymentId).getAmount() % 1_000 / 10.0;
+        return new ChampionChallengerScorer.Result(
+            new ModelScore(ChampionChallengerScorer.ROLE_CHAMPION, "v1", score), null);
+    }
+}
@@ -0,0 +1,155 @@
+package com.payment.fraud.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.Scope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FraudCheckExecutorTest {
+
+    private static final BigDecimal NEUTRAL = new BigDecimal("50");
+    private static final Duration LONG_TIMEOUT = Duration.ofSeconds(5);
+    private static final ContextKey<String> TENANT = ContextKey.named("tenant");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void shutdown() {
+        MDC.clear();
+        pool.shutdownNow();
+    }
+
+    @Test
+    void returnsTheCheckValue() {
+        FraudCheckExecutor executor = new FraudCheckExecutor(pool, meterRegistry);
+
+        FraudCheckExecutor.CheckResult<BigDecimal> result =
+            executor.submit("velocity", LONG_TIMEOUT, NEUTRAL, () -> BigDecimal.TEN).join();
+
+        assertThat(result.value()).isEqualTo(BigDecimal.TEN);
+        assertThat(result.degraded()).isFalse();
+        assertThat(durationCount("velocity", FraudCheckExecutor.OUTCOME_SUCCESS)).isEqualTo(1);
+        assertThat(meterRegistry.get("fraud.check.queue.wait").tag("check", "velocity").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void timedOutCheckGetsTheNeutralScoreAndIsInterrupted() throws InterruptedException {
+        FraudCheckExecutor executor = new FraudCheckExecutor(pool, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        CompletableFuture<FraudCheckExecutor.CheckResult<BigDecimal>> check =
+            executor.submit("ml", Duration.ofMillis(200), NEUTRAL, () -> {
+                started.countDown();
+                try {
+                    Thread.sleep(LONG_TIMEOUT.toMillis());
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return BigDecimal.TEN;
+            });
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+
+        FraudCheckExecutor.CheckResult<BigDecimal> result = check.join();
+        assertThat(result.value()).isEqualTo(NEUTRAL);
+        assertThat(result.outcome()).isEqualTo(FraudCheckExecutor.OUTCOME_TIMEOUT);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(durationCount("ml", FraudCheckExecutor.OUTCOME_TIMEOUT)).isEqualTo(1);
+    }
+
+    @Test
+    void timedOutCheckStillQueuedNeverRuns() throws InterruptedException {
+        FraudCheckExecutor executor = new FraudCheckExecutor(pool, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        executor.submit("blocker", LONG_TIMEOUT, NEUTRAL, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return NEUTRAL;
+        });
+
+        FraudCheckExecutor.CheckResult<BigDecimal> result =
+            executor.submit("rules", Duration.ofMillis(50), NEUTRAL, () -> {
+                ran.set(true);
+                return BigDecimal.TEN;
+            }).join();
+        release.countDown();
+        pool.shutdown();
+
+        assertThat(pool.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(result.outcome()).isEqualTo(FraudCheckExecutor.OUTCOME_TIMEOUT);
+        assertThat(ran).isFalse();
+        assertThat(meterRegistry.get("fraud.check.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void rejectedCheckIsDegraded() {
+        FraudCheckExecutor executor = new FraudCheckExecutor(command -> {
+            throw new RejectedExecutionException("saturated");
+        }, meterRegistry);
+
+        FraudCheckExecutor.CheckResult<BigDecimal> result =
+            executor.submit("blocklist", LONG_TIMEOUT, NEUTRAL, () -> BigDecimal.TEN).join();
+
+        assertThat(result.value()).isEqualTo(NEUTRAL);
+        assertThat(result.outcome()).isEqualTo(FraudCheckExecutor.OUTCOME_REJECTED);
+        assertThat(result.degraded()).isTrue();
+        assertThat(durationCount("blocklist", FraudCheckExecutor.OUTCOME_REJECTED)).isEqualTo(1);
+        assertThat(meterRegistry.get("fraud.check.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void failedCheckGetsTheNeutralScore() {
+        FraudCheckExecutor executor = new FraudCheckExecutor(pool, meterRegistry);
+
+        FraudCheckExecutor.CheckResult<BigDecimal> result =
+            executor.submit("rules", LONG_TIMEOUT, NEUTRAL, () -> {
+                throw new IllegalStateException("rule store down");
+            }).join();
+
+        assertThat(result.value()).isEqualTo(NEUTRAL);
+        assertThat(result.outcome()).isEqualTo(FraudCheckExecutor.OUTCOME_ERROR);
+    }
+
+    @Test
+    void carriesMdcAndTraceContextToTheWorker() {
+        FraudCheckExecutor executor = new FraudCheckExecutor(pool, meterRegistry);
+        MDC.put("paymentId", "pay_123");
+
+        String seen;
+        try (Scope ignored = Context.current().with(TENANT, "acme").makeCurrent()) {
+            seen = executor.submit("velocity", LONG_TIMEOUT, "", () ->
+                MDC.get("paymentId") + "/" + Context.current().get(TENANT)).join().value();
+        }
+        MDC.clear();
+        String leftover = executor.submit("velocity", LONG_TIMEOUT, "", () ->
+            MDC.get("paymentId") + "/" + Context.current().get(TENANT)).join().value();
+
+        assertThat(seen).isEqualTo("pay_123/acme");
+        // The worker thread does not keep the previous caller's context
+        assertThat(leftover).isEqualTo("null/null");
+    }
+
+    private long durationCount(String check, String outcome) {
+        return meterRegistry.get("fraud.check.duration").tags("check", check, "outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,267 @@
+package com.payment.fraud.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.fraud.entity.FraudScore;
+import com.payment.fraud.entity.RiskLevel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the writer against a mocked JdbcTemplate that records each committed batch. The next
+ * insert can be held until release, so tests can keep a batch in flight.
+ */
+class FraudScoreWriterTest {
+
+    private static final String PATCH_JSON = "{\"challenger_score\":12}";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<List<Row>> committed = new CopyOnWriteArrayList<>();
+    private final Set<UUID> failing = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean holdNextInsert = new AtomicBoolean();
+    private final CountDownLatch insertHeld = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private FraudScoreWriter writer;
+
+    @BeforeEach
+    void mockJdbc() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            BatchPreparedStatementSetter setter = invocation.getArgument(1);
+            List<Row> rows = new ArrayList<>();
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                rows.add(row(setter, i));
+            }
+            if (holdNextInsert.compareAndSet(true, false)) {
+                insertHeld.countDown();
+                release.await();
+            }
+            if (rows.stream().anyMatch(row -> failing.contains(row.paymentId()))) {
+                throw new DataIntegrityViolationException("rejected row");
+            }
+            committed.add(rows);
+            return new int[rows.size()];
+        });
+    }
+
+    @AfterEach
+    void stopWriter() {
+        release.countDown();
+        writer.stop();
+    }
+
+    @Test
+    void insertsAFullBatchBeforeTheInterval() {
+        writer = start(true, 3, Duration.ofSeconds(2), 100);
+
+        List<UUID> paymentIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        paymentIds.forEach(paymentId -> writer.write(score(paymentId)));
+
+        awaitCommitted(1, 1_000);
+        assertThat(committed.get(0)).extracting(Row::paymentId).containsExactlyElementsOf(paymentIds);
+    }
+
+    @Test
+    void insertsAPartialBatchAfterTheInterval() {
+        writer = start(true, 100, Duration.ofMillis(100), 100);
+
+        writer.write(score(UUID.randomUUID()));
+        writer.write(score(UUID.randomUUID()));
+
+        awaitCommitted(1, 2_000);
+        assertThat(committed.get(0)).hasSize(2);
+        assertThat(meterRegistry.get("fraud.scores.flush.size").summary().totalAmount()).isEqualTo(2.0);
+    }
+
+    @Test
+    void insertsOnTheCallerWhenTheQueueIsFull() throws InterruptedException {
+        writer = start(true, 1, Duration.ofMillis(50), 1);
+        holdNextInsert.set(true);
+        UUID overflow = UUID.randomUUID();
+
+        writer.write(score(UUID.randomUUID()));
+        assertThat(insertHeld.await(2, TimeUnit.SECONDS)).isTrue();
+        writer.write(score(UUID.randomUUID()));
+        writer.write(score(overflow));
+
+        assertThat(committed).hasSize(1);
+        assertThat(committed.get(0).get(0).paymentId()).isEqualTo(overflow);
+        assertThat(committed.get(0).get(0).thread()).isEqualTo(Thread.currentThread().getName());
+        assertThat(meterRegistry.get("fraud.scores.sync_writes").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+        awaitCommitted(3, 2_000);
+    }
+
+    @Test
+    void drainsTheQueueOnShutdown() throws InterruptedException {
+        writer = start(true, 2, Duration.ofMillis(50), 100);
+        holdNextInsert.set(true);
+
+        writer.write(score(UUID.randomUUID()));
+        assertThat(insertHeld.await(2, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 4; i++) {
+            writer.write(score(UUID.randomUUID()));
+        }
+        CompletableFuture<Void> stopping = CompletableFuture.runAsync(writer::stop);
+        release.countDown();
+        stopping.join();
+
+        assertThat(committed.stream().mapToInt(List::size).sum()).isEqualTo(5);
+
+        // A stopped writer inserts on the caller
+        writer.write(score(UUID.randomUUID()));
+        assertThat(committed.stream().mapToInt(List::size).sum()).isEqualTo(6);
+        assertThat(meterRegistry.get("fraud.scores.sync_writes").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void retriesRowByRowAfterTheBatchFails() {
+        writer = start(true, 3, Duration.ofMillis(200), 100);
+        UUID first = UUID.randomUUID();
+        UUID rejected = UUID.randomUUID();
+        UUID last = UUID.randomUUID();
+        failing.add(rejected);
+
+        writer.write(score(first));
+        writer.write(score(rejected));
+        writer.write(score(last));
+
+        // Two attempts at the batch, then one insert per row
+        awaitCommitted(2, 5_000);
+        verify(jdbcTemplate, times(5)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        assertThat(committed).extracting(rows -> rows.get(0).paymentId()).containsExactly(first, last);
+        assertThat(meterRegistry.get("fraud.scores.dropped").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("fraud.scores.flush").tag("outcome", "failure").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void mergesPatchesIntoAQueuedScore() throws InterruptedException {
+        writer = start(true, 1, Duration.ofMillis(50), 100);
+        holdNextInsert.set(true);
+        UUID queued = UUID.randomUUID();
+
+        writer.write(score(UUID.randomUUID()));
+        assertThat(insertHeld.await(2, TimeUnit.SECONDS)).isTrue();
+        writer.write(score(queued));
+        writer.mergeFactors(queued, Map.of("challenger_score", 12));
+        release.countDown();
+
+        awaitCommitted(2, 2_000);
+        assertThat(committed.get(1).get(0).paymentId()).isEqualTo(queued);
+        assertThat(committed.get(1).get(0).factors()).contains("\"challenger_score\":12");
+        verify(jdbcTemplate, never()).update(anyString(), anyString(), any(UUID.class));
+    }
+
+    @Test
+    void patchesACommittedScoreInPlace() {
+        writer = start(true, 1, Duration.ofMillis(50), 100);
+        UUID paymentId = UUID.randomUUID();
+
+        writer.write(score(paymentId));
+        awaitCommitted(1, 2_000);
+        writer.mergeFactors(paymentId, Map.of("challenger_score", 12));
+
+        verify(jdbcTemplate, timeout(2_000)).update(anyString(), eq(PATCH_JSON), eq(paymentId));
+    }
+
+    @Test
+    void holdsPatchesUntilASyncInsertCommits() throws InterruptedException {
+        writer = start(false, 1, Duration.ofMillis(50), 100);
+        holdNextInsert.set(true);
+        UUID paymentId = UUID.randomUUID();
+
+        CompletableFuture<Void> writing = CompletableFuture.runAsync(() -> writer.write(score(paymentId)));
+        assertThat(insertHeld.await(2, TimeUnit.SECONDS)).isTrue();
+        writer.mergeFactors(paymentId, Map.of("challenger_score", 12));
+        verify(jdbcTemplate, never()).update(anyString(), anyString(), any(UUID.class));
+
+        release.countDown();
+        writing.join();
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        order.verify(jdbcTemplate).update(anyString(), eq(PATCH_JSON), eq(paymentId));
+    }
+
+    private FraudScoreWriter start(boolean enabled, int batchSize, Duration flushInterval, int queueCapacity) {
+        FraudScoreWriter started = new FraudScoreWriter(jdbcTemplate, transactionManager, new ObjectMapper(),
+            enabled, batchSize, flushInterval, queueCapacity, 2, Duration.ofSeconds(5), meterRegistry);
+        started.start();
+        return started;
+    }
+
+    private void awaitCommitted(int batches, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (committed.size() < batches && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        assertThat(committed).hasSizeGreaterThanOrEqualTo(batches);
+    }
+
+    private static FraudScore score(UUID paymentId) {
+        Map<String, Object> factors = new HashMap<>();
+        factors.put("velocity", 10);
+        return FraudScore.builder()
+            .paymentId(paymentId)
+            .score(new BigDecimal("25.00"))
+            .riskLevel(RiskLevel.LOW)
+            .factors(factors)
+            .modelVersion("test")
+            .decision("ALLOW")
+            .build();
+    }
+
+    private static Row row(BatchPreparedStatementSetter setter, int i) throws SQLException {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.setValues(ps, i);
+        ArgumentCaptor<Object> paymentId = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<String> factors = ArgumentCaptor.forClass(String.class);
+        verify(ps).setObject(eq(2), paymentId.capture());
+        verify(ps).setString(eq(8), factors.capture());
+        return new Row((UUID) paymentId.getValue(), factors.getValue(), Thread.currentThread().getName());
+    }
+
+    private record Row(UUID paymentId, String factors, String thread) {
+    }
+}
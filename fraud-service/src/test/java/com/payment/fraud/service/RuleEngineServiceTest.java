@@ -0,0 +1,107 @@
+package com.payment.fraud.service;
+
+import com.payment.fraud.dto.FraudAssessmentRequest;
+import com.payment.fraud.entity.FraudRule;
+import com.payment.fraud.features.EntityFeatures;
+import com.payment.fraud.repository.FraudRuleRepository;
+import com.payment.fraud.rules.RulePlanner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RuleEngineServiceTest {
+
+    private final FraudRuleRepository fraudRuleRepository = mock(FraudRuleRepository.class);
+    private final RuleEngineService ruleEngineService =
+        new RuleEngineService(fraudRuleRepository, new RulePlanner(new SimpleMeterRegistry(), 1, 0));
+
+    @Test
+    void negativeRulesAfterTheCapStillLowerTheScore() {
+        List<FraudRule> rules = List.of(
+            amountRule("high-1", 0, "SCORE", 100, 300),
+            amountRule("high-2", 0, "SCORE", 100, 300),
+            amountRule("high-3", 0, "SCORE", 50, 300),
+            amountRule("trusted", 0, "SCORE", -180, 100));
+        when(fraudRuleRepository.findActiveRulesByPriority()).thenReturn(rules);
+        ruleEngineService.reload();
+
+        assertThat(ruleEngineService.evaluateRules(request(1_000))).isEqualTo(70);
+    }
+
+    @Test
+    void plannedEvaluationMatchesFullEvaluationOnMixedSignRules() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            List<FraudRule> rules = new ArrayList<>();
+            int ruleCount = 1 + random.nextInt(12);
+            for (int i = 0; i < ruleCount; i++) {
+                String action = random.nextInt(10) == 0 ? "BLOCK" : "SCORE";
+                int impact = random.nextInt(301) - 150;
+                rules.add(amountRule("rule-" + i, random.nextInt(1_000), action, impact, random.nextInt(3) * 100));
+            }
+            when(fraudRuleRepository.findActiveRulesByPriority()).thenReturn(rules);
+            ruleEngineService.reload();
+
+            for (int i = 0; i < 20; i++) {
+                long amount = random.nextInt(1_100);
+                assertThat(ruleEngineService.evaluateRules(request(amount)))
+                    .as("round %d, amount %d, rules %s", round, amount, rules)
+                    .isEqualTo(fullEvaluation(rules, amount));
+            }
+            // Reordered by the statistics collected above
+            ruleEngineService.replan();
+            for (int i = 0; i < 20; i++) {
+                long amount = random.nextInt(1_100);
+                assertThat(ruleEngineService.evaluateRules(request(amount), EntityFeatures.EMPTY))
+                    .as("replanned round %d, amount %d, rules %s", round, amount, rules)
+                    .isEqualTo(fullEvaluation(rules, amount));
+            }
+        }
+    }
+
+    /** Every rule evaluated, no short-circuit */
+    private static int fullEvaluation(List<FraudRule> rules, long amount) {
+        int total = 0;
+        for (FraudRule rule : rules) {
+            long threshold = ((Number) rule.getConditions().get("threshold")).longValue();
+            if (amount > threshold) {
+                if ("BLOCK".equals(rule.getAction())) {
+                    return 100;
+                }
+                total += rule.getScoreImpact();
+            }
+        }
+        return Math.min(total, 100);
+    }
+
+    private static FraudRule amountRule(String name, long threshold, String action, int scoreImpact, int priority) {
+        return FraudRule.builder()
+            .id(UUID.randomUUID())
+            .ruleName(name)
+            .ruleType("AMOUNT")
+            .conditions(Map.of("threshold", threshold))
+            .action(action)
+            .scoreImpact(scoreImpact)
+            .priority(priority)
+            .build();
+    }
+
+    private static FraudAssessmentRequest request(long amount) {
+        return FraudAssessmentRequest.builder()
+            .paymentId(UUID.randomUUID())
+            .merchantId(UUID.randomUUID())
+            .customerId(UUID.randomUUID())
+            .amount(amount)
+            .currency("USD")
+            .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.payment.fraud.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalVelocityCounterTest {
+
+    private static final long WINDOW = 60_000;
+
+    private final LocalVelocityCounter counter = new LocalVelocityCounter(2);
+
+    @Test
+    void countsEachAttemptIdOnce() {
+        assertThat(counter.record("card:1", "a", WINDOW, 10, 0)).isEqualTo(1);
+        assertThat(counter.record("card:1", "a", WINDOW, 10, 1)).isEqualTo(1);
+        assertThat(counter.record("card:1", "b", WINDOW, 10, 2)).isEqualTo(2);
+        assertThat(counter.record("card:1", "a", WINDOW, 10, 3)).isEqualTo(2);
+    }
+
+    @Test
+    void stopsTrackingIdsAtMaxAttempts() {
+        for (int i = 0; i < 5; i++) {
+            counter.record("ip:1", "attempt-" + i, WINDOW, 3, i);
+        }
+        assertThat(counter.record("ip:1", "attempt-0", WINDOW, 3, 5)).isEqualTo(3);
+        assertThat(counter.record("ip:1", "attempt-9", WINDOW, 3, 6)).isEqualTo(3);
+    }
+
+    @Test
+    void startsANewWindowAfterExpiry() {
+        counter.record("card:1", "a", WINDOW, 10, 0);
+        counter.record("card:1", "b", WINDOW, 10, 1);
+
+        assertThat(counter.record("card:1", "a", WINDOW, 10, WINDOW)).isEqualTo(1);
+    }
+
+    @Test
+    void returnsUntrackedWhenKeyTableIsFull() {
+        counter.record("card:1", "a", WINDOW, 10, 0);
+        counter.record("card:2", "a", WINDOW, 10, 0);
+
+        assertThat(counter.record("card:3", "a", WINDOW, 10, 0)).isEqualTo(LocalVelocityCounter.UNTRACKED);
+        assertThat(counter.evictExpired(WINDOW)).isEqualTo(2);
+        assertThat(counter.record("card:3", "a", WINDOW, 10, WINDOW)).isEqualTo(1);
+    }
+}
@@ -1,26 +1,72 @@
 package com.payment.service.client;
 
+import com.payment.fraud.grpc.AssessRequest;
+import com.payment.fraud.grpc.AssessResponse;
+import com.payment.fraud.grpc.FraudAssessmentGrpc;
+import com.payment.fraud.grpc.Uuids;
 import com.payment.service.entity.Payment;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class FraudServiceClient {
     
+    private static final BigDecimal FALLBACK_SCORE = BigDecimal.valueOf(25);
+    
     private final RestTemplate restTemplate;
+    private final ObjectProvider<FraudAssessmentGrpc.FraudAssessmentBlockingStub> grpcStubProvider;
+    
+    @Value("${payment.fraud.grpc.deadline:500ms}")
+    private Duration grpcDeadline;
     
     /**
-     * Call Fraud Service to assess risk
+     * Call Fraud Service to assess risk, over gRPC when payment.fraud.transport=grpc
      */
     public BigDecimal assessRisk(Payment payment) {
+        FraudAssessmentGrpc.FraudAssessmentBlockingStub stub = grpcStubProvider.getIfAvailable();
+        return stub != null ? assessRiskGrpc(stub, payment) : assessRiskRest(payment);
+    }
+    
+    /**
+     * Protobuf call on the shared channel, bounded by the deadline
+     */
+    private BigDecimal assessRiskGrpc(FraudAssessmentGrpc.FraudAssessmentBlockingStub stub, Payment payment) {
+        AssessRequest request = AssessRequest.newBuilder()
+            .setPaymentId(Uuids.toBytes(payment.getId()))
+            .setMerchantId(Uuids.toBytes(payment.getMerchantId()))
+            .setCustomerId(Uuids.toBytes(payment.getCustomerId()))
+            .setPaymentMethodId(Uuids.toBytes(payment.getPaymentMethodId()))
+            .setAmount(payment.getAmount().getAmountInCents())
+            .setCurrency(payment.getAmount().getCurrency())
+            .build();
+        
+        try {
+            log.info("Calling fraud service over gRPC: paymentId={}", payment.getId());
+            AssessResponse response = stub
+                .withDeadlineAfter(grpcDeadline.toMillis(), TimeUnit.MILLISECONDS)
+                .assess(request);
+            BigDecimal score = BigDecimal.valueOf(response.getScoreMillis(), 3);
+            log.info("Fraud assessment received: paymentId={}, score={}", payment.getId(), score);
+            return score;
+        } catch (Exception e) {
+            log.error("Fraud service gRPC call failed, using fallback score: paymentId={}", payment.getId(), e);
+            return FALLBACK_SCORE;
+        }
+    }
+    
+    private BigDecimal assessRiskRest(Payment payment) {
         String url = "http://fraud-service/api/v1/fraud/assess";
         
         // Build request
@@ -52,9 +98,9 @@ public class FraudServiceClient {
         } catch (Exception e) {
             log.error("Fraud service call failed, using fallback score", e);
             // Fallback: return conservative default score
-            return BigDecimal.valueOf(25);
+            return FALLBACK_SCORE;
         }
         
         return BigDecimal.ZERO;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package com.payment.service.config;
+
+import com.payment.fraud.grpc.FraudAssessmentGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC channel to fraud-service, used instead of REST when payment.fraud.transport=grpc.
+ *
+ * One channel holds a long-lived HTTP/2 connection per fraud-service address and
+ * multiplexes all concurrent assessments over it, balancing round-robin across the
+ * addresses the target resolves to. Keep-alive pings keep idle connections (and NAT
+ * entries) warm so a checkout after a quiet period does not pay for a new handshake.
+ */
+@Configuration
+@ConditionalOnProperty(name = "payment.fraud.transport", havingValue = "grpc")
+public class FraudGrpcConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ManagedChannel fraudServiceChannel(
+            @Value("${payment.fraud.grpc.target:dns:///localhost:9090}") String target,
+            @Value("${payment.fraud.grpc.keep-alive-time:30s}") Duration keepAliveTime,
+            @Value("${payment.fraud.grpc.keep-alive-timeout:10s}") Duration keepAliveTimeout,
+            @Value("${payment.fraud.grpc.idle-timeout:30m}") Duration idleTimeout) {
+        return NettyChannelBuilder.forTarget(target)
+            .usePlaintext()
+            .defaultLoadBalancingPolicy("round_robin")
+            .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+            .keepAliveTimeout(keepAliveTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .keepAliveWithoutCalls(true)
+            .idleTimeout(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    @Bean
+    public FraudAssessmentGrpc.FraudAssessmentBlockingStub fraudAssessmentStub(ManagedChannel fraudServiceChannel) {
+        return FraudAssessmentGrpc.newBlockingStub(fraudServiceChannel);
+    }
+}
@@ -0,0 +1,44 @@
+package com.payment.service.config;
+
+import io.opentelemetry.api.trace.Span;
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Lets the Prometheus registry attach the current OpenTelemetry trace/span id as an
+     * exemplar on histogram buckets (visible when scraped in OpenMetrics format).
+     * Spans exist when the OpenTelemetry Java agent or SDK is active; otherwise no exemplar is added.
+     */
+    @Bean
+    @ConditionalOnMissingBean(SpanContext.class)
+    public SpanContext openTelemetryExemplarSpanContext() {
+        return new SpanContext() {
+            @Override
+            public String getCurrentTraceId() {
+                io.opentelemetry.api.trace.SpanContext context = Span.current().getSpanContext();
+                return context.isValid() ? context.getTraceId() : null;
+            }
+
+            @Override
+            public String getCurrentSpanId() {
+                io.opentelemetry.api.trace.SpanContext context = Span.current().getSpanContext();
+                return context.isValid() ? context.getSpanId() : null;
+            }
+
+            @Override
+            public boolean isCurrentSpanSampled() {
+                return Span.current().getSpanContext().isSampled();
+            }
+
+            @Override
+            public void markCurrentSpanAsExemplar() {
+                Span.current().setAttribute(EXEMPLAR_ATTRIBUTES_KEY, EXEMPLAR_ATTRIBUTES_VALUE);
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.payment.service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Guards that only apply when spring.threads.virtual.enabled=true.
+ *
+ * Spring Boot itself moves Tomcat request handling, the @Async executor and the @Scheduled
+ * scheduler (outbox dispatcher, partition maintenance) onto virtual threads; the
+ * spring.task.*.simple.concurrency-limit properties bound the latter two.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestConcurrencyLimitFilter> requestConcurrencyLimitFilter(
+            ObjectMapper objectMapper,
+            @Value("${payment.virtual-threads.max-concurrent-requests:200}") int maxConcurrentRequests,
+            @Value("${payment.virtual-threads.acquire-timeout:2s}") Duration acquireTimeout) {
+
+        log.info("Virtual-thread mode enabled: maxConcurrentRequests={}, acquireTimeout={}",
+            maxConcurrentRequests, acquireTimeout);
+
+        FilterRegistrationBean<RequestConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+            new RequestConcurrencyLimitFilter(maxConcurrentRequests, acquireTimeout, objectMapper));
+        registration.addUrlPatterns("/*");
+        // Ahead of Spring Security so rejected requests do no JWT work
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
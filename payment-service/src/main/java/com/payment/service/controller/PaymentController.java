@@ -26,6 +26,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -144,7 +145,9 @@ public class PaymentController {
      */
     @Operation(
         summary = "List all payments",
-        description = "Returns a list of payments. Results can be filtered by status."
+        description = "Returns a list of payments, newest first. Results can be filtered by status. "
+            + "Only payments created in the last 90 days (payment.partitioning.list-lookback-days) are "
+            + "returned unless created_after is given."
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Payments retrieved successfully")
@@ -157,11 +160,15 @@ public class PaymentController {
             @Parameter(description = "Number of results (max 100)")
             @RequestParam(defaultValue = "20")
             @Min(1) @Max(100) int limit,
+
+            @Parameter(description = "Only payments created at or after this ISO-8601 instant; "
+                + "defaults to the list lookback window")
+            @RequestParam(name = "created_after", required = false) Instant createdAfter,
             @RequestAttribute("merchantId") UUID merchantId) {
 
-        log.info("Listing payments: status={}, limit={}", status, limit);
+        log.info("Listing payments: status={}, createdAfter={}, limit={}", status, createdAfter, limit);
         
-        List<Payment> payments = paymentService.listPayments(merchantId, status, limit);
+        List<Payment> payments = paymentService.listPayments(merchantId, status, createdAfter, limit);
         
         List<PaymentResponse> paymentResponses = payments.stream()
             .map(paymentMapper::toResponse)
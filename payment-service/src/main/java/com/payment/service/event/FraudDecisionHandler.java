@@ -0,0 +1,57 @@
+package com.payment.service.event;
+
+import com.payment.service.service.PaymentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies fraud decisions published by fraud-service for payments of async-fraud merchants
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "payment.kafka.enabled", havingValue = "true")
+public class FraudDecisionHandler {
+
+    private static final String FRAUD_DECISION = "FRAUD_DECISION";
+
+    private final PaymentService paymentService;
+
+    @KafkaListener(
+        topics = "fraud-events",
+        groupId = "payment-service-group",
+        containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void handleFraudEvent(
+            @Payload Map<String, Object> event,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset) {
+
+        if (!FRAUD_DECISION.equals(event.get("eventType"))) {
+            return;
+        }
+
+        Object paymentId = event.get("paymentId");
+        Object score = event.get("score");
+        Object decision = event.get("decision");
+        if (paymentId == null || score == null || !(decision instanceof String)) {
+            log.warn("Skipping malformed fraud decision: partition={}, offset={}", partition, offset);
+            return;
+        }
+
+        paymentService.applyAsyncFraudDecision(
+            UUID.fromString(paymentId.toString()),
+            new BigDecimal(score.toString()),
+            (String) decision);
+    }
+}
@@ -21,6 +21,7 @@ public class PaymentEvent {
     private UUID paymentId;
     private UUID merchantId;
     private UUID customerId;
+    private UUID paymentMethodId;
     
     private Long amount;
     private String currency;
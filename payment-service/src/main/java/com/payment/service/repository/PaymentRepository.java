@@ -21,12 +21,16 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     
     /**
      * Find payment by idempotency key (for duplicate prevention)
+     * Not pruned: the key says nothing about created_at, so every monthly partition gets one
+     * probe of its idempotency_key index. Only reached on a Redis miss in IdempotencyService.
      */
     Optional<Payment> findByIdempotencyKey(String idempotencyKey);
     
     /**
      * Find payment by ID with pessimistic locking (for updates)
      * Used during capture/refund to prevent concurrent modifications
+     * Not pruned: callers only have the id, and refunds may target payments from any month,
+     * so every partition gets one probe of idx_payments_id; only the matching row is locked.
      */
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM Payment p WHERE p.id = :id")
@@ -56,6 +60,24 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
         @Param("statuses") List<PaymentStatus> statuses
     );
     
+    /**
+     * Find recent payments by merchant, optionally filtered by status (for listing).
+     * The created_at lower bound lets Postgres prune older monthly partitions.
+     */
+    @Query("""
+        SELECT p FROM Payment p 
+        WHERE p.merchantId = :merchantId 
+        AND p.createdAt >= :since
+        AND (:status IS NULL OR p.status = :status)
+        ORDER BY p.createdAt DESC, p.id DESC
+        """)
+    List<Payment> findRecentByMerchantAndStatus(
+        @Param("merchantId") UUID merchantId,
+        @Param("status") PaymentStatus status,
+        @Param("since") Instant since,
+        Pageable pageable
+    );
+    
     /**
      * Find recent payments by merchant (for dashboard)
      */
@@ -87,10 +109,12 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     
     /**
      * Find payments captured between dates (for settlement)
+     * A payment is always created before it is captured, so created_at <= end prunes future partitions.
      */
     @Query("""
         SELECT p FROM Payment p 
         WHERE p.capturedAt BETWEEN :start AND :end 
+        AND p.createdAt <= :end
         AND p.status = 'CAPTURED'
         ORDER BY p.capturedAt
         """)
@@ -106,6 +130,7 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
         SELECT p FROM Payment p 
         WHERE p.status = 'AUTHORIZED' 
         AND p.authorizedAt < :expiryDate
+        AND p.createdAt < :expiryDate
         """)
     List<Payment> findExpiredAuthorizations(@Param("expiryDate") Instant expiryDate);
     
@@ -116,6 +141,8 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     
     /**
      * Find payment by processor payment ID
+     * Not pruned, like findByIdempotencyKey: one idx_payments_processor_id probe per partition
+     * for each processor webhook.
      */
     Optional<Payment> findByProcessorPaymentId(String processorPaymentId);
     
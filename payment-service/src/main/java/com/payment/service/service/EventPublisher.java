@@ -10,6 +10,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
@@ -36,6 +37,7 @@ public class EventPublisher {
             .paymentId(payment.getId())
             .merchantId(payment.getMerchantId())
             .customerId(payment.getCustomerId())
+            .paymentMethodId(payment.getPaymentMethodId())
             .amount(payment.getAmount().getAmountInCents())
             .currency(payment.getAmount().getCurrency())
             .status(payment.getStatus().name())
@@ -65,6 +67,15 @@ public class EventPublisher {
             eventType, payment.getId(), message.getId());
     }
 
+    /**
+     * Publish payment event in a separate transaction that commits even if the caller's
+     * transaction rolls back
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void publishPaymentEventInNewTransaction(String eventType, Payment payment, String previousStatus) {
+        publishPaymentEvent(eventType, payment, previousStatus);
+    }
+
     private String toJson(PaymentEvent event) {
         try {
             return objectMapper.writeValueAsString(event);
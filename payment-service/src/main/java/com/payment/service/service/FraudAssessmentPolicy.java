@@ -0,0 +1,53 @@
+package com.payment.service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Decides per merchant whether fraud is assessed during checkout or after authorization.
+ *
+ * Merchants in payment.fraud.async.merchant-ids skip the fraud-service call; their payments
+ * carry metadata fraud_assessment=async, fraud-service scores them from payment-events and
+ * the decision comes back on fraud-events. Without Kafka nothing would deliver those
+ * events, so every merchant is then assessed synchronously.
+ */
+@Component
+@Slf4j
+public class FraudAssessmentPolicy {
+
+    public static final String METADATA_KEY = "fraud_assessment";
+    public static final String ASYNC = "async";
+
+    private final Set<UUID> asyncMerchantIds;
+    private final boolean kafkaEnabled;
+
+    public FraudAssessmentPolicy(
+            @Value("${payment.fraud.async.merchant-ids:}") Set<UUID> asyncMerchantIds,
+            @Value("${payment.kafka.enabled:false}") boolean kafkaEnabled) {
+        this.asyncMerchantIds = Set.copyOf(asyncMerchantIds);
+        this.kafkaEnabled = kafkaEnabled;
+        if (!asyncMerchantIds.isEmpty() && !kafkaEnabled) {
+            log.warn("Async fraud assessment configured for {} merchants but Kafka is disabled; assessing synchronously",
+                asyncMerchantIds.size());
+        }
+    }
+
+    /**
+     * True when the merchant's payments are assessed after authorization
+     */
+    public boolean isAsync(UUID merchantId) {
+        return kafkaEnabled && merchantId != null && asyncMerchantIds.contains(merchantId);
+    }
+
+    /**
+     * True when the payment was created for asynchronous assessment
+     */
+    public static boolean isAsyncPayment(Map<String, Object> metadata) {
+        return metadata != null && ASYNC.equals(metadata.get(METADATA_KEY));
+    }
+}
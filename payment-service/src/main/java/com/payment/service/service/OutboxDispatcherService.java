@@ -12,7 +12,10 @@ import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 @Service
@@ -48,12 +51,24 @@ public class OutboxDispatcherService {
             return;
         }
 
+        // Hand the whole batch to the producer first so sends are pipelined, then wait for acks.
+        // Per-key ordering is preserved by the idempotent producer.
+        Map<UUID, CompletableFuture<SendResult<String, Object>>> sends = new LinkedHashMap<>();
         for (OutboxMessage message : batch) {
             try {
                 PaymentEvent event = objectMapper.readValue(message.getPayloadJson(), PaymentEvent.class);
-                CompletableFuture<SendResult<String, Object>> future =
-                    kafkaTemplate.send(message.getTopic(), message.getMessageKey(), event);
+                sends.put(message.getId(), kafkaTemplate.send(message.getTopic(), message.getMessageKey(), event));
+            } catch (Exception ex) {
+                outboxMessageStoreService.markFailed(message.getId(), ex, maxAttempts);
+            }
+        }
 
+        for (OutboxMessage message : batch) {
+            CompletableFuture<SendResult<String, Object>> future = sends.get(message.getId());
+            if (future == null) {
+                continue;
+            }
+            try {
                 SendResult<String, Object> result = future.get();
                 outboxMessageStoreService.markPublished(message.getId());
                 log.info("Published outbox event: outboxId={}, topic={}, partition={}, offset={}",
@@ -61,6 +76,9 @@ public class OutboxDispatcherService {
                     message.getTopic(),
                     result.getRecordMetadata().partition(),
                     result.getRecordMetadata().offset());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                outboxMessageStoreService.markFailed(message.getId(), ex, maxAttempts);
             } catch (Exception ex) {
                 outboxMessageStoreService.markFailed(message.getId(), ex, maxAttempts);
             }
@@ -0,0 +1,59 @@
+package com.payment.service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Pre-creates monthly partitions for payments and payment_events so inserts
+ * never land in the default partition and lookups stay partition-pruned.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "payment.partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceService {
+
+    private static final List<String> PARTITIONED_TABLES = List.of("payments", "payment_events");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${payment.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitionsOnStartup() {
+        ensureFuturePartitions();
+    }
+
+    /**
+     * Runs daily; creating an existing partition is a no-op
+     */
+    @Scheduled(cron = "${payment.partitioning.maintenance-cron:0 15 1 * * *}", zone = "UTC")
+    public void ensureFuturePartitions() {
+        LocalDate currentMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+
+        for (String table : PARTITIONED_TABLES) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                LocalDate month = currentMonth.plusMonths(i);
+                try {
+                    String partition = jdbcTemplate.queryForObject(
+                        "SELECT ensure_monthly_partition(?, ?)", String.class, table, month);
+                    log.debug("Partition ensured: table={}, month={}, partition={}", table, month, partition);
+                } catch (Exception ex) {
+                    log.error("Failed to ensure partition: table={}, month={}", table, month, ex);
+                }
+            }
+        }
+    }
+}
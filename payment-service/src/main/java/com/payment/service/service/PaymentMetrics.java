@@ -0,0 +1,131 @@
+package com.payment.service.service;
+
+import com.payment.service.exception.PaymentActionRequiredException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-stage timers and outcome counters for create/capture/refund.
+ *
+ * payment.stage.duration{operation, stage, outcome, processor} is published as a histogram
+ * so Prometheus can compute p99 per stage and attach trace-id exemplars to buckets.
+ * Meters are registered once per tag combination and cached, so the hot path does
+ * one map lookup instead of building and registering a meter per call.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentMetrics {
+
+    public static final String OPERATION_CREATE = "create";
+    public static final String OPERATION_CAPTURE = "capture";
+    public static final String OPERATION_REFUND = "refund";
+
+    public static final String STAGE_IDEMPOTENCY_LOOKUP = "idempotency_lookup";
+    public static final String STAGE_IDEMPOTENCY_STORE = "idempotency_store";
+    public static final String STAGE_CUSTOMER_UPSERT = "customer_upsert";
+    public static final String STAGE_FRAUD_ASSESSMENT = "fraud_assessment";
+    public static final String STAGE_PAYMENT_LOAD = "payment_load";
+    public static final String STAGE_DB_SAVE = "db_save";
+    public static final String STAGE_PROCESSOR_AUTHORIZE = "processor_authorize";
+    public static final String STAGE_PROCESSOR_CAPTURE = "processor_capture";
+    public static final String STAGE_PROCESSOR_REFUND = "processor_refund";
+    public static final String STAGE_OUTBOX_INSERT = "outbox_insert";
+    public static final String STAGE_COMMIT = "commit";
+
+    static final String STAGE_TIMER = "payment.stage.duration";
+    static final String OPERATION_COUNTER = "payment.operations";
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+    private static final String OUTCOME_REQUIRES_ACTION = "requires_action";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<MeterKey, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> outcomeCounters = new ConcurrentHashMap<>();
+
+    public <T> T recordStage(String operation, String stage, String processor, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = action.get();
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } catch (PaymentActionRequiredException e) {
+            outcome = OUTCOME_REQUIRES_ACTION;
+            throw e;
+        } finally {
+            sample.stop(stageTimer(operation, stage, outcome, processor));
+        }
+    }
+
+    public void runStage(String operation, String stage, String processor, Runnable action) {
+        recordStage(operation, stage, processor, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Counts the final outcome of an operation, e.g. authorized, declined, captured, failed
+     */
+    public void recordOutcome(String operation, String outcome, String processor) {
+        outcomeCounters.computeIfAbsent(new MeterKey(operation, null, outcome, processor), key ->
+            Counter.builder(OPERATION_COUNTER)
+                .description("Payment operations by final outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("processor", processor)
+                .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * Times flush + commit of the surrounding transaction, where the deferred JPA inserts/updates
+     * actually hit the database. No-op outside a transaction.
+     */
+    public void recordCommit(String operation, String processor) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Timer.Sample sample;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                sample = Timer.start(meterRegistry);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (sample != null) {
+                    String outcome = status == STATUS_COMMITTED ? OUTCOME_SUCCESS : OUTCOME_ERROR;
+                    sample.stop(stageTimer(operation, STAGE_COMMIT, outcome, processor));
+                }
+            }
+        });
+    }
+
+    private Timer stageTimer(String operation, String stage, String outcome, String processor) {
+        return stageTimers.computeIfAbsent(new MeterKey(operation, stage, outcome, processor), key ->
+            Timer.builder(STAGE_TIMER)
+                .description("Latency of each payment operation stage")
+                .tag("operation", operation)
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .tag("processor", processor)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private record MeterKey(String operation, String stage, String outcome, String processor) {
+    }
+}
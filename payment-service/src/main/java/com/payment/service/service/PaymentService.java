@@ -17,10 +17,13 @@ import com.payment.service.repository.PaymentRepository;
 import com.payment.service.repository.RefundRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 
@@ -36,9 +39,20 @@ public class PaymentService {
     private final PaymentEventRepository paymentEventRepository;
     private final IdempotencyService idempotencyService;
     private final FraudServiceClient fraudServiceClient; 
+    private final FraudAssessmentPolicy fraudAssessmentPolicy;
     // private final FraudService fraudService;
     private final StripePaymentService stripePaymentService;
     private final EventPublisher eventPublisher;
+    private final PaymentMetrics paymentMetrics;
+
+    private static final String PROCESSOR_STRIPE = "stripe";
+
+    @Value("${payment.partitioning.list-lookback-days:90}")
+    private int listLookbackDays;
+
+    @Value("${payment.fraud.async.void-on-block:true}")
+    private boolean voidOnAsyncFraudBlock;
+
     /**
      * Creates a new payment with idempotency guarantee
      */
@@ -47,17 +61,23 @@ public class PaymentService {
             request.getAmount(), request.getCurrency(), idempotencyKey);
         
         // 1. Check idempotency (prevent duplicate payments)
-        Optional<Payment> existing = idempotencyService.findByKey(idempotencyKey);
+        Optional<Payment> existing = paymentMetrics.recordStage(PaymentMetrics.OPERATION_CREATE,
+            PaymentMetrics.STAGE_IDEMPOTENCY_LOOKUP, PROCESSOR_STRIPE,
+            () -> idempotencyService.findByKey(idempotencyKey));
         if (existing.isPresent()) {
             log.info("Returning cached payment for idempotency key: {}", idempotencyKey);
+            paymentMetrics.recordOutcome(PaymentMetrics.OPERATION_CREATE, "idempotent_replay", PROCESSOR_STRIPE);
             return PaymentOperationResult.of(existing.get());
         }
         
         // 2. Validate request
         validateCreateRequest(request);
+        paymentMetrics.recordCommit(PaymentMetrics.OPERATION_CREATE, PROCESSOR_STRIPE);
         
         // 3. Get or create customer
-        Customer customer = getOrCreateCustomer(request.getCustomer());
+        Customer customer = paymentMetrics.recordStage(PaymentMetrics.OPERATION_CREATE,
+            PaymentMetrics.STAGE_CUSTOMER_UPSERT, PROCESSOR_STRIPE,
+            () -> getOrCreateCustomer(request.getCustomer()));
         
         // 4. Create payment entity
         Map<String, Object> metadata = request.getMetadata() != null
@@ -66,6 +86,10 @@ public class PaymentService {
         metadata.put("auto_capture_requested", Boolean.TRUE.equals(request.getCapture()));
         enrichStripeCustomerMetadata(metadata, request.getCustomer());
         enrichStripePaymentMethodMetadata(metadata, request.getPaymentMethod());
+        boolean asyncFraud = fraudAssessmentPolicy.isAsync(merchantId);
+        if (asyncFraud) {
+            metadata.put(FraudAssessmentPolicy.METADATA_KEY, FraudAssessmentPolicy.ASYNC);
+        }
 
         Payment payment = Payment.builder()
             .merchantId(merchantId) // From JWT token
@@ -78,35 +102,44 @@ public class PaymentService {
             .build();
         
         // 5. Save payment (status = PENDING)
-        payment = paymentRepository.save(payment);
+        payment = savePayment(PaymentMetrics.OPERATION_CREATE, payment);
         recordEvent(payment, "PAYMENT_CREATED", null, PaymentStatus.PENDING.name());
         
-        // 6. Assess fraud risk (call Fraud Service)
-        BigDecimal fraudScore = fraudServiceClient.assessRisk(payment);
-        payment.setFraudScore(fraudScore);
-        
-        // 7. Check fraud threshold
-        if (fraudScore.compareTo(BigDecimal.valueOf(50)) > 0) {
-            log.warn("Payment declined due to high fraud score: score={}, paymentId={}", 
-                fraudScore, payment.getId());
+        // 6. Assess fraud risk (call Fraud Service); async merchants are scored after authorization
+        Payment pendingPayment = payment;
+        if (!asyncFraud) {
+            BigDecimal fraudScore = paymentMetrics.recordStage(PaymentMetrics.OPERATION_CREATE,
+                PaymentMetrics.STAGE_FRAUD_ASSESSMENT, PROCESSOR_STRIPE,
+                () -> fraudServiceClient.assessRisk(pendingPayment));
+            payment.setFraudScore(fraudScore);
             
-            payment.markDeclined("High fraud score: " + fraudScore);
-            payment = paymentRepository.save(payment);
-            recordEvent(payment, "PAYMENT_DECLINED", PaymentStatus.PENDING.name(), 
-                PaymentStatus.DECLINED.name());
-            
-            return PaymentOperationResult.of(payment);
+            // 7. Check fraud threshold
+            if (fraudScore.compareTo(BigDecimal.valueOf(50)) > 0) {
+                log.warn("Payment declined due to high fraud score: score={}, paymentId={}", 
+                    fraudScore, payment.getId());
+                
+                payment.markDeclined("High fraud score: " + fraudScore);
+                payment = savePayment(PaymentMetrics.OPERATION_CREATE, payment);
+                recordEvent(payment, "PAYMENT_DECLINED", PaymentStatus.PENDING.name(), 
+                    PaymentStatus.DECLINED.name());
+                publishPaymentEvent(PaymentMetrics.OPERATION_CREATE, "PAYMENT_DECLINED", payment, "PENDING");
+                
+                paymentMetrics.recordOutcome(PaymentMetrics.OPERATION_CREATE, "declined", PROCESSOR_STRIPE);
+                return PaymentOperationResult.of(payment);
+            }
         }
         
         // 8. Authorize payment with processor
         PaymentNextActionResponse nextAction = null;
         try {
-            String stripePaymentIntentId = stripePaymentService.authorize(payment);
+            String stripePaymentIntentId = paymentMetrics.recordStage(PaymentMetrics.OPERATION_CREATE,
+                PaymentMetrics.STAGE_PROCESSOR_AUTHORIZE, PROCESSOR_STRIPE,
+                () -> stripePaymentService.authorize(pendingPayment));
             
             payment.setProcessor("stripe");
             payment.setProcessorPaymentId(stripePaymentIntentId);
             payment.authorize();
-            payment = paymentRepository.save(payment);
+            payment = savePayment(PaymentMetrics.OPERATION_CREATE, payment);
 
             
             recordEvent(payment, "PAYMENT_AUTHORIZED", PaymentStatus.PENDING.name(), 
@@ -123,10 +156,11 @@ public class PaymentService {
             payment.setProcessorPaymentId(e.getPaymentIntentId());
             payment.setFailureReason(null);
             payment.setFailureCode(null);
-            payment = paymentRepository.save(payment);
+            payment = savePayment(PaymentMetrics.OPERATION_CREATE, payment);
 
             recordEvent(payment, "PAYMENT_AUTHENTICATION_REQUIRED", PaymentStatus.PENDING.name(),
                 PaymentStatus.PENDING.name());
+            publishPaymentEvent(PaymentMetrics.OPERATION_CREATE, "PAYMENT_AUTHENTICATION_REQUIRED", payment, "PENDING");
 
             nextAction = PaymentNextActionResponse.builder()
                 .type("use_stripe_sdk")
@@ -139,26 +173,33 @@ public class PaymentService {
             log.error("Payment authorization failed: paymentId={}", payment.getId(), e);
             
             payment.markFailed(e.getMessage(), e.getErrorCode());
-            payment = paymentRepository.save(payment);
+            payment = savePayment(PaymentMetrics.OPERATION_CREATE, payment);
             recordEvent(payment, "PAYMENT_FAILED", PaymentStatus.PENDING.name(), 
                 PaymentStatus.FAILED.name());
+            // The rethrow rolls this transaction back; the attempt is published on its own
+            safePublishFailedAttempt(payment);
             
+            paymentMetrics.recordOutcome(PaymentMetrics.OPERATION_CREATE, "failed", PROCESSOR_STRIPE);
             throw e;
         }
         if (payment.getStatus() == PaymentStatus.AUTHORIZED) {
-            eventPublisher.publishPaymentEvent("PAYMENT_AUTHORIZED", payment, "PENDING");
+            publishPaymentEvent(PaymentMetrics.OPERATION_CREATE, "PAYMENT_AUTHORIZED", payment, "PENDING");
         }
 
         
-        // 9. Auto-capture if requested
+        // 9. Auto-capture if requested (row was inserted in this transaction, no re-lock needed)
         if (nextAction == null && Boolean.TRUE.equals(request.getCapture())) {
-            payment = capturePayment(payment.getId(), null);
+            payment = capture(payment, null);
         }
 
         
         // 10. Store in idempotency cache
-        idempotencyService.store(idempotencyKey, payment);
+        Payment result = payment;
+        paymentMetrics.runStage(PaymentMetrics.OPERATION_CREATE, PaymentMetrics.STAGE_IDEMPOTENCY_STORE,
+            PROCESSOR_STRIPE, () -> idempotencyService.store(idempotencyKey, result));
         
+        paymentMetrics.recordOutcome(PaymentMetrics.OPERATION_CREATE,
+            nextAction != null ? "requires_action" : payment.getStatus().name().toLowerCase(), PROCESSOR_STRIPE);
         return nextAction != null
             ? PaymentOperationResult.withNextAction(payment, nextAction)
             : PaymentOperationResult.of(payment);
@@ -304,9 +345,23 @@ public class PaymentService {
         log.info("Capturing payment: paymentId={}", paymentId);
         
         // 1. Load payment with pessimistic lock (prevent concurrent captures)
-        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+        Payment payment = paymentMetrics.recordStage(PaymentMetrics.OPERATION_CAPTURE,
+                PaymentMetrics.STAGE_PAYMENT_LOAD, PROCESSOR_STRIPE,
+                () -> paymentRepository.findByIdForUpdate(paymentId))
             .orElseThrow(() -> new PaymentNotFoundException(paymentId));
+        paymentMetrics.recordCommit(PaymentMetrics.OPERATION_CAPTURE, PROCESSOR_STRIPE);
         
+        Payment captured = capture(payment, request);
+        paymentMetrics.recordOutcome(PaymentMetrics.OPERATION_CAPTURE, "captured", PROCESSOR_STRIPE);
+        return captured;
+    }
+
+    /**
+     * Captures a payment the caller has already loaded and locked
+     */
+    private Payment capture(Payment payment, CapturePaymentRequest request) {
+        UUID paymentId = payment.getId();
+
         // 2. Validate state transition
         if (!payment.canTransitionTo(PaymentStatus.CAPTURED)) {
             throw new InvalidStateTransitionException(
@@ -329,16 +384,19 @@ public class PaymentService {
         
         // 4. Capture with processor
         try {
-            stripePaymentService.capture(payment.getProcessorPaymentId(), captureAmount);
+            Money amountToCapture = captureAmount;
+            String processorPaymentId = payment.getProcessorPaymentId();
+            paymentMetrics.runStage(PaymentMetrics.OPERATION_CAPTURE, PaymentMetrics.STAGE_PROCESSOR_CAPTURE,
+                PROCESSOR_STRIPE, () -> stripePaymentService.capture(processorPaymentId, amountToCapture));
 
             PaymentStatus previousStatus = payment.getStatus();
             payment.capture();
-            payment = paymentRepository.save(payment);
+            payment = savePayment(PaymentMetrics.OPERATION_CAPTURE, payment);
 
             recordEvent(payment, "PAYMENT_CAPTURED", previousStatus.name(),
                 PaymentStatus.CAPTURED.name());
 
-            eventPublisher.publishPaymentEvent("PAYMENT_CAPTURED", payment, previousStatus.name());
+            publishPaymentEvent(PaymentMetrics.OPERATION_CAPTURE, "PAYMENT_CAPTURED", payment, previousStatus.name());
 
             log.info("Payment captured successfully: paymentId={}", paymentId);
 
@@ -346,6 +404,7 @@ public class PaymentService {
 
         } catch (ProcessorException e) {
             log.error("Payment capture failed: paymentId={}", paymentId, e);
+            paymentMetrics.recordOutcome(PaymentMetrics.OPERATION_CAPTURE, "failed", PROCESSOR_STRIPE);
             throw e;
         }
     }
@@ -386,6 +445,41 @@ public class PaymentService {
         }
     }
     
+    /**
+     * Applies the post-authorization fraud decision of an async-fraud payment: records the
+     * score and, on BLOCK, voids the authorization or, once captured, refunds what is left
+     * of the payment. Decisions for synchronously assessed payments and repeated decisions
+     * are ignored.
+     */
+    public void applyAsyncFraudDecision(UUID paymentId, BigDecimal score, String decision) {
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId).orElse(null);
+        if (payment == null) {
+            log.warn("Fraud decision for unknown payment: paymentId={}", paymentId);
+            return;
+        }
+        if (!FraudAssessmentPolicy.isAsyncPayment(payment.getMetadata()) || payment.getFraudScore() != null) {
+            return;
+        }
+        
+        payment.setFraudScore(score);
+        payment = paymentRepository.save(payment);
+        recordEvent(payment, "FRAUD_ASSESSED", payment.getStatus().name(), payment.getStatus().name());
+        log.info("Async fraud decision applied: paymentId={}, score={}, decision={}", paymentId, score, decision);
+        
+        if (!"BLOCK".equals(decision)) {
+            return;
+        }
+        if (voidOnAsyncFraudBlock && payment.getStatus() == PaymentStatus.AUTHORIZED) {
+            voidPayment(paymentId);
+        } else if (voidOnAsyncFraudBlock && (payment.getStatus() == PaymentStatus.CAPTURED
+                || payment.getStatus() == PaymentStatus.PARTIALLY_REFUNDED)) {
+            refundPayment(paymentId, RefundRequest.builder().reason("fraudulent").build());
+        } else {
+            log.warn("Async fraud block needs manual review: paymentId={}, status={}, score={}",
+                paymentId, payment.getStatus(), score);
+        }
+    }
+    
     /**
      * Refunds a captured payment (full or partial)
      */
@@ -393,8 +487,11 @@ public class PaymentService {
         log.info("Creating refund: paymentId={}, amount={}", paymentId, request.getAmount());
         
         // 1. Load payment with lock
-        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+        Payment payment = paymentMetrics.recordStage(PaymentMetrics.OPERATION_REFUND,
+                PaymentMetrics.STAGE_PAYMENT_LOAD, PROCESSOR_STRIPE,
+                () -> paymentRepository.findByIdForUpdate(paymentId))
             .orElseThrow(() -> new PaymentNotFoundException(paymentId));
+        paymentMetrics.recordCommit(PaymentMetrics.OPERATION_REFUND, PROCESSOR_STRIPE);
         
         // 2. Validate payment can be refunded
         if (payment.getStatus() != PaymentStatus.CAPTURED && 
@@ -434,26 +531,28 @@ public class PaymentService {
 
         // Persist the pending refund before calling Stripe so both success/failure paths
         // update an existing row (avoids stale-state/optimistic-lock style errors).
-        refund = refundRepository.save(refund);
+        refund = saveRefund(refund);
         
         // 6. Process refund with processor
         try {
-            String processorRefundId = stripePaymentService.refund(
-                payment.getProcessorPaymentId(), 
-                refundAmount
-            );
+            String processorPaymentId = payment.getProcessorPaymentId();
+            String processorRefundId = paymentMetrics.recordStage(PaymentMetrics.OPERATION_REFUND,
+                PaymentMetrics.STAGE_PROCESSOR_REFUND, PROCESSOR_STRIPE,
+                () -> stripePaymentService.refund(processorPaymentId, refundAmount));
             
             refund.markSucceeded(processorRefundId);
-            refund = refundRepository.save(refund);
+            refund = saveRefund(refund);
             
             // Update payment status
             PaymentStatus previousStatus = payment.getStatus();
             payment.addRefund(refund);
-            payment = paymentRepository.save(payment);
+            payment = savePayment(PaymentMetrics.OPERATION_REFUND, payment);
             
             recordEvent(payment, "PAYMENT_REFUNDED", previousStatus.name(), 
                 payment.getStatus().name());
             
+            paymentMetrics.recordOutcome(PaymentMetrics.OPERATION_REFUND, "refunded", PROCESSOR_STRIPE);
+            
             log.info("Refund created successfully: refundId={}, paymentId={}", 
                 refund.getId(), paymentId);
             
@@ -463,8 +562,9 @@ public class PaymentService {
             log.error("Refund processing failed: paymentId={}", paymentId, e);
             
             refund.markFailed(e.getMessage());
-            refundRepository.save(refund);
+            saveRefund(refund);
             
+            paymentMetrics.recordOutcome(PaymentMetrics.OPERATION_REFUND, "failed", PROCESSOR_STRIPE);
             throw e;
         }
     }
@@ -479,18 +579,19 @@ public class PaymentService {
     }
     
     /**
-     * List payments by merchant
+     * List payments by merchant created at or after createdAfter, newest first. Without
+     * createdAfter only the last list-lookback-days are searched; the created_at bound is
+     * what keeps the query partition-pruned.
      */
     @Transactional(readOnly = true)
-    public List<Payment> listPayments(UUID merchantId, PaymentStatus status, int limit) {
-        if (status != null) {
-            return paymentRepository.findByMerchantAndStatuses(
-                merchantId, 
-                Collections.singletonList(status)
-            );
-        }
-        
-        return paymentRepository.findByMerchantId(merchantId);
+    public List<Payment> listPayments(UUID merchantId, PaymentStatus status, Instant createdAfter, int limit) {
+        Instant since = createdAfter != null ? createdAfter : Instant.now().minus(Duration.ofDays(listLookbackDays));
+        return paymentRepository.findRecentByMerchantAndStatus(
+            merchantId,
+            status,
+            since,
+            PageRequest.of(0, limit)
+        );
     }
 
     public void handleStripePaymentIntentSucceededWebhook(String paymentIntentId) {
@@ -809,6 +910,35 @@ public class PaymentService {
         }
     }
     
+    /**
+     * Outbox row in its own transaction, so fraud-service still counts the failed attempt
+     */
+    private void safePublishFailedAttempt(Payment payment) {
+        try {
+            eventPublisher.publishPaymentEventInNewTransaction("PAYMENT_FAILED", payment, PaymentStatus.PENDING.name());
+        } catch (Exception ex) {
+            log.error("Failed to publish failed attempt (ignored): paymentId={}", payment.getId(), ex);
+        }
+    }
+    
+    /**
+     * Save payment, timed as the operation's db_save stage
+     */
+    private Payment savePayment(String operation, Payment payment) {
+        return paymentMetrics.recordStage(operation, PaymentMetrics.STAGE_DB_SAVE, PROCESSOR_STRIPE,
+            () -> paymentRepository.save(payment));
+    }
+
+    private Refund saveRefund(Refund refund) {
+        return paymentMetrics.recordStage(PaymentMetrics.OPERATION_REFUND, PaymentMetrics.STAGE_DB_SAVE,
+            PROCESSOR_STRIPE, () -> refundRepository.save(refund));
+    }
+
+    private void publishPaymentEvent(String operation, String eventType, Payment payment, String previousStatus) {
+        paymentMetrics.runStage(operation, PaymentMetrics.STAGE_OUTBOX_INSERT, PROCESSOR_STRIPE,
+            () -> eventPublisher.publishPaymentEvent(eventType, payment, previousStatus));
+    }
+
     /**
      * Record payment event for audit trail
      */
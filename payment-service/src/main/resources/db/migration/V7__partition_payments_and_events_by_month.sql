@@ -0,0 +1,225 @@
+-- Monthly range partitioning on created_at for payments and payment_events.
+-- Both tables are rebuilt as partitioned parents; existing rows are copied into
+-- monthly partitions and the old heap tables are dropped.
+--
+-- Notes:
+-- * Partitioned primary keys must include the partition key, so PKs become (id, created_at).
+-- * A unique constraint on a partitioned table must also include the partition key, so
+--   global idempotency-key uniqueness is kept in payment_idempotency_keys (trigger-maintained).
+-- * A foreign key cannot target a partitioned table without its partition key, so
+--   refunds.payment_id -> payments(id) is dropped; the application owns that relationship.
+-- * Future partitions are pre-created by PartitionMaintenanceService via ensure_monthly_partition().
+
+-- =========================
+-- Partition helper (idempotent)
+-- =========================
+CREATE OR REPLACE FUNCTION ensure_monthly_partition(parent_table TEXT, month_start DATE)
+RETURNS TEXT AS $$
+DECLARE
+  from_date DATE := date_trunc('month', month_start)::date;
+  to_date DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::date;
+  partition_name TEXT := format('%s_y%sm%s', parent_table,
+                                to_char(from_date, 'YYYY'), to_char(from_date, 'MM'));
+BEGIN
+  IF to_regclass(partition_name) IS NULL THEN
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, parent_table, from_date, to_date);
+  END IF;
+  RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- =========================
+-- TABLE: payments
+-- =========================
+ALTER TABLE refunds DROP CONSTRAINT IF EXISTS refunds_payment_id_fkey;
+
+CREATE TABLE payments_partitioned (
+  id UUID NOT NULL DEFAULT uuid_generate_v4(),
+  merchant_id UUID NOT NULL,
+  customer_id UUID,
+  idempotency_key VARCHAR(225),
+  amount DECIMAL(19,4) NOT NULL CHECK (amount >= 0),
+  currency VARCHAR(3) NOT NULL,
+  status VARCHAR(64) NOT NULL DEFAULT 'PENDING',
+  payment_method_id UUID,
+  processor VARCHAR(50),
+  processor_payment_id VARCHAR(255),
+  fraud_score DECIMAL(5,2),
+  metadata JSONB,
+  failure_reason TEXT,
+  failure_code VARCHAR(50),
+  version INTEGER NOT NULL DEFAULT 0,
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP,
+  authorized_at TIMESTAMP,
+  captured_at TIMESTAMP,
+
+  CONSTRAINT chk_currency_format CHECK (currency ~ '^[A-Z]{3}$'),
+  PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Catch-all so inserts never fail if the maintenance job has not run yet.
+CREATE TABLE IF NOT EXISTS payments_default PARTITION OF payments_partitioned DEFAULT;
+
+-- =========================
+-- TABLE: payment_events
+-- =========================
+CREATE TABLE payment_events_partitioned (
+  id BIGSERIAL NOT NULL,
+  payment_id UUID NOT NULL,
+  event_type VARCHAR(50) NOT NULL,
+  previous_state VARCHAR(50),
+  new_state VARCHAR(50),
+  metadata JSONB,
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  created_by VARCHAR(255),
+
+  PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE IF NOT EXISTS payment_events_default PARTITION OF payment_events_partitioned DEFAULT;
+
+-- =========================
+-- Monthly partitions covering existing history plus the next three months
+-- =========================
+DO $$
+DECLARE
+  first_month DATE;
+  last_month DATE := (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::date;
+  m DATE;
+BEGIN
+  SELECT date_trunc('month', LEAST(
+           COALESCE((SELECT MIN(created_at) FROM payments), CURRENT_TIMESTAMP),
+           COALESCE((SELECT MIN(created_at) FROM payment_events), CURRENT_TIMESTAMP)))::date
+    INTO first_month;
+
+  m := first_month;
+  WHILE m <= last_month LOOP
+    PERFORM ensure_monthly_partition('payments_partitioned', m);
+    PERFORM ensure_monthly_partition('payment_events_partitioned', m);
+    m := (m + INTERVAL '1 month')::date;
+  END LOOP;
+END $$;
+
+-- =========================
+-- Copy data and swap tables
+-- =========================
+INSERT INTO payments_partitioned (
+  id, merchant_id, customer_id, idempotency_key, amount, currency, status,
+  payment_method_id, processor, processor_payment_id, fraud_score, metadata,
+  failure_reason, failure_code, version, created_at, updated_at, authorized_at, captured_at)
+SELECT
+  id, merchant_id, customer_id, idempotency_key, amount, currency, status,
+  payment_method_id, processor, processor_payment_id, fraud_score, metadata,
+  failure_reason, failure_code, version, created_at, updated_at, authorized_at, captured_at
+FROM payments;
+
+INSERT INTO payment_events_partitioned (
+  id, payment_id, event_type, previous_state, new_state, metadata, created_at, created_by)
+SELECT id, payment_id, event_type, previous_state, new_state, metadata, created_at, created_by
+FROM payment_events;
+
+DROP TABLE payments;
+DROP TABLE payment_events;
+
+ALTER TABLE payments_partitioned RENAME TO payments;
+ALTER TABLE payment_events_partitioned RENAME TO payment_events;
+ALTER TABLE payments RENAME CONSTRAINT payments_partitioned_pkey TO payments_pkey;
+ALTER TABLE payment_events RENAME CONSTRAINT payment_events_partitioned_pkey TO payment_events_pkey;
+
+-- Partition names were derived from the temporary parent names; align them with the final names.
+DO $$
+DECLARE
+  r RECORD;
+BEGIN
+  FOR r IN
+    SELECT c.relname
+    FROM pg_inherits i
+    JOIN pg_class c ON c.oid = i.inhrelid
+    JOIN pg_class p ON p.oid = i.inhparent
+    WHERE p.relname IN ('payments', 'payment_events')
+      AND c.relname LIKE '%\_partitioned\_%'
+  LOOP
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', r.relname, replace(r.relname, '_partitioned_', '_'));
+  END LOOP;
+END $$;
+
+SELECT setval(pg_get_serial_sequence('payment_events', 'id'),
+              COALESCE((SELECT MAX(id) FROM payment_events), 0) + 1, false);
+
+-- =========================
+-- Indexes (created on the parent, propagated to every partition)
+-- =========================
+CREATE INDEX IF NOT EXISTS idx_payments_id ON payments(id);
+CREATE INDEX IF NOT EXISTS idx_payments_merchant_id ON payments(merchant_id);
+CREATE INDEX IF NOT EXISTS idx_payments_customer_id ON payments(customer_id);
+CREATE INDEX IF NOT EXISTS idx_payments_status ON payments(status);
+CREATE INDEX IF NOT EXISTS idx_payments_created_at ON payments(created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_payments_merchant_created ON payments(merchant_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_payments_merchant_status ON payments(merchant_id, status, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_payments_processor_id ON payments(processor_payment_id);
+CREATE INDEX IF NOT EXISTS idx_payments_idempotency ON payments(idempotency_key);
+CREATE INDEX IF NOT EXISTS idx_payments_active
+  ON payments(merchant_id, created_at DESC)
+  WHERE status IN ('PENDING', 'AUTHORIZED');
+CREATE INDEX IF NOT EXISTS idx_payments_metadata ON payments USING GIN(metadata);
+
+CREATE INDEX IF NOT EXISTS idx_payment_events_payment ON payment_events(payment_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_payment_events_type ON payment_events(event_type);
+CREATE INDEX IF NOT EXISTS idx_payment_events_created ON payment_events(created_at DESC);
+
+-- =========================
+-- Constraints and triggers
+-- =========================
+DO $$ BEGIN
+    ALTER TABLE payments ADD CONSTRAINT fk_payments_customer FOREIGN KEY (customer_id) REFERENCES customers(id);
+EXCEPTION
+    WHEN duplicate_object THEN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS update_payments_updated_at ON payments;
+CREATE TRIGGER update_payments_updated_at
+BEFORE UPDATE ON payments
+FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+
+-- =========================
+-- Global idempotency key uniqueness
+-- =========================
+CREATE TABLE IF NOT EXISTS payment_idempotency_keys (
+  idempotency_key VARCHAR(225) PRIMARY KEY,
+  payment_id UUID NOT NULL,
+  created_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO payment_idempotency_keys (idempotency_key, payment_id, created_at)
+SELECT idempotency_key, id, created_at
+FROM payments
+WHERE idempotency_key IS NOT NULL
+ON CONFLICT (idempotency_key) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION register_payment_idempotency_key()
+RETURNS TRIGGER AS $$
+BEGIN
+  IF NEW.idempotency_key IS NOT NULL THEN
+    -- Raises unique_violation on duplicates, same as the old UNIQUE column constraint.
+    INSERT INTO payment_idempotency_keys (idempotency_key, payment_id, created_at)
+    VALUES (NEW.idempotency_key, NEW.id, NEW.created_at);
+  END IF;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS register_payments_idempotency_key ON payments;
+CREATE TRIGGER register_payments_idempotency_key
+BEFORE INSERT ON payments
+FOR EACH ROW EXECUTE FUNCTION register_payment_idempotency_key();
+
+-- =========================
+-- Comments
+-- =========================
+COMMENT ON TABLE payments IS 'Core payments table, range-partitioned by month on created_at';
+COMMENT ON COLUMN payments.idempotency_key IS 'Unique key to prevent duplicate payments (enforced via payment_idempotency_keys)';
+COMMENT ON COLUMN payments.version IS 'Version for optimistic locking';
+COMMENT ON TABLE payment_events IS 'Payment audit trail, range-partitioned by month on created_at';
+COMMENT ON TABLE payment_idempotency_keys IS 'Global uniqueness for payments.idempotency_key across partitions';
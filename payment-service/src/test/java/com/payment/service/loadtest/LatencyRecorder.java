@@ -0,0 +1,92 @@
+package com.payment.service.loadtest;
+
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-endpoint latency samples collected by the load-test workers
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> samplesByEndpoint = new ConcurrentHashMap<>();
+
+    /**
+     * Times a call; non-2xx responses and exceptions are counted as errors
+     */
+    <T> ResponseEntity<T> record(String endpoint, Supplier<ResponseEntity<T>> call) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            ResponseEntity<T> response = call.get();
+            success = response.getStatusCode().is2xxSuccessful();
+            return response;
+        } finally {
+            samplesByEndpoint.computeIfAbsent(endpoint, key -> new Samples())
+                .add(System.nanoTime() - start, success);
+        }
+    }
+
+    Map<String, EndpointSummary> summarize(Duration elapsed) {
+        Map<String, EndpointSummary> summaries = new LinkedHashMap<>();
+        samplesByEndpoint.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> summaries.put(entry.getKey(), entry.getValue().summarize(elapsed)));
+        return summaries;
+    }
+
+    /**
+     * Nearest-rank percentile over an already sorted array
+     */
+    static double percentile(double[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    record EndpointSummary(long count, long errors, double p50Ms, double p99Ms, double maxMs,
+                           double throughputPerSecond) {
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long elapsedNanos, boolean success) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = elapsedNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized EndpointSummary summarize(Duration elapsed) {
+            double[] millis = new double[size];
+            for (int i = 0; i < size; i++) {
+                millis[i] = nanos[i] / 1_000_000.0;
+            }
+            Arrays.sort(millis);
+
+            double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+            return new EndpointSummary(
+                size,
+                errors,
+                percentile(millis, 50),
+                percentile(millis, 99),
+                size == 0 ? 0.0 : millis[size - 1],
+                size / seconds
+            );
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.payment.service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.payment.service.client.FraudServiceClient;
+import com.payment.service.dto.request.AddressRequest;
+import com.payment.service.dto.request.CreatePaymentRequest;
+import com.payment.service.dto.request.CustomerRequest;
+import com.payment.service.dto.request.PaymentMethodRequest;
+import com.payment.service.dto.request.RefundRequest;
+import com.payment.service.dto.response.PaymentListResponse;
+import com.payment.service.dto.response.PaymentResponse;
+import com.payment.service.dto.response.RefundResponse;
+import com.payment.service.entity.Payment;
+import com.payment.service.service.StripePaymentService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput/latency harness for create -> capture -> refund (+ list) against real
+ * Postgres and Redis containers and an embedded Kafka broker, with a simulated processor.
+ *
+ * Opt-in, since it needs Docker and takes minutes:
+ * mvn -pl payment-service test -Dtest=PaymentFlowLoadTest -Dloadtest=true
+ *
+ * Tunables (system properties): loadtest.concurrency, loadtest.flows, loadtest.warmup-flows,
+ * loadtest.list-every, loadtest.processor-latency-ms, loadtest.processor-jitter-ms,
+ * loadtest.max-p99-ms (optional regression gate), loadtest.report.
+ */
+@Slf4j
+@Tag("load")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@Testcontainers(disabledWithoutDocker = true)
+@EmbeddedKafka(partitions = 3, topics = {"payment-events", "fraud-events", "notification-events"})
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "payment.kafka.enabled=true",
+        "payment.outbox.dispatch.fixed-delay-ms=100",
+        "payment.outbox.dispatch.batch-size=200",
+        "eureka.client.enabled=false",
+        "jwt.secret=" + PaymentFlowLoadTest.JWT_SECRET,
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN",
+        "logging.level.com.payment=WARN",
+        "logging.level.com.payment.service.loadtest=INFO",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+    }
+)
+class PaymentFlowLoadTest {
+
+    static final String JWT_SECRET = "load-test-jwt-secret-with-at-least-32-bytes";
+
+    private static final String PAYMENTS_PATH = "/api/v1/payments";
+    private static final Duration OUTBOX_DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Container
+    static final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+        .withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void containerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.data.redis.host", redis::getHost);
+        registry.add("spring.data.redis.port", () -> redis.getMappedPort(6379));
+    }
+
+    @MockBean
+    private StripePaymentService stripePaymentService;
+
+    @MockBean
+    private FraudServiceClient fraudServiceClient;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+    private final int flows = Integer.getInteger("loadtest.flows", 1000);
+    private final int warmupFlows = Integer.getInteger("loadtest.warmup-flows", 100);
+    private final int listEvery = Integer.getInteger("loadtest.list-every", 5);
+
+    private HttpHeaders authHeaders;
+
+    @BeforeEach
+    void setUp() {
+        new SimulatedProcessor(
+            Long.getLong("loadtest.processor-latency-ms", 40L),
+            Long.getLong("loadtest.processor-jitter-ms", 20L)
+        ).install(stripePaymentService);
+        when(fraudServiceClient.assessRisk(any(Payment.class))).thenReturn(BigDecimal.TEN);
+
+        authHeaders = new HttpHeaders();
+        authHeaders.setContentType(MediaType.APPLICATION_JSON);
+        authHeaders.setBearerAuth(merchantToken(UUID.randomUUID()));
+    }
+
+    @Test
+    void createCaptureRefundUnderLoad() throws Exception {
+        runFlows(warmupFlows, new LatencyRecorder());
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        Instant outboxWindowStart = Instant.now();
+
+        Map<String, LatencyRecorder.EndpointSummary> endpoints;
+        Duration elapsed;
+        Map<String, Object> hikariSummary;
+        Map<String, Object> gcSummary;
+        try (RuntimeSampler sampler = new RuntimeSampler(hikari.getHikariPoolMXBean(), meterRegistry)) {
+            sampler.start();
+            long start = System.nanoTime();
+            runFlows(flows, recorder);
+            elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            endpoints = recorder.summarize(elapsed);
+            hikariSummary = sampler.hikariSummary();
+            gcSummary = sampler.gcSummary(elapsed.toMillis() / 1000.0);
+        }
+        Map<String, Object> outboxSummary = awaitOutboxDrained(outboxWindowStart);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("concurrency", concurrency);
+        report.put("flows", flows);
+        report.put("elapsedMs", elapsed.toMillis());
+        report.put("flowsPerSecond", flows / Math.max(elapsed.toMillis() / 1000.0, 0.001));
+        report.put("endpoints", endpoints);
+        report.put("hikari", hikariSummary);
+        report.put("outbox", outboxSummary);
+        report.put("gc", gcSummary);
+        writeReport(report);
+
+        long errors = endpoints.values().stream().mapToLong(LatencyRecorder.EndpointSummary::errors).sum();
+        assertEquals(0, errors, "Requests failed during the run: " + endpoints);
+        assertEquals(0L, outboxSummary.get("unpublished"), "Outbox did not drain: " + outboxSummary);
+
+        Long maxP99Ms = Long.getLong("loadtest.max-p99-ms");
+        if (maxP99Ms != null) {
+            endpoints.forEach((endpoint, summary) -> assertTrue(summary.p99Ms() <= maxP99Ms,
+                endpoint + " p99 " + summary.p99Ms() + "ms exceeds " + maxP99Ms + "ms"));
+        }
+    }
+
+    private void runFlows(int count, LatencyRecorder recorder) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < concurrency; worker++) {
+                int workerId = worker;
+                futures.add(workers.submit(() -> {
+                    int flow;
+                    while ((flow = next.getAndIncrement()) < count) {
+                        runFlow(workerId, flow, recorder);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void runFlow(int workerId, int flow, LatencyRecorder recorder) {
+        ResponseEntity<PaymentResponse> created = recorder.record("create", () -> restTemplate.exchange(
+            PAYMENTS_PATH, HttpMethod.POST, new HttpEntity<>(createRequest(workerId), idempotentHeaders()),
+            PaymentResponse.class));
+        if (created.getStatusCode() != HttpStatus.CREATED || created.getBody() == null) {
+            return;
+        }
+        String paymentId = created.getBody().getId();
+
+        ResponseEntity<PaymentResponse> captured = recorder.record("capture", () -> restTemplate.exchange(
+            PAYMENTS_PATH + "/" + paymentId + "/capture", HttpMethod.POST, new HttpEntity<>(authHeaders),
+            PaymentResponse.class));
+        if (!captured.getStatusCode().is2xxSuccessful()) {
+            return;
+        }
+
+        RefundRequest refund = RefundRequest.builder()
+            .amount(created.getBody().getAmount() / 2)
+            .reason("requested_by_customer")
+            .build();
+        recorder.record("refund", () -> restTemplate.exchange(
+            PAYMENTS_PATH + "/" + paymentId + "/refunds", HttpMethod.POST, new HttpEntity<>(refund, authHeaders),
+            RefundResponse.class));
+
+        if (listEvery > 0 && flow % listEvery == 0) {
+            recorder.record("list", () -> restTemplate.exchange(
+                PAYMENTS_PATH + "?limit=20", HttpMethod.GET, new HttpEntity<>(authHeaders),
+                PaymentListResponse.class));
+        }
+    }
+
+    /**
+     * Waits for the dispatcher to publish everything written during the measured run,
+     * then reports created_at -> published_at lag
+     */
+    private Map<String, Object> awaitOutboxDrained(Instant since) throws InterruptedException {
+        long deadline = System.nanoTime() + OUTBOX_DRAIN_TIMEOUT.toNanos();
+        Long unpublished = countUnpublished(since);
+        while (unpublished > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(250);
+            unpublished = countUnpublished(since);
+        }
+
+        double[] lagMs = jdbcTemplate.queryForList("""
+                SELECT EXTRACT(EPOCH FROM (published_at - created_at)) * 1000
+                FROM outbox_messages
+                WHERE status = 'PUBLISHED' AND created_at >= ?
+                """, Double.class, Timestamp.from(since))
+            .stream()
+            .mapToDouble(Double::doubleValue)
+            .sorted()
+            .toArray();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("published", lagMs.length);
+        summary.put("unpublished", unpublished);
+        summary.put("p50LagMs", LatencyRecorder.percentile(lagMs, 50));
+        summary.put("p99LagMs", LatencyRecorder.percentile(lagMs, 99));
+        summary.put("maxLagMs", lagMs.length == 0 ? 0.0 : lagMs[lagMs.length - 1]);
+        return summary;
+    }
+
+    private Long countUnpublished(Instant since) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM outbox_messages WHERE status <> 'PUBLISHED' AND created_at >= ?",
+            Long.class, Timestamp.from(since));
+    }
+
+    private void writeReport(Map<String, Object> report) throws Exception {
+        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        Path path = Path.of(System.getProperty("loadtest.report", "target/load-test/payment-flow-report.json"));
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Files.writeString(path, json, StandardCharsets.UTF_8);
+        log.info("Payment flow load test report ({}):\n{}", path.toAbsolutePath(), json);
+    }
+
+    private HttpHeaders idempotentHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(authHeaders);
+        headers.set("Idempotency-Key", UUID.randomUUID().toString());
+        return headers;
+    }
+
+    /**
+     * One customer per worker so concurrent flows don't race on customer creation
+     */
+    private CreatePaymentRequest createRequest(int workerId) {
+        return CreatePaymentRequest.builder()
+            .amount(5000L)
+            .currency("USD")
+            .capture(false)
+            .paymentMethod(PaymentMethodRequest.builder()
+                .type("card")
+                .savedPaymentMethodId("pm_card_visa")
+                .build())
+            .customer(CustomerRequest.builder()
+                .email("load-" + workerId + "@example.com")
+                .name("Load Test " + workerId)
+                .address(AddressRequest.builder()
+                    .line1("1 Market St")
+                    .city("San Francisco")
+                    .state("CA")
+                    .postalCode("94105")
+                    .country("US")
+                    .build())
+                .build())
+            .build();
+    }
+
+    private static String merchantToken(UUID merchantId) {
+        return Jwts.builder()
+            .subject("load-test@example.com")
+            .claim("merchantId", merchantId.toString())
+            .issuedAt(new Date())
+            .expiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+            .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+    }
+}
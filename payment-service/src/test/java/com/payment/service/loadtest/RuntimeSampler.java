@@ -0,0 +1,106 @@
+package com.payment.service.loadtest;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples Hikari pool pressure while the load runs and diffs GC counters around it
+ */
+class RuntimeSampler implements AutoCloseable {
+
+    private static final String HIKARI_ACQUIRE_TIMER = "hikaricp.connections.acquire";
+
+    private final HikariPoolMXBean pool;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "load-test-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile int maxThreadsAwaiting;
+    private volatile int maxActiveConnections;
+    private long acquireCountAtStart;
+    private double acquireTotalMsAtStart;
+    private long gcCountAtStart;
+    private long gcTimeMsAtStart;
+
+    RuntimeSampler(HikariPoolMXBean pool, MeterRegistry meterRegistry) {
+        this.pool = pool;
+        this.meterRegistry = meterRegistry;
+    }
+
+    void start() {
+        Timer acquire = acquireTimer();
+        acquireCountAtStart = acquire != null ? acquire.count() : 0;
+        acquireTotalMsAtStart = acquire != null ? acquire.totalTime(TimeUnit.MILLISECONDS) : 0.0;
+        gcCountAtStart = gcCount();
+        gcTimeMsAtStart = gcTimeMs();
+
+        scheduler.scheduleAtFixedRate(() -> {
+            maxThreadsAwaiting = Math.max(maxThreadsAwaiting, pool.getThreadsAwaitingConnection());
+            maxActiveConnections = Math.max(maxActiveConnections, pool.getActiveConnections());
+        }, 0, 50, TimeUnit.MILLISECONDS);
+    }
+
+    Map<String, Object> hikariSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("poolSize", pool.getTotalConnections());
+        summary.put("maxActiveConnections", maxActiveConnections);
+        summary.put("maxThreadsAwaitingConnection", maxThreadsAwaiting);
+
+        Timer acquire = acquireTimer();
+        if (acquire != null) {
+            long acquisitions = acquire.count() - acquireCountAtStart;
+            double totalMs = acquire.totalTime(TimeUnit.MILLISECONDS) - acquireTotalMsAtStart;
+            summary.put("acquisitions", acquisitions);
+            summary.put("meanAcquireMs", acquisitions > 0 ? totalMs / acquisitions : 0.0);
+            summary.put("maxAcquireMs", acquire.max(TimeUnit.MILLISECONDS));
+        }
+        return summary;
+    }
+
+    Map<String, Object> gcSummary(double elapsedSeconds) {
+        long collections = gcCount() - gcCountAtStart;
+        long pauseMs = gcTimeMs() - gcTimeMsAtStart;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("collections", collections);
+        summary.put("collectionTimeMs", pauseMs);
+        summary.put("collectionTimePercent", elapsedSeconds > 0 ? pauseMs / (elapsedSeconds * 10.0) : 0.0);
+        summary.put("heapUsedMb", ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024));
+        return summary;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private Timer acquireTimer() {
+        return meterRegistry.find(HIKARI_ACQUIRE_TIMER).timer();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+            .filter(count -> count > 0)
+            .sum();
+    }
+
+    private static long gcTimeMs() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+            .filter(time -> time > 0)
+            .sum();
+    }
+}
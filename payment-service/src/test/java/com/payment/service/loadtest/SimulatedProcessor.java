@@ -0,0 +1,52 @@
+package com.payment.service.loadtest;
+
+import com.payment.service.entity.Money;
+import com.payment.service.entity.Payment;
+import com.payment.service.service.StripePaymentService;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stands in for Stripe: every call is approved after a fixed latency plus random jitter,
+ * so the harness measures this service rather than the processor's sandbox.
+ */
+final class SimulatedProcessor {
+
+    private final long latencyMs;
+    private final long jitterMs;
+
+    SimulatedProcessor(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+    }
+
+    void install(StripePaymentService stripePaymentService) {
+        when(stripePaymentService.authorize(any(Payment.class))).thenAnswer(invocation -> {
+            pause();
+            return "pi_sim_" + UUID.randomUUID();
+        });
+        doAnswer(invocation -> {
+            pause();
+            return null;
+        }).when(stripePaymentService).capture(anyString(), any(Money.class));
+        doAnswer(invocation -> {
+            pause();
+            return null;
+        }).when(stripePaymentService).voidAuthorization(anyString());
+        when(stripePaymentService.refund(anyString(), any(Money.class))).thenAnswer(invocation -> {
+            pause();
+            return "re_sim_" + UUID.randomUUID();
+        });
+    }
+
+    private void pause() throws InterruptedException {
+        long jitter = jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0;
+        Thread.sleep(latencyMs + jitter);
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
@@ -135,6 +136,36 @@ class PaymentRepositoryTest {
         assertEquals(saved.getId(), found.get().getId());
     }
     
+    @Test
+    void shouldFindRecentByMerchantAndStatusWithinWindow() {
+        // Given
+        UUID merchantId = UUID.randomUUID();
+
+        Payment recentCaptured = createPayment(merchantId, "100", PaymentStatus.CAPTURED);
+        Payment recentFailed = createPayment(merchantId, "200", PaymentStatus.FAILED);
+        Payment oldCaptured = createPayment(merchantId, "300", PaymentStatus.CAPTURED);
+        oldCaptured.setCreatedAt(Instant.now().minus(java.time.Duration.ofDays(120)));
+
+        paymentRepository.saveAll(List.of(recentCaptured, recentFailed, oldCaptured));
+        entityManager.flush();
+
+        Instant since = Instant.now().minus(java.time.Duration.ofDays(90));
+
+        // When
+        List<Payment> captured = paymentRepository.findRecentByMerchantAndStatus(
+            merchantId, PaymentStatus.CAPTURED, since, PageRequest.of(0, 20));
+        List<Payment> all = paymentRepository.findRecentByMerchantAndStatus(
+            merchantId, null, since, PageRequest.of(0, 20));
+        List<Payment> limited = paymentRepository.findRecentByMerchantAndStatus(
+            merchantId, null, since, PageRequest.of(0, 1));
+
+        // Then
+        assertEquals(1, captured.size());
+        assertEquals(recentCaptured.getId(), captured.get(0).getId());
+        assertEquals(2, all.size());
+        assertEquals(1, limited.size());
+    }
+
     private Payment createPayment(UUID merchantId, String amount, PaymentStatus status) {
         return Payment.builder()
             .merchantId(merchantId)
@@ -0,0 +1,65 @@
+package com.payment.service.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceServiceTest {
+
+    private static final String ENSURE_SQL = "SELECT ensure_monthly_partition(?, ?)";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(partitionMaintenanceService, "monthsAhead", 2);
+    }
+
+    @Test
+    void shouldEnsureCurrentAndUpcomingMonthsForEachTable() {
+        LocalDate currentMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+
+        partitionMaintenanceService.ensureFuturePartitions();
+
+        for (String table : new String[] {"payments", "payment_events"}) {
+            for (int i = 0; i <= 2; i++) {
+                verify(jdbcTemplate).queryForObject(ENSURE_SQL, String.class, table, currentMonth.plusMonths(i));
+            }
+        }
+        verify(jdbcTemplate, times(6)).queryForObject(anyString(), eq(String.class), any(), any());
+        verify(jdbcTemplate, never()).queryForObject(ENSURE_SQL, String.class, "payments", currentMonth.minusMonths(1));
+        verify(jdbcTemplate, never()).queryForObject(ENSURE_SQL, String.class, "payments", currentMonth.plusMonths(3));
+    }
+
+    @Test
+    void shouldContinueAfterOnePartitionFails() {
+        LocalDate currentMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        when(jdbcTemplate.queryForObject(ENSURE_SQL, String.class, "payments", currentMonth))
+            .thenThrow(new DataAccessResourceFailureException("lock timeout"));
+
+        partitionMaintenanceService.ensureFuturePartitions();
+
+        verify(jdbcTemplate).queryForObject(ENSURE_SQL, String.class, "payments", currentMonth.plusMonths(1));
+        verify(jdbcTemplate).queryForObject(ENSURE_SQL, String.class, "payment_events", currentMonth);
+        verify(jdbcTemplate, times(6)).queryForObject(anyString(), eq(String.class), any(), any());
+    }
+}
@@ -8,16 +8,22 @@ import com.payment.service.entity.*;
 import com.payment.service.exception.InvalidAmountException;
 import com.payment.service.exception.InvalidStateTransitionException;
 import com.payment.service.exception.PaymentNotFoundException;
+import com.payment.service.exception.ProcessorException;
 import com.payment.service.client.FraudServiceClient;
 import com.payment.service.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,6 +31,7 @@ import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -49,11 +56,19 @@ class PaymentServiceTest {
     @Mock
     private FraudServiceClient fraudServiceClient;
     
+    @Mock
+    private FraudAssessmentPolicy fraudAssessmentPolicy;
+    
     @Mock
     private StripePaymentService stripePaymentService;
 
     @Mock
     private EventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PaymentMetrics paymentMetrics = new PaymentMetrics(meterRegistry);
     
     @InjectMocks
     private PaymentService paymentService;
@@ -117,6 +132,13 @@ class PaymentServiceTest {
         verify(stripePaymentService).authorize(any());
         verify(paymentRepository, atLeast(1)).save(any());
         verify(idempotencyService).store(eq("test_idempotency_key"), any());
+
+        assertEquals(1, meterRegistry.get(PaymentMetrics.STAGE_TIMER)
+            .tags("operation", "create", "stage", "fraud_assessment", "outcome", "success")
+            .timer().count());
+        assertEquals(1.0, meterRegistry.get(PaymentMetrics.OPERATION_COUNTER)
+            .tags("operation", "create", "outcome", "authorized", "processor", "stripe")
+            .counter().count());
     }
     
     @Test
@@ -165,6 +187,153 @@ class PaymentServiceTest {
         
         verify(fraudServiceClient).assessRisk(any());
         verify(stripePaymentService, never()).authorize(any()); // Should NOT call processor
+        verify(eventPublisher).publishPaymentEvent(eq("PAYMENT_DECLINED"), eq(result), eq("PENDING"));
+    }
+    
+    @Test
+    void shouldPublishFailedAttemptOutsideRolledBackTransaction() {
+        // Given
+        CreatePaymentRequest request = CreatePaymentRequest.builder()
+            .amount(10000L)
+            .currency("USD")
+            .capture(false)
+            .paymentMethod(PaymentMethodRequest.builder()
+                .type("card")
+                .savedPaymentMethodId("pm_test_123")
+                .build())
+            .customer(CustomerRequest.builder()
+                .email("customer@example.com")
+                .name("John Doe")
+                .build())
+            .build();
+        
+        Customer customer = Customer.builder()
+            .id(UUID.randomUUID())
+            .email("customer@example.com")
+            .build();
+        
+        when(customerRepository.findByEmail("customer@example.com"))
+            .thenReturn(Optional.of(customer));
+        when(paymentRepository.save(any(Payment.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(stripePaymentService.authorize(any()))
+            .thenThrow(new ProcessorException("Card declined", "stripe", "card_declined"));
+        
+        // When / Then
+        assertThrows(ProcessorException.class,
+            () -> paymentService.createPayment(request, "failed_key", UUID.randomUUID()));
+        
+        verify(eventPublisher).publishPaymentEventInNewTransaction(eq("PAYMENT_FAILED"),
+            argThat(payment -> payment.getStatus() == PaymentStatus.FAILED), eq("PENDING"));
+        verify(eventPublisher, never()).publishPaymentEvent(anyString(), any(), anyString());
+    }
+    
+    @Test
+    void shouldSkipFraudAssessmentForAsyncMerchant() {
+        // Given
+        UUID merchantId = UUID.randomUUID();
+        CreatePaymentRequest request = CreatePaymentRequest.builder()
+            .amount(10000L)
+            .currency("USD")
+            .capture(false)
+            .paymentMethod(PaymentMethodRequest.builder()
+                .type("card")
+                .savedPaymentMethodId("pm_test_123")
+                .build())
+            .customer(CustomerRequest.builder()
+                .email("customer@example.com")
+                .name("John Doe")
+                .build())
+            .build();
+        
+        Customer customer = Customer.builder()
+            .id(UUID.randomUUID())
+            .email("customer@example.com")
+            .build();
+        
+        when(fraudAssessmentPolicy.isAsync(merchantId)).thenReturn(true);
+        when(customerRepository.findByEmail("customer@example.com"))
+            .thenReturn(Optional.of(customer));
+        when(paymentRepository.save(any(Payment.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        Payment result = paymentService.createPayment(request, "async_key", merchantId).getPayment();
+        
+        // Then
+        assertEquals(PaymentStatus.AUTHORIZED, result.getStatus());
+        assertNull(result.getFraudScore());
+        assertEquals(FraudAssessmentPolicy.ASYNC, result.getMetadata().get(FraudAssessmentPolicy.METADATA_KEY));
+        
+        verify(fraudServiceClient, never()).assessRisk(any());
+        verify(stripePaymentService).authorize(any());
+    }
+    
+    @Test
+    void shouldVoidAuthorizedAsyncPaymentBlockedByFraudDecision() {
+        // Given
+        ReflectionTestUtils.setField(paymentService, "voidOnAsyncFraudBlock", true);
+        UUID paymentId = UUID.randomUUID();
+        java.util.Map<String, Object> metadata = new java.util.HashMap<>();
+        metadata.put(FraudAssessmentPolicy.METADATA_KEY, FraudAssessmentPolicy.ASYNC);
+        Payment payment = Payment.builder()
+            .id(paymentId)
+            .amount(Money.of(new BigDecimal("100.00"), "USD"))
+            .status(PaymentStatus.AUTHORIZED)
+            .processorPaymentId("pi_async_123")
+            .metadata(metadata)
+            .version(1)
+            .build();
+        
+        when(paymentRepository.findByIdForUpdate(paymentId))
+            .thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        paymentService.applyAsyncFraudDecision(paymentId, new BigDecimal("82.50"), "BLOCK");
+        
+        // Then
+        assertEquals(PaymentStatus.VOID, payment.getStatus());
+        assertEquals(new BigDecimal("82.50"), payment.getFraudScore());
+        verify(stripePaymentService).voidAuthorization("pi_async_123");
+    }
+    
+    @Test
+    void shouldRefundCapturedAsyncPaymentBlockedByFraudDecision() {
+        // Given
+        ReflectionTestUtils.setField(paymentService, "voidOnAsyncFraudBlock", true);
+        UUID paymentId = UUID.randomUUID();
+        java.util.Map<String, Object> metadata = new java.util.HashMap<>();
+        metadata.put(FraudAssessmentPolicy.METADATA_KEY, FraudAssessmentPolicy.ASYNC);
+        Payment payment = Payment.builder()
+            .id(paymentId)
+            .amount(Money.of(new BigDecimal("100.00"), "USD"))
+            .status(PaymentStatus.CAPTURED)
+            .processorPaymentId("pi_async_456")
+            .metadata(metadata)
+            .version(1)
+            .build();
+        
+        when(paymentRepository.findByIdForUpdate(paymentId))
+            .thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(refundRepository.save(any(Refund.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(stripePaymentService.refund(eq("pi_async_456"), any())).thenReturn("re_async_456");
+        
+        // When
+        paymentService.applyAsyncFraudDecision(paymentId, new BigDecimal("91.00"), "BLOCK");
+        
+        // Then
+        assertEquals(PaymentStatus.REFUNDED, payment.getStatus());
+        assertEquals(new BigDecimal("91.00"), payment.getFraudScore());
+        Refund refund = payment.getRefunds().get(0);
+        assertEquals("fraudulent", refund.getReason());
+        assertEquals(0, refund.getAmount().getAmount().compareTo(new BigDecimal("100.00")));
+        verify(stripePaymentService).refund(eq("pi_async_456"), any());
+        verify(stripePaymentService, never()).voidAuthorization(anyString());
     }
     
     @Test
@@ -402,4 +571,27 @@ class PaymentServiceTest {
         verify(paymentRepository, times(1)).save(any(Payment.class));
         verify(paymentEventRepository, times(1)).save(any(PaymentEvent.class));
     }
+
+    @Test
+    void listPaymentsShouldSearchLookbackWindowByDefault() {
+        UUID merchantId = UUID.randomUUID();
+        ReflectionTestUtils.setField(paymentService, "listLookbackDays", 90);
+        Instant before = Instant.now().minus(Duration.ofDays(90));
+
+        paymentService.listPayments(merchantId, PaymentStatus.CAPTURED, null, 20);
+
+        verify(paymentRepository).findRecentByMerchantAndStatus(eq(merchantId), eq(PaymentStatus.CAPTURED),
+            argThat(since -> !since.isBefore(before) && !since.isAfter(Instant.now().minus(Duration.ofDays(90)))),
+            eq(PageRequest.of(0, 20)));
+    }
+
+    @Test
+    void listPaymentsShouldSearchFromCreatedAfterWhenGiven() {
+        UUID merchantId = UUID.randomUUID();
+        Instant createdAfter = Instant.parse("2024-01-01T00:00:00Z");
+
+        paymentService.listPayments(merchantId, null, createdAfter, 50);
+
+        verify(paymentRepository).findRecentByMerchantAndStatus(merchantId, null, createdAfter, PageRequest.of(0, 50));
+    }
 }